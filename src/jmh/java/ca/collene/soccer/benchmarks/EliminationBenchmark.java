@@ -0,0 +1,86 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.Elimination;
+import ca.collene.soccer.services.InvalidScoreException;
+
+/**
+ * Time to find which teams of a round robin can no longer finish first, from building the flow
+ * network to checking every team.  The given share of the games is scored at random, stronger
+ * teams winning more often so the standings spread out; the default is 500 teams, so 124,750
+ * games, with 80% of them scored.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class EliminationBenchmark {
+    @Param({"500"})
+    private int teams;
+
+    @Param({"80"})
+    private int scoredPercent;
+
+    @Param({"3/2/1", "3/1/0"})
+    private String points;
+
+    private List<Team> tournamentTeams;
+    private List<Game> games;
+    private PointsScheme pointsScheme;
+
+    @Setup
+    public void setUp() throws InvalidScoreException {
+        int[] weights = Arrays.stream(points.split("/")).mapToInt(Integer::parseInt).toArray();
+        pointsScheme = new PointsScheme(weights[0], weights[1], weights[2]);
+        Random random = new Random(1);
+        tournamentTeams = new ArrayList<>(teams);
+        for(int i = 0; i < teams; i++) {
+            tournamentTeams.add(Team.builder().id((long) i).name("Team " + i).build());
+        }
+        games = new ArrayList<>(teams * (teams - 1) / 2);
+        for(int i = 0; i < teams; i++) {
+            for(int j = i + 1; j < teams; j++) {
+                Game game = Game.builder().teams(Arrays.asList(tournamentTeams.get(i), tournamentTeams.get(j))).build();
+                if(random.nextInt(100) < scoredPercent) {
+                    // the team earlier in the list is the stronger one
+                    int score1 = random.nextInt(4) + (random.nextInt(teams) > i ? 1 : 0);
+                    int score2 = random.nextInt(4) + (random.nextInt(teams) > j ? 1 : 0);
+                    game.setScore(tournamentTeams.get(i), score1, tournamentTeams.get(j), score2);
+                }
+                games.add(game);
+            }
+        }
+    }
+
+    @Benchmark
+    public Elimination solve() {
+        Elimination elimination = new Elimination(tournamentTeams, pointsScheme);
+        for(Game game : games) {
+            elimination.addGame(game);
+        }
+        elimination.solve();
+        return elimination;
+    }
+}
@@ -0,0 +1,90 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.models.RoundRobinSchedule;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.TournamentService;
+
+/**
+ * Time to generate a round robin for a tournament with no games, and to add the same games one
+ * at a time with the add-game-to-tournament command.  The default of 2,000 teams is 1,999,000
+ * games; adding that many one at a time doesn't finish in reasonable time, so compare the two at a
+ * smaller size, for example with -p teams=60.  The in-memory database keeps its rows in the same
+ * heap, which is why the heap is large.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class FixtureBenchmark {
+    private static final String TOURNAMENT_NAME = "Tournament";
+
+    @Param({"2000"})
+    private int teams;
+
+    @Param({"false"})
+    private boolean doubleRoundRobin;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        // the database is new for each run
+        context = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+                                    "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID())
+                        .run();
+        TournamentService tournamentService = context.getBean(TournamentService.class);
+        tournamentService.createTournament(TOURNAMENT_NAME);
+        for(int i = 0; i < teams; i++) {
+            tournamentService.addTeamToTournament("Team " + i, TOURNAMENT_NAME);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RoundRobinSchedule generateRoundRobin() throws Exception {
+        return context.getBean(FixtureService.class).generateRoundRobin(TOURNAMENT_NAME, doubleRoundRobin);
+    }
+
+    @Benchmark
+    public void addGameCommands() throws Exception {
+        TournamentService tournamentService = context.getBean(TournamentService.class);
+        RoundRobinSchedule schedule = new RoundRobinSchedule(teams, doubleRoundRobin);
+        List<String[]> games = new ArrayList<>();
+        schedule.forEachGame((round, homeTeam, awayTeam) -> games.add(new String[] {"Team " + homeTeam, "Team " + awayTeam}));
+        for(String[] game : games) {
+            tournamentService.addGameToTournament(game[0], game[1], TOURNAMENT_NAME);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+
+/**
+ * Latency of adding and scoring a game as the number of fixtures already in the tournament grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLookupBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int fixtures;
+
+    private Team[] teams;
+    private Tournament tournament;
+    private long nextTeamId;
+    private int nextGame;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        // enough teams so that every pair plays at most once
+        int numberOfTeams = (int) Math.ceil(Math.sqrt(2.0 * fixtures)) + 1;
+        teams = new Team[numberOfTeams];
+        for(int i = 0; i < numberOfTeams; i++) {
+            teams[i] = Team.builder().id((long) i).name("Team " + i).build();
+        }
+        tournament = Tournament.builder().name("Benchmark").build();
+        int added = 0;
+        for(int i = 0; i < numberOfTeams && added < fixtures; i++) {
+            for(int j = i + 1; j < numberOfTeams && added < fixtures; j++) {
+                tournament.addGame(teams[i], teams[j]);
+                added++;
+            }
+        }
+        nextTeamId = numberOfTeams;
+        nextGame = 0;
+    }
+
+    @Benchmark
+    public void addGame() throws Exception {
+        Team team1 = Team.builder().id(nextTeamId).name("New team " + nextTeamId++).build();
+        Team team2 = Team.builder().id(nextTeamId).name("New team " + nextTeamId++).build();
+        tournament.addGame(team1, team2);
+    }
+
+    @Benchmark
+    public void scoreGame() throws Exception {
+        // walk through the existing fixtures so that every lookup is for a different game
+        int index = nextGame++ % fixtures;
+        Team team1 = tournament.getGames().get(index).getTeams().get(0);
+        Team team2 = tournament.getGames().get(index).getTeams().get(1);
+        tournament.scoreGame(team1, 2, team2, 1);
+    }
+}
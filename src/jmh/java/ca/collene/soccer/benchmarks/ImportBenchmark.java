@@ -0,0 +1,128 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.shell.standard.commands.Script;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.services.ImportService;
+
+/**
+ * Time to load a season of games, scores and players into an empty database, with the import
+ * command and with a script of the commands that make the same changes.  The default season is
+ * 20 tournaments of 100 teams, each team playing the next 17 around a circle and having 16
+ * players: 34,000 games, 34,000 scores and 32,000 players, 100,000 rows in all.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+    @Param({"20"})
+    private int tournaments;
+
+    @Param({"100"})
+    private int teamsPerTournament;
+
+    @Param({"17"})
+    private int opponentsAhead;
+
+    @Param({"16"})
+    private int playersPerTeam;
+
+    private Path directory;
+    private Path importFile;
+    private Path scriptFile;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("import-benchmark");
+        importFile = directory.resolve("season.csv");
+        scriptFile = directory.resolve("season.script");
+        try(PrintWriter rows = new PrintWriter(Files.newBufferedWriter(importFile));
+            PrintWriter commands = new PrintWriter(Files.newBufferedWriter(scriptFile))) {
+            for(int t = 0; t < tournaments; t++) {
+                String tournament = "Tournament " + t;
+                commands.printf("create-tournament '%s'%n", tournament);
+                for(int i = 0; i < teamsPerTournament; i++) {
+                    for(int offset = 1; offset <= opponentsAhead; offset++) {
+                        String team1 = team(t, i);
+                        String team2 = team(t, (i + offset) % teamsPerTournament);
+                        rows.printf("game,%s,%s,%s%n", tournament, team1, team2);
+                        commands.printf("add-game-to-tournament '%s' '%s' '%s'%n", team1, team2, tournament);
+                    }
+                }
+                for(int i = 0; i < teamsPerTournament; i++) {
+                    for(int offset = 1; offset <= opponentsAhead; offset++) {
+                        String team1 = team(t, i);
+                        String team2 = team(t, (i + offset) % teamsPerTournament);
+                        int points1 = (i + offset) % 4;
+                        int points2 = (i * offset) % 3;
+                        rows.printf("score,%s,%s,%d,%s,%d%n", tournament, team1, points1, team2, points2);
+                        commands.printf("score-game-in-tournament '%s' %d '%s' %d '%s'%n", team1, points1, team2, points2, tournament);
+                    }
+                }
+                for(int i = 0; i < teamsPerTournament; i++) {
+                    for(int number = 1; number <= playersPerTeam; number++) {
+                        String person = "Person " + t + "-" + i + "-" + number;
+                        rows.printf("player,%s,%s,%d%n", team(t, i), person, number);
+                        commands.printf("add-player-to-team '%s' '%s' %d%n", person, team(t, i), number);
+                    }
+                }
+            }
+        }
+        // the script command isn't needed to import, but is needed for the script; the database is new for each run
+        context = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+                                    "spring.datasource.url=jdbc:h2:mem:" + directory.getFileName())
+                        .run();
+    }
+
+    private static String team(int tournament, int team) {
+        return "Team " + tournament + "-" + team;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.delete(importFile);
+        Files.delete(scriptFile);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public ImportResult importCommand() throws IOException {
+        return context.getBean(ImportService.class).importFile(importFile, ImportService.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Benchmark
+    public void scriptCommand() throws IOException {
+        context.getBean(Script.class).script(scriptFile.toFile());
+    }
+}
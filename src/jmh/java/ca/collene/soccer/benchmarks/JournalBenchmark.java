@@ -0,0 +1,185 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.repositories.SnapshotFile;
+import ca.collene.soccer.services.JournalService;
+import ca.collene.soccer.services.ReplayService;
+import ca.collene.soccer.services.SnapshotService;
+
+/**
+ * Time to write the events of a season to a new journal, syncing every 1,000 events as the
+ * import's transactions would, to read them back, to replay them into an empty database, and to
+ * load a snapshot of the database they make instead of replaying them.  The
+ * season is the one the import benchmark loads, with the tournaments, teams and people it creates:
+ * 20 tournaments of 100 teams with 16 players each, each team playing the next 17 around a
+ * circle, 136,020 events in all.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+    private static final int SYNC_EVERY = 1000;
+
+    @Param({"20"})
+    private int tournaments;
+
+    @Param({"100"})
+    private int teamsPerTournament;
+
+    @Param({"17"})
+    private int opponentsAhead;
+
+    @Param({"16"})
+    private int playersPerTeam;
+
+    private List<JournalEvent> events;
+    private Path directory;
+    private Path season;
+    private Path written;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        events = new ArrayList<>();
+        for(int t = 0; t < tournaments; t++) {
+            String tournament = "Tournament " + t;
+            events.add(JournalEvent.createTournament(tournament));
+            for(int i = 0; i < teamsPerTournament; i++) {
+                events.add(JournalEvent.createTeam(team(t, i)));
+            }
+            for(int i = 0; i < teamsPerTournament; i++) {
+                for(int offset = 1; offset <= opponentsAhead; offset++) {
+                    events.add(JournalEvent.addGame(tournament, team(t, i), team(t, (i + offset) % teamsPerTournament)));
+                }
+            }
+            for(int i = 0; i < teamsPerTournament; i++) {
+                for(int offset = 1; offset <= opponentsAhead; offset++) {
+                    events.add(JournalEvent.scoreGame(tournament, team(t, i), (i + offset) % 4, team(t, (i + offset) % teamsPerTournament), (i * offset) % 3));
+                }
+            }
+            for(int i = 0; i < teamsPerTournament; i++) {
+                for(int number = 1; number <= playersPerTeam; number++) {
+                    String person = "Person " + t + "-" + i + "-" + number;
+                    events.add(JournalEvent.createPerson(person));
+                    events.add(JournalEvent.addPlayer(team(t, i), person, number));
+                }
+            }
+        }
+        directory = Files.createTempDirectory("journal-benchmark");
+        season = directory.resolve("season.journal");
+        write(season);
+        try(ConfigurableApplicationContext replayed = start("replayed"); EventJournal journal = EventJournal.open(season)) {
+            replayed.getBean(ReplayService.class).replayJournal(journal, EventJournal.START, ReplayService.DEFAULT_CHUNK_SIZE);
+            replayed.getBean(JournalService.class).recordTo(journal);
+            replayed.getBean(SnapshotService.class).write();
+        }
+    }
+
+    private static String team(int tournament, int team) {
+        return "Team " + tournament + "-" + team;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for(Path snapshot : SnapshotFile.list(season)) {
+            Files.delete(snapshot);
+        }
+        Files.delete(season);
+        Files.delete(directory);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        written = directory.resolve("written.journal");
+        // the database is new for each run
+        context = start(directory.getFileName().toString());
+    }
+
+    private static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+                                    "spring.datasource.url=jdbc:h2:mem:" + database)
+                        .run();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        context.close();
+        Files.deleteIfExists(written);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return write(written);
+    }
+
+    private long write(Path file) throws IOException {
+        try(EventJournal journal = EventJournal.open(file)) {
+            long end = 0;
+            for(int i = 0; i < events.size(); i++) {
+                end = journal.append(events.get(i));
+                if(i % SYNC_EVERY == SYNC_EVERY - 1) {
+                    journal.sync(end);
+                }
+            }
+            return end;
+        }
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        try(EventJournal journal = EventJournal.open(season)) {
+            EventJournal.Reader reader = journal.read(EventJournal.START);
+            long count = 0;
+            while(reader.next() != null) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Benchmark
+    public long replay() throws IOException {
+        try(EventJournal journal = EventJournal.open(season)) {
+            return context.getBean(ReplayService.class).replayJournal(journal, EventJournal.START, ReplayService.DEFAULT_CHUNK_SIZE);
+        }
+    }
+
+    @Benchmark
+    public long loadSnapshot() throws IOException {
+        try(EventJournal journal = EventJournal.open(season)) {
+            return context.getBean(SnapshotService.class).loadLatest(journal);
+        }
+    }
+}
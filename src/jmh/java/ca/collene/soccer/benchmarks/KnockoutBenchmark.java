@@ -0,0 +1,108 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.models.Bracket;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.KnockoutService;
+import ca.collene.soccer.services.TournamentService;
+
+/**
+ * Time to generate a knockout seeded from the standings of a group tournament, and to generate
+ * one and then score every game of it through to the final.  The group is imported before each
+ * run, with every team playing one game so that half of them have won.  The default of 65,536
+ * entrants is 32,768 first round games; playing them all takes a few minutes, so compare the
+ * two at a smaller size, for example with -p entrants=4096.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class KnockoutBenchmark {
+    private static final String GROUP_NAME = "Group";
+    private static final String KNOCKOUT_NAME = "Knockout";
+
+    @Param({"65536"})
+    private int entrants;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("knockout-benchmark");
+        Path importFile = directory.resolve("group.csv");
+        try(PrintWriter rows = new PrintWriter(Files.newBufferedWriter(importFile))) {
+            for(int i = 0; i + 1 < entrants; i += 2) {
+                rows.printf("game,%s,Team %d,Team %d%n", GROUP_NAME, i, i + 1);
+                rows.printf("score,%s,Team %d,%d,Team %d,%d%n", GROUP_NAME, i, i % 3 + 1, i + 1, i % 3);
+            }
+        }
+        // the database is new for each run
+        context = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+                                    "spring.datasource.url=jdbc:h2:mem:" + directory.getFileName())
+                        .run();
+        context.getBean(ImportService.class).importFile(importFile, ImportService.DEFAULT_CHUNK_SIZE);
+        context.getBean(TournamentService.class).createTournament(KNOCKOUT_NAME);
+        Files.delete(importFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Bracket<Long> generateKnockout() throws Exception {
+        return context.getBean(FixtureService.class).generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 0, false);
+    }
+
+    @Benchmark
+    public String playKnockout() throws Exception {
+        context.getBean(FixtureService.class).generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 0, false);
+        KnockoutService knockoutService = context.getBean(KnockoutService.class);
+        TournamentService tournamentService = context.getBean(TournamentService.class);
+        Bracket<String> bracket = knockoutService.getBracket(KNOCKOUT_NAME);
+        while(bracket.getCurrentRound() != 0) {
+            List<String[]> games = new ArrayList<>();
+            Bracket<String> round = bracket;
+            round.forEachReady(slot -> games.add(new String[] {round.getTeam(2 * slot), round.getTeam(2 * slot + 1)}));
+            for(String[] game : games) {
+                tournamentService.scoreGameInTournament(game[0], 1, game[1], 0, KNOCKOUT_NAME);
+            }
+            bracket = knockoutService.getBracket(KNOCKOUT_NAME);
+        }
+        return bracket.getChampion();
+    }
+}
@@ -0,0 +1,97 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.repositories.TournamentRepository;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+/**
+ * Latency of scoring one game in a 500 team, 10,000 game tournament stored in the database, by
+ * loading the tournament and saving it back, and by the tournament's name, which reads and writes
+ * only the game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+    private static final String TOURNAMENT_NAME = "Scoring";
+    private static final int TEAMS = 500;
+    // each team plays the next 20 teams around a circle, 10,000 games in all
+    private static final int OPPONENTS_AHEAD = 20;
+
+    private ConfigurableApplicationContext context;
+    private TournamentService tournamentService;
+    private String[][] games;
+    private int nextGame;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false")
+                        .run();
+        tournamentService = context.getBean(TournamentService.class);
+        TeamService teamService = context.getBean(TeamService.class);
+
+        Team[] teams = new Team[TEAMS];
+        for(int i = 0; i < TEAMS; i++) {
+            teams[i] = teamService.createTeam("Team " + i);
+        }
+        Tournament tournament = Tournament.builder().name(TOURNAMENT_NAME).build();
+        games = new String[TEAMS * OPPONENTS_AHEAD][];
+        int game = 0;
+        for(int i = 0; i < TEAMS; i++) {
+            tournament.getTeams().add(teams[i]);
+            for(int offset = 1; offset <= OPPONENTS_AHEAD; offset++) {
+                Team opponent = teams[(i + offset) % TEAMS];
+                tournament.addGame(teams[i], opponent);
+                if(game % 4 != 0) {
+                    tournament.scoreGame(teams[i], game % 3, opponent, game % 5);
+                }
+                games[game++] = new String[] {teams[i].getName(), opponent.getName()};
+            }
+        }
+        context.getBean(TournamentRepository.class).save(tournament);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void scoreLoadedTournament() throws Exception {
+        String[] game = games[nextGame++ % games.length];
+        Tournament tournament = tournamentService.getTournament(TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament(game[0], nextGame % 3, game[1], nextGame % 5, tournament);
+    }
+
+    @Benchmark
+    public void scoreByTournamentName() throws Exception {
+        String[] game = games[nextGame++ % games.length];
+        tournamentService.scoreGameInTournament(game[0], nextGame % 3, game[1], nextGame % 5, TOURNAMENT_NAME);
+    }
+}
@@ -0,0 +1,80 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.SeasonSimulation;
+import ca.collene.soccer.models.Tally;
+
+/**
+ * Time to simulate the second half of a double round robin, with the first half already in the
+ * standings, in a fork-join pool of the given parallelism.  The default is 20 teams, so 190 games
+ * left, played out 100,000 times; comparing the parallelisms shows the speedup with more cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+    @Param({"20"})
+    private int teams;
+
+    @Param({"100000"})
+    private int simulations;
+
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    private SeasonSimulation simulation;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        List<Tally> standings = new ArrayList<>(teams);
+        for(int i = 0; i < teams; i++) {
+            // spread out so that some places are close and some aren't
+            int wins = (teams - 1 - i) * 2 / 3;
+            standings.add(new Tally("Team " + i, wins, (teams - 1 - wins) / 2, teams - 1 - wins - (teams - 1 - wins) / 2, teams - 1));
+        }
+        int games = teams * (teams - 1) / 2;
+        int[] homeTeams = new int[games];
+        int[] awayTeams = new int[games];
+        int g = 0;
+        for(int i = 0; i < teams; i++) {
+            for(int j = i + 1; j < teams; j++) {
+                homeTeams[g] = j;
+                awayTeams[g++] = i;
+            }
+        }
+        simulation = new SeasonSimulation(standings, PointsScheme.DEFAULT, homeTeams, awayTeams);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SeasonSimulation.Result simulate() {
+        return simulation.run(pool, simulations, 1);
+    }
+}
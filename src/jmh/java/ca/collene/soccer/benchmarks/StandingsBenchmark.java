@@ -0,0 +1,59 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Tally;
+
+/**
+ * Standings for a whole tournament, computed per team from its list of results (the way
+ * Tournament.getTally used to work) and in one pass over the games.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StandingsBenchmark {
+    @Param({"20", "2000", "200000"})
+    private int teams;
+
+    // every team plays the next few teams around a circle
+    private static final int OPPONENTS_AHEAD = 3;
+
+    private Tournament tournament;
+
+    @Setup
+    public void setUp() throws Exception {
+        tournament = new SyntheticTournament(teams, OPPONENTS_AHEAD).getTournament();
+    }
+
+    @Benchmark
+    public List<Tally> perTeamTally() {
+        return tournament.getTeams().stream()
+                    .map(team -> new Tally(team.getName(), tournament.getTallyTypesForTeam(team)))
+                    .sorted(Comparator.comparingLong(tally -> ((Tally) tally).getTotal()).reversed())
+                    .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Tally> tournamentTally() {
+        return tournament.getTally();
+    }
+}
@@ -0,0 +1,79 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ca.collene.soccer.services.TournamentService;
+
+/**
+ * Latency of commands on a season of 50,000 games, in the in-memory database, where each change
+ * is also synced to the journal, and in the file profile's database.  Scoring writes one game,
+ * listing a team's games reads its tournament, and counting the standings has the database tally
+ * every game of a tournament.  See {@link StoredSeason}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StorageCommandBenchmark {
+    @Param({StoredSeason.MEMORY, StoredSeason.FILE})
+    private String storage;
+
+    private StoredSeason season;
+    private ConfigurableApplicationContext context;
+    private TournamentService tournamentService;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        season = new StoredSeason(storage);
+        context = season.start();
+        tournamentService = context.getBean(TournamentService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        season.close();
+    }
+
+    @Benchmark
+    public void scoreGame() throws Exception {
+        int game = next++;
+        int t = game % StoredSeason.TOURNAMENTS;
+        int team = game / StoredSeason.TOURNAMENTS % StoredSeason.TEAMS_PER_TOURNAMENT;
+        int offset = 1 + game % StoredSeason.OPPONENTS_AHEAD;
+        tournamentService.scoreGameInTournament(StoredSeason.team(t, team), game % 3, StoredSeason.team(t, (team + offset) % StoredSeason.TEAMS_PER_TOURNAMENT), game % 5,
+                        StoredSeason.tournament(t));
+    }
+
+    @Benchmark
+    public int listTeamGames() throws Exception {
+        int game = next++;
+        int t = game % StoredSeason.TOURNAMENTS;
+        return tournamentService.getGamesForTeam(StoredSeason.team(t, game % StoredSeason.TEAMS_PER_TOURNAMENT), StoredSeason.tournament(t)).size();
+    }
+
+    @Benchmark
+    public int countStandings() throws Exception {
+        String tournament = StoredSeason.tournament(next++ % StoredSeason.TOURNAMENTS);
+        // so the database counts them rather than the standings kept in memory being used
+        tournamentService.forgetStandings(tournament);
+        return tournamentService.getStandings(tournament).getTally().size();
+    }
+}
@@ -0,0 +1,59 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Time to start the application with a season of 50,000 games already stored, either loaded from
+ * a snapshot into the in-memory database or opened in the file profile's database.  See
+ * {@link StoredSeason}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StorageStartupBenchmark {
+    @Param({StoredSeason.MEMORY, StoredSeason.FILE})
+    private String storage;
+
+    private StoredSeason season;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        season = new StoredSeason(storage);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        season.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startup() {
+        context = season.start();
+        return context;
+    }
+}
@@ -0,0 +1,100 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.SnapshotService;
+
+/**
+ * A season of 50,000 games kept between runs of the application, for the storage benchmarks, in
+ * one of the two ways it can be kept: "memory" is the in-memory database with a journal, and a
+ * snapshot of the season that startup loads, and "file" is the database of the file profile.
+ * There are 25 tournaments of 100 teams, each team playing the next 20 around a circle, and every
+ * other game is scored.
+ */
+public class StoredSeason implements Closeable {
+    public static final String MEMORY = "memory";
+    public static final String FILE = "file";
+    public static final int TOURNAMENTS = 25;
+    public static final int TEAMS_PER_TOURNAMENT = 100;
+    public static final int OPPONENTS_AHEAD = 20;
+
+    private final String storage;
+    private final Path directory;
+
+    public StoredSeason(String storage) throws IOException {
+        this.storage = storage;
+        directory = Files.createTempDirectory("storage-benchmark");
+        Path season = directory.resolve("season.csv");
+        try(PrintWriter rows = new PrintWriter(Files.newBufferedWriter(season))) {
+            for(int t = 0; t < TOURNAMENTS; t++) {
+                for(int i = 0; i < TEAMS_PER_TOURNAMENT; i++) {
+                    for(int offset = 1; offset <= OPPONENTS_AHEAD; offset++) {
+                        rows.printf("game,%s,%s,%s%n", tournament(t), team(t, i), team(t, (i + offset) % TEAMS_PER_TOURNAMENT));
+                    }
+                }
+                for(int i = 0; i < TEAMS_PER_TOURNAMENT; i++) {
+                    for(int offset = 2; offset <= OPPONENTS_AHEAD; offset += 2) {
+                        rows.printf("score,%s,%s,%d,%s,%d%n", tournament(t), team(t, i), (i + offset) % 4, team(t, (i + offset) % TEAMS_PER_TOURNAMENT), (i * offset) % 3);
+                    }
+                }
+            }
+        }
+        try(ConfigurableApplicationContext context = start()) {
+            context.getBean(ImportService.class).importFile(season, ImportService.DEFAULT_CHUNK_SIZE);
+            if(storage.equals(MEMORY)) {
+                context.getBean(SnapshotService.class).write();
+            }
+        }
+        Files.delete(season);
+    }
+
+    public static String tournament(int tournament) {
+        return "Tournament " + tournament;
+    }
+
+    public static String team(int tournament, int team) {
+        return "Team " + tournament + "-" + team;
+    }
+
+    /**
+     * Starts the application with the season.
+     */
+    public ConfigurableApplicationContext start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false");
+        // as arguments, since the file profile's path would take precedence over a default property
+        if(storage.equals(FILE)) {
+            return builder.profiles("file").run("--soccer.database.path=" + directory.resolve("soccer"));
+        }
+        return builder.run("--spring.datasource.url=jdbc:h2:mem:" + directory.getFileName(),
+                           "--soccer.journal.path=" + directory.resolve("season.journal"),
+                           "--soccer.snapshot.interval=0");
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<Path> files;
+        try(Stream<Path> walk = Files.walk(directory)) {
+            files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for(Path file : files) {
+            Files.delete(file);
+        }
+    }
+}
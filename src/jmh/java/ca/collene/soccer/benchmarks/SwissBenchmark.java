@@ -0,0 +1,92 @@
+package ca.collene.soccer.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.SoccerApplication;
+import ca.collene.soccer.models.SwissPairing;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.ImportService;
+
+/**
+ * Time to pair the next round of a Swiss-system tournament.  Before each run the tournament's
+ * earlier rounds are imported, each pairing every team with a different team a fixed distance
+ * away and scored so that the points spread out; the default is 5,000 teams after 5 rounds.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class SwissBenchmark {
+    private static final String TOURNAMENT_NAME = "Swiss";
+
+    @Param({"5000"})
+    private int teams;
+
+    @Param({"5"})
+    private int rounds;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("swiss-benchmark");
+        Path importFile = directory.resolve("rounds.csv");
+        try(PrintWriter rows = new PrintWriter(Files.newBufferedWriter(importFile))) {
+            for(int round = 0; round < rounds; round++) {
+                // the teams in blocks of twice the distance, the first half of each block playing the second
+                int distance = 1 << round;
+                for(int i = 0; i < teams; i++) {
+                    int opponent = i + distance;
+                    if((i / distance) % 2 == 0 && opponent < teams) {
+                        rows.printf("game,%s,Team %d,Team %d%n", TOURNAMENT_NAME, i, opponent);
+                        rows.printf("score,%s,Team %d,%d,Team %d,%d%n", TOURNAMENT_NAME, i, (i + round) % 3, opponent, (i * round) % 2);
+                    }
+                }
+            }
+        }
+        // the database is new for each run
+        context = new SpringApplicationBuilder(SoccerApplication.class)
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+                                    "spring.datasource.url=jdbc:h2:mem:" + directory.getFileName())
+                        .run();
+        context.getBean(ImportService.class).importFile(importFile, ImportService.DEFAULT_CHUNK_SIZE);
+        Files.delete(importFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public SwissPairing<String> pairSwissRound() throws Exception {
+        return context.getBean(FixtureService.class).pairSwissRound(TOURNAMENT_NAME);
+    }
+}
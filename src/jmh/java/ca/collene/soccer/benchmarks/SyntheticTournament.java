@@ -0,0 +1,69 @@
+package ca.collene.soccer.benchmarks;
+
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.services.GameAlreadyInTournamentException;
+import ca.collene.soccer.services.GameDoesNotExistException;
+import ca.collene.soccer.services.InvalidScoreException;
+
+/**
+ * Tournament of a given size for the benchmarks, built in memory without the database.  Teams are
+ * placed around a circle and each plays the next few teams, so every team plays the same number
+ * of games however large the tournament is.  Three of every four games are scored.
+ */
+public class SyntheticTournament {
+    private final Tournament tournament;
+    private final Team[] teams;
+
+    public SyntheticTournament(int numberOfTeams, int opponentsAhead) throws GameAlreadyInTournamentException, GameDoesNotExistException, InvalidScoreException {
+        tournament = Tournament.builder().name("Synthetic " + numberOfTeams).build();
+        teams = new Team[numberOfTeams];
+        for(int i = 0; i < numberOfTeams; i++) {
+            teams[i] = team(i);
+            // skip the duplicate check so setting up a large tournament isn't quadratic
+            tournament.getTeams().add(teams[i]);
+        }
+        int game = 0;
+        for(int i = 0; i < numberOfTeams; i++) {
+            for(int offset = 1; offset <= opponentsAhead && offset < numberOfTeams; offset++) {
+                Team opponent = teams[(i + offset) % numberOfTeams];
+                if(tournament.hasGameWithTeams(teams[i], opponent)) {
+                    continue;
+                }
+                tournament.addGame(teams[i], opponent);
+                if(game++ % 4 != 0) {
+                    tournament.scoreGame(teams[i], game % 3, opponent, game % 5);
+                }
+            }
+        }
+    }
+
+    public Tournament getTournament() {
+        return tournament;
+    }
+
+    public Team getTeam(int index) {
+        return teams[index];
+    }
+
+    public int size() {
+        return teams.length;
+    }
+
+    public static Team team(long id) {
+        return Team.builder().id(id).name("Team " + id).build();
+    }
+
+    public static Team teamWithPlayers(long id, int numberOfPlayers) {
+        Team team = team(id);
+        for(int number = 1; number <= numberOfPlayers; number++) {
+            team.addPlayer(person(id * 1000 + number), number);
+        }
+        return team;
+    }
+
+    public static Person person(long id) {
+        return Person.builder().id(id).name("Person " + id).build();
+    }
+}
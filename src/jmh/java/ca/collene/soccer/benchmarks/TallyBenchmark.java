@@ -0,0 +1,55 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tally.TallyType;
+
+/**
+ * Building a team's tally from its list of results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TallyBenchmark {
+    @Param({"10", "100", "1000"})
+    private int games;
+
+    private List<TallyType> tallyTypes;
+
+    @Setup
+    public void setUp() {
+        TallyType[] types = TallyType.values();
+        tallyTypes = new ArrayList<>(games);
+        for(int i = 0; i < games; i++) {
+            tallyTypes.add(types[i % types.length]);
+        }
+    }
+
+    @Benchmark
+    public Tally tallyFromTallyTypes() {
+        return new Tally("Team", tallyTypes);
+    }
+
+    @Benchmark
+    public long tallyTotal() {
+        return new Tally("Team", games, games, games, games).getTotal();
+    }
+}
@@ -0,0 +1,63 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Team;
+
+/**
+ * Roster checks made when a player is added to a team.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TeamBenchmark {
+    @Param({"11", "25", "100"})
+    private int players;
+
+    private Team team;
+    private Person lastPlayer;
+    private Person notAPlayer;
+
+    @Setup
+    public void setUp() {
+        team = SyntheticTournament.teamWithPlayers(1, players);
+        lastPlayer = team.getPlayers().get(players - 1).getPerson();
+        notAPlayer = SyntheticTournament.person(0);
+    }
+
+    @Benchmark
+    public boolean hasPlayerWithNumber() {
+        return team.hasPlayerWithNumber(players);
+    }
+
+    @Benchmark
+    public boolean hasPlayerWithNumberNotInUse() {
+        return team.hasPlayerWithNumber(players + 1);
+    }
+
+    @Benchmark
+    public boolean hasPlayer() {
+        return team.hasPlayer(lastPlayer);
+    }
+
+    @Benchmark
+    public boolean hasPlayerNotOnTeam() {
+        return team.hasPlayer(notAPlayer);
+    }
+}
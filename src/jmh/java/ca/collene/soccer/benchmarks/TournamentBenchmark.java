@@ -0,0 +1,90 @@
+package ca.collene.soccer.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.services.GameDoesNotExistException;
+import ca.collene.soccer.services.InvalidScoreException;
+
+/**
+ * Game lookup, scoring and standings for a whole tournament.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Thread)
+public class TournamentBenchmark {
+    @Param({"20", "2000", "20000"})
+    private int teams;
+
+    @Param({"3"})
+    private int opponentsAhead;
+
+    private SyntheticTournament synthetic;
+    private List<Game> games;
+    private int nextGame;
+    private int nextTeam;
+
+    @Setup
+    public void setUp() throws Exception {
+        synthetic = new SyntheticTournament(teams, opponentsAhead);
+        games = synthetic.getTournament().getGames();
+    }
+
+    private Game nextGame() {
+        // walk through the games so that every lookup is for a different pair of teams
+        nextGame = (nextGame + 1) % games.size();
+        return games.get(nextGame);
+    }
+
+    @Benchmark
+    public List<Tally> getTally() {
+        return synthetic.getTournament().getTally();
+    }
+
+    @Benchmark
+    public boolean hasGameWithTeams() {
+        Game game = nextGame();
+        return synthetic.getTournament().hasGameWithTeams(game.getTeams().get(1), game.getTeams().get(0));
+    }
+
+    @Benchmark
+    public boolean hasGameWithTeamsThatDoNotPlay() {
+        // teams opposite each other on the circle never play; walk around the circle so that every
+        // lookup is for a different pair of teams
+        nextTeam = (nextTeam + 1) % teams;
+        int team = nextTeam;
+        return synthetic.getTournament().hasGameWithTeams(synthetic.getTeam(team), synthetic.getTeam((team + teams / 2) % teams));
+    }
+
+    @Benchmark
+    public Game getGame() throws GameDoesNotExistException {
+        Game game = nextGame();
+        return synthetic.getTournament().getGame(game.getTeams().get(1), game.getTeams().get(0));
+    }
+
+    @Benchmark
+    public void scoreGame() throws GameDoesNotExistException, InvalidScoreException {
+        Game game = nextGame();
+        Team team1 = game.getTeams().get(0);
+        Team team2 = game.getTeams().get(1);
+        synthetic.getTournament().scoreGame(team1, nextGame % 4, team2, nextGame % 3);
+    }
+}
@@ -0,0 +1,54 @@
+package ca.collene.soccer.entities;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The team in one slot of a tournament's knockout bracket, keyed by the tournament and the slot
+ * so that the slot a winner moves to, and the slot next to it, are each read with one lookup.
+ * Only slots that hold a team have a row.  See {@link ca.collene.soccer.models.Bracket} for how
+ * the slots are numbered.
+ */
+@Entity(name = "bracket_slot")
+@Table(name = "bracket_slot")
+@IdClass(BracketSlot.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class BracketSlot {
+    @Id
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    @Id
+    @Column(name = "slot")
+    private Integer slot;
+
+    // only the id, so that moving a winner on doesn't load the team
+    @Column(name = "team_id")
+    @Setter
+    private Long teamId;
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long tournamentId;
+        private Integer slot;
+    }
+}
@@ -1,26 +1,20 @@
 package ca.collene.soccer.entities;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
-import javax.persistence.CollectionTable;
-import javax.persistence.ElementCollection;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
-import javax.persistence.MapKeyJoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
-import javax.validation.constraints.Size;
-
-import org.hibernate.annotations.LazyCollection;
-import org.hibernate.annotations.LazyCollectionOption;
 
 import ca.collene.soccer.models.Tally.TallyType;
 import ca.collene.soccer.services.GameNotScoredException;
@@ -29,63 +23,102 @@ import ca.collene.soccer.services.TeamNotInGameException;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+/**
+ * A game between two teams, stored in a single row: the two teams, and the points each scored
+ * once the game has been scored.  A knockout game also knows its round and the bracket slot its
+ * winner moves to.
+ */
 @Entity(name = "game")
-@Table(name = "game")
+@Table(
+    name = "game",
+    indexes = {
+        @Index(name = "game_tournament_index", columnList = "tournament_id"),
+        @Index(name = "game_team1_index", columnList = "team1_id"),
+        @Index(name = "game_team2_index", columnList = "team2_id")
+    }
+)
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Builder
 public class Game {
+    // ids come from a sequence rather than an identity column so that inserting many games can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_sequence")
+    @SequenceGenerator(name = "game_sequence", sequenceName = "game_sequence", allocationSize = 50)
     @Getter
-    @ToString.Exclude    
+    @ToString.Exclude
     private Long id;
 
-    @ManyToMany
-    @JoinTable(
-        name = "game_team",
-        joinColumns = @JoinColumn(name = "game_id"),
-        inverseJoinColumns = @JoinColumn(name = "team_id")
-    )
-    @Size(max = 2)
-    @LazyCollection(LazyCollectionOption.FALSE)
+    // the column belongs to the tournament's games; it is only written here when a game is imported
+    // without loading the tournament's games, and never changed afterwards
+    @Column(name = "tournament_id", updatable = false)
+    @Getter
+    @ToString.Exclude
+    private Long tournamentId;
+
+    @ManyToOne
+    @JoinColumn(name = "team1_id")
+    @Getter
+    private Team team1;
+
+    @ManyToOne
+    @JoinColumn(name = "team2_id")
     @Getter
-    @Builder.Default
-    private List<Team> teams = new ArrayList<>();
-
-    @Size(max = 2)
-    @ElementCollection
-    @LazyCollection(LazyCollectionOption.FALSE)
-    @CollectionTable(
-        name = "game_score",
-        joinColumns = @JoinColumn(name = "game_id")
-    )
-    @MapKeyJoinColumn(name = "team_id")
+    private Team team2;
+
+    // the round of a generated schedule the game is played in, written with the schedule; null for
+    // games added one at a time
+    @Column(name = "round")
     @Getter
-    @Builder.Default
-    @EqualsAndHashCode.Exclude
-    private Map<Team, Integer> points = new HashMap<>();    
-    
-    public Game(List<Team> teams) {        
-        this.teams = teams;
-    }
-    public Game(Team team1, Team team2) {        
-        teams.add(team1);
-        teams.add(team2);
-    }
-    
+    private Integer round;
+
+    // the bracket slot the winner of a knockout game moves to; null for games that aren't in a
+    // knockout bracket
+    @Column(name = "slot")
+    @Getter
+    private Integer slot;
+
+    // both scores are null until the game is scored
+    @Column(name = "score1")
+    @Getter
+    private Integer score1;
+
+    @Column(name = "score2")
+    @Getter
+    private Integer score2;
+
+    public Game(List<Team> teams) {
+        this(teams.get(0), teams.get(1));
+    }
+    public Game(Team team1, Team team2) {
+        this.team1 = team1;
+        this.team2 = team2;
+    }
+    public Game(Long tournamentId, Team team1, Team team2) {
+        this(team1, team2);
+        this.tournamentId = tournamentId;
+    }
+    public Game(Long tournamentId, Team team1, Team team2, int round, int slot) {
+        this(tournamentId, team1, team2);
+        this.round = round;
+        this.slot = slot;
+    }
+
+    public List<Team> getTeams() {
+        return Arrays.asList(team1, team2);
+    }
+
     public boolean hasTeam(Team team) {
-        return teams.contains(team);
-    }    
+        return Objects.equals(team1, team) || Objects.equals(team2, team);
+    }
 
     public boolean hasScore() {
-        return !points.isEmpty();
+        return score1 != null && score2 != null;
     }
     public int getPointsForTeam(Team team) throws TeamNotInGameException, GameNotScoredException {
         if(!hasTeam(team)) {
@@ -93,39 +126,61 @@ public class Game {
         }
         if(!hasScore()) {
             throw new GameNotScoredException("This game has not yet been scored");
-        }        
-        return points.get(team);
+        }
+        return team.equals(team1) ? score1 : score2;
     }
     public int getPointsForOtherTeam(Team team) throws TeamNotInGameException, GameNotScoredException {
-        Team otherTeam = teams.stream().filter(t -> !t.equals(team))
-                .findFirst()
-                .orElseThrow(() -> new TeamNotInGameException("The team " + team.getName() + " is not in this game"));
-
-        return getPointsForTeam(otherTeam);
+        if(!hasTeam(team)) {
+            throw new TeamNotInGameException("The team " + team.getName() + " is not in this game");
+        }
+        return getPointsForTeam(team.equals(team1) ? team2 : team1);
     }
     public void setScore(Team team1, int team1Points, Team team2, int team2Points) throws InvalidScoreException {
         if(team1Points < 0 || team2Points < 0) {
             throw new InvalidScoreException("Score points must be positive values");
         }
-        points.put(team1, team1Points);
-        points.put(team2, team2Points);
+        if(team1.equals(this.team1) && team2.equals(this.team2)) {
+            this.score1 = team1Points;
+            this.score2 = team2Points;
+        } else if(team1.equals(this.team2) && team2.equals(this.team1)) {
+            this.score1 = team2Points;
+            this.score2 = team1Points;
+        } else {
+            throw new InvalidScoreException("The teams " + team1.getName() + " and " + team2.getName() + " do not play each other in this game");
+        }
     }
     public TallyType getTallyTypeForTeam(Team team) {
-        int thisTeamPoints;
-        try {
-            thisTeamPoints = getPointsForTeam(team);
-            int otherTeamPoints = getPointsForOtherTeam(team);
-            if(thisTeamPoints == otherTeamPoints) {
-                return TallyType.TIE;
-            } else if(thisTeamPoints > otherTeamPoints) {
-                return TallyType.WIN;
-            } else {
-                return TallyType.LOSS;
-            }
-        } catch (TeamNotInGameException | GameNotScoredException e) {
+        if(!hasScore() || !hasTeam(team)) {
             return TallyType.UNSCORED;
-        }        
-    } 
+        }
+        int thisTeamPoints = team.equals(team1) ? score1 : score2;
+        int otherTeamPoints = team.equals(team1) ? score2 : score1;
+        if(thisTeamPoints == otherTeamPoints) {
+            return TallyType.TIE;
+        } else if(thisTeamPoints > otherTeamPoints) {
+            return TallyType.WIN;
+        } else {
+            return TallyType.LOSS;
+        }
+    }
+
+    /**
+     * Picks the game a score for team1 against another team is for, out of the games between the
+     * two teams in the order they were added.  A double round robin plays each pair twice with the
+     * teams swapped, so the games with team1 named first are looked at if there are any, otherwise
+     * all of them; of those the first that hasn't been scored is picked, or the last if they all
+     * have been.
+     */
+    public static Game toScore(List<Game> games, Team team1) {
+        List<Game> inOrder = games.stream()
+                        .filter(game -> Objects.equals(game.getTeam1().getKey(), team1.getKey()))
+                        .collect(Collectors.toList());
+        List<Game> candidates = inOrder.isEmpty() ? games : inOrder;
+        return candidates.stream()
+                        .filter(game -> !game.hasScore())
+                        .findFirst()
+                        .orElse(candidates.get(candidates.size() - 1));
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -135,15 +190,23 @@ public class Game {
             return false;
         }
         Game other = (Game) o;
-        if(this.id == null || other.id == null) {            
-            return Objects.equals(this.teams, other.teams)
-                && Objects.equals(this.points, other.points);       
+        if(this.id == null || other.id == null) {
+            return Objects.equals(this.team1, other.team1)
+                && Objects.equals(this.team2, other.team2)
+                && Objects.equals(this.score1, other.score1)
+                && Objects.equals(this.score2, other.score2);
         }
         return this.id.equals(other.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, teams, points);
-    }    
+        return Objects.hash(id, team1, team2, score1, score2);
+    }
+
+    public static class GameBuilder {
+        public GameBuilder teams(List<Team> teams) {
+            return team1(teams.get(0)).team2(teams.get(1));
+        }
+    }
 }
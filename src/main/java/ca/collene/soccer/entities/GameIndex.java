@@ -0,0 +1,77 @@
+package ca.collene.soccer.entities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Lookup of the games in a tournament by the two teams playing, in either order, and by each
+ * team playing, so finding a game does not scan the game list.  Teams are looked up by their
+ * key.  Two teams can play each other more than once, as in a double round robin, and
+ * {@link Game#toScore} picks which of their games a lookup finds.  The index is rebuilt from the game list the first time it is used after the list is
+ * loaded or changed outside of the tournament.
+ */
+class GameIndex {
+    private final Map<TeamPair, List<Game>> gamesByTeams = new HashMap<>();
+    private final Map<Object, List<Game>> gamesByTeam = new HashMap<>();
+    private List<Game> indexedGames;
+    private int indexedCount;
+
+    GameIndex current(List<Game> games) {
+        if(games != indexedGames || games.size() != indexedCount) {
+            gamesByTeams.clear();
+            gamesByTeam.clear();
+            indexedGames = games;
+            indexedCount = 0;
+            games.forEach(this::add);
+        }
+        return this;
+    }
+
+    void add(Game game) {
+        gamesByTeams.computeIfAbsent(new TeamPair(game.getTeam1(), game.getTeam2()), key -> new ArrayList<>()).add(game);
+        gamesByTeam.computeIfAbsent(game.getTeam1().getKey(), key -> new ArrayList<>()).add(game);
+        gamesByTeam.computeIfAbsent(game.getTeam2().getKey(), key -> new ArrayList<>()).add(game);
+        indexedCount++;
+    }
+
+    Game get(Team team1, Team team2) {
+        List<Game> games = gamesByTeams.get(new TeamPair(team1, team2));
+        return games != null ? Game.toScore(games, team1) : null;
+    }
+
+    List<Game> get(Team team) {
+        return gamesByTeam.getOrDefault(team.getKey(), Collections.emptyList());
+    }
+
+    private static class TeamPair {
+        private final Object team1Key;
+        private final Object team2Key;
+
+        TeamPair(Team team1, Team team2) {
+            this.team1Key = team1.getKey();
+            this.team2Key = team2.getKey();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if(!(o instanceof TeamPair)) {
+                return false;
+            }
+            TeamPair other = (TeamPair) o;
+            return (Objects.equals(team1Key, other.team1Key) && Objects.equals(team2Key, other.team2Key))
+                || (Objects.equals(team1Key, other.team2Key) && Objects.equals(team2Key, other.team1Key));
+        }
+
+        @Override
+        public int hashCode() {
+            // order independent so that (team1, team2) and (team2, team1) find the same game
+            return Objects.hashCode(team1Key) + Objects.hashCode(team2Key);
+        }
+    }
+}
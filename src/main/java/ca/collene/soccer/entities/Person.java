@@ -7,8 +7,12 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
+import ca.collene.soccer.models.NameKey;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +22,10 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity(name = "person")
-@Table(name = "person")
+@Table(
+    name = "person",
+    indexes = @Index(name = "person_name_key_index", columnList = "name_key", unique = true)
+)
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
@@ -30,13 +37,25 @@ public class Person {
     @ToString.Exclude    
     private Long id;
 
-    @Column(unique = true)
+    @Column(name = "name")
     @Getter
     @Setter
     private String name;
 
+    // the name in the form it is looked up by, see NameKey; set from the name whenever the row is written
+    @Column(name = "name_key")
+    @Getter
+    @ToString.Exclude
+    private String nameKey;
+
     public Person(String name) {
         this.name = name;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void keyName() {
+        nameKey = NameKey.of(name);
     }    
 
     @Override
@@ -46,11 +65,12 @@ public class Person {
         } else if(!(o instanceof Person)) {
             return false;
         }
-        Person other = (Person) o;    
-        if(this.id == null || other.id == null) {
-            return Objects.equals(this.name, other.name);
+        Person other = (Person) o;
+        // the other person may be a reference that hasn't been loaded, so only its getters can be used
+        if(this.id == null || other.getId() == null) {
+            return Objects.equals(this.name, other.getName());
         }  
-        return this.id.equals(other.id);
+        return this.id.equals(other.getId());
     }
 
     @Override
@@ -0,0 +1,66 @@
+package ca.collene.soccer.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+import ca.collene.soccer.models.Tally.TallyType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Points a tournament gives a team for each win, tie and loss.  The scheme is stored on the
+ * tournament's row, so changing it only means counting the standings again.  A team's total is
+ * the counts of its results times these weights; unscored games are never worth points.
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class PointsScheme {
+    /**
+     * The scheme of a tournament that hasn't been given one: 3 for a win, 2 for a tie and 1 for a loss.
+     */
+    public static final PointsScheme DEFAULT = new PointsScheme(3, 2, 1);
+
+    /**
+     * The most points a scheme can give for one result.  Totals are packed into sort keys, the
+     * narrowest being the 21 bits a season simulation has for them, which hold this many points for
+     * each of more than 20,000 games.
+     */
+    public static final int MAXIMUM_POINTS = 100;
+
+    @Column(name = "points_for_win")
+    private int win;
+
+    @Column(name = "points_for_tie")
+    private int tie;
+
+    @Column(name = "points_for_loss")
+    private int loss;
+
+    public int getPoints(TallyType result) {
+        switch(result) {
+            case WIN:
+                return win;
+            case TIE:
+                return tie;
+            case LOSS:
+                return loss;
+            default:
+                return 0;
+        }
+    }
+
+    public long getTotal(long wins, long ties, long losses) {
+        return wins * win + ties * tie + losses * loss;
+    }
+
+    @Override
+    public String toString() {
+        return win + "/" + tie + "/" + loss;
+    }
+}
@@ -11,15 +11,17 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
+import javax.persistence.OrderColumn;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
-import org.hibernate.annotations.LazyCollection;
-import org.hibernate.annotations.LazyCollectionOption;
-
+import ca.collene.soccer.models.NameKey;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,7 +31,10 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity(name = "team")
-@Table(name = "team")
+@Table(
+    name = "team",
+    indexes = @Index(name = "team_name_key_index", columnList = "name_key", unique = true)
+)
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
@@ -41,20 +46,27 @@ public class Team {
     @ToString.Exclude    
     private Long id;
 
-    @Column(unique = true)
+    @Column(name = "name")
     @Getter
     @Setter
     private String name;
 
+    // the name in the form it is looked up by, see NameKey; set from the name whenever the row is written
+    @Column(name = "name_key")
+    @Getter
+    @ToString.Exclude
+    private String nameKey;
+
     @ManyToMany
-    @LazyCollection(LazyCollectionOption.FALSE)
     @JoinTable(
         name = "team_coach",
         joinColumns = @JoinColumn(name = "team_id"),
         inverseJoinColumns = @JoinColumn(name = "person_id")
     )
+    @OrderColumn(name = "coach_order")
     @Getter
     @Builder.Default
+    @ToString.Exclude
     private List<Person> coaches = new ArrayList<>();
 
     @OneToMany(
@@ -62,20 +74,34 @@ public class Team {
         cascade = CascadeType.ALL,
         orphanRemoval = true
     )    
-    @LazyCollection(LazyCollectionOption.FALSE)
     @Getter
     @Builder.Default
+    @ToString.Exclude
     private List<Player> players = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    @PrePersist
+    @PreUpdate
+    private void keyName() {
+        nameKey = NameKey.of(name);
+    }
+    
+    /**
+     * Key identifying the team in lookups: its id once it has been saved, otherwise its name.
+     */
+    public Object getKey() {
+        return id != null ? id : name;
+    }
     
     public void addCoach(Person person) {
         this.coaches.add(person);
     }
     public boolean hasCoach(Person person) {
-        return coaches.contains(person);
+        // compare from the coaches' side, so a person that is a reference isn't loaded to compare it
+        return coaches.stream().anyMatch(coach -> coach.equals(person));
     }
 
     public void addPlayer(Player player) {
@@ -108,10 +134,11 @@ public class Team {
             return false;
         }
         Team other = (Team) o;
-        if(this.id == null || other.id == null) {
-            return Objects.equals(this.name, other.name);
+        // the other team may be a reference that hasn't been loaded, so only its getters can be used
+        if(this.id == null || other.getId() == null) {
+            return Objects.equals(this.name, other.getName());
         }
-        return this.id.equals(other.id);
+        return this.id.equals(other.getId());
     }
 
     @Override
@@ -0,0 +1,49 @@
+package ca.collene.soccer.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A team's rating, kept apart from the team so that scoring a game only reads and writes the two
+ * rating rows, keyed by team id, and never loads the teams' rosters.  A team without a row hasn't
+ * played a scored game and has the initial rating.  See {@link ca.collene.soccer.models.Rating}.
+ */
+@Entity(name = "team_rating")
+@Table(name = "team_rating")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class TeamRating {
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "rating")
+    private double rating;
+
+    @Column(name = "games")
+    private long games;
+
+    /**
+     * Adds a game that changed the rating by the given amount.
+     */
+    public void record(double change) {
+        rating += change;
+        games++;
+    }
+
+    /**
+     * Takes back a game that changed the rating by the given amount.
+     */
+    public void reverse(double change) {
+        rating -= change;
+        games--;
+    }
+}
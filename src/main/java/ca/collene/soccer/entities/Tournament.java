@@ -2,26 +2,35 @@ package ca.collene.soccer.entities;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
 import javax.persistence.OneToMany;
+import javax.persistence.OrderColumn;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SqlResultSetMapping;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
-import org.hibernate.annotations.LazyCollection;
-import org.hibernate.annotations.LazyCollectionOption;
-
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.StandingsTable;
 import ca.collene.soccer.models.Tally;
 import ca.collene.soccer.models.Tally.TallyType;
 import ca.collene.soccer.services.GameAlreadyInTournamentException;
@@ -38,31 +47,94 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 @Entity(name = "tournament")
-@Table(name = "tournament")
+@Table(
+    name = "tournament",
+    indexes = @Index(name = "tournament_name_key_index", columnList = "name_key", unique = true)
+)
+@NamedNativeQueries({
+    @NamedNativeQuery(
+        name = "tournament.findTallyByNameKey",
+        query = Tournament.TALLY_QUERY,
+        resultSetMapping = "tally"
+    ),
+    @NamedNativeQuery(
+        name = "tournament.findTallyPageByNameKey",
+        query = Tournament.TALLY_QUERY + " LIMIT :count OFFSET :first",
+        resultSetMapping = "tally"
+    )
+})
+@SqlResultSetMapping(
+    name = "tally",
+    classes = @ConstructorResult(
+        targetClass = Tally.class,
+        columns = {
+            @ColumnResult(name = "team_name", type = String.class),
+            @ColumnResult(name = "wins", type = Long.class),
+            @ColumnResult(name = "ties", type = Long.class),
+            @ColumnResult(name = "losses", type = Long.class),
+            @ColumnResult(name = "unscored", type = Long.class),
+            @ColumnResult(name = "points_for_win", type = Integer.class),
+            @ColumnResult(name = "points_for_tie", type = Integer.class),
+            @ColumnResult(name = "points_for_loss", type = Integer.class)
+        }
+    )
+)
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Slf4j
 @Builder
 public class Tournament {
+    // one row per team in the tournament, counting each of its games from its own score and the other
+    // team's score; each game appears once for each of its teams, so only the game table is scanned.
+    // The rows are in the order of Tally.STANDINGS_ORDER, so a page of them is the same every time
+    static final String TALLY_QUERY = "SELECT team_name, wins, ties, losses, unscored, points_for_win, points_for_tie, points_for_loss FROM ("
+            + " SELECT team.name AS team_name,"
+            + "  COUNT(CASE WHEN team_game.own_score > team_game.other_score THEN 1 END) AS wins,"
+            + "  COUNT(CASE WHEN team_game.own_score = team_game.other_score THEN 1 END) AS ties,"
+            + "  COUNT(CASE WHEN team_game.own_score < team_game.other_score THEN 1 END) AS losses,"
+            + "  COUNT(team_game.game_id) - COUNT(team_game.own_score) AS unscored,"
+            // tournaments from before points schemes have none, and use the default
+            + "  COALESCE(tournament.points_for_win, 3) AS points_for_win,"
+            + "  COALESCE(tournament.points_for_tie, 2) AS points_for_tie,"
+            + "  COALESCE(tournament.points_for_loss, 1) AS points_for_loss"
+            + " FROM tournament"
+            + " JOIN tournament_team ON tournament_team.tournament_id = tournament.id"
+            + " JOIN team ON team.id = tournament_team.team_id"
+            + " LEFT JOIN (SELECT id AS game_id, tournament_id, team1_id AS team_id, score1 AS own_score, score2 AS other_score FROM game"
+            + "            UNION ALL"
+            + "            SELECT id, tournament_id, team2_id, score2, score1 FROM game) team_game"
+            + "     ON team_game.team_id = team.id AND team_game.tournament_id = tournament.id"
+            + " WHERE tournament.name_key = :nameKey"
+            + " GROUP BY team.id, team.name, tournament.points_for_win, tournament.points_for_tie, tournament.points_for_loss"
+            + ") tally"
+            + " ORDER BY points_for_win * wins + points_for_tie * ties + points_for_loss * losses DESC, wins DESC, team_name";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Getter
     @ToString.Exclude     
     private Long id;
 
-    @Column(unique = true)
+    @Column(name = "name")
     @Getter
     @Setter
     private String name;
 
+    // the name in the form it is looked up by, see NameKey; set from the name whenever the row is written
+    @Column(name = "name_key")
+    @Getter
+    @ToString.Exclude
+    private String nameKey;
+
     @ManyToMany
     @JoinTable(
         name = "tournament_team",
         joinColumns = @JoinColumn(name = "tournament_id"),
         inverseJoinColumns = @JoinColumn(name = "team_id")
     )
-    @LazyCollection(LazyCollectionOption.FALSE)
+    // with an index, adding a team inserts one row rather than rewriting every row for the tournament
+    @OrderColumn(name = "team_order")
     @Getter
     @Builder.Default
     private List<Team> teams = new ArrayList<>();
@@ -71,15 +143,50 @@ public class Tournament {
         cascade = CascadeType.ALL,
         orphanRemoval = true)
     @JoinColumn(name = "tournament_id")    
-    @LazyCollection(LazyCollectionOption.FALSE)
     @Getter
     @Builder.Default
     private List<Game> games = new ArrayList<>();
 
+    @Embedded
+    @Setter
+    @Builder.Default
+    private PointsScheme pointsScheme = PointsScheme.DEFAULT;
+
+    // the number of leaves in the tournament's knockout bracket, written when the bracket is
+    // generated; null for a tournament without one
+    @Column(name = "bracket_size")
+    @Getter
+    private Integer bracketSize;
+
+    @Transient
+    @ToString.Exclude
+    private final GameIndex gameIndex = new GameIndex();
+
     public Tournament(String name) {
         this.name = name;
     }
+
+    @PrePersist
+    @PreUpdate
+    private void keyName() {
+        nameKey = NameKey.of(name);
+    }
+        
+    /**
+     * Brings this copy of the tournament up to date with the copy that was saved from it.  The
+     * saved copy's collections are taken over rather than copied so that the next save compares
+     * against what is in the database now, and teams and games aren't inserted a second time.
+     */
+    public void refreshFrom(Tournament saved) {
+        teams = saved.getTeams();
+        games = saved.getGames();
+    }
         
+    public PointsScheme getPointsScheme() {
+        // tournaments saved before they had a scheme have none
+        return pointsScheme != null ? pointsScheme : PointsScheme.DEFAULT;
+    }
+
     public void addTeam(Team team) throws TeamAlreadyInTournamentException {
         if(hasTeam(team)) {
             throw new TeamAlreadyInTournamentException("The team " + team.getName() + " is already in tournament " + name);
@@ -87,7 +194,7 @@ public class Tournament {
         teams.add(team);
     }
     public boolean hasTeam(Team team) {
-        log.debug("Checking if team " + team + " is in " + teams + ": " + teams.contains(team));
+        log.debug("Checking if team {} is in tournament {}", team.getId(), name);
         return teams.stream().anyMatch(t -> t.equals(team));
     }
 
@@ -95,20 +202,20 @@ public class Tournament {
         if(hasGameWithTeams(team1, team2)) {
             throw new GameAlreadyInTournamentException("This game already exists in this tournament");
         }
-        games.add(Game.builder().teams(Arrays.asList(team1, team2))
-                        .build());
+        Game game = Game.builder().teams(Arrays.asList(team1, team2))
+                        .build();
+        games.add(game);
+        gameIndex.add(game);
     }
     public boolean hasGameWithTeams(Team team1, Team team2) {
-        return games.stream().anyMatch(game -> game.hasTeam(team1) && game.hasTeam(team2));
+        return gameIndex.current(games).get(team1, team2) != null;
     }
     public Game getGame(Team team1, Team team2) throws GameDoesNotExistException {
-        if(!hasGameWithTeams(team1, team2)) {
+        Game game = gameIndex.current(games).get(team1, team2);
+        if(game == null) {
             throw new GameDoesNotExistException("The game with teams " + team1.getName() + " and " + team2.getName() + " does not exist in this tournament");
         }
-        return games.stream()
-                        .filter(game -> game.hasTeam(team1) && game.hasTeam(team2))
-                        .findFirst()
-                        .orElseThrow(()->new GameDoesNotExistException("The game with teams " + team1.getName() + " and " + team2.getName() + " does not exist in this tournament"));
+        return game;
     }
     public void scoreGame(Team team1, int team1Points, Team team2, int team2Points) throws GameDoesNotExistException, InvalidScoreException {
         Game game = getGame(team1, team2);
@@ -116,8 +223,11 @@ public class Tournament {
     }
 
     public List<Game> getGamesForTeam(Team team) {
-        return games.stream()
-                    .filter(game -> game.hasTeam(team))
+        return new ArrayList<>(gameIndex.current(games).get(team));
+    }
+    public List<Game> getUnscoredGamesForTeam(Team team) {
+        return gameIndex.current(games).get(team).stream()
+                    .filter(game -> !game.hasScore())
                     .collect(Collectors.toList());
     }
     public List<TallyType> getTallyTypesForTeam(Team team) {
@@ -128,10 +238,7 @@ public class Tournament {
 
     public List<Tally> getTally() {
         log.debug("Getting tally for tournament, there are " + teams.size() + " teams");
-        return teams.stream()
-                    .map(team -> new Tally(team.getName(), getTallyTypesForTeam(team)))
-                    .sorted(Comparator.comparingLong(tally -> ((Tally) tally).getTotal()).reversed())
-                    .collect(Collectors.toList());
+        return StandingsTable.of(this).getTally();
     }
 
     @Override
@@ -0,0 +1,234 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A knockout bracket kept as an implicit binary tree in an array indexed by slot.  Slot 1 holds
+ * the champion, and the two teams that play for slot k come from slots 2k and 2k+1, so the winner
+ * of a game moves to its parent slot k/2 and meets the team in the sibling slot without any
+ * search.  The entrants sit in the leaves, slots size to 2*size-1, where size is the smallest
+ * power of two that holds them all.
+ * <p>
+ * Entrants are placed by seed so that the top seeds meet as late as possible: seed 1 plays the
+ * last seed, and seeds 1 and 2 can only meet in the final.  The leaves left over are byes, given
+ * to the top seeds, who move straight to the second round.
+ * <p>
+ * Rounds are numbered from 1 for the first round to getRounds() for the final; the leaves are
+ * round 0.
+ */
+public class Bracket<T> {
+    private final int size;
+    private final int rounds;
+    private final Object[] slots;
+    // the slots of each round that already hold a team, so the current round is found without
+    // looking at the slots
+    private final int[] decided;
+    // the leaf of each entrant, built the first time a path is asked for
+    private Map<T, Integer> leaves;
+
+    public Bracket(int size) {
+        if(size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("A bracket needs a power of two slots for its entrants, not " + size);
+        }
+        this.size = size;
+        this.rounds = Integer.numberOfTrailingZeros(size);
+        this.slots = new Object[2 * size];
+        this.decided = new int[rounds + 1];
+    }
+
+    /**
+     * A bracket for the entrants listed from the top seed down, with the byes already played.
+     */
+    public static <T> Bracket<T> seeded(List<T> entrants) {
+        Bracket<T> bracket = new Bracket<>(sizeFor(entrants.size()));
+        int[] seeds = seedOrder(bracket.size);
+        for(int i = 0; i < bracket.size; i++) {
+            if(seeds[i] <= entrants.size()) {
+                bracket.set(bracket.size + i, entrants.get(seeds[i] - 1));
+            }
+        }
+        for(int slot = bracket.size / 2; slot < bracket.size; slot++) {
+            T team1 = bracket.getTeam(2 * slot);
+            T team2 = bracket.getTeam(2 * slot + 1);
+            if(team1 == null ^ team2 == null) {
+                bracket.set(slot, team1 != null ? team1 : team2);
+            }
+        }
+        return bracket;
+    }
+
+    /**
+     * The number of leaves needed for the entrants.
+     */
+    public static int sizeFor(int entrants) {
+        return entrants <= 2 ? 2 : Integer.highestOneBit(entrants - 1) << 1;
+    }
+
+    /**
+     * The seed placed in each leaf from left to right, for a bracket with the given number of
+     * leaves.  Each doubling puts every seed next to the seed it plays, the one that adds up with
+     * it to one more than the number of seeds.
+     */
+    static int[] seedOrder(int size) {
+        int[] seeds = new int[size];
+        seeds[0] = 1;
+        for(int placed = 1; placed < size; placed *= 2) {
+            for(int i = placed - 1; i >= 0; i--) {
+                seeds[2 * i] = seeds[i];
+                seeds[2 * i + 1] = 2 * placed + 1 - seeds[i];
+            }
+        }
+        return seeds;
+    }
+
+    public static int parent(int slot) {
+        return slot >> 1;
+    }
+
+    public static int sibling(int slot) {
+        return slot ^ 1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getRound(int slot) {
+        return rounds - (31 - Integer.numberOfLeadingZeros(slot));
+    }
+
+    /**
+     * The number of slots filled in the round, one for each game.
+     */
+    public int getGames(int round) {
+        return size >> round;
+    }
+
+    public int getDecided(int round) {
+        return decided[round];
+    }
+
+    public String getRoundName(int round) {
+        switch(rounds - round) {
+            case 0:
+                return "Final";
+            case 1:
+                return "Semi-finals";
+            case 2:
+                return "Quarter-finals";
+            default:
+                return "Round of " + (2 << (rounds - round));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getTeam(int slot) {
+        return (T) slots[slot];
+    }
+
+    public void set(int slot, T team) {
+        if(slots[slot] == null && team != null) {
+            decided[getRound(slot)]++;
+        } else if(slots[slot] != null && team == null) {
+            decided[getRound(slot)]--;
+        }
+        slots[slot] = team;
+        if(slot >= size) {
+            leaves = null;
+        }
+    }
+
+    public T getChampion() {
+        return getTeam(1);
+    }
+
+    /**
+     * The first round that still has games to play, or 0 once there is a champion.
+     */
+    public int getCurrentRound() {
+        for(int round = 1; round <= rounds; round++) {
+            if(decided[round] < getGames(round)) {
+                return round;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Whether both teams for the slot are known and the game between them hasn't been won yet.
+     */
+    public boolean isReady(int slot) {
+        return slot < size && slots[slot] == null && slots[2 * slot] != null && slots[2 * slot + 1] != null;
+    }
+
+    /**
+     * Passes each slot whose game is ready to be played, from the final down.
+     */
+    public void forEachReady(IntConsumer consumer) {
+        for(int slot = 1; slot < size; slot++) {
+            if(isReady(slot)) {
+                consumer.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * Passes each slot that holds a team, from the champion down to the leaves.
+     */
+    public void forEachFilled(IntConsumer consumer) {
+        for(int slot = 1; slot < slots.length; slot++) {
+            if(slots[slot] != null) {
+                consumer.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * The slots the team has to win to become champion, from its first round to the final, or
+     * none if it isn't in the bracket.  A bye is the first of them when the team had one.
+     */
+    public List<Integer> getPathToFinal(T team) {
+        List<Integer> path = new ArrayList<>(rounds);
+        Integer leaf = getLeaf(team);
+        if(leaf != null) {
+            for(int slot = parent(leaf); slot > 0; slot = parent(slot)) {
+                path.add(slot);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * The team the entrant meets for a slot on its path to the final, or null if that isn't known
+     * yet or the entrant has a bye.  The opponent comes from the other side of the slot, whether or
+     * not the entrant got that far.
+     */
+    public T getOpponent(int slot, T team) {
+        Integer leaf = getLeaf(team);
+        if(leaf == null) {
+            return null;
+        }
+        // the entrant's side of the slot is its leaf's ancestor in the round before
+        return getTeam(sibling(leaf >> (getRound(slot) - 1)));
+    }
+
+    private Integer getLeaf(T team) {
+        if(leaves == null) {
+            leaves = new HashMap<>();
+            for(int slot = size; slot < slots.length; slot++) {
+                if(slots[slot] != null) {
+                    leaves.put(getTeam(slot), slot);
+                }
+            }
+        }
+        return leaves.get(team);
+    }
+}
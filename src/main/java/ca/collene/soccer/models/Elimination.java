@@ -0,0 +1,398 @@
+package ca.collene.soccer.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+
+/**
+ * Which teams can no longer finish first, even level on points, whatever the results of the
+ * unscored games.  This is the baseball elimination problem: a team is out if, with it winning
+ * every game it has left, the points still to be shared out between the other teams can't be
+ * without one of them passing it.  Whether they can is a maximum flow from the games left between
+ * each two other teams, through the teams, to a sink that takes from each team only as many
+ * points as keep it level with the team being checked.
+ * <p>
+ * Each game gives both teams at least the fewest points of the scheme, so those are counted up
+ * front and only the rest is shared out, in units of the largest amount that divides every
+ * result.  When a tie is worth half of a win and a loss together, as with the default 3/2/1, a
+ * game shares out two units whichever way it ends and the answer is exact.  With other schemes a
+ * game can share out more with some results than others; the flow then assumes the least, so a
+ * team found to be out is certainly out but a team that is out may not be found.
+ * <p>
+ * The network is built once, with one node for each two teams that still have games between
+ * them, and only its capacities are reset to check each team.  When losing is worth the fewest
+ * points, a team that is out shows that every team that can't reach more points is out as well,
+ * so teams are checked in a binary search over their best totals rather than one at a time.
+ */
+public class Elimination {
+    private static final int UNLIMITED = Integer.MAX_VALUE / 2;
+
+    private final String[] teamNames;
+    private final Map<Object, Integer> indexByTeam;
+    private final int pointsForWin;
+    private final int pointsForTie;
+    private final int pointsForLoss;
+    private final int[] points;
+    private final int[] remaining;
+
+    // the teams with unscored games between them, one column per field and the first pairs entries used
+    private final Map<Long, Integer> pairByTeams = new HashMap<>();
+    private int[] pairTeam1 = new int[16];
+    private int[] pairTeam2 = new int[16];
+    private int[] pairGames = new int[16];
+    private int pairs;
+
+    private boolean exact;
+    private boolean[] eliminated;
+
+    // the flow network in adjacency arrays, each edge next to its reverse edge
+    private int[] head;
+    private int[] next;
+    private int[] to;
+    private int[] capacity;
+    private int[] residual;
+    private int[] level;
+    private int[] iterator;
+    private int[] queue;
+    // the points each team gets from the games it loses to the team being checked
+    private int[] conceded;
+
+    public Elimination(List<Team> teams, PointsScheme pointsScheme) {
+        int size = teams.size();
+        teamNames = new String[size];
+        indexByTeam = new HashMap<>(size * 2);
+        for(int i = 0; i < size; i++) {
+            Team team = teams.get(i);
+            teamNames[i] = team.getName();
+            indexByTeam.putIfAbsent(team.getKey(), i);
+        }
+        pointsForWin = pointsScheme.getWin();
+        pointsForTie = pointsScheme.getTie();
+        pointsForLoss = pointsScheme.getLoss();
+        points = new int[size];
+        remaining = new int[size];
+    }
+
+    public static Elimination of(Tournament tournament) {
+        Elimination elimination = new Elimination(tournament.getTeams(), tournament.getPointsScheme());
+        for(Game game : tournament.getGames()) {
+            elimination.addGame(game);
+        }
+        return elimination;
+    }
+
+    public void addGame(Game game) {
+        // games against teams that aren't in the tournament are still counted for the other team
+        int index1 = indexOf(game.getTeam1());
+        int index2 = indexOf(game.getTeam2());
+        eliminated = null;
+        head = null;
+        if(game.hasScore()) {
+            int score1 = game.getScore1();
+            int score2 = game.getScore2();
+            add(points, index1, score1 > score2 ? pointsForWin : score1 == score2 ? pointsForTie : pointsForLoss);
+            add(points, index2, score2 > score1 ? pointsForWin : score1 == score2 ? pointsForTie : pointsForLoss);
+            return;
+        }
+        add(remaining, index1, 1);
+        add(remaining, index2, 1);
+        if(index1 >= 0 && index2 >= 0 && index1 != index2) {
+            long key = (long) Math.min(index1, index2) << 32 | Math.max(index1, index2);
+            Integer pair = pairByTeams.get(key);
+            if(pair == null) {
+                pair = addPair(index1, index2);
+                pairByTeams.put(key, pair);
+            }
+            pairGames[pair]++;
+        }
+    }
+
+    public int size() {
+        return teamNames.length;
+    }
+
+    public String getTeamName(int index) {
+        return teamNames[index];
+    }
+
+    public int getPoints(int index) {
+        return points[index];
+    }
+
+    /**
+     * The most points the team can finish with, winning every game it has left.
+     */
+    public int getMaximum(int index) {
+        return points[index] + Math.max(pointsForWin, Math.max(pointsForTie, pointsForLoss)) * remaining[index];
+    }
+
+    /**
+     * The fewest points the team can finish with.
+     */
+    public int getMinimum(int index) {
+        return points[index] + Math.min(pointsForWin, Math.min(pointsForTie, pointsForLoss)) * remaining[index];
+    }
+
+    /**
+     * Whether the team can no longer finish first, even level on points with another team.
+     */
+    public boolean isEliminated(int index) {
+        solve();
+        return eliminated[index];
+    }
+
+    /**
+     * Whether the team can no longer finish in the given number of places from the top.  Beyond
+     * first place only the teams already out of the team's reach are counted, so a team found to be
+     * out is certainly out but a team that is out may not be found.
+     */
+    public boolean isEliminatedFromTop(int index, int places) {
+        if(places <= 1) {
+            return isEliminated(index);
+        }
+        int ahead = 0;
+        for(int other = 0; other < size(); other++) {
+            if(other != index && getMinimum(other) > getMaximum(index)) {
+                ahead++;
+            }
+        }
+        return ahead >= places;
+    }
+
+    /**
+     * Whether every team that is out is found, which depends on the points scheme.
+     */
+    public boolean isExact() {
+        solve();
+        return exact;
+    }
+
+    /**
+     * Finds the teams that can no longer finish first.  Adding a game afterwards means solving
+     * again, which is done the next time a result is asked for.
+     */
+    public void solve() {
+        if(eliminated != null) {
+            return;
+        }
+        int size = size();
+        eliminated = new boolean[size];
+        int fewest = Math.min(pointsForWin, Math.min(pointsForTie, pointsForLoss));
+        int most = Math.max(pointsForWin, Math.max(pointsForTie, pointsForLoss));
+        // what the other team gets when a team takes the most it can from a game
+        int leastConceded = Integer.MAX_VALUE;
+        if(pointsForWin == most) {
+            leastConceded = Math.min(leastConceded, pointsForLoss);
+        }
+        if(pointsForTie == most) {
+            leastConceded = Math.min(leastConceded, pointsForTie);
+        }
+        if(pointsForLoss == most) {
+            leastConceded = Math.min(leastConceded, pointsForWin);
+        }
+        int unit = gcd(pointsForWin - fewest, gcd(pointsForTie - fewest, pointsForLoss - fewest));
+        if(unit == 0) {
+            // every result is worth the same, so nobody can catch up
+            unit = 1;
+        }
+        // the fewest units a game shares out beyond the fewest points for both teams
+        int shared = (Math.min(pointsForWin + pointsForLoss, 2 * pointsForTie) - 2 * fewest) / unit;
+        exact = pointsForWin + pointsForLoss == 2 * pointsForTie;
+        buildNetwork(shared);
+        if(leastConceded == fewest) {
+            // with the teams ordered by their best totals, the teams that are out are the last ones
+            Integer[] order = new Integer[size];
+            for(int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(getMaximum(b), getMaximum(a)));
+            int low = 0;
+            int high = size;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(check(order[middle], leastConceded - fewest, unit)) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            if(low < size) {
+                int threshold = getMaximum(order[low]);
+                for(int i = 0; i < size; i++) {
+                    eliminated[i] = getMaximum(i) <= threshold;
+                }
+            }
+        } else {
+            for(int i = 0; i < size; i++) {
+                eliminated[i] = check(i, leastConceded - fewest, unit);
+            }
+        }
+    }
+
+    /**
+     * Whether the team is out, with it winning every game it has left.
+     */
+    private boolean check(int team, int concededPoints, int unit) {
+        int size = size();
+        System.arraycopy(capacity, 0, residual, 0, capacity.length);
+        Arrays.fill(conceded, 0);
+        long needed = 0;
+        for(int pair = 0; pair < pairs; pair++) {
+            int edge = sourceEdge(pair);
+            if(pairTeam1[pair] == team || pairTeam2[pair] == team) {
+                residual[edge] = 0;
+                conceded[pairTeam1[pair] == team ? pairTeam2[pair] : pairTeam1[pair]] += pairGames[pair] * concededPoints;
+            } else {
+                needed += residual[edge];
+            }
+        }
+        int maximum = getMaximum(team);
+        for(int other = 0; other < size; other++) {
+            int room = other == team ? 0 : maximum - getMinimum(other) - conceded[other];
+            if(room < 0) {
+                return true;
+            }
+            residual[sinkEdge(other)] = room / unit;
+        }
+        return maxFlow() < needed;
+    }
+
+    private void buildNetwork(int shared) {
+        if(head != null) {
+            return;
+        }
+        int size = size();
+        int nodes = 2 + size + pairs;
+        int edges = 2 * (size + 3 * pairs);
+        head = new int[nodes];
+        Arrays.fill(head, -1);
+        next = new int[edges];
+        to = new int[edges];
+        capacity = new int[edges];
+        residual = new int[edges];
+        level = new int[nodes];
+        iterator = new int[nodes];
+        queue = new int[nodes];
+        conceded = new int[size];
+        int edge = 0;
+        // the team edges first, then three for each pair, so an edge is found from its team or pair
+        for(int team = 0; team < size; team++) {
+            edge = addEdge(edge, teamNode(team), 1, 0);
+        }
+        for(int pair = 0; pair < pairs; pair++) {
+            int node = 2 + size + pair;
+            edge = addEdge(edge, 0, node, pairGames[pair] * shared);
+            edge = addEdge(edge, node, teamNode(pairTeam1[pair]), UNLIMITED);
+            edge = addEdge(edge, node, teamNode(pairTeam2[pair]), UNLIMITED);
+        }
+    }
+
+    private int teamNode(int team) {
+        return 2 + team;
+    }
+
+    private int sinkEdge(int team) {
+        return 2 * team;
+    }
+
+    private int sourceEdge(int pair) {
+        return 2 * (size() + 3 * pair);
+    }
+
+    private int addEdge(int edge, int from, int target, int edgeCapacity) {
+        to[edge] = target;
+        capacity[edge] = edgeCapacity;
+        next[edge] = head[from];
+        head[from] = edge;
+        to[edge + 1] = from;
+        capacity[edge + 1] = 0;
+        next[edge + 1] = head[target];
+        head[target] = edge + 1;
+        return edge + 2;
+    }
+
+    /**
+     * Dinic's algorithm from the source, node 0, to the sink, node 1, over the residual capacities.
+     */
+    private long maxFlow() {
+        long flow = 0;
+        while(buildLevels()) {
+            System.arraycopy(head, 0, iterator, 0, head.length);
+            int pushed;
+            while((pushed = push(0, UNLIMITED)) > 0) {
+                flow += pushed;
+            }
+        }
+        return flow;
+    }
+
+    private boolean buildLevels() {
+        Arrays.fill(level, -1);
+        level[0] = 0;
+        int first = 0;
+        int last = 0;
+        queue[last++] = 0;
+        while(first < last) {
+            int node = queue[first++];
+            for(int edge = head[node]; edge >= 0; edge = next[edge]) {
+                if(residual[edge] > 0 && level[to[edge]] < 0) {
+                    level[to[edge]] = level[node] + 1;
+                    queue[last++] = to[edge];
+                }
+            }
+        }
+        return level[1] >= 0;
+    }
+
+    // the paths are at most source, pair, team and sink, so the recursion stays shallow
+    private int push(int node, int limit) {
+        if(node == 1) {
+            return limit;
+        }
+        for(; iterator[node] >= 0; iterator[node] = next[iterator[node]]) {
+            int edge = iterator[node];
+            int target = to[edge];
+            if(residual[edge] > 0 && level[target] == level[node] + 1) {
+                int pushed = push(target, Math.min(limit, residual[edge]));
+                if(pushed > 0) {
+                    residual[edge] -= pushed;
+                    residual[edge ^ 1] += pushed;
+                    return pushed;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private int addPair(int team1, int team2) {
+        if(pairs == pairTeam1.length) {
+            pairTeam1 = Arrays.copyOf(pairTeam1, pairs * 2);
+            pairTeam2 = Arrays.copyOf(pairTeam2, pairs * 2);
+            pairGames = Arrays.copyOf(pairGames, pairs * 2);
+        }
+        pairTeam1[pairs] = team1;
+        pairTeam2[pairs] = team2;
+        return pairs++;
+    }
+
+    private int indexOf(Team team) {
+        Integer index = indexByTeam.get(team.getKey());
+        return index != null ? index : -1;
+    }
+
+    private static void add(int[] column, int index, int value) {
+        if(index >= 0) {
+            column[index] += value;
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
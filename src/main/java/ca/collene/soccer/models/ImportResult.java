@@ -0,0 +1,109 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * What an import did: how many rows of each type were applied, which rows were rejected and why,
+ * and how long it took.
+ */
+public class ImportResult {
+    // only the first rejections are kept, so a bad file doesn't fill the output
+    public static final int MAXIMUM_REJECTIONS_KEPT = 20;
+
+    public enum RowType {
+        GAME(4, JournalEvent.Type.ADD_GAME),
+        SCORE(6, JournalEvent.Type.SCORE_GAME),
+        PLAYER(4, JournalEvent.Type.ADD_PLAYER),
+        COACH(3, JournalEvent.Type.ADD_COACH);
+
+        private final int fields;
+        private final JournalEvent.Type eventType;
+        RowType(int fields, JournalEvent.Type eventType) {
+            this.fields = fields;
+            this.eventType = eventType;
+        }
+
+        /**
+         * Number of fields in a row of this type, including the type itself.
+         */
+        public int getFields() {
+            return fields;
+        }
+
+        /**
+         * The type of row that makes the same change as an event of the given type, or null if no
+         * row does.
+         */
+        public static RowType of(JournalEvent.Type eventType) {
+            for(RowType type : values()) {
+                if(type.eventType == eventType) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Map<RowType, Long> applied = new EnumMap<>(RowType.class);
+    private long rejected = 0;
+    private final List<String> rejections = new ArrayList<>();
+
+    @Getter
+    @Setter
+    private long elapsedMillis;
+
+    public void applied(RowType type) {
+        applied.merge(type, 1L, Long::sum);
+    }
+
+    public void rejected(long lineNumber, String reason) {
+        rejected++;
+        if(rejections.size() < MAXIMUM_REJECTIONS_KEPT) {
+            rejections.add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    /**
+     * Adds what another part of the same import did to this one.
+     */
+    public void add(ImportResult other) {
+        other.applied.forEach((type, count) -> applied.merge(type, count, Long::sum));
+        rejected += other.rejected;
+        for(String rejection : other.rejections) {
+            if(rejections.size() < MAXIMUM_REJECTIONS_KEPT) {
+                rejections.add(rejection);
+            }
+        }
+    }
+
+    public long getApplied(RowType type) {
+        return applied.getOrDefault(type, 0L);
+    }
+
+    public long getApplied() {
+        return applied.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<String> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    public long getRows() {
+        return getApplied() + rejected;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : getRows() * 1000.0 / elapsedMillis;
+    }
+}
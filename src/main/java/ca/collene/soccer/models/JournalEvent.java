@@ -0,0 +1,159 @@
+package ca.collene.soccer.models;
+
+import java.nio.charset.StandardCharsets;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * One change made through the services, as it is kept in the {@link EventJournal}: its type and
+ * the names and numbers it was made with, in the order the factory for the type takes them.
+ * Making the events again in the order they were recorded makes the same changes.  Each name has
+ * to fit in {@link #MAXIMUM_NAME_BYTES} bytes of UTF-8, which is checked when the event is made, so
+ * a change can make its event before it is written and fail before anything is committed.
+ */
+@Value
+public class JournalEvent {
+    public static final int MAXIMUM_NAME_BYTES = 0xffff;
+
+    public enum Type {
+        CREATE_TOURNAMENT(1, 1, 0),
+        CREATE_TEAM(2, 1, 0),
+        CREATE_PERSON(3, 1, 0),
+        ADD_TEAM(4, 2, 0),
+        ADD_GAME(5, 3, 0),
+        SCORE_GAME(6, 3, 2),
+        ADD_PLAYER(7, 2, 1),
+        ADD_COACH(8, 2, 0),
+        SET_POINTS_SCHEME(9, 1, 3),
+        GENERATE_ROUND_ROBIN(10, 1, 1),
+        GENERATE_KNOCKOUT(11, 2, 2),
+        PAIR_SWISS_ROUND(12, 1, 0),
+        REPLAY_RATINGS(13, 0, 0);
+
+        private static final Type[] BY_CODE = new Type[values().length + 1];
+        static {
+            for(Type type : values()) {
+                BY_CODE[type.code] = type;
+            }
+        }
+
+        // the code is what is written to the journal, so it stays the same if the types are reordered
+        private final int code;
+        private final int names;
+        private final int numbers;
+        Type(int code, int names, int numbers) {
+            this.code = code;
+            this.names = names;
+            this.numbers = numbers;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public int getNames() {
+            return names;
+        }
+
+        public int getNumbers() {
+            return numbers;
+        }
+
+        /**
+         * The type written with the given code, or null if there isn't one.
+         */
+        public static Type of(int code) {
+            return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
+
+    Type type;
+    @Getter(AccessLevel.NONE)
+    String[] names;
+    @Getter(AccessLevel.NONE)
+    int[] numbers;
+
+    private JournalEvent(Type type, String[] names, int[] numbers) {
+        if(names.length != type.getNames() || numbers.length != type.getNumbers()) {
+            throw new IllegalArgumentException(type + " events have " + type.getNames() + " names and " + type.getNumbers() + " numbers");
+        }
+        for(String name : names) {
+            // a character takes at most 3 bytes, so only long names need encoding
+            if(name.length() * 3 > MAXIMUM_NAME_BYTES && name.getBytes(StandardCharsets.UTF_8).length > MAXIMUM_NAME_BYTES) {
+                throw new IllegalArgumentException("The name " + name.substring(0, 20) + "... is too long to journal");
+            }
+        }
+        this.type = type;
+        this.names = names;
+        this.numbers = numbers;
+    }
+
+    /**
+     * An event of the given type, from names and numbers in the order its factory takes them.
+     */
+    public static JournalEvent of(Type type, String[] names, int[] numbers) {
+        return new JournalEvent(type, names.clone(), numbers.clone());
+    }
+
+    public static JournalEvent createTournament(String tournamentName) {
+        return new JournalEvent(Type.CREATE_TOURNAMENT, new String[] {tournamentName}, new int[0]);
+    }
+
+    public static JournalEvent createTeam(String teamName) {
+        return new JournalEvent(Type.CREATE_TEAM, new String[] {teamName}, new int[0]);
+    }
+
+    public static JournalEvent createPerson(String personName) {
+        return new JournalEvent(Type.CREATE_PERSON, new String[] {personName}, new int[0]);
+    }
+
+    public static JournalEvent addTeam(String tournamentName, String teamName) {
+        return new JournalEvent(Type.ADD_TEAM, new String[] {tournamentName, teamName}, new int[0]);
+    }
+
+    public static JournalEvent addGame(String tournamentName, String team1Name, String team2Name) {
+        return new JournalEvent(Type.ADD_GAME, new String[] {tournamentName, team1Name, team2Name}, new int[0]);
+    }
+
+    public static JournalEvent scoreGame(String tournamentName, String team1Name, int team1Points, String team2Name, int team2Points) {
+        return new JournalEvent(Type.SCORE_GAME, new String[] {tournamentName, team1Name, team2Name}, new int[] {team1Points, team2Points});
+    }
+
+    public static JournalEvent addPlayer(String teamName, String personName, int playerNumber) {
+        return new JournalEvent(Type.ADD_PLAYER, new String[] {teamName, personName}, new int[] {playerNumber});
+    }
+
+    public static JournalEvent addCoach(String teamName, String personName) {
+        return new JournalEvent(Type.ADD_COACH, new String[] {teamName, personName}, new int[0]);
+    }
+
+    public static JournalEvent setPointsScheme(String tournamentName, int win, int tie, int loss) {
+        return new JournalEvent(Type.SET_POINTS_SCHEME, new String[] {tournamentName}, new int[] {win, tie, loss});
+    }
+
+    public static JournalEvent generateRoundRobin(String tournamentName, boolean doubleRoundRobin) {
+        return new JournalEvent(Type.GENERATE_ROUND_ROBIN, new String[] {tournamentName}, new int[] {doubleRoundRobin ? 1 : 0});
+    }
+
+    public static JournalEvent generateKnockout(String tournamentName, String seedingTournamentName, int entrants, boolean byRating) {
+        return new JournalEvent(Type.GENERATE_KNOCKOUT, new String[] {tournamentName, seedingTournamentName}, new int[] {entrants, byRating ? 1 : 0});
+    }
+
+    public static JournalEvent pairSwissRound(String tournamentName) {
+        return new JournalEvent(Type.PAIR_SWISS_ROUND, new String[] {tournamentName}, new int[0]);
+    }
+
+    public static JournalEvent replayRatings() {
+        return new JournalEvent(Type.REPLAY_RATINGS, new String[0], new int[0]);
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getNumber(int index) {
+        return numbers[index];
+    }
+}
@@ -0,0 +1,52 @@
+package ca.collene.soccer.models;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The form of a name that teams, people and tournaments are looked up by, so that names that only
+ * differ in case, accents or spacing are the same name: accents are taken off, letters are folded
+ * to lower case, and each run of whitespace becomes a single space with none at either end.  So
+ * "Ladybugs", "LADYBUGS" and " ladybugs " all have the key "ladybugs", and "Zoë FC" has "zoe fc".
+ */
+public class NameKey {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private NameKey() {
+    }
+
+    public static String of(String name) {
+        if(name == null) {
+            return null;
+        }
+        for(int i = 0; i < name.length(); i++) {
+            if(name.charAt(i) >= 0x80) {
+                // decomposing splits an accented letter into the letter and its accents, which are marks
+                String unaccented = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("");
+                // upper case first, so that letters like ß fold the same way as their capitals
+                return collapseWhitespace(unaccented.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT));
+            }
+        }
+        // most names are plain ASCII, which only needs its case and spacing folded
+        return collapseWhitespace(name.toLowerCase(Locale.ROOT));
+    }
+
+    private static String collapseWhitespace(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean space = false;
+        for(int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if(Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                space = key.length() > 0;
+                continue;
+            }
+            if(space) {
+                key.append(' ');
+                space = false;
+            }
+            key.append(c);
+        }
+        return key.toString();
+    }
+}
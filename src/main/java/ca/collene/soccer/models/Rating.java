@@ -0,0 +1,55 @@
+package ca.collene.soccer.models;
+
+import ca.collene.soccer.models.Tally.TallyType;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A team's Elo rating and the number of scored games it is based on.  A team starts at
+ * {@link #INITIAL_RATING}, and after each game it gains what its opponent loses: {@link #K} times
+ * the difference between its result, 1 for a win, 0.5 for a tie and 0 for a loss, and the result
+ * expected from the two ratings.  Ratings belong to teams, not tournaments, so they carry from one
+ * tournament to the next.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class Rating {
+    public static final double INITIAL_RATING = 1500;
+    public static final double K = 20;
+    // the chance of a tie between two teams with the same rating, which falls as the ratings move apart
+    private static final double LEVEL_TIE_CHANCE = 1.0 / 3;
+
+    private String teamName;
+    private double rating;
+    private long games;
+
+    /**
+     * The result the first team is expected to get against the second, from 0 to 1.
+     */
+    public static double expected(double rating, double opponentRating) {
+        return 1 / (1 + Math.pow(10, (opponentRating - rating) / 400));
+    }
+
+    /**
+     * What the first team's rating gains, and the second team's loses, from the first team's result.
+     */
+    public static double change(double rating, double opponentRating, TallyType result) {
+        double score = result == TallyType.WIN ? 1 : result == TallyType.TIE ? 0.5 : 0;
+        return K * (score - expected(rating, opponentRating));
+    }
+
+    /**
+     * The chances of a win and of a tie for the first team against the second, which together with
+     * a loss give the expected result.  Two teams with the same rating are equally likely to win,
+     * tie or lose.
+     */
+    public static double[] chances(double rating, double opponentRating) {
+        double expected = expected(rating, opponentRating);
+        double tie = LEVEL_TIE_CHANCE * (1 - Math.abs(2 * expected - 1));
+        return new double[] {expected - tie / 2, tie};
+    }
+}
@@ -0,0 +1,74 @@
+package ca.collene.soccer.models;
+
+/**
+ * The games of a round robin between a number of teams, found with the circle method.  Teams are
+ * numbered from 0.  One team stays in place while the others rotate around it, and each round
+ * pairs the teams across the circle; with an odd number of teams a bye takes the extra place and
+ * its opponent sits the round out.
+ * <p>
+ * The team in the top half of the circle plays at home, except that the team that stays in place
+ * plays away in every other round, which leaves no team with more than one home game more than
+ * away games.  A double round robin plays every round a second time with home and away swapped.
+ * <p>
+ * Games are handed out one at a time rather than listed, so only the circle is kept in memory.
+ */
+public class RoundRobinSchedule {
+    @FunctionalInterface
+    public interface GameConsumer {
+        /**
+         * Rounds are numbered from 1.
+         */
+        void accept(int round, int homeTeam, int awayTeam);
+    }
+
+    private final int teams;
+    private final boolean doubleRoundRobin;
+    // the places in the circle, with a bye when the number of teams is odd
+    private final int places;
+
+    public RoundRobinSchedule(int teams, boolean doubleRoundRobin) {
+        this.teams = teams;
+        this.doubleRoundRobin = doubleRoundRobin;
+        this.places = teams + teams % 2;
+    }
+
+    public int getRounds() {
+        return teams < 2 ? 0 : (places - 1) * (doubleRoundRobin ? 2 : 1);
+    }
+
+    public long getGames() {
+        return (long) teams * (teams - 1) / 2 * (doubleRoundRobin ? 2 : 1);
+    }
+
+    public void forEachGame(GameConsumer consumer) {
+        if(teams < 2) {
+            return;
+        }
+        int rounds = places - 1;
+        int[] circle = new int[places];
+        for(int i = 0; i < places; i++) {
+            circle[i] = i;
+        }
+        for(int round = 0; round < rounds; round++) {
+            for(int i = 0; i < places / 2; i++) {
+                int top = circle[i];
+                int bottom = circle[places - 1 - i];
+                if(top >= teams || bottom >= teams) {
+                    // the bye
+                    continue;
+                }
+                boolean topAtHome = i != 0 || round % 2 == 0;
+                int home = topAtHome ? top : bottom;
+                int away = topAtHome ? bottom : top;
+                consumer.accept(round + 1, home, away);
+                if(doubleRoundRobin) {
+                    consumer.accept(rounds + round + 1, away, home);
+                }
+            }
+            // every team but the first moves one place around the circle
+            int last = circle[places - 1];
+            System.arraycopy(circle, 1, circle, 2, places - 2);
+            circle[1] = last;
+        }
+    }
+}
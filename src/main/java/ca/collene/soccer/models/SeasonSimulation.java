@@ -0,0 +1,239 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ca.collene.soccer.entities.PointsScheme;
+
+/**
+ * Plays out the rest of a season many times at random to estimate where each team finishes.
+ * Every unscored game is a home win, a tie or an away win, with equal chances unless each game's
+ * chances are given, and each finished table is ordered the same way as the standings: by total,
+ * then wins, then team name.
+ * <p>
+ * The simulations are split into tasks of {@link #SIMULATIONS_PER_TASK} that a fork-join pool
+ * runs in parallel.  Each task has its own random numbers, seeded from the seed and the task's
+ * number, so the result for a seed is the same however many threads run the tasks.  A task works
+ * on its own primitive copy of the standings, reset before each simulation, so the simulation
+ * loop allocates nothing.  The places are counted into one array per thread, added up once all
+ * the tasks are done, rather than into an array for every task.
+ */
+public class SeasonSimulation {
+    static final int SIMULATIONS_PER_TASK = 1000;
+    // the fields packed into a sort key: name order in the low bits, then wins, then total
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+    private final List<String> teams;
+    private final int[] wins;
+    private final int[] ties;
+    private final int[] losses;
+    private final int pointsForWin;
+    private final int pointsForTie;
+    private final int pointsForLoss;
+    // each team's place among the names, and the team with each place
+    private final int[] nameRanks;
+    private final int[] teamsByNameRank;
+    private final int[] homeTeams;
+    private final int[] awayTeams;
+    // each game is a home win below the first chance, a tie below the second and an away win above it
+    private final double[] homeWinBelow;
+    private final double[] tieBelow;
+
+    /**
+     * A simulation of the unscored games between the teams of the standings, given by their places
+     * in the standings.
+     */
+    public SeasonSimulation(List<Tally> standings, PointsScheme pointsScheme, int[] homeTeams, int[] awayTeams) {
+        this(standings, pointsScheme, homeTeams, awayTeams, null, null);
+    }
+
+    /**
+     * A simulation where each game has its own chances of a home win and of a tie.
+     */
+    public SeasonSimulation(List<Tally> standings, PointsScheme pointsScheme, int[] homeTeams, int[] awayTeams, double[] homeWinChances, double[] tieChances) {
+        int size = standings.size();
+        this.teams = new ArrayList<>(size);
+        this.wins = new int[size];
+        this.ties = new int[size];
+        this.losses = new int[size];
+        for(int i = 0; i < size; i++) {
+            Tally tally = standings.get(i);
+            teams.add(tally.getTeamName());
+            wins[i] = (int) tally.getWins();
+            ties[i] = (int) tally.getTies();
+            losses[i] = (int) tally.getLosses();
+        }
+        this.pointsForWin = pointsScheme.getWin();
+        this.pointsForTie = pointsScheme.getTie();
+        this.pointsForLoss = pointsScheme.getLoss();
+        this.teamsByNameRank = new int[size];
+        this.nameRanks = new int[size];
+        Integer[] byName = new Integer[size];
+        for(int i = 0; i < size; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, Comparator.comparing(teams::get));
+        for(int rank = 0; rank < size; rank++) {
+            teamsByNameRank[rank] = byName[rank];
+            nameRanks[byName[rank]] = rank;
+        }
+        this.homeTeams = homeTeams;
+        this.awayTeams = awayTeams;
+        this.homeWinBelow = new double[homeTeams.length];
+        this.tieBelow = new double[homeTeams.length];
+        for(int g = 0; g < homeTeams.length; g++) {
+            homeWinBelow[g] = homeWinChances != null ? homeWinChances[g] : 1.0 / 3;
+            tieBelow[g] = homeWinBelow[g] + (tieChances != null ? tieChances[g] : 1.0 / 3);
+        }
+    }
+
+    public int getRemainingGames() {
+        return homeTeams.length;
+    }
+
+    /**
+     * Runs the simulations in the pool and counts how often each team finishes in each place.
+     */
+    public Result run(ForkJoinPool pool, int simulations, long seed) {
+        int tasks = (simulations + SIMULATIONS_PER_TASK - 1) / SIMULATIONS_PER_TASK;
+        long[] counts = new long[teams.size() * teams.size()];
+        if(simulations > 0) {
+            Map<Thread, long[]> countsByThread = new ConcurrentHashMap<>();
+            pool.invoke(new Simulations(0, tasks, simulations, seed, countsByThread));
+            // joining the tasks makes each thread's counts visible here
+            for(long[] threadCounts : countsByThread.values()) {
+                for(int i = 0; i < counts.length; i++) {
+                    counts[i] += threadCounts[i];
+                }
+            }
+        }
+        return new Result(teams, simulations, counts);
+    }
+
+    /**
+     * The simulations of a range of tasks, split in half until there is one task left.
+     */
+    private class Simulations extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstTask;
+        private final int endTask;
+        private final int simulations;
+        private final long seed;
+        // only the thread a counts array belongs to writes to it
+        private final Map<Thread, long[]> countsByThread;
+
+        Simulations(int firstTask, int endTask, int simulations, long seed, Map<Thread, long[]> countsByThread) {
+            this.firstTask = firstTask;
+            this.endTask = endTask;
+            this.simulations = simulations;
+            this.seed = seed;
+            this.countsByThread = countsByThread;
+        }
+
+        @Override
+        protected void compute() {
+            if(endTask - firstTask == 1) {
+                int size = teams.size();
+                long[] counts = countsByThread.computeIfAbsent(Thread.currentThread(), thread -> new long[size * size]);
+                simulate(firstTask, Math.min(SIMULATIONS_PER_TASK, simulations - firstTask * SIMULATIONS_PER_TASK), seed, counts);
+                return;
+            }
+            int middle = (firstTask + endTask) >>> 1;
+            invokeAll(new Simulations(firstTask, middle, simulations, seed, countsByThread),
+                            new Simulations(middle, endTask, simulations, seed, countsByThread));
+        }
+    }
+
+    private void simulate(int task, int simulations, long seed, long[] counts) {
+        int size = teams.size();
+        // the golden ratio spreads the tasks' seeds apart before the generator mixes them
+        SplittableRandom random = new SplittableRandom(seed + task * 0x9E3779B97F4A7C15L);
+        int[] simulatedWins = new int[size];
+        int[] simulatedTies = new int[size];
+        int[] simulatedLosses = new int[size];
+        long[] keys = new long[size];
+        for(int s = 0; s < simulations; s++) {
+            System.arraycopy(wins, 0, simulatedWins, 0, size);
+            System.arraycopy(ties, 0, simulatedTies, 0, size);
+            System.arraycopy(losses, 0, simulatedLosses, 0, size);
+            for(int g = 0; g < homeTeams.length; g++) {
+                int home = homeTeams[g];
+                int away = awayTeams[g];
+                double result = random.nextDouble();
+                if(result < homeWinBelow[g]) {
+                    simulatedWins[home]++;
+                    simulatedLosses[away]++;
+                } else if(result < tieBelow[g]) {
+                    simulatedTies[home]++;
+                    simulatedTies[away]++;
+                } else {
+                    simulatedLosses[home]++;
+                    simulatedWins[away]++;
+                }
+            }
+            // ascending keys put the highest total first, then the most wins, then the first name
+            for(int team = 0; team < size; team++) {
+                long total = (long) simulatedWins[team] * pointsForWin + (long) simulatedTies[team] * pointsForTie + (long) simulatedLosses[team] * pointsForLoss;
+                keys[team] = (FIELD_MASK - total) << (2 * FIELD_BITS) | (FIELD_MASK - simulatedWins[team]) << FIELD_BITS | nameRanks[team];
+            }
+            Arrays.sort(keys);
+            for(int place = 0; place < size; place++) {
+                counts[teamsByNameRank[(int) (keys[place] & FIELD_MASK)] * size + place]++;
+            }
+        }
+    }
+
+    /**
+     * How often each team finished in each place, with places counted from 0.
+     */
+    public static class Result {
+        private final List<String> teams;
+        private final int simulations;
+        private final long[] counts;
+
+        Result(List<String> teams, int simulations, long[] counts) {
+            this.teams = teams;
+            this.simulations = simulations;
+            this.counts = counts;
+        }
+
+        /**
+         * The teams in the order of the standings the simulation started from.
+         */
+        public List<String> getTeams() {
+            return teams;
+        }
+
+        public int getSimulations() {
+            return simulations;
+        }
+
+        public long getCount(int team, int place) {
+            return counts[team * teams.size() + place];
+        }
+
+        public double getProbability(int team, int place) {
+            return simulations == 0 ? 0 : (double) getCount(team, place) / simulations;
+        }
+
+        /**
+         * The chance the team finishes in one of the first places.
+         */
+        public double getTopProbability(int team, int places) {
+            long count = 0;
+            for(int place = 0; place < Math.min(places, teams.size()); place++) {
+                count += getCount(team, place);
+            }
+            return simulations == 0 ? 0 : (double) count / simulations;
+        }
+    }
+}
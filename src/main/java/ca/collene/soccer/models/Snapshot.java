@@ -0,0 +1,133 @@
+package ca.collene.soccer.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Everything that had been entered once the event journal reached a position, as one table per
+ * database table, each stored as a column of values per database column so that ids and scores
+ * are kept as arrays of ints rather than one object per row.  Loading a snapshot and replaying the
+ * journal from its position gives the same data as replaying the whole journal.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+public class Snapshot {
+    /**
+     * Stands for a null value in an int column.  Text columns hold nulls as they are.
+     */
+    public static final int NULL = Integer.MIN_VALUE;
+
+    private final long journalPosition;
+    private final List<Table> tables;
+
+    public Table getTable(String name) {
+        return tables.stream()
+                    .filter(table -> table.getName().equals(name))
+                    .findFirst()
+                    .orElse(null);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @ToString
+    @AllArgsConstructor
+    public static class Table {
+        private final String name;
+        private final int rows;
+        private final List<Column> columns;
+
+        public Column getColumn(String name) {
+            return columns.stream()
+                        .filter(column -> column.getName().equals(name))
+                        .findFirst()
+                        .orElse(null);
+        }
+    }
+
+    /**
+     * The values of one column, in the same order as the rows of every other column of its table.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Column {
+        private final String name;
+        private final Type type;
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final Object values;
+
+        public static Column ints(String name, int[] values) {
+            return new Column(name, Type.INT, values);
+        }
+        public static Column texts(String name, String[] values) {
+            return new Column(name, Type.TEXT, values);
+        }
+        public static Column doubles(String name, double[] values) {
+            return new Column(name, Type.DOUBLE, values);
+        }
+        public static Column longs(String name, long[] values) {
+            return new Column(name, Type.LONG, values);
+        }
+
+        public int[] getInts() {
+            return (int[]) values;
+        }
+        public String[] getTexts() {
+            return (String[]) values;
+        }
+        public double[] getDoubles() {
+            return (double[]) values;
+        }
+        public long[] getLongs() {
+            return (long[]) values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(o == this) {
+                return true;
+            } else if(!(o instanceof Column)) {
+                return false;
+            }
+            Column other = (Column) o;
+            return name.equals(other.name) && type == other.type && Arrays.deepEquals(new Object[] {values}, new Object[] {other.values});
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(new Object[] {name, type, values});
+        }
+    }
+
+    /**
+     * The type of a column's values, with the code it is written with.
+     */
+    @Getter
+    @AllArgsConstructor
+    public enum Type {
+        INT(1),
+        TEXT(2),
+        DOUBLE(3),
+        LONG(4);
+
+        private final int code;
+
+        public static Type of(int code) {
+            for(Type type : values()) {
+                if(type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ca.collene.soccer.models;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.Tally.TallyType;
+
+/**
+ * Running win/loss/tie/unscored counts for every team in a tournament.  The rows are adjusted
+ * in place as teams, games and results are added, so reporting does not need to walk the games.
+ */
+public class Standings {
+    private final Map<String, Tally> rows = new LinkedHashMap<>();
+    private final PointsScheme pointsScheme;
+
+    public Standings() {
+        this(List.of());
+    }
+
+    public Standings(List<Tally> tallies) {
+        this(tallies, PointsScheme.DEFAULT);
+    }
+
+    public Standings(List<Tally> tallies, PointsScheme pointsScheme) {
+        this.pointsScheme = pointsScheme;
+        tallies.forEach(tally -> rows.put(tally.getTeamName(), copyOf(tally, pointsScheme)));
+    }
+
+    public synchronized void addTeam(String teamName) {
+        rows.computeIfAbsent(teamName, name -> Tally.builder().teamName(name).pointsScheme(pointsScheme).build());
+    }
+
+    public synchronized void addGame(String team1Name, String team2Name) {
+        recordResult(team1Name, null, TallyType.UNSCORED);
+        recordResult(team2Name, null, TallyType.UNSCORED);
+    }
+
+    /**
+     * Replaces the previous result of a game for a team with the current one.  When a game is
+     * scored for the first time the previous result is UNSCORED; when it is corrected it is the
+     * result that was recorded before.  A null previous result means the game is new.
+     */
+    public synchronized void recordResult(String teamName, TallyType previous, TallyType current) {
+        Tally row = rows.get(teamName);
+        if(row == null) {
+            // only teams in the tournament are reported
+            return;
+        }
+        if(previous != null) {
+            adjust(row, previous, -1);
+        }
+        adjust(row, current, 1);
+    }
+
+    public synchronized List<Tally> getTally() {
+        return rows.values().stream()
+                    .map(Standings::copyOf)
+                    .sorted(Tally.STANDINGS_ORDER)
+                    .collect(Collectors.toList());
+    }
+
+    /**
+     * Up to count rows of the standings, starting at the given place counted from zero.  Only the
+     * rows up to the end of the page are kept while the teams are scanned, in a heap with the
+     * lowest of them on top, so the top of a large tournament is found without sorting every team.
+     */
+    public synchronized List<Tally> getTally(int first, int count) {
+        int end = (int) Math.min((long) first + count, rows.size());
+        if(first >= end) {
+            return List.of();
+        }
+        PriorityQueue<Tally> kept = new PriorityQueue<>(end, Tally.STANDINGS_ORDER.reversed());
+        for(Tally row : rows.values()) {
+            if(kept.size() < end) {
+                kept.add(row);
+            } else if(Tally.STANDINGS_ORDER.compare(row, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(row);
+            }
+        }
+        // the heap gives up the lowest row first, so the page is filled from its end
+        Tally[] page = new Tally[end - first];
+        for(int place = end - 1; place >= first; place--) {
+            page[place - first] = copyOf(kept.poll());
+        }
+        return List.of(page);
+    }
+
+    public synchronized boolean matches(List<Tally> tallies) {
+        if(tallies.size() != rows.size()) {
+            return false;
+        }
+        return tallies.stream().allMatch(tally -> tally.equals(rows.get(tally.getTeamName())));
+    }
+
+    private static void adjust(Tally row, TallyType type, int delta) {
+        switch(type) {
+            case WIN:
+                row.setWins(row.getWins() + delta);
+                break;
+            case LOSS:
+                row.setLosses(row.getLosses() + delta);
+                break;
+            case TIE:
+                row.setTies(row.getTies() + delta);
+                break;
+            default:
+                row.setUnscored(row.getUnscored() + delta);
+        }
+    }
+
+    private static Tally copyOf(Tally tally) {
+        return copyOf(tally, tally.getPointsScheme());
+    }
+
+    private static Tally copyOf(Tally tally, PointsScheme pointsScheme) {
+        return new Tally(tally.getTeamName(), tally.getWins(), tally.getTies(), tally.getLosses(), tally.getUnscored(), pointsScheme);
+    }
+}
@@ -0,0 +1,323 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+
+/**
+ * Standings for a set of teams computed in a single pass over the games.  Each team gets a dense
+ * index and results are accumulated into primitive columns, so nothing is created per game.  Tally
+ * rows are only created when the standings are reported.
+ * <p>
+ * Goals are accumulated the same way for the goal tiebreakers, and scored games between two of the
+ * teams are kept so that a sparse head-to-head table can be built, once, if a head-to-head
+ * tiebreaker is needed.  Ordering a tie then only reads the games of the teams in it.
+ */
+public class StandingsTable {
+    private final PointsScheme pointsScheme;
+    // the scheme's weights, read once rather than for each team
+    private final int pointsForWin;
+    private final int pointsForTie;
+    private final int pointsForLoss;
+    private final String[] teamNames;
+    private final Map<Object, Integer> indexByTeam;
+    private final int[] wins;
+    private final int[] ties;
+    private final int[] losses;
+    private final int[] unscored;
+    private final int[] goalsFor;
+    private final int[] goalsAgainst;
+
+    // scored games between two of the teams, one column per field and the first played entries used
+    private int[] playedTeam1 = new int[16];
+    private int[] playedTeam2 = new int[16];
+    private int[] playedScore1 = new int[16];
+    private int[] playedScore2 = new int[16];
+    private int played;
+
+    // the same games by team, in compressed rows: the games of team i are at positions
+    // headToHeadStart[i] up to headToHeadStart[i + 1]; null until a head-to-head tiebreaker is used
+    private int[] headToHeadStart;
+    private int[] headToHeadOpponent;
+    private int[] headToHeadFor;
+    private int[] headToHeadAgainst;
+    // marks the teams of the tie being ordered, with a different mark for each tie
+    private int[] tieMark;
+    private int lastMark;
+
+    public StandingsTable(List<Team> teams) {
+        this(teams, PointsScheme.DEFAULT);
+    }
+
+    public StandingsTable(List<Team> teams, PointsScheme pointsScheme) {
+        this.pointsScheme = pointsScheme;
+        pointsForWin = pointsScheme.getWin();
+        pointsForTie = pointsScheme.getTie();
+        pointsForLoss = pointsScheme.getLoss();
+        int size = teams.size();
+        teamNames = new String[size];
+        indexByTeam = new HashMap<>(size * 2);
+        for(int i = 0; i < size; i++) {
+            Team team = teams.get(i);
+            teamNames[i] = team.getName();
+            indexByTeam.putIfAbsent(team.getKey(), i);
+        }
+        wins = new int[size];
+        ties = new int[size];
+        losses = new int[size];
+        unscored = new int[size];
+        goalsFor = new int[size];
+        goalsAgainst = new int[size];
+    }
+
+    public static StandingsTable of(Tournament tournament) {
+        StandingsTable table = new StandingsTable(tournament.getTeams(), tournament.getPointsScheme());
+        for(Game game : tournament.getGames()) {
+            table.addGame(game);
+        }
+        return table;
+    }
+
+    public void addGame(Game game) {
+        // games against teams that aren't in the standings are still counted for the other team
+        int index1 = indexOf(game.getTeam1());
+        int index2 = indexOf(game.getTeam2());
+        if(!game.hasScore()) {
+            increment(unscored, index1);
+            increment(unscored, index2);
+            return;
+        }
+        int team1Points = game.getScore1();
+        int team2Points = game.getScore2();
+        add(goalsFor, index1, team1Points);
+        add(goalsAgainst, index1, team2Points);
+        add(goalsFor, index2, team2Points);
+        add(goalsAgainst, index2, team1Points);
+        if(index1 >= 0 && index2 >= 0 && index1 != index2) {
+            addPlayed(index1, team1Points, index2, team2Points);
+        }
+        if(team1Points == team2Points) {
+            increment(ties, index1);
+            increment(ties, index2);
+        } else if(team1Points > team2Points) {
+            increment(wins, index1);
+            increment(losses, index2);
+        } else {
+            increment(losses, index1);
+            increment(wins, index2);
+        }
+    }
+
+    public int size() {
+        return teamNames.length;
+    }
+
+    public long getTotal(int index) {
+        return (long) wins[index] * pointsForWin + (long) ties[index] * pointsForTie + (long) losses[index] * pointsForLoss;
+    }
+
+    public Tally getTally(int index) {
+        return new Tally(teamNames[index], wins[index], ties[index], losses[index], unscored[index], pointsScheme);
+    }
+
+    public int getGoalsFor(int index) {
+        return goalsFor[index];
+    }
+
+    public int getGoalsAgainst(int index) {
+        return goalsAgainst[index];
+    }
+
+    /**
+     * Tally rows in the order of {@link Tally#STANDINGS_ORDER}.
+     */
+    public List<Tally> getTally() {
+        return getTally(Tiebreaker.DEFAULT);
+    }
+
+    /**
+     * Tally rows ordered by total, highest first, with teams level on total ordered by the chain
+     * of tiebreakers and then by name.
+     */
+    public List<Tally> getTally(List<Tiebreaker> tiebreakers) {
+        // sort the total and index packed into one primitive key rather than boxing the rows
+        long[] order = new long[size()];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = ((Integer.MAX_VALUE - getTotal(i)) << 32) | i;
+        }
+        Arrays.sort(order);
+        int[] teams = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            teams[i] = (int) order[i];
+        }
+        // only the runs of teams with the same total are left to be broken
+        int start = 0;
+        for(int i = 1; i <= teams.length; i++) {
+            if(i == teams.length || getTotal(teams[i]) != getTotal(teams[start])) {
+                breakTie(teams, start, i, tiebreakers, 0);
+                start = i;
+            }
+        }
+        List<Tally> tallies = new ArrayList<>(teams.length);
+        for(int index : teams) {
+            tallies.add(getTally(index));
+        }
+        return tallies;
+    }
+
+    /**
+     * Orders the teams from one position up to another, which are level on everything before the
+     * given tiebreaker, and then each run of teams the tiebreaker leaves level with the next one.
+     */
+    private void breakTie(int[] teams, int from, int to, List<Tiebreaker> tiebreakers, int level) {
+        if(to - from < 2) {
+            return;
+        }
+        if(level == tiebreakers.size()) {
+            Integer[] tied = new Integer[to - from];
+            for(int i = from; i < to; i++) {
+                tied[i - from] = teams[i];
+            }
+            Arrays.sort(tied, Comparator.comparing(index -> teamNames[index]));
+            for(int i = from; i < to; i++) {
+                teams[i] = tied[i - from];
+            }
+            return;
+        }
+        int[] values = tiebreakerValues(tiebreakers.get(level), teams, from, to);
+        // the value and index packed as for the total; values are ints, so the key fits in 63 bits
+        long[] keys = new long[to - from];
+        for(int i = from; i < to; i++) {
+            keys[i - from] = (((long) Integer.MAX_VALUE - values[i - from]) << 31) | teams[i];
+        }
+        Arrays.sort(keys);
+        for(int i = from; i < to; i++) {
+            teams[i] = (int) (keys[i - from] & Integer.MAX_VALUE);
+        }
+        int start = 0;
+        for(int i = 1; i <= keys.length; i++) {
+            if(i == keys.length || (keys[i] >>> 31) != (keys[start] >>> 31)) {
+                breakTie(teams, from + start, from + i, tiebreakers, level + 1);
+                start = i;
+            }
+        }
+    }
+
+    private int[] tiebreakerValues(Tiebreaker tiebreaker, int[] teams, int from, int to) {
+        int[] values = new int[to - from];
+        switch(tiebreaker) {
+            case GOAL_DIFFERENCE:
+                for(int i = from; i < to; i++) {
+                    values[i - from] = goalsFor[teams[i]] - goalsAgainst[teams[i]];
+                }
+                break;
+            case GOALS_SCORED:
+                for(int i = from; i < to; i++) {
+                    values[i - from] = goalsFor[teams[i]];
+                }
+                break;
+            case HEAD_TO_HEAD_POINTS:
+            case HEAD_TO_HEAD_GOAL_DIFFERENCE:
+                buildHeadToHead();
+                int mark = ++lastMark;
+                for(int i = from; i < to; i++) {
+                    tieMark[teams[i]] = mark;
+                }
+                for(int i = from; i < to; i++) {
+                    int team = teams[i];
+                    int value = 0;
+                    for(int game = headToHeadStart[team]; game < headToHeadStart[team + 1]; game++) {
+                        if(tieMark[headToHeadOpponent[game]] != mark) {
+                            continue;
+                        }
+                        int own = headToHeadFor[game];
+                        int other = headToHeadAgainst[game];
+                        if(tiebreaker == Tiebreaker.HEAD_TO_HEAD_GOAL_DIFFERENCE) {
+                            value += own - other;
+                        } else {
+                            value += own > other ? pointsForWin : own < other ? pointsForLoss : pointsForTie;
+                        }
+                    }
+                    values[i - from] = value;
+                }
+                break;
+            default:
+                for(int i = from; i < to; i++) {
+                    values[i - from] = wins[teams[i]];
+                }
+        }
+        return values;
+    }
+
+    private void addPlayed(int index1, int points1, int index2, int points2) {
+        if(played == playedTeam1.length) {
+            playedTeam1 = Arrays.copyOf(playedTeam1, played * 2);
+            playedTeam2 = Arrays.copyOf(playedTeam2, played * 2);
+            playedScore1 = Arrays.copyOf(playedScore1, played * 2);
+            playedScore2 = Arrays.copyOf(playedScore2, played * 2);
+        }
+        playedTeam1[played] = index1;
+        playedTeam2[played] = index2;
+        playedScore1[played] = points1;
+        playedScore2[played] = points2;
+        played++;
+        // games added after the head-to-head table was built are only in a new one
+        headToHeadStart = null;
+    }
+
+    private void buildHeadToHead() {
+        if(headToHeadStart != null) {
+            return;
+        }
+        int size = size();
+        int[] start = new int[size + 1];
+        for(int game = 0; game < played; game++) {
+            start[playedTeam1[game] + 1]++;
+            start[playedTeam2[game] + 1]++;
+        }
+        for(int i = 0; i < size; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] next = Arrays.copyOf(start, size);
+        headToHeadOpponent = new int[played * 2];
+        headToHeadFor = new int[played * 2];
+        headToHeadAgainst = new int[played * 2];
+        for(int game = 0; game < played; game++) {
+            int entry1 = next[playedTeam1[game]]++;
+            headToHeadOpponent[entry1] = playedTeam2[game];
+            headToHeadFor[entry1] = playedScore1[game];
+            headToHeadAgainst[entry1] = playedScore2[game];
+            int entry2 = next[playedTeam2[game]]++;
+            headToHeadOpponent[entry2] = playedTeam1[game];
+            headToHeadFor[entry2] = playedScore2[game];
+            headToHeadAgainst[entry2] = playedScore1[game];
+        }
+        if(tieMark == null) {
+            tieMark = new int[size];
+        }
+        headToHeadStart = start;
+    }
+
+    private int indexOf(Team team) {
+        Integer index = indexByTeam.get(team.getKey());
+        return index != null ? index : -1;
+    }
+
+    private static void increment(int[] column, int index) {
+        add(column, index, 1);
+    }
+
+    private static void add(int[] column, int index, int value) {
+        if(index >= 0) {
+            column[index] += value;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * The games of one round of a Swiss-system tournament, paired from the standings.
+ * <p>
+ * Teams are grouped by points, highest first.  In each score group the top half plays the bottom
+ * half, the first of the top half against the first of the bottom half and so on, moving down the
+ * bottom half past any team it has already played.  A team that can't be paired in its group, and
+ * the last team of a group with an odd number of teams, floats down to the next group.  When the
+ * last group still leaves teams that have all played each other, they are swapped into games
+ * already paired from the bottom up, and only if that fails is a rematch played.
+ * <p>
+ * With an odd number of teams the bye goes to the lowest team in the standings that hasn't had
+ * one, which is the lowest team that has played as many games as any other.
+ * <p>
+ * Whether two teams have played is asked for each pair considered, so it should be a lookup and
+ * not a search; most teams are paired with the first team considered.
+ */
+public class SwissPairing<T> {
+    private final int round;
+    private final List<T> teams;
+    private final BiPredicate<T, T> played;
+    // the games as pairs of places in the standings, in the order they were paired
+    private final List<int[]> games = new ArrayList<>();
+    private int bye = -1;
+    private int rematches = 0;
+
+    /**
+     * Pairs the teams, listed in the order of the standings, with the points and the number of
+     * games played of each team in the same order.
+     */
+    public SwissPairing(int round, List<T> teams, long[] points, int[] gamesPlayed, BiPredicate<T, T> played) {
+        this.round = round;
+        this.teams = teams;
+        this.played = played;
+        List<Integer> unpaired = new ArrayList<>(teams.size());
+        for(int i = 0; i < teams.size(); i++) {
+            unpaired.add(i);
+        }
+        if(teams.size() % 2 == 1) {
+            bye = chooseBye(gamesPlayed);
+            unpaired.remove(Integer.valueOf(bye));
+        }
+        pair(unpaired, points);
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public int getGames() {
+        return games.size();
+    }
+
+    /**
+     * The team with the bye, or null when every team plays.
+     */
+    public T getBye() {
+        return bye < 0 ? null : teams.get(bye);
+    }
+
+    /**
+     * The number of games between teams that have already played, when there was no other way to
+     * pair them.
+     */
+    public int getRematches() {
+        return rematches;
+    }
+
+    /**
+     * Passes each game, the team higher in the standings first.
+     */
+    public void forEachGame(BiConsumer<T, T> consumer) {
+        for(int[] game : games) {
+            consumer.accept(teams.get(Math.min(game[0], game[1])), teams.get(Math.max(game[0], game[1])));
+        }
+    }
+
+    private int chooseBye(int[] gamesPlayed) {
+        int most = 0;
+        for(int games : gamesPlayed) {
+            most = Math.max(most, games);
+        }
+        for(int i = teams.size() - 1; i > 0; i--) {
+            if(gamesPlayed[i] == most) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void pair(List<Integer> unpaired, long[] points) {
+        List<Integer> floaters = new ArrayList<>();
+        int start = 0;
+        while(start < unpaired.size()) {
+            int end = start;
+            while(end < unpaired.size() && points[unpaired.get(end)] == points[unpaired.get(start)]) {
+                end++;
+            }
+            // the floaters from the groups above rank ahead of this group
+            List<Integer> group = new ArrayList<>(floaters);
+            group.addAll(unpaired.subList(start, end));
+            floaters = new ArrayList<>();
+            if(group.size() % 2 == 1) {
+                floaters.add(group.remove(group.size() - 1));
+            }
+            List<Integer> left = pairGroup(group);
+            // unpaired teams float ahead of the odd one out, which ranks lowest
+            left.addAll(floaters);
+            floaters = left;
+            start = end;
+        }
+        pairLeftovers(floaters);
+    }
+
+    /**
+     * Pairs the top half of the group against the bottom half, and returns the teams left unpaired
+     * in the order of the standings.
+     */
+    private List<Integer> pairGroup(List<Integer> group) {
+        int size = group.size();
+        int half = size / 2;
+        boolean[] used = new boolean[size];
+        for(int i = 0; i < half; i++) {
+            if(used[i]) {
+                continue;
+            }
+            int team = group.get(i);
+            int partner = -1;
+            // the bottom half from the matching place, then the bottom half above it, then the rest of the top half
+            for(int k = 0; k < size - 1 && partner < 0; k++) {
+                int j = k < half ? half + (i + k) % half : (i + 1 + k - half) % size;
+                if(j != i && !used[j] && !played.test(teams.get(team), teams.get(group.get(j)))) {
+                    partner = j;
+                }
+            }
+            if(partner >= 0) {
+                used[i] = true;
+                used[partner] = true;
+                games.add(new int[] {team, group.get(partner)});
+            }
+        }
+        List<Integer> left = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            if(!used[i]) {
+                left.add(group.get(i));
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Pairs the teams that floated out of the last group, swapping them into games already paired
+     * when they have all played each other.
+     */
+    private void pairLeftovers(List<Integer> left) {
+        List<Integer> unpaired = new ArrayList<>();
+        boolean[] used = new boolean[left.size()];
+        for(int i = 0; i < left.size(); i++) {
+            if(used[i]) {
+                continue;
+            }
+            used[i] = true;
+            int partner = -1;
+            for(int j = i + 1; j < left.size() && partner < 0; j++) {
+                if(!used[j] && !played.test(teams.get(left.get(i)), teams.get(left.get(j)))) {
+                    partner = j;
+                }
+            }
+            if(partner >= 0) {
+                used[partner] = true;
+                games.add(new int[] {left.get(i), left.get(partner)});
+            } else {
+                unpaired.add(left.get(i));
+            }
+        }
+        for(int i = 0; i + 1 < unpaired.size(); i += 2) {
+            if(!swapIn(unpaired.get(i), unpaired.get(i + 1))) {
+                rematches++;
+                games.add(new int[] {unpaired.get(i), unpaired.get(i + 1)});
+            }
+        }
+    }
+
+    /**
+     * Breaks up the lowest game paired so far that lets each of the two teams play one of its
+     * teams instead.  Returns whether there was one.
+     */
+    private boolean swapIn(int team1, int team2) {
+        for(int g = games.size() - 1; g >= 0; g--) {
+            int[] game = games.get(g);
+            for(int side = 0; side < 2; side++) {
+                int a = game[side];
+                int b = game[1 - side];
+                if(!played.test(teams.get(team1), teams.get(a)) && !played.test(teams.get(team2), teams.get(b))) {
+                    games.set(g, new int[] {a, team1});
+                    games.add(new int[] {b, team2});
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
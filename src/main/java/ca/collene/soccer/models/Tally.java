@@ -1,7 +1,9 @@
 package ca.collene.soccer.models;
 
+import java.util.Comparator;
 import java.util.List;
 
+import ca.collene.soccer.entities.PointsScheme;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -18,40 +20,61 @@ import lombok.ToString;
 @Builder
 @EqualsAndHashCode
 public class Tally {
+    /**
+     * Order of the standings: highest total first, then most wins, then by team name.  Every team
+     * has exactly one place, so pages of the standings are the same each time they are read.
+     */
+    public static final Comparator<Tally> STANDINGS_ORDER = Comparator.comparingLong(Tally::getTotal).reversed()
+                    .thenComparing(Comparator.comparingLong(Tally::getWins).reversed())
+                    .thenComparing(Tally::getTeamName);
+
     private String teamName;
     @Builder.Default private long wins = 0;
     @Builder.Default private long ties = 0;
     @Builder.Default private long losses = 0;
     @Builder.Default private long unscored = 0;
+    // the points of the tournament the team is in, used to count its total
+    @Builder.Default private PointsScheme pointsScheme = PointsScheme.DEFAULT;
 
     public enum TallyType {        
-        WIN(3),
-        LOSS(1),
-        TIE(2),
-        UNSCORED(0);
-
-        private final int value;
-        TallyType(int value) {
-            this.value = value;
-        }
-
-        public int getTallyTotalValue() {
-            return value;
-        }
+        WIN,
+        LOSS,
+        TIE,
+        UNSCORED
     }    
 
+    public Tally(String teamName, long wins, long ties, long losses, long unscored) {
+        this(teamName, wins, ties, losses, unscored, PointsScheme.DEFAULT);
+    }
+
+    /**
+     * For rows of the standings query, which reads the tournament's points with each team.
+     */
+    public Tally(String teamName, long wins, long ties, long losses, long unscored, int pointsForWin, int pointsForTie, int pointsForLoss) {
+        this(teamName, wins, ties, losses, unscored, new PointsScheme(pointsForWin, pointsForTie, pointsForLoss));
+    }
+
     public Tally(String teamName, List<TallyType> tallyTypes) {
         this.teamName = teamName;
-        this.wins = tallyTypes.stream().filter(t -> t == TallyType.WIN).count();
-        this.losses = tallyTypes.stream().filter(t -> t == TallyType.LOSS).count();
-        this.ties = tallyTypes.stream().filter(t -> t == TallyType.TIE).count();
-        this.unscored = tallyTypes.stream().filter(t -> t == TallyType.UNSCORED).count();
+        this.pointsScheme = PointsScheme.DEFAULT;
+        for(TallyType tallyType : tallyTypes) {
+            switch(tallyType) {
+                case WIN:
+                    wins++;
+                    break;
+                case LOSS:
+                    losses++;
+                    break;
+                case TIE:
+                    ties++;
+                    break;
+                default:
+                    unscored++;
+            }
+        }
     }
 
     public long getTotal() {
-        return getWins() * TallyType.WIN.getTallyTotalValue()
-                + getLosses() * TallyType.LOSS.getTallyTotalValue()
-                + getTies() * TallyType.TIE.getTallyTotalValue()
-                + getUnscored() * TallyType.UNSCORED.getTallyTotalValue();
+        return pointsScheme.getTotal(getWins(), getTies(), getLosses());
     }
 }
@@ -0,0 +1,50 @@
+package ca.collene.soccer.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ways of ordering teams that are level on points.  Tiebreakers are applied in a chain: each one
+ * only orders the teams the ones before it left level, and teams still level at the end of the
+ * chain are ordered by name.
+ */
+public enum Tiebreaker {
+    /**
+     * Goals scored less goals conceded, in all games.
+     */
+    GOAL_DIFFERENCE,
+    /**
+     * Goals scored in all games.
+     */
+    GOALS_SCORED,
+    /**
+     * Points from the games between the teams that are still level.
+     */
+    HEAD_TO_HEAD_POINTS,
+    /**
+     * Goal difference in the games between the teams that are still level.
+     */
+    HEAD_TO_HEAD_GOAL_DIFFERENCE,
+    /**
+     * Games won.
+     */
+    WINS;
+
+    /**
+     * The chain used when none is given, the same order as {@link Tally#STANDINGS_ORDER}.
+     */
+    public static final List<Tiebreaker> DEFAULT = List.of(WINS);
+
+    /**
+     * Reads a comma separated chain of tiebreakers, written like goal-difference or GOAL_DIFFERENCE.
+     */
+    public static List<Tiebreaker> parse(String chain) {
+        List<Tiebreaker> tiebreakers = new ArrayList<>();
+        for(String name : chain.split(",")) {
+            if(!name.isBlank()) {
+                tiebreakers.add(valueOf(name.trim().toUpperCase().replace('-', '_')));
+            }
+        }
+        return tiebreakers;
+    }
+}
@@ -0,0 +1,20 @@
+package ca.collene.soccer.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ca.collene.soccer.entities.BracketSlot;
+
+@Repository
+public interface BracketSlotRepository extends JpaRepository<BracketSlot, BracketSlot.Key> {
+    /**
+     * Each filled slot of the tournament's bracket with the name of the team in it, as a slot and
+     * name pair.
+     */
+    @Query("SELECT s.slot, team.name FROM bracket_slot s, team team WHERE team.id = s.teamId AND s.tournamentId = :tournamentId")
+    List<Object[]> findTeamNamesByTournamentId(@Param("tournamentId") Long tournamentId);
+}
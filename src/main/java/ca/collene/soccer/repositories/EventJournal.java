@@ -0,0 +1,341 @@
+package ca.collene.soccer.repositories;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import ca.collene.soccer.models.JournalEvent;
+
+/**
+ * An append-only file of {@link JournalEvent}s.
+ * <p>
+ * The file starts with an 8 byte header, followed by one record per event: the length of its body
+ * and a CRC-32C checksum of the body, as two ints, and then the body: the event's type code as a
+ * byte, each name as an unsigned short count of UTF-8 bytes followed by the bytes, and each number
+ * as an int.  A record with a length of 0 marks the end of the events.
+ * <p>
+ * Events are appended to a memory mapping of the file from the end of the last record onwards, so
+ * an append is a copy into memory; a new mapping is made from the end of the last record when one
+ * fills up.  They are only certain to be on disk once they have been synced, and a single sync
+ * covers every event appended before it, so callers that each sync the events they appended share
+ * one sync of the file between them.
+ * <p>
+ * If the application stops while events are being written, the end of the file can be left with a
+ * record that was only partly written, or followed by pages of records that reached the disk when
+ * one before them didn't.  Opening the file reads every record and cuts the file off at the first
+ * one that doesn't match its checksum, so only whole events that follow on from each other are
+ * kept.
+ */
+public class EventJournal implements Closeable {
+    public static final long START = 8;
+    public static final int DEFAULT_REGION_SIZE = 64 << 20;
+    private static final long MAGIC = 0x534f43434a524e31L;
+    private static final int RECORD_HEADER_SIZE = 8;
+    // the longest body any event can have, so a length past it can only be a torn record
+    private static final int MAXIMUM_BODY_SIZE = 1 + 3 * (2 + JournalEvent.MAXIMUM_NAME_BYTES) + 3 * 4;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int regionSize;
+    private final boolean repaired;
+    private final CRC32C checksum = new CRC32C();
+    private final Object syncLock = new Object();
+
+    // only changed while holding this journal's lock
+    private MappedByteBuffer region;
+    private long position;
+
+    private volatile long syncedPosition;
+
+    private EventJournal(Path file, FileChannel channel, int regionSize, long position, boolean repaired) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.regionSize = regionSize;
+        this.position = position;
+        this.syncedPosition = position;
+        this.repaired = repaired;
+        map(regionSize);
+    }
+
+    public static EventJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Opens the journal in the file, creating it if it doesn't exist, with appends mapped the given
+     * number of bytes at a time.  Whatever follows the last whole record is cut off.
+     */
+    public static EventJournal open(Path file, int regionSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if(size == 0) {
+                ByteBuffer header = ByteBuffer.allocate((int) START).putLong(MAGIC).flip();
+                while(header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+                return new EventJournal(file, channel, regionSize, START, false);
+            }
+            ByteBuffer header = ByteBuffer.allocate((int) START);
+            if(size < START || channel.read(header, 0) < START || header.getLong(0) != MAGIC) {
+                throw new IOException(file + " is not an event journal");
+            }
+            Reader reader = new Reader(channel, START, size);
+            while(reader.skip()) {
+            }
+            long end = reader.getPosition();
+            boolean torn = reader.isTorn();
+            // also drops the zeros past the last record left by the mapping it was written through
+            if(end < size) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+            return new EventJournal(file, channel, regionSize, end, torn);
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Whether a record that was only partly written was cut off the end of the file when it was
+     * opened.
+     */
+    public boolean wasRepaired() {
+        return repaired;
+    }
+
+    /**
+     * The position just past the last event appended.
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    /**
+     * Appends the event and returns the position just past it, to sync up to.
+     */
+    public synchronized long append(JournalEvent event) throws IOException {
+        JournalEvent.Type type = event.getType();
+        byte[][] names = new byte[type.getNames()][];
+        int bodySize = 1 + 4 * type.getNumbers();
+        for(int i = 0; i < names.length; i++) {
+            // events only have names that fit
+            names[i] = event.getName(i).getBytes(StandardCharsets.UTF_8);
+            bodySize += 2 + names[i].length;
+        }
+        int recordSize = RECORD_HEADER_SIZE + bodySize;
+        if(region.remaining() < recordSize) {
+            // everything in the old mapping is synced now, so a sync only ever has the latest to force
+            region.force();
+            map(Math.max(regionSize, recordSize));
+        }
+        int start = region.position();
+        region.position(start + RECORD_HEADER_SIZE);
+        region.put((byte) type.getCode());
+        for(byte[] name : names) {
+            region.putShort((short) name.length);
+            region.put(name);
+        }
+        for(int i = 0; i < type.getNumbers(); i++) {
+            region.putInt(event.getNumber(i));
+        }
+        checksum.reset();
+        checksum.update(region.duplicate().position(start + RECORD_HEADER_SIZE).limit(start + recordSize));
+        region.putInt(start, bodySize);
+        region.putInt(start + 4, (int) checksum.getValue());
+        position += recordSize;
+        return position;
+    }
+
+    private void map(int size) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+    }
+
+    /**
+     * Makes sure every event up to the position is on disk.  One caller forces the file while the
+     * others wait, and the ones whose events it covered return without forcing it again.
+     */
+    public void sync(long position) throws IOException {
+        if(position <= syncedPosition) {
+            return;
+        }
+        synchronized(syncLock) {
+            if(position <= syncedPosition) {
+                return;
+            }
+            MappedByteBuffer written;
+            long end;
+            synchronized(this) {
+                written = region;
+                end = this.position;
+            }
+            written.force();
+            syncedPosition = end;
+        }
+    }
+
+    /**
+     * Reads the events from the position, which is {@link #START} or a position returned by an
+     * append, up to the last one appended before this was called.
+     */
+    public Reader read(long from) {
+        return new Reader(channel, from, getPosition());
+    }
+
+    /**
+     * Syncs what has been appended and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        sync(getPosition());
+        channel.close();
+    }
+
+    /**
+     * Reads events from the file in order, through a buffer rather than a mapping so that the file
+     * can still be cut off after it is read.
+     */
+    public static class Reader {
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE).limit(0);
+        private final CRC32C checksum = new CRC32C();
+        private long position;
+        private boolean torn;
+
+        Reader(FileChannel channel, long from, long end) {
+            this.channel = channel;
+            this.position = from;
+            this.end = end;
+        }
+
+        /**
+         * The position just past the last event read.
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        boolean isTorn() {
+            return torn;
+        }
+
+        /**
+         * The next event, or null if there are no more.
+         */
+        public JournalEvent next() throws IOException {
+            int bodySize = nextBody();
+            if(bodySize < 0) {
+                return null;
+            }
+            int start = buffer.position();
+            JournalEvent.Type type = JournalEvent.Type.of(buffer.get());
+            String[] names = new String[type.getNames()];
+            for(int i = 0; i < names.length; i++) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                byte[] name = new byte[length];
+                buffer.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+            }
+            int[] numbers = new int[type.getNumbers()];
+            for(int i = 0; i < numbers.length; i++) {
+                numbers[i] = buffer.getInt();
+            }
+            buffer.position(start + bodySize);
+            position += RECORD_HEADER_SIZE + bodySize;
+            return JournalEvent.of(type, names, numbers);
+        }
+
+        /**
+         * Checks the next record without reading its event.  Returns false if there are no more.
+         */
+        boolean skip() throws IOException {
+            int bodySize = nextBody();
+            if(bodySize < 0) {
+                return false;
+            }
+            buffer.position(buffer.position() + bodySize);
+            position += RECORD_HEADER_SIZE + bodySize;
+            return true;
+        }
+
+        /**
+         * Checks the next record and leaves the buffer at the start of its body.  Returns the size
+         * of the body, or -1 at the end of the events or at a record that isn't whole.
+         */
+        private int nextBody() throws IOException {
+            if(!fill(RECORD_HEADER_SIZE)) {
+                torn = !zerosToEnd();
+                return -1;
+            }
+            int bodySize = buffer.getInt(buffer.position());
+            int expected = buffer.getInt(buffer.position() + 4);
+            if(bodySize == 0) {
+                return -1;
+            }
+            if(bodySize < 0 || bodySize > MAXIMUM_BODY_SIZE || !fill(RECORD_HEADER_SIZE + bodySize)) {
+                torn = true;
+                return -1;
+            }
+            int bodyStart = buffer.position() + RECORD_HEADER_SIZE;
+            checksum.reset();
+            checksum.update(buffer.duplicate().position(bodyStart).limit(bodyStart + bodySize));
+            if((int) checksum.getValue() != expected || JournalEvent.Type.of(buffer.get(bodyStart)) == null) {
+                torn = true;
+                return -1;
+            }
+            buffer.position(bodyStart);
+            return bodySize;
+        }
+
+        /**
+         * Makes sure the buffer holds the given number of bytes from the position.  Returns false if
+         * the file ends first.
+         */
+        private boolean fill(int bytes) throws IOException {
+            if(position + bytes > end) {
+                return false;
+            }
+            if(buffer.remaining() >= bytes) {
+                return true;
+            }
+            buffer.compact();
+            long limit = Math.min(end - position, buffer.capacity());
+            while(buffer.position() < limit) {
+                if(channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("The journal ended before position " + end);
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+
+        /**
+         * Whether the few bytes left before the end, too few for a record, are all zeros.
+         */
+        private boolean zerosToEnd() throws IOException {
+            int left = (int) (end - position);
+            fill(left);
+            for(int i = 0; i < left; i++) {
+                if(buffer.get(buffer.position() + i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
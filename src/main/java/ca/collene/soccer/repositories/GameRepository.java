@@ -0,0 +1,34 @@
+package ca.collene.soccer.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ca.collene.soccer.entities.Game;
+
+@Repository
+public interface GameRepository extends JpaRepository<Game, Long> {
+    /**
+     * The games between the two teams in the tournament, given by their name keys, with the teams in
+     * either order, in the order they were added; a double round robin has two.  Only those games
+     * and their two teams are loaded.  A
+     * team can't play itself, so matching both teams against both keys is the same as matching
+     * either order, and unlike an OR lets the database find the game through the team indexes
+     * instead of reading every game.
+     */
+    @Query("SELECT g FROM tournament t JOIN t.games g JOIN FETCH g.team1 team1 JOIN FETCH g.team2 team2"
+            + " WHERE t.nameKey = :tournamentKey"
+            + " AND team1.nameKey IN (:team1Key, :team2Key) AND team2.nameKey IN (:team1Key, :team2Key)"
+            + " ORDER BY g.id")
+    List<Game> findInTournament(@Param("tournamentKey") String tournamentKey, @Param("team1Key") String team1Key, @Param("team2Key") String team2Key);
+
+    /**
+     * The names of the two teams of each game in the tournament that hasn't been scored, without
+     * loading the games.
+     */
+    @Query("SELECT g.team1.name, g.team2.name FROM game g WHERE g.tournamentId = :tournamentId AND (g.score1 IS NULL OR g.score2 IS NULL)")
+    List<Object[]> findUnscoredTeamNamesByTournamentId(@Param("tournamentId") Long tournamentId);
+}
@@ -0,0 +1,72 @@
+package ca.collene.soccer.repositories;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves games saved in the old layout, with the teams of a game in the game_team table and its
+ * score in the game_score table, onto the team and score columns of the game table, and then
+ * drops the old tables.  Runs at startup once the schema has been updated, and does nothing when
+ * the old tables aren't there.
+ */
+// the schema is updated when the entity manager factory is built, so the game table has its new
+// columns before the migration runs
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class GameTableMigration {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrate() {
+        if(!tableExists("game_team")) {
+            return;
+        }
+        log.info("Moving game teams and scores onto the game table");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // the old layout didn't keep the order of the teams, so the team with the lower id comes first
+            jdbcTemplate.update("UPDATE game SET"
+                    + " team1_id = (SELECT MIN(team_id) FROM game_team WHERE game_team.game_id = game.id),"
+                    + " team2_id = (SELECT MAX(team_id) FROM game_team WHERE game_team.game_id = game.id)"
+                    + " WHERE team1_id IS NULL");
+            if(tableExists("game_score")) {
+                jdbcTemplate.update("UPDATE game SET"
+                        + " score1 = (SELECT points FROM game_score WHERE game_score.game_id = game.id AND game_score.team_id = game.team1_id),"
+                        + " score2 = (SELECT points FROM game_score WHERE game_score.game_id = game.id AND game_score.team_id = game.team2_id)"
+                        + " WHERE score1 IS NULL");
+                jdbcTemplate.execute("DROP TABLE game_score");
+            }
+            jdbcTemplate.execute("DROP TABLE game_team");
+        });
+    }
+
+    private boolean tableExists(String name) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return hasTable(metaData, name) || hasTable(metaData, name.toUpperCase());
+        });
+    }
+
+    private boolean hasTable(DatabaseMetaData metaData, String name) throws SQLException {
+        try(ResultSet tables = metaData.getTables(null, null, name, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ca.collene.soccer.repositories;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.models.NameKey;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills in the name keys of people, teams and tournaments saved before names had them, see
+ * {@link NameKey}, and reports the names that now have the same key as another, which used to be
+ * different names and would now be the same one.  Of those, the one saved first gets the key; the
+ * others are left without one, so they keep their games and places in tournaments but can no
+ * longer be found by name.  Runs at startup once the schema has been updated, and again after a
+ * snapshot from before name keys is loaded.  Only rows without a key are read, so once every name
+ * has one there is nothing to do.
+ */
+// the schema is updated when the entity manager factory is built, so the tables have their
+// name_key columns before the backfill runs
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class NameKeyBackfill {
+    private static final List<String> TABLES = List.of("person", "team", "tournament");
+    // the most keys looked up in one query
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrate() {
+        backfill();
+    }
+
+    /**
+     * Gives every row without a name key its key, and returns a report of each set of names that
+     * have the same key, which are also logged.
+     */
+    public List<String> backfill() {
+        List<String> collisions = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for(String table : TABLES) {
+                collisions.addAll(backfill(table));
+            }
+        });
+        return collisions;
+    }
+
+    private List<String> backfill(String table) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE name_key IS NULL ORDER BY id",
+                        result -> {
+                            names.put(result.getLong(1), result.getString(2));
+                        });
+        if(names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, List<String>> namesByKey = new LinkedHashMap<>();
+        names.values().forEach(name -> namesByKey.put(NameKey.of(name), new ArrayList<>()));
+        // a name that already has the key comes first, as it keeps it
+        List<String> keys = new ArrayList<>(namesByKey.keySet());
+        for(int i = 0; i < keys.size(); i += BATCH_SIZE) {
+            List<String> batch = keys.subList(i, Math.min(i + BATCH_SIZE, keys.size()));
+            jdbcTemplate.query("SELECT name_key, name FROM " + table + " WHERE name_key IN ("
+                            + batch.stream().map(key -> "?").collect(Collectors.joining(", ")) + ")",
+                            result -> {
+                                namesByKey.get(result.getString(1)).add(result.getString(2));
+                            }, batch.toArray());
+        }
+        // in the order the rows were saved, so the first of them with a key gets it
+        List<Object[]> updates = new ArrayList<>();
+        names.forEach((id, name) -> {
+            List<String> sameKey = namesByKey.get(NameKey.of(name));
+            if(sameKey.isEmpty()) {
+                updates.add(new Object[] {NameKey.of(name), id});
+            }
+            sameKey.add(name);
+        });
+        if(!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + table + " SET name_key = ? WHERE id = ?", updates);
+            log.info("Gave " + updates.size() + " " + table + " name(s) their name key");
+        }
+
+        List<String> collisions = new ArrayList<>();
+        namesByKey.forEach((key, sameKey) -> {
+            if(sameKey.size() > 1) {
+                String collision = String.format("The %s names '%s' are all '%s' once case, accents and spacing are ignored: only '%s' can be found by name",
+                                table, String.join("', '", sameKey), key, sameKey.get(0));
+                log.warn(collision);
+                collisions.add(collision);
+            }
+        });
+        return collisions;
+    }
+}
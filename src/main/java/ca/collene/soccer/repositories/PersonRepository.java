@@ -7,5 +7,8 @@ import ca.collene.soccer.entities.Person;
 
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
-    Person findByName(String name);
+    /**
+     * The person with the given name key, see NameKey.
+     */
+    Person findByNameKey(String nameKey);
 }
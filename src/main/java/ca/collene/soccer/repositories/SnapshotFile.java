@@ -0,0 +1,245 @@
+package ca.collene.soccer.repositories;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import ca.collene.soccer.models.Snapshot;
+
+/**
+ * Reads and writes {@link Snapshot}s of an event journal, each in a file next to the journal named
+ * after it and the journal position the snapshot covers, such as soccer.journal.0000000000001234.snapshot.
+ * <p>
+ * A file starts with an 8 byte header and the journal position as a long, followed by the number
+ * of tables as an int.  Each table has its name, its number of rows and its number of columns as
+ * ints, and then each column: its name, its type code as a byte, and every value of the column.
+ * Names and text values are an unsigned short count of UTF-8 bytes followed by the bytes, with a
+ * count of 0xffff and no bytes for a null text value; int, double and long values are written as
+ * they are.  The file ends with a CRC-32C checksum of
+ * everything before it, as an int.
+ * <p>
+ * A snapshot is written to a temporary file, which is synced and then renamed, so a file with a
+ * snapshot's name is always whole unless the disk changed it afterwards, which the checksum catches.
+ */
+public class SnapshotFile {
+    private static final long MAGIC = 0x534f4343534e5031L;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String SUFFIX = ".snapshot";
+    private static final int NULL_TEXT = 0xffff;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * The file for a snapshot of the journal up to the position.
+     */
+    public static Path of(Path journalFile, long journalPosition) {
+        return journalFile.resolveSibling(String.format("%s.%016d%s", journalFile.getFileName(), journalPosition, SUFFIX));
+    }
+
+    /**
+     * The snapshot files of the journal, the one covering the most of it first.
+     */
+    public static List<Path> list(Path journalFile) throws IOException {
+        Path directory = journalFile.toAbsolutePath().getParent();
+        Pattern name = Pattern.compile(Pattern.quote(journalFile.getFileName().toString()) + "\\.(\\d+)" + Pattern.quote(SUFFIX));
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> name.matcher(file.getFileName().toString()).matches())
+                        .sorted(Comparator.comparingLong((Path file) -> {
+                            Matcher matcher = name.matcher(file.getFileName().toString());
+                            matcher.matches();
+                            return Long.parseLong(matcher.group(1));
+                        }).reversed())
+                        .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Writes the snapshot of the journal and returns its file.
+     */
+    public static Path write(Path journalFile, Snapshot snapshot) throws IOException {
+        Path file = of(journalFile, snapshot.getJournalPosition());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(Channels.newOutputStream(channel), checksum), BUFFER_SIZE));
+            out.writeLong(MAGIC);
+            out.writeLong(snapshot.getJournalPosition());
+            out.writeInt(snapshot.getTables().size());
+            for(Snapshot.Table table : snapshot.getTables()) {
+                writeText(out, table.getName());
+                out.writeInt(table.getRows());
+                out.writeInt(table.getColumns().size());
+                for(Snapshot.Column column : table.getColumns()) {
+                    writeText(out, column.getName());
+                    out.writeByte(column.getType().getCode());
+                    writeValues(out, column);
+                }
+            }
+            out.flush();
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) checksum.getValue()).flip();
+            while(trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static void writeValues(DataOutputStream out, Snapshot.Column column) throws IOException {
+        switch(column.getType()) {
+            case INT:
+                for(int value : column.getInts()) {
+                    out.writeInt(value);
+                }
+                break;
+            case TEXT:
+                for(String value : column.getTexts()) {
+                    writeText(out, value);
+                }
+                break;
+            case DOUBLE:
+                for(double value : column.getDoubles()) {
+                    out.writeDouble(value);
+                }
+                break;
+            case LONG:
+                for(long value : column.getLongs()) {
+                    out.writeLong(value);
+                }
+                break;
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if(text == null) {
+            out.writeShort(NULL_TEXT);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length >= NULL_TEXT) {
+            throw new IllegalArgumentException("The name " + text + " is too long to snapshot");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the snapshot in the file, after checking it against its checksum.
+     */
+    public static Snapshot read(Path file) throws IOException {
+        long size = Files.size(file);
+        if(size < 8 + 8 + 4 + 4 || !checksumMatches(file, size)) {
+            throw new IOException(file + " is not a whole snapshot");
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if(in.readLong() != MAGIC) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            long journalPosition = in.readLong();
+            int tableCount = in.readInt();
+            List<Snapshot.Table> tables = new ArrayList<>(tableCount);
+            for(int t = 0; t < tableCount; t++) {
+                String name = readText(in);
+                int rows = in.readInt();
+                int columnCount = in.readInt();
+                List<Snapshot.Column> columns = new ArrayList<>(columnCount);
+                for(int c = 0; c < columnCount; c++) {
+                    String columnName = readText(in);
+                    Snapshot.Type type = Snapshot.Type.of(in.readByte());
+                    if(type == null) {
+                        throw new IOException("The column " + columnName + " of table " + name + " in " + file + " has an unknown type");
+                    }
+                    columns.add(readValues(in, columnName, type, rows));
+                }
+                tables.add(new Snapshot.Table(name, rows, columns));
+            }
+            return new Snapshot(journalPosition, tables);
+        }
+    }
+
+    private static boolean checksumMatches(Path file, long size) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            long end = size - 4;
+            while(position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if(read < 0) {
+                    return false;
+                }
+                buffer.flip();
+                checksum.update(buffer);
+                position += read;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(4);
+            while(trailer.hasRemaining()) {
+                if(channel.read(trailer, end + trailer.position()) < 0) {
+                    return false;
+                }
+            }
+            return trailer.getInt(0) == (int) checksum.getValue();
+        }
+    }
+
+    private static Snapshot.Column readValues(DataInputStream in, String name, Snapshot.Type type, int rows) throws IOException {
+        switch(type) {
+            case INT:
+                int[] ints = new int[rows];
+                for(int i = 0; i < rows; i++) {
+                    ints[i] = in.readInt();
+                }
+                return Snapshot.Column.ints(name, ints);
+            case TEXT:
+                String[] texts = new String[rows];
+                for(int i = 0; i < rows; i++) {
+                    texts[i] = readText(in);
+                }
+                return Snapshot.Column.texts(name, texts);
+            case DOUBLE:
+                double[] doubles = new double[rows];
+                for(int i = 0; i < rows; i++) {
+                    doubles[i] = in.readDouble();
+                }
+                return Snapshot.Column.doubles(name, doubles);
+            default:
+                long[] longs = new long[rows];
+                for(int i = 0; i < rows; i++) {
+                    longs[i] = in.readLong();
+                }
+                return Snapshot.Column.longs(name, longs);
+        }
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        if(length == NULL_TEXT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package ca.collene.soccer.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ca.collene.soccer.entities.TeamRating;
+import ca.collene.soccer.models.Rating;
+
+@Repository
+public interface TeamRatingRepository extends JpaRepository<TeamRating, Long> {
+    /**
+     * The rating rows of both teams in a single query; a team that hasn't been rated has no row.
+     */
+    @Query("SELECT r FROM team_rating r WHERE r.teamId IN (:team1Id, :team2Id)")
+    List<TeamRating> findByTeamIds(@Param("team1Id") Long team1Id, @Param("team2Id") Long team2Id);
+
+    /**
+     * The rating rows of all the teams in a single query.
+     */
+    @Query("SELECT r FROM team_rating r WHERE r.teamId IN :teamIds")
+    List<TeamRating> findByTeamIds(@Param("teamIds") Collection<Long> teamIds);
+
+    /**
+     * The rated teams, highest rating first, then by name.
+     */
+    @Query("SELECT new ca.collene.soccer.models.Rating(team.name, r.rating, r.games) FROM team_rating r, team team WHERE team.id = r.teamId"
+            + " ORDER BY r.rating DESC, team.name")
+    List<Rating> findRatings(Pageable pageable);
+
+    /**
+     * The name and rating of each team in the tournament, with a null rating for a team that hasn't
+     * been rated yet.
+     */
+    @Query("SELECT team.name, r.rating FROM tournament t JOIN t.teams team LEFT JOIN team_rating r ON r.teamId = team.id WHERE t.nameKey = :nameKey")
+    List<Object[]> findRatingsByTournamentNameKey(@Param("nameKey") String nameKey);
+}
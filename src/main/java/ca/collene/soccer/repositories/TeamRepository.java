@@ -6,6 +6,9 @@ import org.springframework.stereotype.Repository;
 import ca.collene.soccer.entities.Team;
 
 @Repository
-public interface TeamRepository extends JpaRepository<Team, Long> {
-    Team findByName(String name);
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+    /**
+     * The team with the given name key, see NameKey, without its coaches and players.
+     */
+    Team findByNameKey(String nameKey);
 }
@@ -0,0 +1,11 @@
+package ca.collene.soccer.repositories;
+
+import ca.collene.soccer.entities.Team;
+
+public interface TeamRepositoryCustom {
+    /**
+     * The team with the given name, matched by its name key, with its coaches and players loaded,
+     * or null if there is no such team.
+     */
+    Team findWithRosterByName(String name);
+}
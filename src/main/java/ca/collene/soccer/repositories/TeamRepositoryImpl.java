@@ -0,0 +1,32 @@
+package ca.collene.soccer.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Hibernate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.NameKey;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Team findWithRosterByName(String name) {
+        List<Team> teams = entityManager.createQuery("SELECT t FROM team t WHERE t.nameKey = :nameKey", Team.class)
+                                .setParameter("nameKey", NameKey.of(name))
+                                .getResultList();
+        if(teams.isEmpty()) {
+            return null;
+        }
+        Team team = teams.get(0);
+        Hibernate.initialize(team.getCoaches());
+        Hibernate.initialize(team.getPlayers());
+        return team;
+    }
+}
@@ -0,0 +1,26 @@
+package ca.collene.soccer.repositories;
+
+/**
+ * The parts of a tournament loaded for each kind of operation.  Games are always loaded with
+ * their teams and scores, and team rosters are never loaded with a tournament.
+ */
+public enum TournamentFetchPlan {
+    /**
+     * The teams in the tournament and its games, for adding teams and games.
+     */
+    FIXTURES(true),
+    /**
+     * The teams in the tournament and its games, for listing games and computing standings.
+     */
+    REPORTING(true);
+
+    private final boolean teams;
+
+    TournamentFetchPlan(boolean teams) {
+        this.teams = teams;
+    }
+
+    public boolean loadsTeams() {
+        return teams;
+    }
+}
@@ -1,11 +1,60 @@
 package ca.collene.soccer.repositories;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import ca.collene.soccer.entities.PointsScheme;
 import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Tally;
 
 @Repository
-public interface TournamentRepository extends JpaRepository<Tournament, Long> {
-    Tournament findByName(String name);
+public interface TournamentRepository extends JpaRepository<Tournament, Long>, TournamentRepositoryCustom {
+    // tournaments are looked up by the name key of their name, see NameKey, which has a unique index
+    @Query("SELECT t.id FROM tournament t WHERE t.nameKey = :nameKey")
+    Long findIdByNameKey(@Param("nameKey") String nameKey);
+
+    @Query("SELECT t.bracketSize FROM tournament t WHERE t.nameKey = :nameKey")
+    Integer findBracketSizeByNameKey(@Param("nameKey") String nameKey);
+
+    @Query("SELECT t.pointsScheme FROM tournament t WHERE t.nameKey = :nameKey")
+    PointsScheme findPointsSchemeByNameKey(@Param("nameKey") String nameKey);
+
+    /**
+     * Changes the points of the tournament in a single update, without loading it.  Returns the
+     * number of tournaments changed.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE tournament t SET t.pointsScheme.win = :win, t.pointsScheme.tie = :tie, t.pointsScheme.loss = :loss WHERE t.nameKey = :nameKey")
+    int updatePointsSchemeByNameKey(@Param("nameKey") String nameKey, @Param("win") int win, @Param("tie") int tie, @Param("loss") int loss);
+
+    /**
+     * Standings for the tournament counted by the database, without loading the tournament.
+     */
+    @Query(name = "tournament.findTallyByNameKey", nativeQuery = true)
+    List<Tally> findTallyByNameKey(@Param("nameKey") String nameKey);
+
+    /**
+     * Up to count rows of the same standings, starting at the given place counted from zero.
+     */
+    @Query(name = "tournament.findTallyPageByNameKey", nativeQuery = true)
+    List<Tally> findTallyPageByNameKey(@Param("nameKey") String nameKey, @Param("first") int first, @Param("count") int count);
+
+    /**
+     * The same standings read a batch of rows at a time as the stream is consumed.  Must be used
+     * in a transaction and closed when done.
+     */
+    @Query(name = "tournament.findTallyByNameKey", nativeQuery = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Tally> streamTallyByNameKey(@Param("nameKey") String nameKey);
 }
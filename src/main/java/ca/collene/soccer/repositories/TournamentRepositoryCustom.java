@@ -0,0 +1,11 @@
+package ca.collene.soccer.repositories;
+
+import ca.collene.soccer.entities.Tournament;
+
+public interface TournamentRepositoryCustom {
+    /**
+     * The tournament with the given name, matched by its name key, with only the parts in the fetch
+     * plan loaded, or null if there is no such tournament.
+     */
+    Tournament findByName(String name, TournamentFetchPlan plan);
+}
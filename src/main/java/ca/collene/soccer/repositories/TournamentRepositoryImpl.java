@@ -0,0 +1,35 @@
+package ca.collene.soccer.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Hibernate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.NameKey;
+
+public class TournamentRepositoryImpl implements TournamentRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Tournament findByName(String name, TournamentFetchPlan plan) {
+        List<Tournament> tournaments = entityManager.createQuery("SELECT t FROM tournament t WHERE t.nameKey = :nameKey", Tournament.class)
+                                            .setParameter("nameKey", NameKey.of(name))
+                                            .getResultList();
+        if(tournaments.isEmpty()) {
+            return null;
+        }
+        Tournament tournament = tournaments.get(0);
+        if(plan.loadsTeams()) {
+            Hibernate.initialize(tournament.getTeams());
+        }
+        // a game's teams and score are on its own row, so they are loaded with the games
+        Hibernate.initialize(tournament.getGames());
+        return tournament;
+    }
+}
@@ -0,0 +1,11 @@
+package ca.collene.soccer.services;
+
+public class BracketDoesNotExistException extends Exception {
+    public BracketDoesNotExistException(String message) {
+        super(message);
+    }
+
+    public BracketDoesNotExistException(String message, Exception e) {
+        super(message, e);
+    }
+}
@@ -0,0 +1,103 @@
+package ca.collene.soccer.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.TournamentRepository;
+
+@Service
+public class ExportService {
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    /**
+     * Writes the standings of the tournament to the file as they are read from the database, one
+     * team at a time, so the memory used doesn't depend on how many teams there are.  Returns the
+     * number of teams written.
+     */
+    @Transactional(readOnly = true)
+    public long exportStandings(String tournamentName, Path file, Format format, boolean gzip) throws TournamentDoesNotExistException, IOException {
+        if(!tournamentService.tournamentExists(tournamentName)) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        try(OutputStream output = gzip ? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            Stream<Tally> tallies = tournamentRepository.streamTallyByNameKey(NameKey.of(tournamentName))) {
+            if(format == Format.CSV) {
+                return writeCsv(tallies.iterator(), writer);
+            } else {
+                return writeJson(tournamentName, tallies.iterator(), writer);
+            }
+        }
+    }
+
+    private long writeCsv(Iterator<Tally> tallies, Writer writer) throws IOException {
+        writer.write("team,wins,ties,losses,unscored,total\n");
+        long teams = 0;
+        while(tallies.hasNext()) {
+            Tally tally = tallies.next();
+            writer.write(csvField(tally.getTeamName()) + "," + tally.getWins() + "," + tally.getTies() + "," + tally.getLosses()
+                            + "," + tally.getUnscored() + "," + tally.getTotal() + "\n");
+            teams++;
+        }
+        return teams;
+    }
+
+    private static String csvField(String value) {
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private long writeJson(String tournamentName, Iterator<Tally> tallies, Writer writer) throws IOException {
+        writer.write("{\"tournament\":" + jsonString(tournamentName) + ",\"standings\":[");
+        long teams = 0;
+        while(tallies.hasNext()) {
+            Tally tally = tallies.next();
+            writer.write((teams == 0 ? "\n" : ",\n") + "{\"team\":" + jsonString(tally.getTeamName())
+                            + ",\"wins\":" + tally.getWins() + ",\"ties\":" + tally.getTies() + ",\"losses\":" + tally.getLosses()
+                            + ",\"unscored\":" + tally.getUnscored() + ",\"total\":" + tally.getTotal() + "}");
+            teams++;
+        }
+        writer.write("\n]}\n");
+        return teams;
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for(char c : value.toCharArray()) {
+            if(c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if(c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -0,0 +1,366 @@
+package ca.collene.soccer.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.Bracket;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.RoundRobinSchedule;
+import ca.collene.soccer.models.SwissPairing;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.TournamentRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the games of a tournament from its teams, as a round robin, a knockout bracket or the
+ * rounds of a Swiss-system tournament.
+ * <p>
+ * All of the games are written in one transaction straight to the game table with JDBC batches,
+ * so the tournament's games are never loaded, no game is checked against the others, and no entity
+ * is made for a game.  Ids still come from the game sequence through Hibernate's generator, so they
+ * never clash with games saved as entities.  Only one batch is held at a time, so the memory used
+ * doesn't grow with the number of games.
+ */
+@Service
+@Slf4j
+public class FixtureService {
+    static final int BATCH_SIZE = 1000;
+    private static final String INSERT_GAME = "INSERT INTO game (id, tournament_id, team1_id, team2_id, round, slot) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SLOT = "INSERT INTO bracket_slot (tournament_id, slot, team_id) VALUES (?, ?, ?)";
+    private static final String INSERT_TEAM = "INSERT INTO tournament_team (tournament_id, team_id, team_order) VALUES (?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JournalService journalService;
+
+    /**
+     * Adds a game between every two teams in the tournament, or two with home and away swapped for
+     * a double round robin, in rounds where each team plays at most once.  Only a tournament
+     * without games can have its games generated.
+     */
+    public RoundRobinSchedule generateRoundRobin(String tournamentName, boolean doubleRoundRobin) throws TournamentDoesNotExistException, GameAlreadyInTournamentException, InvalidGameException {
+        Long tournamentId = tournamentRepository.findIdByNameKey(NameKey.of(tournamentName));
+        if(tournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        long start = System.nanoTime();
+        RoundRobinSchedule schedule = new TransactionTemplate(transactionManager).execute(status -> {
+            if(hasGames(tournamentId)) {
+                return null;
+            }
+            List<Long> teamIds = getTeamIds(tournamentId);
+            RoundRobinSchedule roundRobin = new RoundRobinSchedule(teamIds.size(), doubleRoundRobin);
+            GameWriter writer = new GameWriter(tournamentId, teamIds);
+            roundRobin.forEachGame(writer);
+            writer.flush();
+            if(roundRobin.getGames() > 0) {
+                // in the transaction, so no snapshot is taken between the games and their event
+                journalService.record(JournalEvent.generateRoundRobin(tournamentName, doubleRoundRobin));
+            }
+            return roundRobin;
+        });
+        if(schedule == null) {
+            throw new GameAlreadyInTournamentException("Tournament " + tournamentName + " already has games, so its games can't be generated");
+        }
+        if(schedule.getGames() == 0) {
+            throw new InvalidGameException("Tournament " + tournamentName + " needs at least two teams to generate its games");
+        }
+        tournamentService.forgetStandings(tournamentName);
+        log.info("Generated " + schedule.getGames() + " games in " + schedule.getRounds() + " rounds for tournament " + tournamentName
+                        + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return schedule;
+    }
+
+    /**
+     * Adds a knockout bracket to the tournament for the top teams in the standings of the seeding
+     * tournament, which can be the same tournament, with the byes played and the games of the first
+     * round added.  Teams that aren't in the tournament yet are added to it.  A count of 0 takes
+     * every team in the standings.  Only a tournament without games can have a bracket generated.
+     * <p>
+     * Seeded by rating, the seeding tournament's teams are taken in order of their ratings instead,
+     * highest first and then by name, which seeds teams that have played in other tournaments or
+     * haven't played in the seeding one yet.
+     * <p>
+     * The bracket is laid out in memory and written the same way as a round robin: every slot
+     * that holds a team and every game that is ready to play, in JDBC batches.
+     */
+    public Bracket<Long> generateKnockout(String tournamentName, String seedingTournamentName, int entrants, boolean byRating) throws TournamentDoesNotExistException, GameAlreadyInTournamentException, InvalidGameException {
+        Long tournamentId = tournamentRepository.findIdByNameKey(NameKey.of(tournamentName));
+        if(tournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        Long seedingTournamentId = tournamentRepository.findIdByNameKey(NameKey.of(seedingTournamentName));
+        if(seedingTournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + seedingTournamentName + " was not found");
+        }
+        long start = System.nanoTime();
+        List<String> seedNames = byRating ? getSeedsByRating(seedingTournamentName, entrants) : getSeedsByStandings(seedingTournamentName, entrants);
+        if(seedNames.size() < 2) {
+            throw new InvalidGameException("Tournament " + seedingTournamentName + " needs at least two teams to seed a knockout");
+        }
+        int[] games = new int[1];
+        Bracket<Long> generated = new TransactionTemplate(transactionManager).execute(status -> {
+            if(hasGames(tournamentId)) {
+                return null;
+            }
+            Map<String, Long> seedingTeamIds = new HashMap<>();
+            entityManager.createQuery("SELECT team.id, team.name FROM tournament t JOIN t.teams team WHERE t.id = :id", Object[].class)
+                            .setParameter("id", seedingTournamentId)
+                            .getResultList()
+                            .forEach(team -> seedingTeamIds.put((String) team[1], (Long) team[0]));
+            List<Long> seeds = new ArrayList<>(seedNames.size());
+            seedNames.forEach(name -> seeds.add(seedingTeamIds.get(name)));
+            addTeams(tournamentId, seeds);
+
+            Bracket<Long> bracket = Bracket.seeded(seeds);
+            List<Object[]> slots = new ArrayList<>(BATCH_SIZE);
+            bracket.forEachFilled(slot -> {
+                slots.add(new Object[] {tournamentId, slot, bracket.getTeam(slot)});
+                if(slots.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_SLOT, slots);
+                    slots.clear();
+                }
+            });
+            if(!slots.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SLOT, slots);
+            }
+            GameWriter writer = new GameWriter(tournamentId, seeds);
+            bracket.forEachReady(slot -> {
+                writer.add(bracket.getRound(slot), slot, bracket.getTeam(2 * slot), bracket.getTeam(2 * slot + 1));
+                games[0]++;
+            });
+            writer.flush();
+            jdbcTemplate.update("UPDATE tournament SET bracket_size = ? WHERE id = ?", bracket.getSize(), tournamentId);
+            journalService.record(JournalEvent.generateKnockout(tournamentName, seedingTournamentName, entrants, byRating));
+            return bracket;
+        });
+        if(generated == null) {
+            throw new GameAlreadyInTournamentException("Tournament " + tournamentName + " already has games, so its knockout can't be generated");
+        }
+        tournamentService.forgetStandings(tournamentName);
+        log.info("Generated a knockout of " + seedNames.size() + " teams with " + games[0] + " games ready to play for tournament " + tournamentName
+                        + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return generated;
+    }
+
+    private List<String> getSeedsByStandings(String seedingTournamentName, int entrants) throws TournamentDoesNotExistException {
+        List<String> seeds = new ArrayList<>();
+        tournamentService.getStandings(seedingTournamentName, 0, entrants > 0 ? entrants : Integer.MAX_VALUE).forEach(tally -> seeds.add(tally.getTeamName()));
+        return seeds;
+    }
+
+    private List<String> getSeedsByRating(String seedingTournamentName, int entrants) {
+        Map<String, Double> ratings = ratingService.getRatingsForTournament(seedingTournamentName);
+        List<String> seeds = new ArrayList<>(ratings.keySet());
+        seeds.sort(Comparator.comparing((String name) -> ratings.get(name)).reversed().thenComparing(Comparator.naturalOrder()));
+        return entrants > 0 && entrants < seeds.size() ? seeds.subList(0, entrants) : seeds;
+    }
+
+    /**
+     * Adds the next round of a Swiss-system tournament, pairing teams on the same or nearly the
+     * same points that haven't played each other yet.  Every game already in the tournament has to
+     * be scored, and a tournament with a knockout bracket can't be paired.
+     * <p>
+     * The games already played are read once, both to count the standings the teams are paired
+     * from and into a map of team pairs, so checking for a rematch is a lookup.  A rematch is played
+     * the other way around from the teams' last game, like the second game of a double round robin,
+     * so a score for it finds it and not the game they already played.  The round is written in
+     * JDBC batches like a round robin.
+     */
+    public SwissPairing<String> pairSwissRound(String tournamentName) throws TournamentDoesNotExistException, GameNotScoredException, InvalidGameException {
+        Long tournamentId = tournamentRepository.findIdByNameKey(NameKey.of(tournamentName));
+        if(tournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        if(tournamentRepository.findBracketSizeByNameKey(NameKey.of(tournamentName)) != null) {
+            throw new InvalidGameException("Tournament " + tournamentName + " has a knockout bracket, so it can't be paired");
+        }
+        if(getTeamIds(tournamentId).size() < 2) {
+            throw new InvalidGameException("Tournament " + tournamentName + " needs at least two teams to pair a round");
+        }
+        long start = System.nanoTime();
+        PointsScheme pointsScheme = tournamentRepository.findPointsSchemeByNameKey(NameKey.of(tournamentName));
+        SwissPairing<String> pairing = new TransactionTemplate(transactionManager).execute(status -> {
+            Map<Long, Tally> tallies = new HashMap<>();
+            Map<String, Long> teamIds = new HashMap<>();
+            entityManager.createQuery("SELECT team.id, team.name FROM tournament t JOIN t.teams team WHERE t.id = :id", Object[].class)
+                            .setParameter("id", tournamentId)
+                            .getResultList()
+                            .forEach(team -> {
+                                teamIds.put((String) team[1], (Long) team[0]);
+                                tallies.put((Long) team[0], Tally.builder().teamName((String) team[1]).pointsScheme(pointsScheme != null ? pointsScheme : PointsScheme.DEFAULT).build());
+                            });
+            // one read of the games gives both the standings and the pairs that have already played,
+            // with the first team of their last game
+            Map<Long, Long> played = new HashMap<>();
+            int lastRound = 0;
+            for(Object[] game : entityManager.createQuery("SELECT g.team1.id, g.team2.id, g.score1, g.score2, g.round FROM game g WHERE g.tournamentId = :id ORDER BY g.id", Object[].class)
+                            .setParameter("id", tournamentId)
+                            .getResultList()) {
+                if(game[2] == null || game[3] == null) {
+                    return null;
+                }
+                played.put(teamPair((Long) game[0], (Long) game[1]), (Long) game[0]);
+                count(tallies.get(game[0]), (Integer) game[2], (Integer) game[3]);
+                count(tallies.get(game[1]), (Integer) game[3], (Integer) game[2]);
+                if(game[4] != null) {
+                    lastRound = Math.max(lastRound, (Integer) game[4]);
+                }
+            }
+            List<Tally> standings = new ArrayList<>(tallies.values());
+            standings.sort(Tally.STANDINGS_ORDER);
+            List<String> teams = new ArrayList<>(standings.size());
+            long[] points = new long[standings.size()];
+            int[] gamesPlayed = new int[standings.size()];
+            for(int i = 0; i < standings.size(); i++) {
+                Tally tally = standings.get(i);
+                teams.add(tally.getTeamName());
+                points[i] = tally.getTotal();
+                gamesPlayed[i] = (int) (tally.getWins() + tally.getTies() + tally.getLosses());
+            }
+            SwissPairing<String> round = new SwissPairing<>(lastRound + 1, teams, points, gamesPlayed,
+                            (team1, team2) -> played.containsKey(teamPair(teamIds.get(team1), teamIds.get(team2))));
+            GameWriter writer = new GameWriter(tournamentId, List.of());
+            round.forEachGame((team1, team2) -> {
+                Long team1Id = teamIds.get(team1);
+                Long team2Id = teamIds.get(team2);
+                if(team1Id.equals(played.get(teamPair(team1Id, team2Id)))) {
+                    writer.add(round.getRound(), null, team2Id, team1Id);
+                } else {
+                    writer.add(round.getRound(), null, team1Id, team2Id);
+                }
+            });
+            writer.flush();
+            journalService.record(JournalEvent.pairSwissRound(tournamentName));
+            return round;
+        });
+        if(pairing == null) {
+            throw new GameNotScoredException("Tournament " + tournamentName + " has games that haven't been scored, so its next round can't be paired");
+        }
+        tournamentService.forgetStandings(tournamentName);
+        log.info("Paired round " + pairing.getRound() + " of tournament " + tournamentName + " with " + pairing.getGames() + " games and "
+                        + pairing.getRematches() + " rematches in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return pairing;
+    }
+
+    private static void count(Tally tally, int points, int otherPoints) {
+        if(points > otherPoints) {
+            tally.setWins(tally.getWins() + 1);
+        } else if(points == otherPoints) {
+            tally.setTies(tally.getTies() + 1);
+        } else {
+            tally.setLosses(tally.getLosses() + 1);
+        }
+    }
+
+    private static long teamPair(long team1Id, long team2Id) {
+        return Math.min(team1Id, team2Id) << 32 | Math.max(team1Id, team2Id);
+    }
+
+    private boolean hasGames(Long tournamentId) {
+        return entityManager.createQuery("SELECT COUNT(g) FROM game g WHERE g.tournamentId = :id", Long.class)
+                        .setParameter("id", tournamentId)
+                        .getSingleResult() > 0;
+    }
+
+    private List<Long> getTeamIds(Long tournamentId) {
+        return entityManager.createQuery("SELECT team.id FROM tournament t JOIN t.teams team WHERE t.id = :id ORDER BY INDEX(team)", Long.class)
+                        .setParameter("id", tournamentId)
+                        .getResultList();
+    }
+
+    /**
+     * Adds the teams that aren't in the tournament yet after the ones that are.
+     */
+    private void addTeams(Long tournamentId, List<Long> teamIds) {
+        List<Long> existing = getTeamIds(tournamentId);
+        Set<Long> inTournament = new HashSet<>(existing);
+        List<Object[]> rows = new ArrayList<>();
+        for(Long teamId : teamIds) {
+            if(inTournament.add(teamId)) {
+                rows.add(new Object[] {tournamentId, teamId, existing.size() + rows.size()});
+            }
+        }
+        for(int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_TEAM, rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    /**
+     * Inserts each game it is given, {@link #BATCH_SIZE} games to a batch.  Round robin games
+     * give their teams by place in the team list, knockout games by id.
+     */
+    private class GameWriter implements RoundRobinSchedule.GameConsumer {
+        private final Long tournamentId;
+        private final List<Long> teamIds;
+        private final SharedSessionContractImplementor session;
+        private final IdentifierGenerator ids;
+        private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        GameWriter(Long tournamentId, List<Long> teamIds) {
+            this.tournamentId = tournamentId;
+            this.teamIds = teamIds;
+            this.session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            this.ids = session.getFactory().getMetamodel().entityPersister(Game.class).getIdentifierGenerator();
+        }
+
+        @Override
+        public void accept(int round, int homeTeam, int awayTeam) {
+            write(new Object[] {ids.generate(session, null), tournamentId, teamIds.get(homeTeam), teamIds.get(awayTeam), round, null});
+        }
+
+        void add(int round, Integer slot, Long team1Id, Long team2Id) {
+            write(new Object[] {ids.generate(session, null), tournamentId, team1Id, team2Id, round, slot});
+        }
+
+        private void write(Object[] game) {
+            batch.add(game);
+            if(batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if(!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_GAME, batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package ca.collene.soccer.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.TeamRating;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.models.ImportResult.RowType;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Tally.TallyType;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports fixtures, results and rosters from a CSV file, one row per change:
+ * <pre>
+ * game,&lt;tournament&gt;,&lt;team 1&gt;,&lt;team 2&gt;
+ * score,&lt;tournament&gt;,&lt;team 1&gt;,&lt;points 1&gt;,&lt;team 2&gt;,&lt;points 2&gt;
+ * player,&lt;team&gt;,&lt;person&gt;,&lt;number&gt;
+ * coach,&lt;team&gt;,&lt;person&gt;
+ * </pre>
+ * Blank lines and lines starting with # are skipped, and fields containing commas can be quoted
+ * with double quotes.  Each row follows the same rules as the command that makes the same change:
+ * games, players and coaches create the tournaments, teams and people they name, and scores only
+ * apply to games that exist.  Rows that break a rule are rejected and the import carries on.
+ * <p>
+ * The file is read in chunks of rows.  Each chunk is one transaction that looks up every name it
+ * uses at once and writes its games, scores and players in JDBC batches.
+ * <p>
+ * Each row is recorded as the same {@link JournalEvent} the command would record.
+ */
+@Service
+@Slf4j
+public class ImportService {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private KnockoutService knockoutService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JournalService journalService;
+
+    public ImportResult importFile(Path file, int chunkSize) throws IOException {
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        // the games of each tournament by their teams, in the order they were added, kept for the whole
+        // import so scores can find them
+        Map<Long, Map<TeamPair, List<Long>>> gameIds = new HashMap<>();
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                Row row = parse(lineNumber, line, result);
+                if(row != null) {
+                    chunk.add(row);
+                }
+                if(chunk.size() == chunkSize) {
+                    importChunk(chunk, gameIds, result);
+                    chunk.clear();
+                }
+            }
+            if(!chunk.isEmpty()) {
+                importChunk(chunk, gameIds, result);
+            }
+        }
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported " + result.getApplied() + " rows from " + file + " in " + result.getElapsedMillis() + " ms, " + result.getRejected() + " rejected");
+        return result;
+    }
+
+    private Row parse(long lineNumber, String line, ImportResult result) {
+        if(line.isBlank() || line.startsWith("#")) {
+            return null;
+        }
+        List<String> fields = splitCsv(line);
+        RowType type;
+        try {
+            type = RowType.valueOf(fields.get(0).trim().toUpperCase());
+        } catch(IllegalArgumentException e) {
+            result.rejected(lineNumber, "unknown row type '" + fields.get(0) + "'");
+            return null;
+        }
+        if(fields.size() != type.getFields()) {
+            result.rejected(lineNumber, type.name().toLowerCase() + " rows have " + type.getFields() + " fields, not " + fields.size());
+            return null;
+        }
+        try {
+            return new Row(lineNumber, event(type, fields));
+        } catch(NumberFormatException e) {
+            result.rejected(lineNumber, "points and numbers must be whole numbers");
+            return null;
+        } catch(IllegalArgumentException e) {
+            // a name too long to journal
+            result.rejected(lineNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private static JournalEvent event(RowType type, List<String> fields) {
+        switch(type) {
+            case GAME:
+                return JournalEvent.addGame(fields.get(1).trim(), fields.get(2).trim(), fields.get(3).trim());
+            case SCORE:
+                return JournalEvent.scoreGame(fields.get(1).trim(), fields.get(2).trim(), Integer.parseInt(fields.get(3).trim()),
+                                fields.get(4).trim(), Integer.parseInt(fields.get(5).trim()));
+            case PLAYER:
+                return JournalEvent.addPlayer(fields.get(1).trim(), fields.get(2).trim(), Integer.parseInt(fields.get(3).trim()));
+            default:
+                return JournalEvent.addCoach(fields.get(1).trim(), fields.get(2).trim());
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if(c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void importChunk(List<Row> rows, Map<Long, Map<TeamPair, List<Long>>> gameIds, ImportResult result) {
+        ImportResult chunkResult = new ImportResult();
+        Set<String> changedTournaments = new HashSet<>();
+        // the chunk changes its own copy of the games of the tournaments it uses, so that games it
+        // adds are only kept for the next chunks once they are committed
+        Map<Long, Map<TeamPair, List<Long>>> chunkGameIds = new HashMap<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> new Chunk(rows, gameIds, chunkGameIds, chunkResult, changedTournaments).apply());
+        // only counted once the chunk is committed
+        result.add(chunkResult);
+        gameIds.putAll(chunkGameIds);
+        changedTournaments.forEach(tournamentService::forgetStandings);
+    }
+
+    /**
+     * One chunk of rows, applied in a single transaction.
+     */
+    private class Chunk {
+        private final List<Row> rows;
+        private final Map<Long, Map<TeamPair, List<Long>>> gameIds;
+        private final Map<Long, Map<TeamPair, List<Long>>> chunkGameIds;
+        private final ImportResult result;
+        private final Set<String> changedTournaments;
+
+        private Map<String, Tournament> tournaments;
+        private Map<String, Team> teams;
+        private Map<String, Person> people;
+        // the rating rows of the teams the chunk scores, read once and changed in memory
+        private Map<Long, TeamRating> ratings;
+
+        Chunk(List<Row> rows, Map<Long, Map<TeamPair, List<Long>>> gameIds, Map<Long, Map<TeamPair, List<Long>>> chunkGameIds,
+                        ImportResult result, Set<String> changedTournaments) {
+            this.rows = rows;
+            this.gameIds = gameIds;
+            this.chunkGameIds = chunkGameIds;
+            this.result = result;
+            this.changedTournaments = changedTournaments;
+        }
+
+        void apply() {
+            findNames();
+            loadRosters();
+            loadScoredGames();
+            for(Row row : rows) {
+                try {
+                    switch(row.getType()) {
+                        case ADD_GAME:
+                            importGame(row);
+                            break;
+                        case SCORE_GAME:
+                            importScore(row);
+                            break;
+                        case ADD_PLAYER:
+                            importPlayer(row);
+                            break;
+                        default:
+                            importCoach(row);
+                    }
+                    result.applied(RowType.of(row.getType()));
+                    journalService.record(row.getEvent());
+                } catch(TournamentDoesNotExistException | TeamDoesNotExistException | GameDoesNotExistException
+                        | GameAlreadyInTournamentException | InvalidGameException | InvalidScoreException
+                        | PlayerAlreadyOnTeamException | NumberAlreadyInUseException | CoachAlreadyOnTeamException e) {
+                    result.rejected(row.getLineNumber(), e.getMessage());
+                }
+            }
+        }
+
+        private void findNames() {
+            Set<String> tournamentNames = new HashSet<>();
+            Set<String> newTournamentNames = new HashSet<>();
+            Set<String> teamNames = new HashSet<>();
+            Set<String> newTeamNames = new HashSet<>();
+            Set<String> personNames = new HashSet<>();
+            for(Row row : rows) {
+                switch(row.getType()) {
+                    case ADD_GAME:
+                        newTournamentNames.add(row.getTournament());
+                        newTeamNames.add(row.getTeam1());
+                        newTeamNames.add(row.getTeam2());
+                        break;
+                    case SCORE_GAME:
+                        tournamentNames.add(row.getTournament());
+                        teamNames.add(row.getTeam1());
+                        teamNames.add(row.getTeam2());
+                        break;
+                    default:
+                        newTeamNames.add(row.getTeam1());
+                        personNames.add(row.getPerson());
+                }
+            }
+            tournamentNames.addAll(newTournamentNames);
+            teamNames.addAll(newTeamNames);
+            // a tournament's teams are loaded with it, as its games need their teams in the tournament
+            tournaments = find(Tournament.class, tournamentNames, newTournamentNames,
+                            "SELECT DISTINCT t FROM tournament t LEFT JOIN FETCH t.teams WHERE t.nameKey IN :nameKeys",
+                            Tournament::getNameKey, Tournament::getId, name -> Tournament.builder().name(name).build(), JournalEvent::createTournament);
+            teams = find(Team.class, teamNames, newTeamNames, "SELECT t FROM team t WHERE t.nameKey IN :nameKeys",
+                            Team::getNameKey, Team::getId, name -> Team.builder().name(name).build(), JournalEvent::createTeam);
+            people = find(Person.class, personNames, personNames, "SELECT p FROM person p WHERE p.nameKey IN :nameKeys",
+                            Person::getNameKey, Person::getId, name -> Person.builder().name(name).build(), JournalEvent::createPerson);
+        }
+
+        /**
+         * The entities with the names, by each name as the rows spell it, creating the ones named to
+         * be created that don't exist yet.  Names are matched by their name keys, so names that only
+         * differ in their spelling are the same entity, created once with the first spelling.
+         */
+        private <T> Map<String, T> find(Class<T> type, Set<String> names, Set<String> namesToCreate, String query, Function<T, String> nameKeyOf,
+                                        Function<T, Long> idOf, Function<String, T> create, Function<String, JournalEvent> created) {
+            Map<String, T> found = new HashMap<>();
+            if(names.isEmpty()) {
+                return found;
+            }
+            Map<String, T> byNameKey = new HashMap<>();
+            Set<String> nameKeys = names.stream().map(NameKey::of).collect(Collectors.toSet());
+            for(T entity : entityManager.createQuery(query, type).setParameter("nameKeys", nameKeys).getResultList()) {
+                byNameKey.put(nameKeyOf.apply(entity), entity);
+            }
+            for(String name : namesToCreate) {
+                if(!byNameKey.containsKey(NameKey.of(name))) {
+                    T entity = create.apply(name);
+                    entityManager.persist(entity);
+                    byNameKey.put(nameKeyOf.apply(entity), entity);
+                    journalService.record(created.apply(name));
+                }
+            }
+            for(String name : names) {
+                T entity = byNameKey.get(NameKey.of(name));
+                if(entity != null) {
+                    found.put(name, entity);
+                    nameCache.put(type, name, idOf.apply(entity));
+                }
+            }
+            return found;
+        }
+
+        private void loadRosters() {
+            Set<Team> rosterTeams = new HashSet<>();
+            for(Row row : rows) {
+                if(row.getType() == JournalEvent.Type.ADD_PLAYER || row.getType() == JournalEvent.Type.ADD_COACH) {
+                    rosterTeams.add(teams.get(row.getTeam1()));
+                }
+            }
+            if(rosterTeams.isEmpty()) {
+                return;
+            }
+            // the teams are already loaded, so these only fill in their coaches and players; two queries
+            // because both are bags, which can't be fetched together
+            entityManager.createQuery("SELECT DISTINCT t FROM team t LEFT JOIN FETCH t.players player LEFT JOIN FETCH player.person WHERE t IN :teams", Team.class)
+                        .setParameter("teams", rosterTeams)
+                        .getResultList();
+            entityManager.createQuery("SELECT DISTINCT t FROM team t LEFT JOIN FETCH t.coaches WHERE t IN :teams", Team.class)
+                        .setParameter("teams", rosterTeams)
+                        .getResultList();
+        }
+
+        private void loadScoredGames() {
+            Set<Long> ids = new HashSet<>();
+            Set<Long> teamIds = new HashSet<>();
+            for(Row row : rows) {
+                if(row.getType() != JournalEvent.Type.SCORE_GAME) {
+                    continue;
+                }
+                Tournament tournament = tournaments.get(row.getTournament());
+                Team team1 = teams.get(row.getTeam1());
+                Team team2 = teams.get(row.getTeam2());
+                if(team1 != null && team2 != null) {
+                    teamIds.add(team1.getId());
+                    teamIds.add(team2.getId());
+                }
+                if(tournament != null && team1 != null && team2 != null) {
+                    ids.addAll(gamesIn(tournament).getOrDefault(new TeamPair(team1, team2), List.of()));
+                }
+            }
+            if(!ids.isEmpty()) {
+                // the teams are already loaded, so this reads nothing more
+                entityManager.createQuery("SELECT g FROM game g WHERE g.id IN :ids", Game.class)
+                            .setParameter("ids", ids)
+                            .getResultList();
+            }
+            ratings = ratingService.findRatings(teamIds);
+        }
+
+        private Map<TeamPair, List<Long>> gamesIn(Tournament tournament) {
+            return chunkGameIds.computeIfAbsent(tournament.getId(), id -> {
+                Map<TeamPair, List<Long>> committed = gameIds.get(id);
+                if(committed == null) {
+                    return readGames(id);
+                }
+                Map<TeamPair, List<Long>> games = new HashMap<>();
+                committed.forEach((pair, ids) -> games.put(pair, new ArrayList<>(ids)));
+                return games;
+            });
+        }
+
+        private Map<TeamPair, List<Long>> readGames(Long tournamentId) {
+            Map<TeamPair, List<Long>> games = new HashMap<>();
+            entityManager.createQuery("SELECT g.id, g.team1.id, g.team2.id FROM game g WHERE g.tournamentId = :id ORDER BY g.id", Object[].class)
+                        .setParameter("id", tournamentId)
+                        .getResultList()
+                        .forEach(game -> games.computeIfAbsent(new TeamPair((Long) game[1], (Long) game[2]), pair -> new ArrayList<>()).add((Long) game[0]));
+            return games;
+        }
+
+        private void importGame(Row row) throws InvalidGameException, GameAlreadyInTournamentException {
+            Tournament tournament = tournaments.get(row.getTournament());
+            Team team1 = teams.get(row.getTeam1());
+            Team team2 = teams.get(row.getTeam2());
+            if(team1.equals(team2)) {
+                throw new InvalidGameException("The team " + row.getTeam1() + " can not play itself in tournament " + row.getTournament());
+            }
+            Map<TeamPair, List<Long>> games = gamesIn(tournament);
+            TeamPair pair = new TeamPair(team1, team2);
+            if(games.containsKey(pair)) {
+                throw new GameAlreadyInTournamentException("The game between teams " + row.getTeam1() + " and " + row.getTeam2() + " already exists in tournament " + row.getTournament());
+            }
+            for(Team team : List.of(team1, team2)) {
+                if(!tournament.hasTeam(team)) {
+                    tournament.getTeams().add(team);
+                }
+            }
+            // written straight to the game table, so the tournament's games are never loaded
+            Game game = new Game(tournament.getId(), team1, team2);
+            entityManager.persist(game);
+            games.computeIfAbsent(pair, key -> new ArrayList<>()).add(game.getId());
+            changedTournaments.add(row.getTournament());
+        }
+
+        private void importScore(Row row) throws TournamentDoesNotExistException, TeamDoesNotExistException, GameDoesNotExistException, InvalidScoreException {
+            Tournament tournament = tournaments.get(row.getTournament());
+            if(tournament == null) {
+                throw new TournamentDoesNotExistException("Tournament with name " + row.getTournament() + " was not found");
+            }
+            for(String teamName : List.of(row.getTeam1(), row.getTeam2())) {
+                if(!teams.containsKey(teamName)) {
+                    throw new TeamDoesNotExistException("Team with name " + teamName + " was not found");
+                }
+            }
+            Team team1 = teams.get(row.getTeam1());
+            Team team2 = teams.get(row.getTeam2());
+            List<Long> ids = gamesIn(tournament).get(new TeamPair(team1, team2));
+            if(ids == null) {
+                throw new GameDoesNotExistException("The game with teams " + row.getTeam1() + " and " + row.getTeam2() + " does not exist in tournament " + row.getTournament());
+            }
+            // loaded with the chunk, or added earlier in it
+            Game game = Game.toScore(ids.stream().map(id -> entityManager.find(Game.class, id)).collect(Collectors.toList()), team1);
+            TallyType previousResult = game.getTallyTypeForTeam(team1);
+            if(game.getSlot() == null) {
+                game.setScore(team1, row.getPoints1(), team2, row.getPoints2());
+            } else {
+                // the winner of a knockout game moves on, and later rows can score the game it is added to
+                Team winner = row.getPoints1() > row.getPoints2() ? team1 : row.getPoints2() > row.getPoints1() ? team2 : null;
+                knockoutService.checkResult(game, winner);
+                game.setScore(team1, row.getPoints1(), team2, row.getPoints2());
+                if(knockoutService.advance(game, winner) != null) {
+                    // the tournament's games are read again, with the game the winner is added to
+                    chunkGameIds.put(tournament.getId(), readGames(tournament.getId()));
+                }
+            }
+            ratingService.recordResult(ratings, team1, previousResult, game.getTallyTypeForTeam(team1), team2);
+            changedTournaments.add(row.getTournament());
+        }
+
+        private void importPlayer(Row row) throws PlayerAlreadyOnTeamException, NumberAlreadyInUseException {
+            Team team = teams.get(row.getTeam1());
+            Person person = people.get(row.getPerson());
+            if(team.hasPlayer(person)) {
+                throw new PlayerAlreadyOnTeamException("The person " + row.getPerson() + " is already on the team " + row.getTeam1());
+            }
+            if(team.hasPlayerWithNumber(row.getNumber())) {
+                throw new NumberAlreadyInUseException("The number " + row.getNumber() + " is already in use on the team " + row.getTeam1());
+            }
+            team.addPlayer(person, row.getNumber());
+        }
+
+        private void importCoach(Row row) throws CoachAlreadyOnTeamException {
+            Team team = teams.get(row.getTeam1());
+            Person person = people.get(row.getPerson());
+            if(team.hasCoach(person)) {
+                throw new CoachAlreadyOnTeamException("The coach " + row.getPerson() + " is already on the team " + row.getTeam1());
+            }
+            team.addCoach(person);
+        }
+    }
+
+    /**
+     * One row of the file, as the event it is recorded as, with its names and numbers by what they
+     * are.  Rows about a single team keep it in team1.
+     */
+    @Getter
+    private static class Row {
+        private final long lineNumber;
+        private final JournalEvent event;
+        private String tournament;
+        private String team1;
+        private String team2;
+        private String person;
+        private int points1;
+        private int points2;
+        private int number;
+
+        Row(long lineNumber, JournalEvent event) {
+            this.lineNumber = lineNumber;
+            this.event = event;
+            switch(event.getType()) {
+                case ADD_GAME:
+                    tournament = event.getName(0);
+                    team1 = event.getName(1);
+                    team2 = event.getName(2);
+                    break;
+                case SCORE_GAME:
+                    tournament = event.getName(0);
+                    team1 = event.getName(1);
+                    team2 = event.getName(2);
+                    points1 = event.getNumber(0);
+                    points2 = event.getNumber(1);
+                    break;
+                case ADD_PLAYER:
+                    team1 = event.getName(0);
+                    person = event.getName(1);
+                    number = event.getNumber(0);
+                    break;
+                case ADD_COACH:
+                    team1 = event.getName(0);
+                    person = event.getName(1);
+                    break;
+                default:
+                    throw new IllegalArgumentException(event.getType() + " events can't be imported in chunks");
+            }
+        }
+
+        JournalEvent.Type getType() {
+            return event.getType();
+        }
+
+    }
+
+    /**
+     * The two teams of a game, in either order; a pair can play more than one game.
+     */
+    @Value
+    private static class TeamPair {
+        long lowerId;
+        long higherId;
+
+        TeamPair(long team1Id, long team2Id) {
+            this.lowerId = Math.min(team1Id, team2Id);
+            this.higherId = Math.max(team1Id, team2Id);
+        }
+
+        TeamPair(Team team1, Team team2) {
+            this(team1.getId(), team2.getId());
+        }
+    }
+}
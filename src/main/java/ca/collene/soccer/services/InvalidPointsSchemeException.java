@@ -0,0 +1,11 @@
+package ca.collene.soccer.services;
+
+public class InvalidPointsSchemeException extends Exception {
+    public InvalidPointsSchemeException(String message) {
+        super(message);
+    }
+
+    public InvalidPointsSchemeException(String message, Exception e) {
+        super(message, e);
+    }
+}
@@ -0,0 +1,76 @@
+package ca.collene.soccer.services;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.repositories.NameKeyBackfill;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps what is entered between runs of the application when soccer.journal.path names a journal
+ * file: at startup, before the shell reads any command, the changes in the journal are made again
+ * in the empty in-memory database, and from then on every change is recorded to it.  The latest
+ * snapshot of the journal is loaded first, so only the events after it are replayed.
+ * <p>
+ * The journal can't be used with the file profile, whose database already holds everything the
+ * journal would make again, so the application doesn't start with both.
+ */
+@Component
+@Slf4j
+public class JournalReplay {
+    @Value("${soccer.journal.path:}")
+    private String path;
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private NameKeyBackfill nameKeyBackfill;
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    public void checkDatabase() {
+        if(!path.isEmpty() && environment.acceptsProfiles(Profiles.of("file"))) {
+            throw new IllegalStateException("The journal " + path + " can't be used with the file profile, which keeps the database in "
+                            + environment.getProperty("soccer.database.path") + ": use one or the other");
+        }
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void replay() throws IOException {
+        if(path.isEmpty() || journalService.getJournal() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        EventJournal journal = EventJournal.open(Paths.get(path));
+        if(journal.wasRepaired()) {
+            log.warn("Journal " + path + " ended with an event that was only partly written, which was cut off");
+        }
+        long from = snapshotService.loadLatest(journal);
+        // a snapshot from before names had keys loads without them
+        nameKeyBackfill.backfill();
+        long events = replayService.replayJournal(journal, from, ReplayService.DEFAULT_CHUNK_SIZE);
+        journalService.recordTo(journal);
+        snapshotService.start();
+        log.info("Replayed " + events + " events from journal " + path + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
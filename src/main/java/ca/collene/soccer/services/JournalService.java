@@ -0,0 +1,167 @@
+package ca.collene.soccer.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.repositories.EventJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records each change the services make to the event journal, once the journal has been replayed
+ * at startup; until then, and when no journal is configured, recording does nothing.
+ * <p>
+ * Events made in a transaction are kept until it commits, so a change that is rolled back is never
+ * recorded, and are then appended and synced together, so a transaction waits for one sync of the
+ * journal however many events it made.  An event made outside a transaction is appended and
+ * synced straight away.
+ * <p>
+ * A transaction with events holds a shared lock from just before it commits until its events are
+ * appended, so that a snapshot can find the position in the journal that matches what has been
+ * committed.  A change made outside a transaction holds it with {@link #holdCommit()} from before
+ * it is written until its event is appended.
+ * <p>
+ * By the time events are appended their change is already in the database, so a journal that
+ * can't be written to is logged and no longer recorded to, rather than failing a change that has
+ * been made.
+ */
+@Service
+@Slf4j
+public class JournalService {
+    private volatile EventJournal journal;
+    // set once a write to the journal fails, after which its position no longer matches the database
+    private volatile boolean failed;
+
+    private final ReadWriteLock commits = new ReentrantReadWriteLock();
+
+    /**
+     * Starts recording to the journal.
+     */
+    public void recordTo(EventJournal journal) {
+        this.journal = journal;
+        this.failed = false;
+    }
+
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Whether changes are being recorded: there is a journal and no write to it has failed.
+     */
+    public boolean isRecording() {
+        return journal != null && !failed;
+    }
+
+    /**
+     * Runs the action with the position just past the last event appended, while no change is part
+     * way through committing, so every change committed so far has its events before the position
+     * and no other change is committed until the action returns.
+     */
+    public <T> T withCommitsHeld(LongFunction<T> action) {
+        commits.writeLock().lock();
+        try {
+            return action.apply(journal.getPosition());
+        } finally {
+            commits.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the shared lock while a change made outside a transaction is written to the database
+     * and its event is recorded, as a transaction holds it while it commits, so no snapshot is taken
+     * between the two.  Closing it lets snapshots go ahead again.
+     */
+    public CommitHold holdCommit() {
+        commits.readLock().lock();
+        return commits.readLock()::unlock;
+    }
+
+    public void record(JournalEvent event) {
+        EventJournal journal = this.journal;
+        if(journal == null || failed) {
+            return;
+        }
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commits.readLock().lock();
+            try {
+                write(journal, List.of(event));
+            } finally {
+                commits.readLock().unlock();
+            }
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<JournalEvent> pending = (List<JournalEvent>) TransactionSynchronizationManager.getResource(this);
+        if(pending == null) {
+            List<JournalEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean committing;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commits.readLock().lock();
+                    committing = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    write(journal, events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(JournalService.this);
+                    if(committing) {
+                        commits.readLock().unlock();
+                    }
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void write(EventJournal journal, List<JournalEvent> events) {
+        if(failed) {
+            return;
+        }
+        try {
+            long end = 0;
+            for(JournalEvent event : events) {
+                end = journal.append(event);
+            }
+            journal.sync(end);
+        } catch(IOException | RuntimeException e) {
+            // the change is already in the database, so it is kept until the application stops but won't be replayed
+            failed = true;
+            log.error("Could not record " + events.size() + " change(s) to journal " + journal.getFile()
+                            + "; no more changes will be recorded or snapshots written until the application is restarted", e);
+        }
+    }
+
+    public interface CommitHold extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        EventJournal journal = this.journal;
+        this.journal = null;
+        if(journal != null) {
+            journal.close();
+        }
+    }
+}
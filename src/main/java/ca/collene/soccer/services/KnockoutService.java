@@ -0,0 +1,108 @@
+package ca.collene.soccer.services;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.collene.soccer.entities.BracketSlot;
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.Bracket;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.repositories.BracketSlotRepository;
+import ca.collene.soccer.repositories.GameRepository;
+import ca.collene.soccer.repositories.TeamRepository;
+import ca.collene.soccer.repositories.TournamentRepository;
+
+/**
+ * Moves the winners of knockout games through their tournament's bracket, and reads the bracket
+ * back for reports.
+ * <p>
+ * A knockout game knows the slot its winner moves to, so scoring it touches at most three rows of
+ * the bracket whatever its size: the winner's new slot, the slot next to it, and the game between
+ * the two when both are filled.  Games are never searched for.
+ */
+@Service
+public class KnockoutService {
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private BracketSlotRepository bracketSlotRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    /**
+     * Checks that the knockout game can be won by the team, before its score is set.  A knockout
+     * game can't end in a tie, given as a null winner, and once its winner has a game in the next
+     * round the result can't be changed to the other team.
+     */
+    public void checkResult(Game game, Team winner) throws InvalidScoreException {
+        if(winner == null) {
+            throw new InvalidScoreException("A knockout game can't end in a tie");
+        }
+        Optional<BracketSlot> won = bracketSlotRepository.findById(new BracketSlot.Key(game.getTournamentId(), game.getSlot()));
+        if(won.isPresent() && !won.get().getTeamId().equals(winner.getId()) && game.getSlot() > 1
+                        && bracketSlotRepository.existsById(new BracketSlot.Key(game.getTournamentId(), Bracket.sibling(game.getSlot())))) {
+            throw new InvalidScoreException("The winner of this knockout game already has a game in the next round");
+        }
+    }
+
+    /**
+     * Puts the winner of the knockout game in the game's slot, and adds the game for the next slot
+     * up once both teams for it are known.  Returns the game added, or null if there isn't one yet.
+     */
+    public Game advance(Game game, Team winner) {
+        Long tournamentId = game.getTournamentId();
+        int slot = game.getSlot();
+        BracketSlot won = bracketSlotRepository.findById(new BracketSlot.Key(tournamentId, slot)).orElse(null);
+        if(won != null && won.getTeamId().equals(winner.getId())) {
+            // the score was corrected without changing the winner
+            return null;
+        }
+        if(won != null) {
+            won.setTeamId(winner.getId());
+            bracketSlotRepository.save(won);
+        } else {
+            bracketSlotRepository.save(new BracketSlot(tournamentId, slot, winner.getId()));
+        }
+        if(slot == 1) {
+            // the champion
+            return null;
+        }
+        Optional<BracketSlot> sibling = bracketSlotRepository.findById(new BracketSlot.Key(tournamentId, Bracket.sibling(slot)));
+        if(sibling.isEmpty()) {
+            return null;
+        }
+        Team other = teamRepository.findById(sibling.get().getTeamId()).orElseThrow();
+        // the team from the lower slot is listed first, like the games of the first round
+        boolean lower = slot % 2 == 0;
+        return gameRepository.save(new Game(tournamentId, lower ? winner : other, lower ? other : winner, game.getRound() + 1, Bracket.parent(slot)));
+    }
+
+    /**
+     * The tournament's bracket with the name of the team in each filled slot.
+     */
+    @Transactional(readOnly = true)
+    public Bracket<String> getBracket(String tournamentName) throws TournamentDoesNotExistException, BracketDoesNotExistException {
+        Long tournamentId = tournamentRepository.findIdByNameKey(NameKey.of(tournamentName));
+        if(tournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        Integer size = tournamentRepository.findBracketSizeByNameKey(NameKey.of(tournamentName));
+        if(size == null) {
+            throw new BracketDoesNotExistException("Tournament " + tournamentName + " has no knockout bracket");
+        }
+        Bracket<String> bracket = new Bracket<>(size);
+        for(Object[] slot : bracketSlotRepository.findTeamNamesByTournamentId(tournamentId)) {
+            bracket.set((Integer) slot[0], (String) slot[1]);
+        }
+        return bracket;
+    }
+}
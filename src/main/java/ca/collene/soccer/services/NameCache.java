@@ -0,0 +1,127 @@
+package ca.collene.soccer.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ca.collene.soccer.models.NameKey;
+
+/**
+ * Ids of teams, people and tournaments by name, shared by the services so that commands that use
+ * the same names again don't have to look them up in the database.  Names are remembered by their
+ * name key, so every spelling of a name that the database would find finds the same id.
+ * <p>
+ * Ids are remembered when the transaction that found or created them commits, so an insert that
+ * is rolled back is never remembered.  Nothing is ever deleted or renamed, so a remembered id stays
+ * right; an id with no row is evicted when it is found, and the name is looked up again.  Once the
+ * cache is full the least recently used name is dropped.
+ */
+@Component
+public class NameCache {
+    private final Map<Key, Long> ids;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public NameCache(@Value("${soccer.name-cache.maximum-size:10000}") int maximumSize) {
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * The id of the entity of the given type with the given name, or null if it isn't known.
+     */
+    public Long get(Class<?> type, String name) {
+        Key key = new Key(type, NameKey.of(name));
+        Long id;
+        synchronized(ids) {
+            id = ids.get(key);
+        }
+        if(id == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return id;
+    }
+
+    /**
+     * The entity of the given type with the given name if its id is known, otherwise null.  It is
+     * read by its id, which is a single lookup by primary key, or none if the transaction already
+     * has it; an id that no longer has a row is evicted here rather than failing later when a
+     * reference to it is first used.
+     */
+    public <T> T find(JpaRepository<T, Long> repository, Class<T> type, String name) {
+        Long id = get(type, name);
+        if(id == null) {
+            return null;
+        }
+        T entity = repository.findById(id).orElse(null);
+        if(entity == null) {
+            evict(type, name);
+        }
+        return entity;
+    }
+
+    public void put(Class<?> type, String name, Long id) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(type, name, id);
+                }
+            });
+        } else {
+            store(type, name, id);
+        }
+    }
+
+    private void store(Class<?> type, String name, Long id) {
+        Key key = new Key(type, NameKey.of(name));
+        synchronized(ids) {
+            ids.put(key, id);
+        }
+    }
+
+    public void evict(Class<?> type, String name) {
+        Key key = new Key(type, NameKey.of(name));
+        synchronized(ids) {
+            ids.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized(ids) {
+            ids.clear();
+        }
+    }
+
+    public int size() {
+        synchronized(ids) {
+            return ids.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @lombok.Value
+    private static class Key {
+        Class<?> type;
+        String nameKey;
+    }
+}
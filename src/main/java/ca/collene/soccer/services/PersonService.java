@@ -5,6 +5,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
 import ca.collene.soccer.repositories.PersonRepository;
 
 @Service
@@ -12,21 +14,36 @@ public class PersonService {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private JournalService journalService;
+
     public Person createPerson(String name) throws NameAlreadyExistsException {
         Person newPerson = Person.builder().name(name)
                                 .build();
-        try {
-            return personRepository.save(newPerson);
+        JournalEvent event = JournalEvent.createPerson(name);
+        try(JournalService.CommitHold hold = journalService.holdCommit()) {
+            Person person = personRepository.save(newPerson);
+            nameCache.put(Person.class, name, person.getId());
+            journalService.record(event);
+            return person;
         } catch(DataIntegrityViolationException e) {
             throw new NameAlreadyExistsException("A person with name " + name + " already exists");
         }
     }
 
     public Person getPerson(String name) throws PersonDoesNotExistException {
-        Person person = personRepository.findByName(name);
+        Person person = nameCache.find(personRepository, Person.class, name);
+        if(person != null) {
+            return person;
+        }
+        person = personRepository.findByNameKey(NameKey.of(name));
         if(person == null) {
             throw new PersonDoesNotExistException("Person with name " + name + " was not found");
         }
+        nameCache.put(Person.class, name, person.getId());
         return person;
     }
 
@@ -0,0 +1,181 @@
+package ca.collene.soccer.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.TeamRating;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.repositories.TeamRatingRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps each team's Elo rating up to date as games are scored, in every tournament.
+ * <p>
+ * Scoring a game reads and writes only the two teams' rating rows.  When a game that was already
+ * scored is scored again, its earlier result is taken back from the ratings as they are now, since
+ * the ratings it was first scored with aren't kept, so the correction is close to but not exactly
+ * what the earlier result changed.  Ratings depend on the order games are scored in, and a replay
+ * takes the games in the order they were added: it gives the same ratings as scoring only when
+ * every game was scored once, in that order.
+ */
+@Service
+@Slf4j
+public class RatingService {
+    static final int BATCH_SIZE = 1000;
+    private static final String INSERT_RATING = "INSERT INTO team_rating (team_id, rating, games) VALUES (?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TeamRatingRepository teamRatingRepository;
+
+    @Autowired
+    private JournalService journalService;
+
+    /**
+     * Updates the ratings of the game's two teams for its result changing from the previous one,
+     * which is unscored for a game scored for the first time.
+     */
+    @Transactional
+    public void recordResult(Team team1, TallyType previousResult, TallyType result, Team team2) {
+        if(previousResult == result || team1.getId() == null || team2.getId() == null) {
+            return;
+        }
+        Map<Long, TeamRating> ratings = new HashMap<>();
+        teamRatingRepository.findByTeamIds(team1.getId(), team2.getId()).forEach(rating -> ratings.put(rating.getTeamId(), rating));
+        recordResult(ratings, team1, previousResult, result, team2);
+    }
+
+    /**
+     * The rating rows of the teams by team id, read in one query, for recording many results with
+     * {@link #recordResult(Map, Team, TallyType, TallyType, Team)} without reading them again.
+     */
+    public Map<Long, TeamRating> findRatings(Collection<Long> teamIds) {
+        Map<Long, TeamRating> ratings = new HashMap<>();
+        if(!teamIds.isEmpty()) {
+            teamRatingRepository.findByTeamIds(teamIds).forEach(rating -> ratings.put(rating.getTeamId(), rating));
+        }
+        return ratings;
+    }
+
+    /**
+     * Updates the ratings of the game's two teams in the rows already read, which are every row
+     * either team has; a team without one is given a new row, which is added to them.  Must be
+     * called in the transaction the rows were read in.
+     */
+    public void recordResult(Map<Long, TeamRating> ratings, Team team1, TallyType previousResult, TallyType result, Team team2) {
+        if(previousResult == result || team1.getId() == null || team2.getId() == null) {
+            return;
+        }
+        TeamRating rating1 = ratings.computeIfAbsent(team1.getId(), this::newRating);
+        TeamRating rating2 = ratings.computeIfAbsent(team2.getId(), this::newRating);
+        if(previousResult != TallyType.UNSCORED) {
+            double change = Rating.change(rating1.getRating(), rating2.getRating(), previousResult);
+            rating1.reverse(change);
+            rating2.reverse(-change);
+        }
+        if(result != TallyType.UNSCORED) {
+            double change = Rating.change(rating1.getRating(), rating2.getRating(), result);
+            rating1.record(change);
+            rating2.record(-change);
+        }
+    }
+
+    // the id is the team's, so persisting writes nothing until the flush, by when the rating has been recorded
+    private TeamRating newRating(Long teamId) {
+        TeamRating rating = new TeamRating(teamId, Rating.INITIAL_RATING, 0);
+        entityManager.persist(rating);
+        return rating;
+    }
+
+    /**
+     * Rebuilds every team's rating from the scored games of every tournament, in the order the
+     * games were added.  The games are read as a stream of their team ids and scores, so no game,
+     * team or tournament is loaded, and the ratings are written back in JDBC batches.  Returns the
+     * number of games replayed.
+     * <p>
+     * The replay is recorded to the journal like any other change, since a knockout seeded by
+     * rating after it depends on the ratings it gave.
+     */
+    @Transactional
+    public long replayRatings() {
+        long start = System.nanoTime();
+        Map<Long, TeamRating> ratings = new HashMap<>();
+        long games = 0;
+        try(Stream<Object[]> rows = entityManager.createQuery("SELECT g.team1.id, g.team2.id, g.score1, g.score2 FROM game g"
+                                                                + " WHERE g.score1 IS NOT NULL AND g.score2 IS NOT NULL ORDER BY g.id", Object[].class)
+                                                    .setHint(org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, BATCH_SIZE)
+                                                    .getResultStream()) {
+            for(Object[] row : (Iterable<Object[]>) rows::iterator) {
+                TeamRating rating1 = ratings.computeIfAbsent((Long) row[0], id -> new TeamRating(id, Rating.INITIAL_RATING, 0));
+                TeamRating rating2 = ratings.computeIfAbsent((Long) row[1], id -> new TeamRating(id, Rating.INITIAL_RATING, 0));
+                int score1 = (Integer) row[2];
+                int score2 = (Integer) row[3];
+                TallyType result = score1 > score2 ? TallyType.WIN : score1 == score2 ? TallyType.TIE : TallyType.LOSS;
+                double change = Rating.change(rating1.getRating(), rating2.getRating(), result);
+                rating1.record(change);
+                rating2.record(-change);
+                games++;
+            }
+        }
+        // rating rows already in the persistence context would be stale after the rows are replaced
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.update("DELETE FROM team_rating");
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for(TeamRating rating : ratings.values()) {
+            batch.add(new Object[] {rating.getTeamId(), rating.getRating(), rating.getGames()});
+            if(batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_RATING, batch);
+                batch.clear();
+            }
+        }
+        if(!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RATING, batch);
+        }
+        journalService.record(JournalEvent.replayRatings());
+        log.info("Replayed " + games + " games into the ratings of " + ratings.size() + " teams in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return games;
+    }
+
+    /**
+     * Up to count rated teams, highest rating first, or all of them for a count of 0.
+     */
+    public List<Rating> getRatings(int count) {
+        return teamRatingRepository.findRatings(count > 0 ? PageRequest.of(0, count) : Pageable.unpaged());
+    }
+
+    /**
+     * The rating of each team in the tournament by name, with the initial rating for a team that
+     * hasn't been rated.
+     */
+    public Map<String, Double> getRatingsForTournament(String tournamentName) {
+        Map<String, Double> ratings = new HashMap<>();
+        for(Object[] row : teamRatingRepository.findRatingsByTournamentNameKey(NameKey.of(tournamentName))) {
+            ratings.put((String) row[0], row[1] != null ? (Double) row[1] : Rating.INITIAL_RATING);
+        }
+        return ratings;
+    }
+}
@@ -0,0 +1,773 @@
+package ca.collene.soccer.services;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Player;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.repositories.EventJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes the changes recorded in the event journal again, as at startup after the latest snapshot
+ * is loaded.
+ * <p>
+ * The events are applied in chunks, each written in one transaction.  The tournaments, teams and
+ * people that a chunk names are read once, with the teams and games of the tournaments and the
+ * rosters and ratings of the teams, and kept in memory for the rest of the replay.  Each event is
+ * then checked against what is in memory by the same rules as the command that recorded it, so
+ * applying it runs no query, and the chunk's changes are written at its end in JDBC batches: a
+ * game scored again in the same chunk is written once with its last score, and each rating the
+ * chunk changes is written once.  New games and players get their ids from their sequences
+ * through Hibernate's generator, like generated fixtures, and new tournaments, teams and people
+ * get theirs from the keys their batches generate.
+ * <p>
+ * Changes to a tournament's points, generated games, ratings replays and the scores of knockout
+ * games, which move the winner on, are made between chunks by the services that made them, and
+ * what is in memory is read again after them.
+ */
+@Service
+@Slf4j
+public class ReplayService {
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+    // the most names or ids looked up in one query
+    private static final int QUERY_SIZE = 500;
+    private static final String INSERT_TOURNAMENT = "INSERT INTO tournament (name, name_key, points_for_win, points_for_tie, points_for_loss) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_TEAM = "INSERT INTO team (name, name_key) VALUES (?, ?)";
+    private static final String INSERT_PERSON = "INSERT INTO person (name, name_key) VALUES (?, ?)";
+    private static final String INSERT_TOURNAMENT_TEAM = "INSERT INTO tournament_team (tournament_id, team_id, team_order) VALUES (?, ?, ?)";
+    private static final String INSERT_GAME = "INSERT INTO game (id, tournament_id, team1_id, team2_id, score1, score2) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SCORE = "UPDATE game SET score1 = ?, score2 = ? WHERE id = ?";
+    private static final String INSERT_PLAYER = "INSERT INTO player (id, team_id, person_id, number) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_COACH = "INSERT INTO team_coach (team_id, person_id, coach_order) VALUES (?, ?, ?)";
+    private static final String MERGE_RATING = "MERGE INTO team_rating (team_id, rating, games) KEY (team_id) VALUES (?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    /**
+     * Makes the changes recorded in the journal again, from the position up to its end, in the order
+     * they were recorded, with up to chunkSize events in each transaction.  Events that break a
+     * rule are rejected as rows of an import are, the event's number taking the place of the line
+     * number, and logged at the end.  Returns the number of events read.
+     */
+    public long replayJournal(EventJournal journal, long from, int chunkSize) throws IOException {
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        ImportResult result = new ImportResult();
+        Replay replay = new Replay(result);
+        List<JournalEvent> chunk = new ArrayList<>(chunkSize);
+        EventJournal.Reader reader = journal.read(from);
+        long events = 0;
+        JournalEvent event;
+        while((event = reader.next()) != null) {
+            events++;
+            if(inChunks(event.getType())) {
+                chunk.add(event);
+                if(chunk.size() == chunkSize) {
+                    replay.apply(chunk, events - chunk.size() + 1);
+                    chunk.clear();
+                }
+                continue;
+            }
+            replay.apply(chunk, events - chunk.size());
+            chunk.clear();
+            replay.applyByService(event, events);
+        }
+        replay.apply(chunk, events - chunk.size() + 1);
+        if(result.getRejected() > 0) {
+            log.warn(result.getRejected() + " of the " + events + " events replayed from " + journal.getFile() + " could not be applied again: " + result.getRejections());
+        }
+        return events;
+    }
+
+    private static boolean inChunks(JournalEvent.Type type) {
+        switch(type) {
+            case SET_POINTS_SCHEME:
+            case GENERATE_ROUND_ROBIN:
+            case GENERATE_KNOCKOUT:
+            case PAIR_SWISS_ROUND:
+            case REPLAY_RATINGS:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * What the replay has read and made so far, and the changes it hasn't written yet.
+     */
+    private class Replay {
+        private final ImportResult result;
+
+        private final Map<String, TournamentState> tournaments = new HashMap<>();
+        private final Map<String, TeamState> teams = new HashMap<>();
+        private final Map<Long, TeamState> teamsById = new HashMap<>();
+        private final Map<String, Named> people = new HashMap<>();
+        private final Map<Long, Named> peopleById = new HashMap<>();
+
+        private final List<TournamentState> newTournaments = new ArrayList<>();
+        private final List<TeamState> newTeams = new ArrayList<>();
+        private final List<Named> newPeople = new ArrayList<>();
+        // tournaments with teams added, whose new teams are after the ones already written
+        private final Set<TournamentState> newTournamentTeams = new LinkedHashSet<>();
+        private final List<GameState> newGames = new ArrayList<>();
+        private final Set<GameState> scoredGames = new LinkedHashSet<>();
+        private final List<Member> newPlayers = new ArrayList<>();
+        private final List<Member> newCoaches = new ArrayList<>();
+        private final Set<TeamState> ratedTeams = new LinkedHashSet<>();
+        private final Set<String> changedTournaments = new HashSet<>();
+        private int teamCount = 0;
+
+        Replay(ImportResult result) {
+            this.result = result;
+        }
+
+        /**
+         * Applies the events, numbered from first, writing them in one transaction, or in one
+         * before and one after each knockout score among them.
+         */
+        void apply(List<JournalEvent> events, long first) {
+            int next = 0;
+            while(next < events.size()) {
+                List<JournalEvent> rest = events.subList(next, events.size());
+                find(rest);
+                next += applyInMemory(rest, first + next);
+                write();
+                if(next < events.size()) {
+                    applyByService(events.get(next), first + next);
+                    next++;
+                }
+            }
+        }
+
+        void applyByService(JournalEvent event, long number) {
+            try {
+                switch(event.getType()) {
+                    case SET_POINTS_SCHEME:
+                        tournamentService.setPointsScheme(event.getName(0), new PointsScheme(event.getNumber(0), event.getNumber(1), event.getNumber(2)));
+                        break;
+                    case GENERATE_ROUND_ROBIN:
+                        fixtureService.generateRoundRobin(event.getName(0), event.getNumber(0) != 0);
+                        break;
+                    case GENERATE_KNOCKOUT:
+                        fixtureService.generateKnockout(event.getName(0), event.getName(1), event.getNumber(0), event.getNumber(1) != 0);
+                        break;
+                    case PAIR_SWISS_ROUND:
+                        fixtureService.pairSwissRound(event.getName(0));
+                        break;
+                    case REPLAY_RATINGS:
+                        ratingService.replayRatings();
+                        break;
+                    case SCORE_GAME:
+                        tournamentService.scoreGameInTournament(event.getName(1), event.getNumber(0), event.getName(2), event.getNumber(1), event.getName(0));
+                        break;
+                    default:
+                        throw new IllegalArgumentException(event.getType() + " events are replayed in chunks");
+                }
+            } catch(TournamentDoesNotExistException | InvalidPointsSchemeException | GameAlreadyInTournamentException | InvalidGameException
+                    | GameNotScoredException | TeamDoesNotExistException | GameDoesNotExistException | InvalidScoreException e) {
+                result.rejected(number, e.getMessage());
+            }
+            // the service wrote what isn't in memory, so it is all read again
+            tournaments.clear();
+            teams.clear();
+            teamsById.clear();
+            people.clear();
+            peopleById.clear();
+        }
+
+        /**
+         * Applies the events in memory up to the score of a knockout game, and returns how many
+         * were applied.
+         */
+        private int applyInMemory(List<JournalEvent> events, long first) {
+            for(int i = 0; i < events.size(); i++) {
+                JournalEvent event = events.get(i);
+                try {
+                    switch(event.getType()) {
+                        case CREATE_TOURNAMENT:
+                            tournament(event.getName(0), true);
+                            break;
+                        case CREATE_TEAM:
+                            team(event.getName(0), true);
+                            break;
+                        case CREATE_PERSON:
+                            person(event.getName(0));
+                            break;
+                        case ADD_TEAM:
+                            addTeam(event);
+                            break;
+                        case ADD_GAME:
+                            addGame(event);
+                            break;
+                        case SCORE_GAME:
+                            if(!scoreGame(event)) {
+                                return i;
+                            }
+                            break;
+                        case ADD_PLAYER:
+                            addPlayer(event);
+                            break;
+                        default:
+                            addCoach(event);
+                    }
+                } catch(TournamentDoesNotExistException | TeamDoesNotExistException | GameDoesNotExistException
+                        | GameAlreadyInTournamentException | InvalidGameException | InvalidScoreException
+                        | PlayerAlreadyOnTeamException | NumberAlreadyInUseException | CoachAlreadyOnTeamException
+                        | TeamAlreadyInTournamentException e) {
+                    result.rejected(first + i, e.getMessage());
+                }
+            }
+            return events.size();
+        }
+
+        private TournamentState tournament(String name, boolean create) {
+            String key = NameKey.of(name);
+            TournamentState tournament = tournaments.get(key);
+            if(tournament == null && create) {
+                tournament = new TournamentState(null, name, key);
+                tournaments.put(key, tournament);
+                newTournaments.add(tournament);
+            }
+            return tournament;
+        }
+
+        private TeamState team(String name, boolean create) {
+            String key = NameKey.of(name);
+            TeamState team = teams.get(key);
+            if(team == null && create) {
+                team = new TeamState(null, name, key, teamCount++);
+                // a new team has no players or coaches to read
+                team.rosterRead = true;
+                teams.put(key, team);
+                newTeams.add(team);
+            }
+            return team;
+        }
+
+        private Named person(String name) {
+            String key = NameKey.of(name);
+            Named person = people.get(key);
+            if(person == null) {
+                person = new Named(null, name, key);
+                people.put(key, person);
+                newPeople.add(person);
+            }
+            return person;
+        }
+
+        private void addTeam(JournalEvent event) throws TournamentDoesNotExistException, TeamAlreadyInTournamentException {
+            TeamState team = team(event.getName(1), true);
+            TournamentState tournament = tournament(event.getName(0), false);
+            if(tournament == null) {
+                throw new TournamentDoesNotExistException("Tournament with name " + event.getName(0) + " was not found");
+            }
+            if(tournament.teamSet.contains(team)) {
+                throw new TeamAlreadyInTournamentException("The team " + team.name + " is already in tournament " + tournament.name);
+            }
+            addTeam(tournament, team);
+        }
+
+        private void addTeam(TournamentState tournament, TeamState team) {
+            tournament.teams.add(team);
+            tournament.teamSet.add(team);
+            newTournamentTeams.add(tournament);
+            changedTournaments.add(tournament.name);
+        }
+
+        private void addGame(JournalEvent event) throws InvalidGameException, GameAlreadyInTournamentException {
+            TournamentState tournament = tournament(event.getName(0), true);
+            TeamState team1 = team(event.getName(1), true);
+            TeamState team2 = team(event.getName(2), true);
+            if(team1 == team2) {
+                throw new InvalidGameException("The team " + event.getName(1) + " can not play itself in tournament " + event.getName(0));
+            }
+            long pair = pair(team1, team2);
+            if(tournament.games.containsKey(pair)) {
+                throw new GameAlreadyInTournamentException("The game between teams " + event.getName(1) + " and " + event.getName(2) + " already exists in tournament " + event.getName(0));
+            }
+            for(TeamState team : List.of(team1, team2)) {
+                if(!tournament.teamSet.contains(team)) {
+                    addTeam(tournament, team);
+                }
+            }
+            GameState game = new GameState(null, tournament, team1, team2, null);
+            tournament.games.computeIfAbsent(pair, key -> new ArrayList<>()).add(game);
+            newGames.add(game);
+            changedTournaments.add(tournament.name);
+        }
+
+        /**
+         * Scores the game, unless it is a knockout game, which is left for the tournament service
+         * to score and returns false.
+         */
+        private boolean scoreGame(JournalEvent event) throws TournamentDoesNotExistException, TeamDoesNotExistException, GameDoesNotExistException, InvalidScoreException {
+            TournamentState tournament = tournament(event.getName(0), false);
+            if(tournament == null) {
+                throw new TournamentDoesNotExistException("Tournament with name " + event.getName(0) + " was not found");
+            }
+            for(String teamName : List.of(event.getName(1), event.getName(2))) {
+                if(team(teamName, false) == null) {
+                    throw new TeamDoesNotExistException("Team with name " + teamName + " was not found");
+                }
+            }
+            TeamState team1 = team(event.getName(1), false);
+            TeamState team2 = team(event.getName(2), false);
+            List<GameState> games = tournament.games.get(pair(team1, team2));
+            if(games == null) {
+                throw new GameDoesNotExistException("The game with teams " + event.getName(1) + " and " + event.getName(2) + " does not exist in tournament " + event.getName(0));
+            }
+            GameState game = toScore(games, team1);
+            if(game.slot != null) {
+                return false;
+            }
+            int points1 = event.getNumber(0);
+            int points2 = event.getNumber(1);
+            if(points1 < 0 || points2 < 0) {
+                throw new InvalidScoreException("Score points must be positive values");
+            }
+            TallyType previousResult = game.resultFor(team1);
+            game.score1 = team1 == game.team1 ? points1 : points2;
+            game.score2 = team1 == game.team1 ? points2 : points1;
+            recordResult(team1, previousResult, game.resultFor(team1), team2);
+            // a new game is written with its score
+            if(game.id != null) {
+                scoredGames.add(game);
+            }
+            changedTournaments.add(tournament.name);
+            return true;
+        }
+
+        // as the rating service records it, see RatingService.recordResult
+        private void recordResult(TeamState team1, TallyType previousResult, TallyType result, TeamState team2) {
+            if(previousResult == result) {
+                return;
+            }
+            if(previousResult != TallyType.UNSCORED) {
+                double change = Rating.change(team1.rating, team2.rating, previousResult);
+                team1.rating -= change;
+                team1.games--;
+                team2.rating += change;
+                team2.games--;
+            }
+            if(result != TallyType.UNSCORED) {
+                double change = Rating.change(team1.rating, team2.rating, result);
+                team1.rating += change;
+                team1.games++;
+                team2.rating -= change;
+                team2.games++;
+            }
+            ratedTeams.add(team1);
+            ratedTeams.add(team2);
+        }
+
+        private void addPlayer(JournalEvent event) throws PlayerAlreadyOnTeamException, NumberAlreadyInUseException {
+            TeamState team = team(event.getName(0), true);
+            Named person = person(event.getName(1));
+            int number = event.getNumber(0);
+            if(team.players.contains(person)) {
+                throw new PlayerAlreadyOnTeamException("The person " + event.getName(1) + " is already on the team " + event.getName(0));
+            }
+            if(team.numbers.contains(number)) {
+                throw new NumberAlreadyInUseException("The number " + number + " is already in use on the team " + event.getName(0));
+            }
+            team.players.add(person);
+            team.numbers.add(number);
+            newPlayers.add(new Member(team, person, number));
+        }
+
+        private void addCoach(JournalEvent event) throws CoachAlreadyOnTeamException {
+            TeamState team = team(event.getName(0), true);
+            Named person = person(event.getName(1));
+            if(team.coaches.contains(person)) {
+                throw new CoachAlreadyOnTeamException("The coach " + event.getName(1) + " is already on the team " + event.getName(0));
+            }
+            newCoaches.add(new Member(team, person, team.coaches.size()));
+            team.coaches.add(person);
+        }
+
+        /**
+         * Reads the tournaments, teams and people the events name that aren't in memory yet, with
+         * the rosters of the teams the events add players or coaches to.
+         */
+        private void find(List<JournalEvent> events) {
+            Set<String> tournamentKeys = new HashSet<>();
+            Set<String> teamKeys = new HashSet<>();
+            Set<String> personKeys = new HashSet<>();
+            for(JournalEvent event : events) {
+                switch(event.getType()) {
+                    case CREATE_TOURNAMENT:
+                        tournamentKeys.add(NameKey.of(event.getName(0)));
+                        break;
+                    case CREATE_TEAM:
+                        teamKeys.add(NameKey.of(event.getName(0)));
+                        break;
+                    case CREATE_PERSON:
+                        personKeys.add(NameKey.of(event.getName(0)));
+                        break;
+                    case ADD_PLAYER:
+                    case ADD_COACH:
+                        teamKeys.add(NameKey.of(event.getName(0)));
+                        personKeys.add(NameKey.of(event.getName(1)));
+                        break;
+                    case ADD_TEAM:
+                        tournamentKeys.add(NameKey.of(event.getName(0)));
+                        teamKeys.add(NameKey.of(event.getName(1)));
+                        break;
+                    default:
+                        tournamentKeys.add(NameKey.of(event.getName(0)));
+                        teamKeys.add(NameKey.of(event.getName(1)));
+                        teamKeys.add(NameKey.of(event.getName(2)));
+                }
+            }
+            tournamentKeys.removeAll(tournaments.keySet());
+            teamKeys.removeAll(teams.keySet());
+            personKeys.removeAll(people.keySet());
+            findTeams("name_key", teamKeys);
+            findTournaments(tournamentKeys);
+            query("SELECT id, name, name_key FROM person WHERE name_key IN (%s)", personKeys, row -> {
+                String name = row.getString(2);
+                String key = row.getString(3);
+                // a person on a roster already read is the same person
+                people.put(key, peopleById.computeIfAbsent(row.getLong(1), id -> new Named(id, name, key)));
+            });
+            findRosters(events);
+        }
+
+        // a team is read with its rating
+        private void findTeams(String column, Collection<?> values) {
+            query("SELECT t.id, t.name, t.name_key, r.rating, r.games FROM team t LEFT JOIN team_rating r ON r.team_id = t.id WHERE t." + column + " IN (%s)", values, row -> {
+                long id = row.getLong(1);
+                if(teamsById.containsKey(id)) {
+                    return;
+                }
+                TeamState team = new TeamState(id, row.getString(2), row.getString(3), teamCount++);
+                double rating = row.getDouble(4);
+                if(!row.wasNull()) {
+                    team.rating = rating;
+                    team.games = row.getLong(5);
+                }
+                teamsById.put(id, team);
+                // a name without a key can't be found by name
+                if(team.key != null) {
+                    teams.put(team.key, team);
+                }
+            });
+        }
+
+        // a tournament is read with its teams and games, and the teams it has that aren't in memory yet
+        private void findTournaments(Collection<String> keys) {
+            Map<Long, TournamentState> found = new HashMap<>();
+            query("SELECT id, name, name_key FROM tournament WHERE name_key IN (%s)", keys, row -> {
+                TournamentState tournament = new TournamentState(row.getLong(1), row.getString(2), row.getString(3));
+                tournaments.put(tournament.key, tournament);
+                found.put(tournament.id, tournament);
+            });
+            if(found.isEmpty()) {
+                return;
+            }
+            List<long[]> tournamentTeams = new ArrayList<>();
+            query("SELECT tournament_id, team_id FROM tournament_team WHERE tournament_id IN (%s) ORDER BY tournament_id, team_order", found.keySet(), row -> {
+                tournamentTeams.add(new long[] {row.getLong(1), row.getLong(2)});
+            });
+            List<Object[]> games = new ArrayList<>();
+            query("SELECT id, tournament_id, team1_id, team2_id, slot, score1, score2 FROM game WHERE tournament_id IN (%s) ORDER BY id", found.keySet(), row -> {
+                games.add(new Object[] {row.getLong(1), row.getLong(2), row.getLong(3), row.getLong(4),
+                                        row.getObject(5, Integer.class), row.getObject(6, Integer.class), row.getObject(7, Integer.class)});
+            });
+            Set<Long> teamIds = new HashSet<>();
+            tournamentTeams.forEach(tournamentTeam -> teamIds.add(tournamentTeam[1]));
+            teamIds.removeAll(teamsById.keySet());
+            findTeams("id", teamIds);
+            for(long[] tournamentTeam : tournamentTeams) {
+                TournamentState tournament = found.get(tournamentTeam[0]);
+                TeamState team = teamsById.get(tournamentTeam[1]);
+                tournament.teams.add(team);
+                tournament.teamSet.add(team);
+                tournament.writtenTeams++;
+            }
+            for(Object[] row : games) {
+                TournamentState tournament = found.get((Long) row[1]);
+                GameState game = new GameState((Long) row[0], tournament, teamsById.get((Long) row[2]), teamsById.get((Long) row[3]), (Integer) row[4]);
+                game.score1 = (Integer) row[5];
+                game.score2 = (Integer) row[6];
+                tournament.games.computeIfAbsent(pair(game.team1, game.team2), key -> new ArrayList<>()).add(game);
+            }
+        }
+
+        private void findRosters(List<JournalEvent> events) {
+            Map<Long, TeamState> rosterTeams = new HashMap<>();
+            for(JournalEvent event : events) {
+                if(event.getType() == JournalEvent.Type.ADD_PLAYER || event.getType() == JournalEvent.Type.ADD_COACH) {
+                    TeamState team = team(event.getName(0), false);
+                    if(team != null && !team.rosterRead) {
+                        rosterTeams.put(team.id, team);
+                    }
+                }
+            }
+            query("SELECT team_id, person_id, number FROM player WHERE team_id IN (%s)", rosterTeams.keySet(), row -> {
+                TeamState team = rosterTeams.get(row.getLong(1));
+                team.players.add(peopleById.computeIfAbsent(row.getLong(2), id -> new Named(id, null, null)));
+                team.numbers.add(row.getInt(3));
+            });
+            query("SELECT team_id, person_id FROM team_coach WHERE team_id IN (%s) ORDER BY team_id, coach_order", rosterTeams.keySet(), row -> {
+                rosterTeams.get(row.getLong(1)).coaches.add(peopleById.computeIfAbsent(row.getLong(2), id -> new Named(id, null, null)));
+            });
+            rosterTeams.values().forEach(team -> team.rosterRead = true);
+        }
+
+        /**
+         * Runs the query once for each batch of values, put in place of its %s.
+         */
+        private void query(String sql, Collection<?> values, RowCallbackHandler handler) {
+            List<?> all = new ArrayList<>(values);
+            for(int i = 0; i < all.size(); i += QUERY_SIZE) {
+                List<?> batch = all.subList(i, Math.min(i + QUERY_SIZE, all.size()));
+                jdbcTemplate.query(String.format(sql, batch.stream().map(value -> "?").collect(Collectors.joining(", "))), handler, batch.toArray());
+            }
+        }
+
+        /**
+         * Writes the changes made in memory since the last write in one transaction.
+         */
+        private void write() {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                PointsScheme points = PointsScheme.DEFAULT;
+                insert(INSERT_TOURNAMENT, newTournaments,
+                                tournament -> new Object[] {tournament.name, tournament.key, points.getWin(), points.getTie(), points.getLoss()});
+                insert(INSERT_TEAM, newTeams, team -> new Object[] {team.name, team.key});
+                insert(INSERT_PERSON, newPeople, person -> new Object[] {person.name, person.key});
+                newTeams.forEach(team -> teamsById.put(team.id, team));
+                newPeople.forEach(person -> peopleById.put(person.id, person));
+
+                List<Object[]> rows = new ArrayList<>();
+                for(TournamentState tournament : newTournamentTeams) {
+                    for(int i = tournament.writtenTeams; i < tournament.teams.size(); i++) {
+                        rows.add(new Object[] {tournament.id, tournament.teams.get(i).id, i});
+                    }
+                    tournament.writtenTeams = tournament.teams.size();
+                }
+                batchUpdate(INSERT_TOURNAMENT_TEAM, rows);
+
+                SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+                IdentifierGenerator gameIds = session.getFactory().getMetamodel().entityPersister(Game.class).getIdentifierGenerator();
+                for(GameState game : newGames) {
+                    game.id = (Long) gameIds.generate(session, null);
+                    rows.add(new Object[] {game.id, game.tournament.id, game.team1.id, game.team2.id, game.score1, game.score2});
+                }
+                batchUpdate(INSERT_GAME, rows);
+                for(GameState game : scoredGames) {
+                    rows.add(new Object[] {game.score1, game.score2, game.id});
+                }
+                batchUpdate(UPDATE_SCORE, rows);
+
+                IdentifierGenerator playerIds = session.getFactory().getMetamodel().entityPersister(Player.class).getIdentifierGenerator();
+                for(Member player : newPlayers) {
+                    rows.add(new Object[] {playerIds.generate(session, null), player.team.id, player.person.id, player.number});
+                }
+                batchUpdate(INSERT_PLAYER, rows);
+                for(Member coach : newCoaches) {
+                    rows.add(new Object[] {coach.team.id, coach.person.id, coach.number});
+                }
+                batchUpdate(INSERT_COACH, rows);
+                for(TeamState team : ratedTeams) {
+                    rows.add(new Object[] {team.id, team.rating, team.games});
+                }
+                batchUpdate(MERGE_RATING, rows);
+            });
+            newTournaments.clear();
+            newTeams.clear();
+            newPeople.clear();
+            newTournamentTeams.clear();
+            newGames.clear();
+            scoredGames.clear();
+            newPlayers.clear();
+            newCoaches.clear();
+            ratedTeams.clear();
+            // counted again from the games when they are next asked for
+            changedTournaments.forEach(tournamentService::forgetStandings);
+            changedTournaments.clear();
+        }
+
+        // identity columns, so the ids are read from the keys the batch generates, one for each row in order
+        private <T extends Named> void insert(String sql, List<T> named, Function<T, Object[]> values) {
+            if(named.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try(PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for(T entity : named) {
+                        Object[] row = values.apply(entity);
+                        for(int i = 0; i < row.length; i++) {
+                            statement.setObject(i + 1, row[i]);
+                        }
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try(ResultSet keys = statement.getGeneratedKeys()) {
+                        for(T entity : named) {
+                            keys.next();
+                            entity.id = keys.getLong(1);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        // clears the rows once they are written, so the list can be filled again
+        private void batchUpdate(String sql, List<Object[]> rows) {
+            if(!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+
+        // the two teams of a game, in either order
+        private long pair(TeamState team1, TeamState team2) {
+            return ((long) Math.min(team1.index, team2.index) << 32) | Math.max(team1.index, team2.index);
+        }
+
+        // the game of the pair that a score for team1 is for, picked as Game.toScore picks it
+        private GameState toScore(List<GameState> games, TeamState team1) {
+            List<GameState> inOrder = games.stream().filter(game -> game.team1 == team1).collect(Collectors.toList());
+            List<GameState> candidates = inOrder.isEmpty() ? games : inOrder;
+            return candidates.stream()
+                            .filter(game -> game.score1 == null || game.score2 == null)
+                            .findFirst()
+                            .orElse(candidates.get(candidates.size() - 1));
+        }
+    }
+
+    /**
+     * A tournament, team or person, with its id once it has been written.
+     */
+    private static class Named {
+        Long id;
+        final String name;
+        final String key;
+
+        Named(Long id, String name, String key) {
+            this.id = id;
+            this.name = name;
+            this.key = key;
+        }
+    }
+
+    private static class TournamentState extends Named {
+        final List<TeamState> teams = new ArrayList<>();
+        final Set<TeamState> teamSet = new HashSet<>();
+        // the teams before this one are already in the tournament_team table
+        int writtenTeams = 0;
+        // by the pair of their teams, in the order they were added
+        final Map<Long, List<GameState>> games = new HashMap<>();
+
+        TournamentState(Long id, String name, String key) {
+            super(id, name, key);
+        }
+    }
+
+    private static class TeamState extends Named {
+        // numbers the teams in memory, for pairing them before they have ids
+        final int index;
+        double rating = Rating.INITIAL_RATING;
+        long games = 0;
+        boolean rosterRead = false;
+        final Set<Named> players = new HashSet<>();
+        final Set<Integer> numbers = new HashSet<>();
+        final List<Named> coaches = new ArrayList<>();
+
+        TeamState(Long id, String name, String key, int index) {
+            super(id, name, key);
+            this.index = index;
+        }
+    }
+
+    private static class GameState {
+        Long id;
+        final TournamentState tournament;
+        final TeamState team1;
+        final TeamState team2;
+        final Integer slot;
+        Integer score1;
+        Integer score2;
+
+        GameState(Long id, TournamentState tournament, TeamState team1, TeamState team2, Integer slot) {
+            this.id = id;
+            this.tournament = tournament;
+            this.team1 = team1;
+            this.team2 = team2;
+            this.slot = slot;
+        }
+
+        TallyType resultFor(TeamState team) {
+            if(score1 == null || score2 == null) {
+                return TallyType.UNSCORED;
+            }
+            int points = team == team1 ? score1 : score2;
+            int otherPoints = team == team1 ? score2 : score1;
+            return points == otherPoints ? TallyType.TIE : points > otherPoints ? TallyType.WIN : TallyType.LOSS;
+        }
+    }
+
+    // a player with their number, or a coach with their place among the team's coaches
+    private static class Member {
+        final TeamState team;
+        final Named person;
+        final int number;
+
+        Member(TeamState team, Named person, int number) {
+            this.team = team;
+            this.person = person;
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ca.collene.soccer.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.SeasonSimulation;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.GameRepository;
+import ca.collene.soccer.repositories.TournamentRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estimates where the teams of a tournament will finish by playing out its unscored games many
+ * times.  The standings and the unscored games are read once, and the simulations run on copies
+ * of them in memory across the common fork-join pool.
+ */
+@Service
+@Slf4j
+public class SimulationService {
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    /**
+     * Runs the simulations of the tournament's unscored games from its current standings.  The
+     * same seed gives the same result for the same games.  A knockout can't be simulated, since
+     * its games depend on the games before them.
+     * <p>
+     * By rating, each game's chances come from the two teams' ratings, so a stronger team wins
+     * more often; otherwise every result is equally likely.
+     */
+    public SeasonSimulation.Result simulate(String tournamentName, int simulations, long seed, boolean byRating) throws TournamentDoesNotExistException, InvalidGameException {
+        Long tournamentId = tournamentRepository.findIdByNameKey(NameKey.of(tournamentName));
+        if(tournamentId == null) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        if(tournamentRepository.findBracketSizeByNameKey(NameKey.of(tournamentName)) != null) {
+            throw new InvalidGameException("Tournament " + tournamentName + " has a knockout bracket, so it can't be simulated");
+        }
+        long start = System.nanoTime();
+        List<Tally> standings = tournamentService.getStandings(tournamentName, 0, Integer.MAX_VALUE);
+        Map<String, Integer> places = new HashMap<>();
+        for(int i = 0; i < standings.size(); i++) {
+            places.put(standings.get(i).getTeamName(), i);
+        }
+        List<Object[]> games = gameRepository.findUnscoredTeamNamesByTournamentId(tournamentId);
+        int[] homeTeams = new int[games.size()];
+        int[] awayTeams = new int[games.size()];
+        for(int g = 0; g < games.size(); g++) {
+            homeTeams[g] = places.get(games.get(g)[0]);
+            awayTeams[g] = places.get(games.get(g)[1]);
+        }
+        double[] homeWinChances = null;
+        double[] tieChances = null;
+        if(byRating) {
+            Map<String, Double> ratings = ratingService.getRatingsForTournament(tournamentName);
+            homeWinChances = new double[games.size()];
+            tieChances = new double[games.size()];
+            for(int g = 0; g < games.size(); g++) {
+                double[] chances = Rating.chances(ratings.get(games.get(g)[0]), ratings.get(games.get(g)[1]));
+                homeWinChances[g] = chances[0];
+                tieChances[g] = chances[1];
+            }
+        }
+        PointsScheme pointsScheme = tournamentRepository.findPointsSchemeByNameKey(NameKey.of(tournamentName));
+        SeasonSimulation simulation = new SeasonSimulation(standings, pointsScheme != null ? pointsScheme : PointsScheme.DEFAULT, homeTeams, awayTeams, homeWinChances, tieChances);
+        SeasonSimulation.Result result = simulation.run(ForkJoinPool.commonPool(), simulations, seed);
+        log.info("Simulated " + games.size() + " games of tournament " + tournamentName + " " + simulations + " times in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return result;
+    }
+}
@@ -0,0 +1,400 @@
+package ca.collene.soccer.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.models.Snapshot;
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.repositories.SnapshotFile;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes snapshots of the database next to the event journal, so that startup can load the
+ * latest one and only replay the events after it.
+ * <p>
+ * A snapshot is read in a repeatable read transaction that starts while {@link JournalService}
+ * holds back commits, so it sees exactly the changes whose events come before the journal position
+ * it records.  Commits only wait for the transaction to start; the rows are read, and the file
+ * written, while commands carry on.  Once recording has started, a snapshot is written in the
+ * background every soccer.snapshot.interval if the journal has grown since the last one, and the
+ * two latest are kept.
+ */
+@Service
+@Slf4j
+public class SnapshotService {
+    private static final int KEEP = 2;
+
+    // the tables in the order they are loaded, so the rows a row refers to are always loaded first
+    private static final List<Layout> TABLES = List.of(
+        new Layout("person", "id").identity().ints("id").texts("name", "name_key"),
+        new Layout("team", "id").identity().ints("id").texts("name", "name_key"),
+        new Layout("team_coach", "team_id, coach_order").ints("team_id", "person_id", "coach_order"),
+        new Layout("player", "id").sequence("player_sequence", 50).ints("id", "team_id", "person_id", "number"),
+        new Layout("tournament", "id").identity().ints("id").texts("name", "name_key").ints("points_for_win", "points_for_tie", "points_for_loss", "bracket_size"),
+        new Layout("tournament_team", "tournament_id, team_order").ints("tournament_id", "team_id", "team_order"),
+        new Layout("game", "id").sequence("game_sequence", 50).ints("id", "tournament_id", "team1_id", "team2_id", "round", "slot", "score1", "score2"),
+        new Layout("bracket_slot", "tournament_id, slot").ints("tournament_id", "slot", "team_id"),
+        new Layout("team_rating", "team_id").ints("team_id").doubles("rating").longs("games"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Value("${soccer.snapshot.interval:10m}")
+    private Duration interval;
+
+    private final Object writing = new Object();
+
+    private ScheduledExecutorService executor;
+
+    // the journal position of the latest snapshot loaded or written
+    private volatile long snapshotPosition = EventJournal.START;
+
+    /**
+     * Loads the latest snapshot of the journal that is whole into the empty database and returns
+     * the position to replay the journal from, which is the start if there isn't one.  Snapshots
+     * that cover events the journal lost when it was cut off are deleted, since the journal will
+     * hold other events at those positions.
+     */
+    public long loadLatest(EventJournal journal) throws IOException {
+        for(Path file : SnapshotFile.list(journal.getFile())) {
+            long start = System.nanoTime();
+            Snapshot snapshot;
+            try {
+                snapshot = SnapshotFile.read(file);
+            } catch(IOException e) {
+                log.warn("Skipping snapshot " + file + ": " + e.getMessage());
+                continue;
+            }
+            if(snapshot.getJournalPosition() > journal.getPosition()) {
+                log.warn("Deleting snapshot " + file + ", which covers events that are no longer in the journal");
+                Files.delete(file);
+                continue;
+            }
+            load(snapshot);
+            snapshotPosition = snapshot.getJournalPosition();
+            log.info("Loaded snapshot " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return snapshotPosition;
+        }
+        return EventJournal.START;
+    }
+
+    /**
+     * Starts writing snapshots in the background, for a journal that is being recorded to.
+     */
+    public synchronized void start() {
+        if(executor != null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                if(journalService.isRecording() && journalService.getJournal().getPosition() > snapshotPosition) {
+                    write();
+                }
+            } catch(IOException | RuntimeException e) {
+                // a later snapshot can still succeed, and until then the journal has everything
+                log.error("Could not write snapshot", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if(executor != null) {
+            // lets a snapshot that is being written finish, so it isn't left half written
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            executor = null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of everything recorded to the journal so far, deletes the older snapshots
+     * past the ones kept, and returns the file written.
+     */
+    public Path write() throws IOException {
+        synchronized(writing) {
+            long start = System.nanoTime();
+            EventJournal journal = journalService.getJournal();
+            if(!journalService.isRecording()) {
+                // a snapshot past a failed write would be at a position that doesn't match it
+                throw new IOException("Changes aren't being recorded to a journal, so there is nothing to snapshot");
+            }
+            Snapshot snapshot = take();
+            // the snapshot can't be kept if the journal it covers is lost
+            journal.sync(snapshot.getJournalPosition());
+            Path file = SnapshotFile.write(journal.getFile(), snapshot);
+            snapshotPosition = snapshot.getJournalPosition();
+            List<Path> files = SnapshotFile.list(journal.getFile());
+            for(Path old : files.subList(Math.min(KEEP, files.size()), files.size())) {
+                Files.delete(old);
+            }
+            log.info("Wrote snapshot " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return file;
+        }
+    }
+
+    /**
+     * Reads the database into a snapshot at the journal's position.
+     */
+    public Snapshot take() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        template.setReadOnly(true);
+        return template.execute(status -> {
+            long[] position = new long[1];
+            // counting every table in one statement starts the transaction's view of all of them at once
+            long[] rows = journalService.withCommitsHeld(journalPosition -> {
+                position[0] = journalPosition;
+                return jdbcTemplate.queryForObject(TABLES.stream()
+                                .map(layout -> "(SELECT COUNT(*) FROM " + layout.name + ")")
+                                .collect(Collectors.joining(", ", "SELECT ", "")),
+                            (result, rowNumber) -> {
+                                long[] counts = new long[TABLES.size()];
+                                for(int i = 0; i < counts.length; i++) {
+                                    counts[i] = result.getLong(i + 1);
+                                }
+                                return counts;
+                            });
+            });
+            List<Snapshot.Table> tables = new ArrayList<>(TABLES.size());
+            for(int i = 0; i < TABLES.size(); i++) {
+                tables.add(read(TABLES.get(i), Math.toIntExact(rows[i])));
+            }
+            return new Snapshot(position[0], tables);
+        });
+    }
+
+    private Snapshot.Table read(Layout layout, int rows) {
+        Object[] values = new Object[layout.columns.size()];
+        for(int c = 0; c < values.length; c++) {
+            values[c] = layout.columns.get(c).newArray(rows);
+        }
+        int[] row = new int[1];
+        jdbcTemplate.query("SELECT " + layout.columnNames() + " FROM " + layout.name + " ORDER BY " + layout.orderBy, result -> {
+            int r = row[0]++;
+            for(int c = 0; c < values.length; c++) {
+                switch(layout.columns.get(c).type) {
+                    case INT:
+                        int value = result.getInt(c + 1);
+                        ((int[]) values[c])[r] = result.wasNull() ? Snapshot.NULL : value;
+                        break;
+                    case TEXT:
+                        ((String[]) values[c])[r] = result.getString(c + 1);
+                        break;
+                    case DOUBLE:
+                        ((double[]) values[c])[r] = result.getDouble(c + 1);
+                        break;
+                    case LONG:
+                        ((long[]) values[c])[r] = result.getLong(c + 1);
+                        break;
+                }
+            }
+        });
+        if(row[0] != rows) {
+            throw new IllegalStateException("The " + layout.name + " table changed while it was being read into a snapshot");
+        }
+        List<Snapshot.Column> columns = new ArrayList<>(values.length);
+        for(int c = 0; c < values.length; c++) {
+            columns.add(layout.columns.get(c).column(values[c]));
+        }
+        return new Snapshot.Table(layout.name, rows, columns);
+    }
+
+    /**
+     * Inserts the rows of the snapshot into the empty database, with the ids they had, and moves
+     * the id sequences past them.  Columns the snapshot doesn't have are left null.
+     */
+    public void load(Snapshot snapshot) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for(Layout layout : TABLES) {
+                Snapshot.Table table = snapshot.getTable(layout.name);
+                if(table != null && table.getRows() > 0) {
+                    insert(layout, table);
+                }
+            }
+        });
+        for(Layout layout : TABLES) {
+            Snapshot.Table table = snapshot.getTable(layout.name);
+            if(table == null || table.getRows() == 0 || (!layout.identity && layout.sequence == null)) {
+                continue;
+            }
+            int maximumId = 0;
+            for(int id : table.getColumn("id").getInts()) {
+                maximumId = Math.max(maximumId, id);
+            }
+            if(layout.identity) {
+                jdbcTemplate.execute("ALTER TABLE " + layout.name + " ALTER COLUMN id RESTART WITH " + (maximumId + 1));
+            } else {
+                // Hibernate takes the value it reads from the sequence as the last of the block of ids it hands out
+                jdbcTemplate.execute("ALTER SEQUENCE " + layout.sequence + " RESTART WITH " + (maximumId + layout.allocationSize));
+            }
+        }
+    }
+
+    private void insert(Layout layout, Snapshot.Table table) {
+        // only the columns the table has now, so a snapshot's names are never used in SQL
+        List<Snapshot.Column> columns = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for(ColumnLayout column : layout.columns) {
+            Snapshot.Column values = table.getColumn(column.name);
+            if(values != null && values.getType() == column.type) {
+                columns.add(values);
+                names.add(column.name);
+            }
+        }
+        String sql = "INSERT INTO " + layout.name + " (" + String.join(", ", names) + ") VALUES ("
+                        + names.stream().map(name -> "?").collect(Collectors.joining(", ")) + ")";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int row) throws SQLException {
+                for(int c = 0; c < columns.size(); c++) {
+                    Snapshot.Column column = columns.get(c);
+                    switch(column.getType()) {
+                        case INT:
+                            int value = column.getInts()[row];
+                            if(value == Snapshot.NULL) {
+                                statement.setNull(c + 1, Types.INTEGER);
+                            } else {
+                                statement.setInt(c + 1, value);
+                            }
+                            break;
+                        case TEXT:
+                            statement.setString(c + 1, column.getTexts()[row]);
+                            break;
+                        case DOUBLE:
+                            statement.setDouble(c + 1, column.getDoubles()[row]);
+                            break;
+                        case LONG:
+                            statement.setLong(c + 1, column.getLongs()[row]);
+                            break;
+                    }
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return table.getRows();
+            }
+        });
+    }
+
+    /**
+     * A table as it is read into a snapshot: its columns, the order of its rows, and how its ids
+     * are generated.
+     */
+    private static class Layout {
+        private final String name;
+        private final String orderBy;
+        private final List<ColumnLayout> columns = new ArrayList<>();
+        private boolean identity;
+        private String sequence;
+        private int allocationSize;
+
+        Layout(String name, String orderBy) {
+            this.name = name;
+            this.orderBy = orderBy;
+        }
+
+        Layout identity() {
+            identity = true;
+            return this;
+        }
+        Layout sequence(String sequence, int allocationSize) {
+            this.sequence = sequence;
+            this.allocationSize = allocationSize;
+            return this;
+        }
+        Layout ints(String... names) {
+            return add(Snapshot.Type.INT, names);
+        }
+        Layout texts(String... names) {
+            return add(Snapshot.Type.TEXT, names);
+        }
+        Layout doubles(String... names) {
+            return add(Snapshot.Type.DOUBLE, names);
+        }
+        Layout longs(String... names) {
+            return add(Snapshot.Type.LONG, names);
+        }
+
+        private Layout add(Snapshot.Type type, String... names) {
+            for(String name : names) {
+                columns.add(new ColumnLayout(name, type));
+            }
+            return this;
+        }
+
+        String columnNames() {
+            return columns.stream().map(column -> column.name).collect(Collectors.joining(", "));
+        }
+    }
+
+    private static class ColumnLayout {
+        private final String name;
+        private final Snapshot.Type type;
+
+        ColumnLayout(String name, Snapshot.Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        Object newArray(int rows) {
+            switch(type) {
+                case INT:
+                    return new int[rows];
+                case TEXT:
+                    return new String[rows];
+                case DOUBLE:
+                    return new double[rows];
+                default:
+                    return new long[rows];
+            }
+        }
+
+        Snapshot.Column column(Object values) {
+            switch(type) {
+                case INT:
+                    return Snapshot.Column.ints(name, (int[]) values);
+                case TEXT:
+                    return Snapshot.Column.texts(name, (String[]) values);
+                case DOUBLE:
+                    return Snapshot.Column.doubles(name, (double[]) values);
+                default:
+                    return Snapshot.Column.longs(name, (long[]) values);
+            }
+        }
+    }
+}
@@ -3,9 +3,12 @@ package ca.collene.soccer.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import ca.collene.soccer.entities.Person;
 import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
 import ca.collene.soccer.repositories.TeamRepository;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,19 +21,47 @@ public class TeamService {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private JournalService journalService;
+
     public Team createTeam(String name) throws NameAlreadyExistsException {
         Team newTeam = Team.builder().name(name)
                             .build();
-        try {
+        JournalEvent event = JournalEvent.createTeam(name);
+        try(JournalService.CommitHold hold = journalService.holdCommit()) {
             log.debug("Creating team with name " + name);
-            return teamRepository.save(newTeam);
+            Team team = teamRepository.save(newTeam);
+            nameCache.put(Team.class, name, team.getId());
+            journalService.record(event);
+            return team;
         } catch(DataIntegrityViolationException e) {
             throw new NameAlreadyExistsException("A team with name " + name + " already exists");
         }
     }
 
     public Team getTeam(String name) throws TeamDoesNotExistException {
-        Team team = teamRepository.findByName(name);
+        Team team = checkTeamExists(name, teamRepository.findWithRosterByName(name));
+        nameCache.put(Team.class, name, team.getId());
+        return team;
+    }
+
+    /**
+     * The team with the given name without its coaches and players, for tournament operations
+     * that only need to know which team it is.
+     */
+    Team getTeamForTournament(String name) throws TeamDoesNotExistException {
+        Team team = nameCache.find(teamRepository, Team.class, name);
+        if(team == null) {
+            team = checkTeamExists(name, teamRepository.findByNameKey(NameKey.of(name)));
+            nameCache.put(Team.class, name, team.getId());
+        }
+        return team;
+    }
+
+    private Team checkTeamExists(String name, Team team) throws TeamDoesNotExistException {
         if(team == null) {
             throw new TeamDoesNotExistException("Team with name " + name + " was not found");
         }
@@ -41,26 +72,44 @@ public class TeamService {
         try {
             return getTeam(teamName);            
         } catch(TeamDoesNotExistException e) {
-            try {
-                return createTeam(teamName);                
-            } catch(NameAlreadyExistsException e2) {
-                // this "shouldn't" happen
-                throw new RuntimeException("Invalid data state encountered", e2);
-            }
+            return createTeamThatDoesNotExist(teamName);
+        }
+    }
+
+    Team getOrCreateTeamForTournament(String teamName) {
+        try {
+            return getTeamForTournament(teamName);
+        } catch(TeamDoesNotExistException e) {
+            return createTeamThatDoesNotExist(teamName);
+        }
+    }
+
+    private Team createTeamThatDoesNotExist(String teamName) {
+        try {
+            return createTeam(teamName);                
+        } catch(NameAlreadyExistsException e) {
+            // this "shouldn't" happen
+            throw new RuntimeException("Invalid data state encountered", e);
         }
     }
 
+    @Transactional
     public void addCoachToTeam(String personName, String teamName) throws CoachAlreadyOnTeamException {
+        JournalEvent event = JournalEvent.addCoach(teamName, personName);
         Team team = getOrCreateTeam(teamName);        
         Person coach = personService.getOrCreatePerson(personName);        
         if(team.hasCoach(coach)) {
             throw new CoachAlreadyOnTeamException("The coach " + personName + " is already on the team " + teamName);
         }
+        // the team is managed in this transaction, so the new coach is written when it commits without
+        // merging the team, which would load a person that is only a reference to compare players
         team.addCoach(coach);
-        teamRepository.save(team);
+        journalService.record(event);
     }
 
+    @Transactional
     public void addPlayerToTeam(String personName, String teamName, int playerNumber) throws PlayerAlreadyOnTeamException, NumberAlreadyInUseException {
+        JournalEvent event = JournalEvent.addPlayer(teamName, personName, playerNumber);
         Team team = getOrCreateTeam(teamName);
         Person person = personService.getOrCreatePerson(personName);
         if(team.hasPlayer(person)) {
@@ -70,6 +119,6 @@ public class TeamService {
             throw new NumberAlreadyInUseException("The number " + playerNumber + " is already in use on the team " + teamName);
         }
         team.addPlayer(person, playerNumber);
-        teamRepository.save(team);
+        journalService.record(event);
     }
 }
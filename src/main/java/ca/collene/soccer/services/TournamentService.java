@@ -1,11 +1,31 @@
 package ca.collene.soccer.services;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
 import ca.collene.soccer.entities.Team;
 import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Elimination;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Standings;
+import ca.collene.soccer.models.StandingsTable;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.models.Tiebreaker;
+import ca.collene.soccer.repositories.GameRepository;
+import ca.collene.soccer.repositories.TournamentFetchPlan;
 import ca.collene.soccer.repositories.TournamentRepository;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,65 +35,353 @@ public class TournamentService {
     @Autowired
     private TournamentRepository tournamentRepository;
 
+    @Autowired
+    private GameRepository gameRepository;
+
     @Autowired
     private TeamService teamService;
 
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private KnockoutService knockoutService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JournalService journalService;
+
+    // operations that take the name of the tournament load only the part of it they use, and
+    // change it in the same transaction so that saving it doesn't read it all back again
+
+    // standings are kept per tournament name key and built from the games the first time they are needed;
+    // the teams in them go by the names they were created with, however a command spells them
+    private final Map<String, Standings> standingsByTournament = new ConcurrentHashMap<>();
+
     public Tournament createTournament(String name) throws NameAlreadyExistsException {        
         Tournament newTournament = Tournament.builder().name(name)
                                         .build();
-        try {
-            return tournamentRepository.save(newTournament);
+        JournalEvent event = JournalEvent.createTournament(name);
+        try(JournalService.CommitHold hold = journalService.holdCommit()) {
+            Tournament tournament = tournamentRepository.save(newTournament);
+            nameCache.put(Tournament.class, name, tournament.getId());
+            journalService.record(event);
+            return tournament;
         } catch(DataIntegrityViolationException e) {
             throw new NameAlreadyExistsException("A tournament with name " + name + " already exists");
         }        
     }
 
     public Tournament getTournament(String name) throws TournamentDoesNotExistException {
-        Tournament tournament = tournamentRepository.findByName(name);
+        return getTournament(name, TournamentFetchPlan.REPORTING);
+    }
+
+    /**
+     * The tournament with the given name with only the parts needed for the kind of operation
+     * loaded.  Using it for an operation outside of the fetch plan fails with a
+     * LazyInitializationException.
+     */
+    public Tournament getTournament(String name, TournamentFetchPlan plan) throws TournamentDoesNotExistException {
+        Tournament tournament = tournamentRepository.findByName(name, plan);
         if(tournament == null) {
             throw new TournamentDoesNotExistException("Tournament with name " + name + " was not found");
         }
+        nameCache.put(Tournament.class, name, tournament.getId());
         return tournament;
     }
 
+    boolean tournamentExists(String name) {
+        if(nameCache.get(Tournament.class, name) != null) {
+            return true;
+        }
+        Long id = tournamentRepository.findIdByNameKey(NameKey.of(name));
+        if(id == null) {
+            return false;
+        }
+        nameCache.put(Tournament.class, name, id);
+        return true;
+    }
+
+    @Transactional
+    public void addTeamToTournament(String teamName, String tournamentName) throws TournamentDoesNotExistException, TeamAlreadyInTournamentException {
+        addTeamToTournament(teamName, getTournament(tournamentName, TournamentFetchPlan.FIXTURES));
+    }
+
     public void addTeamToTournament(String teamName, Tournament tournament) throws TeamAlreadyInTournamentException {        
-        Team team = teamService.getOrCreateTeam(teamName);
+        JournalEvent event = JournalEvent.addTeam(tournament.getName(), teamName);
+        Team team = teamService.getOrCreateTeamForTournament(teamName);
         if(tournament.hasTeam(team)) {
             throw new TeamAlreadyInTournamentException("Team " + teamName + " is already in tournament " + tournament.getName());
         }
         tournament.addTeam(team);
-        tournamentRepository.save(tournament);
+        tournament.refreshFrom(tournamentRepository.save(tournament));
+        updateStandings(tournament.getName(), standings -> standings.addTeam(team.getName()));
+        journalService.record(event);
     }
-    private Team ensureTeamInTournament(String teamName, Tournament tournament) {
-        Team team = teamService.getOrCreateTeam(teamName);        
+    private void ensureTeamInTournament(Team team, Tournament tournament) {
         try {
             tournament.addTeam(team);
         } catch(TeamAlreadyInTournamentException e) {
             // ignore this error, as it's the state we want
         }
-        
-        return team;
+    }
+
+    @Transactional
+    public void addGameToTournament(String team1Name, String team2Name, String tournamentName) throws TournamentDoesNotExistException, GameAlreadyInTournamentException, InvalidGameException {
+        addGameToTournament(team1Name, team2Name, getTournament(tournamentName, TournamentFetchPlan.FIXTURES));
     }
 
     public void addGameToTournament(String team1Name, String team2Name, Tournament tournament) throws GameAlreadyInTournamentException, InvalidGameException {        
-        log.debug("Ensuring teams in tournament. Number teams before: " + tournament.getTeams().size());
-        Team team1 = ensureTeamInTournament(team1Name, tournament);
-        Team team2 = ensureTeamInTournament(team2Name, tournament);
-        log.debug("End of ensuring teams in tournament.  Number teams after: " + tournament.getTeams().size());
+        JournalEvent event = JournalEvent.addGame(tournament.getName(), team1Name, team2Name);
+        Team team1 = teamService.getOrCreateTeamForTournament(team1Name);
+        Team team2 = teamService.getOrCreateTeamForTournament(team2Name);
         if(team1.equals(team2)) {
-            throw new InvalidGameException("The team " + team1Name + " can not play itself in tournament " + tournament);
+            throw new InvalidGameException("The team " + team1Name + " can not play itself in tournament " + tournament.getName());
         }
         if(tournament.hasGameWithTeams(team1, team2)) {
             throw new GameAlreadyInTournamentException("The game between teams " + team1Name + " and " + team2Name + " already exists in tournament " + tournament.getName());
         }        
+        log.debug("Ensuring teams in tournament. Number teams before: " + tournament.getTeams().size());
+        ensureTeamInTournament(team1, tournament);
+        ensureTeamInTournament(team2, tournament);
+        log.debug("End of ensuring teams in tournament.  Number teams after: " + tournament.getTeams().size());
         tournament.addGame(team1, team2);    
-        tournamentRepository.save(tournament);    
+        tournament.refreshFrom(tournamentRepository.save(tournament));    
+        updateStandings(tournament.getName(), standings -> {
+            standings.addTeam(team1.getName());
+            standings.addTeam(team2.getName());
+            standings.addGame(team1.getName(), team2.getName());
+        });
+        journalService.record(event);
+    }
+
+    /**
+     * Scores the game without loading the tournament: only the game and its two teams are read,
+     * and only the game's row is written.
+     */
+    @Transactional
+    public void scoreGameInTournament(String team1Name, int team1Points, String team2Name, int team2Points, String tournamentName) throws TournamentDoesNotExistException, TeamDoesNotExistException, GameDoesNotExistException, InvalidScoreException {
+        JournalEvent event = JournalEvent.scoreGame(tournamentName, team1Name, team1Points, team2Name, team2Points);
+        List<Game> games = gameRepository.findInTournament(NameKey.of(tournamentName), NameKey.of(team1Name), NameKey.of(team2Name));
+        if(games.isEmpty()) {
+            // work out why, checking in the same order as when the tournament is loaded
+            if(!tournamentExists(tournamentName)) {
+                throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+            }
+            teamService.getTeamForTournament(team1Name);
+            teamService.getTeamForTournament(team2Name);
+            throw new GameDoesNotExistException("The game with teams " + team1Name + " and " + team2Name + " does not exist in tournament " + tournamentName);
+        }
+        Game first = games.get(0);
+        boolean inOrder = first.getTeam1().getNameKey().equals(NameKey.of(team1Name));
+        Team team1 = inOrder ? first.getTeam1() : first.getTeam2();
+        Team team2 = inOrder ? first.getTeam2() : first.getTeam1();
+        Game game = Game.toScore(games, team1);
+        TallyType previousTeam1Result = game.getTallyTypeForTeam(team1);
+        TallyType previousTeam2Result = game.getTallyTypeForTeam(team2);
+        Team winner = winner(team1, team1Points, team2, team2Points);
+        if(game.getSlot() != null) {
+            knockoutService.checkResult(game, winner);
+        }
+        game.setScore(team1, team1Points, team2, team2Points);
+        updateStandings(tournamentName, standings -> {
+            standings.recordResult(team1.getName(), previousTeam1Result, game.getTallyTypeForTeam(team1));
+            standings.recordResult(team2.getName(), previousTeam2Result, game.getTallyTypeForTeam(team2));
+        });
+        ratingService.recordResult(team1, previousTeam1Result, game.getTallyTypeForTeam(team1), team2);
+        if(game.getSlot() != null) {
+            advance(tournamentName, game, winner);
+        }
+        journalService.record(event);
     }
 
     public void scoreGameInTournament(String team1Name, int team1Points, String team2Name, int team2Points, Tournament tournament) throws TeamDoesNotExistException, GameDoesNotExistException, InvalidScoreException {
-        Team team1 = teamService.getTeam(team1Name);
-        Team team2 = teamService.getTeam(team2Name);
+        JournalEvent event = JournalEvent.scoreGame(tournament.getName(), team1Name, team1Points, team2Name, team2Points);
+        Team team1 = teamService.getTeamForTournament(team1Name);
+        Team team2 = teamService.getTeamForTournament(team2Name);
+        Game game = tournament.getGame(team1, team2);
+        TallyType previousTeam1Result = game.getTallyTypeForTeam(team1);
+        TallyType previousTeam2Result = game.getTallyTypeForTeam(team2);
+        Team winner = winner(team1, team1Points, team2, team2Points);
+        if(game.getSlot() != null) {
+            knockoutService.checkResult(game, winner);
+        }
         tournament.scoreGame(team1, team1Points, team2, team2Points);
-        tournamentRepository.save(tournament);
+        tournament.refreshFrom(tournamentRepository.save(tournament));
+        updateStandings(tournament.getName(), standings -> {
+            standings.recordResult(team1.getName(), previousTeam1Result, game.getTallyTypeForTeam(team1));
+            standings.recordResult(team2.getName(), previousTeam2Result, game.getTallyTypeForTeam(team2));
+        });
+        ratingService.recordResult(team1, previousTeam1Result, game.getTallyTypeForTeam(team1), team2);
+        if(game.getSlot() != null) {
+            Game next = advance(tournament.getName(), game, winner);
+            if(next != null) {
+                tournament.getGames().add(next);
+            }
+        }
+        journalService.record(event);
+    }
+
+    private static Team winner(Team team1, int team1Points, Team team2, int team2Points) {
+        return team1Points > team2Points ? team1 : team2Points > team1Points ? team2 : null;
+    }
+
+    /**
+     * Moves the winner of a knockout game on, counting the game it is added to, if any, in the
+     * standings kept for the tournament.  Returns that game.
+     */
+    private Game advance(String tournamentName, Game game, Team winner) {
+        Game next = knockoutService.advance(game, winner);
+        if(next != null) {
+            updateStandings(tournamentName, standings -> standings.addGame(next.getTeam1().getName(), next.getTeam2().getName()));
+        }
+        return next;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Game> getGamesForTeam(String teamName, String tournamentName) throws TournamentDoesNotExistException, TeamDoesNotExistException {
+        return getGamesForTeam(teamName, getTournament(tournamentName, TournamentFetchPlan.REPORTING));
+    }
+
+    public List<Game> getGamesForTeam(String teamName, Tournament tournament) throws TeamDoesNotExistException {
+        return tournament.getGamesForTeam(teamService.getTeamForTournament(teamName));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Game> getUnscoredGamesForTeam(String teamName, String tournamentName) throws TournamentDoesNotExistException, TeamDoesNotExistException {
+        return getUnscoredGamesForTeam(teamName, getTournament(tournamentName, TournamentFetchPlan.REPORTING));
+    }
+
+    public List<Game> getUnscoredGamesForTeam(String teamName, Tournament tournament) throws TeamDoesNotExistException {
+        return tournament.getUnscoredGamesForTeam(teamService.getTeamForTournament(teamName));
+    }
+
+    public Standings getStandings(Tournament tournament) {
+        return standingsByTournament.computeIfAbsent(NameKey.of(tournament.getName()), key -> new Standings(tournament.getTally(), tournament.getPointsScheme()));
+    }
+
+    /**
+     * Standings for the tournament with the given name.  The first time they are needed they are
+     * counted by the database, so the tournament itself is never loaded.
+     */
+    public Standings getStandings(String tournamentName) throws TournamentDoesNotExistException {
+        Standings standings = standingsByTournament.get(NameKey.of(tournamentName));
+        if(standings != null) {
+            return standings;
+        }
+        if(!tournamentExists(tournamentName)) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        return standingsByTournament.computeIfAbsent(NameKey.of(tournamentName), key -> {
+            List<Tally> tallies = tournamentRepository.findTallyByNameKey(key);
+            // every row has the tournament's points; only a tournament without teams needs them read
+            PointsScheme pointsScheme = tallies.isEmpty() ? tournamentRepository.findPointsSchemeByNameKey(key) : tallies.get(0).getPointsScheme();
+            return new Standings(tallies, pointsScheme != null ? pointsScheme : PointsScheme.DEFAULT);
+        });
+    }
+
+    /**
+     * Up to count rows of the standings for the tournament, starting at the given place counted
+     * from zero.  Standings that are already kept are paged in memory; otherwise only the page is
+     * read from the database rather than counting and keeping every team.
+     */
+    public List<Tally> getStandings(String tournamentName, int first, int count) throws TournamentDoesNotExistException {
+        Standings standings = standingsByTournament.get(NameKey.of(tournamentName));
+        if(standings != null) {
+            return standings.getTally(first, count);
+        }
+        if(!tournamentExists(tournamentName)) {
+            throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+        }
+        return tournamentRepository.findTallyPageByNameKey(NameKey.of(tournamentName), first, count);
+    }
+
+    /**
+     * Standings for the tournament counted from its games, with teams level on points ordered by
+     * the chain of tiebreakers.  The goals and head-to-head results the tiebreakers need are not
+     * kept with the running standings, so the games are read each time.
+     */
+    @Transactional(readOnly = true)
+    public List<Tally> getStandings(String tournamentName, List<Tiebreaker> tiebreakers) throws TournamentDoesNotExistException {
+        return StandingsTable.of(getTournament(tournamentName, TournamentFetchPlan.REPORTING)).getTally(tiebreakers);
+    }
+
+    /**
+     * Which teams of the tournament can no longer finish first, worked out from its games with the
+     * tournament's points, all teams at once.
+     */
+    @Transactional(readOnly = true)
+    public Elimination getElimination(String tournamentName) throws TournamentDoesNotExistException {
+        Elimination elimination = Elimination.of(getTournament(tournamentName, TournamentFetchPlan.REPORTING));
+        elimination.solve();
+        return elimination;
+    }
+
+    /**
+     * Recomputes the standings for the tournament from its games and replaces the running totals.
+     * Returns whether the running totals matched the full recompute.
+     */
+    public boolean rebuildStandings(Tournament tournament) {
+        List<Tally> tallies = tournament.getTally();
+        Standings previous = standingsByTournament.put(NameKey.of(tournament.getName()), new Standings(tallies, tournament.getPointsScheme()));
+        if(previous == null) {
+            return true;
+        }
+        boolean matches = previous.matches(tallies);
+        if(!matches) {
+            log.warn("Standings for tournament " + tournament.getName() + " did not match the games and were rebuilt");
+        }
+        return matches;
+    }
+
+    /**
+     * Changes the points the tournament gives for a win, a tie and a loss.  Only the tournament's
+     * row is updated; the standings kept for it are dropped so they are counted once with the new
+     * points the next time they are needed.
+     */
+    public void setPointsScheme(String tournamentName, PointsScheme pointsScheme) throws TournamentDoesNotExistException, InvalidPointsSchemeException {
+        if(pointsScheme.getWin() < 0 || pointsScheme.getTie() < 0 || pointsScheme.getLoss() < 0) {
+            throw new InvalidPointsSchemeException("Points for a win, tie or loss can't be negative");
+        }
+        if(pointsScheme.getWin() > PointsScheme.MAXIMUM_POINTS || pointsScheme.getTie() > PointsScheme.MAXIMUM_POINTS || pointsScheme.getLoss() > PointsScheme.MAXIMUM_POINTS) {
+            throw new InvalidPointsSchemeException("Points for a win, tie or loss can't be more than " + PointsScheme.MAXIMUM_POINTS);
+        }
+        JournalEvent event = JournalEvent.setPointsScheme(tournamentName, pointsScheme.getWin(), pointsScheme.getTie(), pointsScheme.getLoss());
+        try(JournalService.CommitHold hold = journalService.holdCommit()) {
+            if(tournamentRepository.updatePointsSchemeByNameKey(NameKey.of(tournamentName), pointsScheme.getWin(), pointsScheme.getTie(), pointsScheme.getLoss()) == 0) {
+                throw new TournamentDoesNotExistException("Tournament with name " + tournamentName + " was not found");
+            }
+            journalService.record(event);
+        }
+        forgetStandings(tournamentName);
+    }
+
+    /**
+     * Drops the standings kept for the tournament after its games were changed without this
+     * service, so that they are counted again the next time they are needed.
+     */
+    public void forgetStandings(String tournamentName) {
+        standingsByTournament.remove(NameKey.of(tournamentName));
+    }
+
+    private void updateStandings(String tournamentName, Consumer<Standings> update) {
+        // standings that haven't been built yet will be built from the games when they are needed
+        Standings standings = standingsByTournament.get(NameKey.of(tournamentName));
+        if(standings != null) {
+            update.accept(standings);
+            if(TransactionSynchronizationManager.isSynchronizationActive()) {
+                // the standings are changed with the games, so if the games are rolled back they are counted again
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if(status != STATUS_COMMITTED) {
+                            forgetStandings(tournamentName);
+                        }
+                    }
+                });
+            }
+        }
     }
 }
@@ -1,5 +1,8 @@
 package ca.collene.soccer.shell;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -7,22 +10,46 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
+import org.springframework.shell.table.ArrayTableModel;
 import org.springframework.shell.table.BeanListTableModel;
 import org.springframework.shell.table.BorderStyle;
 import org.springframework.shell.table.TableBuilder;
 import org.springframework.shell.table.TableModel;
 
-import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.Bracket;
+import ca.collene.soccer.models.Elimination;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.models.ImportResult.RowType;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.RoundRobinSchedule;
+import ca.collene.soccer.models.SeasonSimulation;
+import ca.collene.soccer.models.SwissPairing;
 import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.models.Tiebreaker;
+import ca.collene.soccer.services.BracketDoesNotExistException;
 import ca.collene.soccer.services.CoachAlreadyOnTeamException;
+import ca.collene.soccer.services.ExportService;
+import ca.collene.soccer.services.FixtureService;
 import ca.collene.soccer.services.GameAlreadyInTournamentException;
 import ca.collene.soccer.services.GameDoesNotExistException;
+import ca.collene.soccer.services.GameNotScoredException;
+import ca.collene.soccer.services.ImportService;
 import ca.collene.soccer.services.InvalidGameException;
+import ca.collene.soccer.services.InvalidPointsSchemeException;
 import ca.collene.soccer.services.InvalidScoreException;
+import ca.collene.soccer.services.KnockoutService;
 import ca.collene.soccer.services.NameAlreadyExistsException;
+import ca.collene.soccer.services.NameCache;
 import ca.collene.soccer.services.NumberAlreadyInUseException;
 import ca.collene.soccer.services.PersonService;
 import ca.collene.soccer.services.PlayerAlreadyOnTeamException;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.SimulationService;
 import ca.collene.soccer.services.TeamAlreadyInTournamentException;
 import ca.collene.soccer.services.TeamDoesNotExistException;
 import ca.collene.soccer.services.TeamService;
@@ -42,6 +69,27 @@ public class Commands {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    @Autowired
+    private KnockoutService knockoutService;
+
+    @Autowired
+    private SimulationService simulationService;
+
+    @Autowired
+    private RatingService ratingService;
+
     @ShellMethod(value = "Create new tournament with specified name.", group = "Tournament Commands")
     public String createTournament(@ShellOption(value = {"-N", "--name"}, help ="Name of the tournament.") String name) {
         try {
@@ -52,12 +100,27 @@ public class Commands {
         }        
     }
 
+    @ShellMethod(value = "Set the points a tournament gives for a win, a tie and a loss.", group = "Tournament Commands")
+    public String setPointsScheme(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                    @ShellOption(value = {"--win"}, help = "Points for a win.") int win,
+                                    @ShellOption(value = {"--tie"}, help = "Points for a tie.") int tie,
+                                    @ShellOption(value = {"--loss"}, help = "Points for a loss.") int loss) {
+        PointsScheme pointsScheme = new PointsScheme(win, tie, loss);
+        try {
+            tournamentService.setPointsScheme(tournamentName, pointsScheme);
+            return String.format("Points for tournament '%s' set to %s (win/tie/loss)", tournamentName, pointsScheme);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (InvalidPointsSchemeException e) {
+            return String.format("Points for tournament '%s' NOT set because points must be from 0 to %d", tournamentName, PointsScheme.MAXIMUM_POINTS);
+        }
+    }
+
     @ShellMethod(value = "Add team to tournament.", group = "Tournament Commands")
     public String addTeamToTournament(@ShellOption(value = {"--team"}, help = "Name of the team.") String teamName, 
                                         @ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName) {
         try {
-            Tournament tournament = tournamentService.getTournament(tournamentName);
-            tournamentService.addTeamToTournament(teamName, tournament);
+            tournamentService.addTeamToTournament(teamName, tournamentName);
             return String.format("Team with name '%s' added to tournament '%s'", teamName, tournamentName);
         } catch (TournamentDoesNotExistException e) {            
             return String.format("Tournament with name '%s' does not exist", tournamentName);
@@ -116,8 +179,7 @@ public class Commands {
                                         @ShellOption(value = {"--team2"}, help = "Name of the second team.") String team2Name, 
                                         @ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName) {
         try {
-            Tournament tournament = tournamentService.getTournament(tournamentName);
-            tournamentService.addGameToTournament(team1Name, team2Name, tournament);
+            tournamentService.addGameToTournament(team1Name, team2Name, tournamentName);
             return String.format("Game between teams '%s' and '%s' added to tournament '%s'", team1Name, team2Name, tournamentName);
         } catch (TournamentDoesNotExistException e) {
             return String.format("Tournament with name '%s' does not exist", tournamentName);
@@ -135,8 +197,7 @@ public class Commands {
                                         @ShellOption(value = {"--points2"}, help = "Points scored by the second team.")int team2Points,
                                         @ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName) {
         try {
-            Tournament tournament = tournamentService.getTournament(tournamentName);
-            tournamentService.scoreGameInTournament(team1Name, team1Points, team2Name, team2Points, tournament);
+            tournamentService.scoreGameInTournament(team1Name, team1Points, team2Name, team2Points, tournamentName);
             return String.format("Score for game in tournament '%s' set: team '%s' scored %d point(s) and team '%s' scored %d point(s)", tournamentName, team1Name, team1Points, team2Name, team2Points);
         } catch (TournamentDoesNotExistException e) {
             return String.format("Tournament with name '%s' does not exist", tournamentName);
@@ -149,16 +210,341 @@ public class Commands {
         }        
     }
 
+    @ShellMethod(value = "Add a game between every two teams in a tournament that has no games yet.", group = "Tournament Commands")
+    public String generateRoundRobin(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                        @ShellOption(value = {"--double"}, help = "Play every team twice, once at home and once away.", defaultValue = "false") boolean doubleRoundRobin) {
+        try {
+            RoundRobinSchedule schedule = fixtureService.generateRoundRobin(tournamentName, doubleRoundRobin);
+            return String.format("Generated %d game(s) in %d round(s) for tournament '%s'", schedule.getGames(), schedule.getRounds(), tournamentName);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (GameAlreadyInTournamentException e) {
+            return String.format("Games for tournament '%s' NOT generated because it already has games", tournamentName);
+        } catch (InvalidGameException e) {
+            return String.format("Games for tournament '%s' NOT generated because it has fewer than two teams", tournamentName);
+        }
+    }
+
+    @ShellMethod(value = "Add a knockout bracket seeded from the standings to a tournament that has no games yet.", group = "Tournament Commands")
+    public String generateKnockout(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                    @ShellOption(value = {"--seed-from"}, help = "Name of the tournament whose standings seed the bracket, if not this one.", defaultValue = "") String seedingTournamentName,
+                                    @ShellOption(value = {"--entrants"}, help = "Number of teams from the top of the standings to enter, or 0 for all.", defaultValue = "0") int entrants,
+                                    @ShellOption(value = {"--by-rating"}, help = "Seed the teams by their ratings instead of the standings.", defaultValue = "false") boolean byRating) {
+        String seedingName = seedingTournamentName.isEmpty() ? tournamentName : seedingTournamentName;
+        try {
+            Bracket<Long> bracket = fixtureService.generateKnockout(tournamentName, seedingName, entrants, byRating);
+            int[] games = new int[1];
+            bracket.forEachReady(slot -> games[0]++);
+            // the leaves are round 0, one for each entrant
+            return String.format("Generated a knockout of %d team(s) in %d round(s) for tournament '%s': %d game(s) to play and %d bye(s)",
+                                    bracket.getDecided(0), bracket.getRounds(), tournamentName, games[0], bracket.getSize() - bracket.getDecided(0));
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' or '%s' does not exist", tournamentName, seedingName);
+        } catch (GameAlreadyInTournamentException e) {
+            return String.format("Knockout for tournament '%s' NOT generated because it already has games", tournamentName);
+        } catch (InvalidGameException e) {
+            return String.format("Knockout for tournament '%s' NOT generated because tournament '%s' has fewer than two teams", tournamentName, seedingName);
+        }
+    }
+
+    @ShellMethod(value = "Add the next round of a Swiss-system tournament, pairing teams on similar points that haven't played yet.", group = "Tournament Commands")
+    public String pairSwissRound(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName) {
+        try {
+            SwissPairing<String> pairing = fixtureService.pairSwissRound(tournamentName);
+            StringBuilder result = new StringBuilder(String.format("Paired round %d of tournament '%s' with %d game(s)", pairing.getRound(), tournamentName, pairing.getGames()));
+            if(pairing.getBye() != null) {
+                result.append(String.format(" and a bye for team '%s'", pairing.getBye()));
+            }
+            if(pairing.getRematches() > 0) {
+                result.append(String.format("; %d rematch(es) could not be avoided", pairing.getRematches()));
+            }
+            return result.toString();
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (GameNotScoredException e) {
+            return String.format("Round for tournament '%s' NOT paired because it has games that haven't been scored", tournamentName);
+        } catch (InvalidGameException e) {
+            return String.format("Round for tournament '%s' NOT paired because it has fewer than two teams or has a knockout", tournamentName);
+        }
+    }
+
+    @ShellMethod(value = "Report the current round of a tournament's knockout, or a team's path to the final.", group = "Tournament Commands")
+    public String reportKnockout(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                    @ShellOption(value = {"--team"}, help = "Name of a team to show the path to the final for.", defaultValue = "") String teamName) {
+        Bracket<String> bracket;
+        try {
+            bracket = knockoutService.getBracket(tournamentName);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (BracketDoesNotExistException e) {
+            return String.format("Tournament '%s' has no knockout", tournamentName);
+        }
+        if(teamName.isEmpty()) {
+            int round = bracket.getCurrentRound();
+            if(round == 0) {
+                return String.format("Team '%s' won the knockout in tournament '%s'", bracket.getChampion(), tournamentName);
+            }
+            return String.format("Knockout in tournament '%s' is in the %s: %d of %d game(s) decided", tournamentName, bracket.getRoundName(round), bracket.getDecided(round), bracket.getGames(round));
+        }
+        // the bracket has the names the teams were created with, which the command may spell differently
+        String nameKey = NameKey.of(teamName);
+        List<String> names = new ArrayList<>();
+        bracket.forEachFilled(slot -> names.add(bracket.getTeam(slot)));
+        teamName = names.stream().filter(name -> NameKey.of(name).equals(nameKey)).findFirst().orElse(teamName);
+        List<Integer> path = bracket.getPathToFinal(teamName);
+        if(path.isEmpty()) {
+            return String.format("Team '%s' is not in the knockout in tournament '%s'", teamName, tournamentName);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {"Round", "Opponent", "Result"});
+        for(int slot : path) {
+            String opponent = bracket.getOpponent(slot, teamName);
+            String winner = bracket.getTeam(slot);
+            String result = winner == null ? "" : !winner.equals(teamName) ? "Lost" : opponent == null ? "Bye" : "Won";
+            rows.add(new Object[] {bracket.getRoundName(bracket.getRound(slot)), opponent == null ? "" : opponent, result});
+            if(winner != null && !winner.equals(teamName)) {
+                // the rest of the path was someone else's
+                break;
+            }
+        }
+        TableBuilder tableBuilder = new TableBuilder(new ArrayTableModel(rows.toArray(new Object[0][])));
+        tableBuilder.addInnerBorder(BorderStyle.fancy_light);
+        tableBuilder.addHeaderBorder(BorderStyle.fancy_double);
+        return tableBuilder.build().render(100);
+    }
+
+    @ShellMethod(value = "Report which teams in a tournament can no longer finish first, or in the top places.", group = "Tournament Commands")
+    public String reportElimination(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                    @ShellOption(value = {"--top"}, help = "Also report whether each team can still finish in this many places from the top, or 0 for none.", defaultValue = "0") int top) {
+        if(top < 0) {
+            return String.format("Elimination for tournament '%s' NOT reported because --top can't be negative", tournamentName);
+        }
+        Elimination elimination;
+        try {
+            elimination = tournamentService.getElimination(tournamentName);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        }
+        if(elimination.size() == 0) {
+            return String.format("Tournament '%s' has no teams", tournamentName);
+        }
+        // the teams that can still reach the most points first
+        List<Integer> order = new ArrayList<>();
+        for(int i = 0; i < elimination.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> elimination.getMaximum(a) != elimination.getMaximum(b) ? Integer.compare(elimination.getMaximum(b), elimination.getMaximum(a))
+                                : elimination.getPoints(a) != elimination.getPoints(b) ? Integer.compare(elimination.getPoints(b), elimination.getPoints(a))
+                                : elimination.getTeamName(a).compareTo(elimination.getTeamName(b)));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(top > 1 ? new Object[] {"Team", "Points", "Most Possible", "First", "Top " + top} : new Object[] {"Team", "Points", "Most Possible", "First"});
+        for(int i : order) {
+            String first = elimination.isEliminated(i) ? "Eliminated" : "Possible";
+            rows.add(top > 1 ? new Object[] {elimination.getTeamName(i), elimination.getPoints(i), elimination.getMaximum(i), first, elimination.isEliminatedFromTop(i, top) ? "Eliminated" : "Possible"}
+                             : new Object[] {elimination.getTeamName(i), elimination.getPoints(i), elimination.getMaximum(i), first});
+        }
+        TableBuilder tableBuilder = new TableBuilder(new ArrayTableModel(rows.toArray(new Object[0][])));
+        tableBuilder.addInnerBorder(BorderStyle.fancy_light);
+        tableBuilder.addHeaderBorder(BorderStyle.fancy_double);
+        String table = tableBuilder.build().render(100);
+        if(!elimination.isExact()) {
+            table += String.format("With the points scheme of tournament '%s' some teams marked possible may already be out", tournamentName);
+        } else if(top > 1) {
+            table += String.format("Only teams already out of reach are counted for the top %d, so some teams marked possible may already be out of it", top);
+        }
+        return table;
+    }
+
+    @ShellMethod(value = "Simulate the unscored games of a tournament many times and report how often each team finishes in each place.", group = "Tournament Commands")
+    public String simulateTournament(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                        @ShellOption(value = {"--simulations"}, help = "Number of times to play out the unscored games.", defaultValue = "10000") int simulations,
+                                        @ShellOption(value = {"--seed"}, help = "Seed for the random results, so a simulation can be repeated.", defaultValue = "0") long seed,
+                                        @ShellOption(value = {"--top"}, help = "Also report the chance of finishing in this many places from the top, or 0 for none.", defaultValue = "0") int top,
+                                        @ShellOption(value = {"--by-rating"}, help = "Give stronger teams, by rating, a better chance of winning each game.", defaultValue = "false") boolean byRating) {
+        if(simulations < 1 || top < 0) {
+            return String.format("Tournament '%s' NOT simulated because --simulations must be at least 1 and --top can't be negative", tournamentName);
+        }
+        SeasonSimulation.Result result;
+        try {
+            result = simulationService.simulate(tournamentName, simulations, seed, byRating);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (InvalidGameException e) {
+            return String.format("Tournament '%s' NOT simulated because it has a knockout", tournamentName);
+        }
+        List<String> teams = result.getTeams();
+        if(teams.isEmpty()) {
+            return String.format("Tournament '%s' has no teams to simulate", tournamentName);
+        }
+        int columns = teams.size() + (top > 0 ? 2 : 1);
+        Object[][] rows = new Object[teams.size() + 1][columns];
+        rows[0][0] = "Team";
+        for(int place = 0; place < teams.size(); place++) {
+            rows[0][place + 1] = String.valueOf(place + 1);
+        }
+        if(top > 0) {
+            rows[0][columns - 1] = "Top " + top;
+        }
+        for(int team = 0; team < teams.size(); team++) {
+            rows[team + 1][0] = teams.get(team);
+            for(int place = 0; place < teams.size(); place++) {
+                rows[team + 1][place + 1] = String.format("%.1f%%", 100 * result.getProbability(team, place));
+            }
+            if(top > 0) {
+                rows[team + 1][columns - 1] = String.format("%.1f%%", 100 * result.getTopProbability(team, top));
+            }
+        }
+        TableBuilder tableBuilder = new TableBuilder(new ArrayTableModel(rows));
+        tableBuilder.addInnerBorder(BorderStyle.fancy_light);
+        tableBuilder.addHeaderBorder(BorderStyle.fancy_double);
+        return tableBuilder.build().render(Math.max(100, 8 * columns + 30));
+    }
+
+    @ShellMethod(value = "List the games of a team in tournament.", group = "Tournament Commands")
+    public String listTeamGames(@ShellOption(value = {"--team"}, help = "Name of the team.") String teamName,
+                                @ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                @ShellOption(value = {"--unscored"}, help = "Only list games that have not been scored.", defaultValue = "false") boolean unscoredOnly) {
+        try {
+            List<Game> games = unscoredOnly ? tournamentService.getUnscoredGamesForTeam(teamName, tournamentName)
+                                            : tournamentService.getGamesForTeam(teamName, tournamentName);
+            if(games.isEmpty()) {
+                return String.format("Team '%s' has no %sgames in tournament '%s'", teamName, unscoredOnly ? "unscored " : "", tournamentName);
+            }
+            Object[][] rows = new Object[games.size() + 1][];
+            rows[0] = new Object[] {"Opponent", "Score", "Result"};
+            for(int i = 0; i < games.size(); i++) {
+                rows[i + 1] = gameRow(games.get(i), teamName);
+            }
+            TableBuilder tableBuilder = new TableBuilder(new ArrayTableModel(rows));
+            tableBuilder.addInnerBorder(BorderStyle.fancy_light);
+            tableBuilder.addHeaderBorder(BorderStyle.fancy_double);
+            return tableBuilder.build().render(100);
+        } catch (TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch (TeamDoesNotExistException e) {
+            return String.format("Team with name '%s' does not exist", teamName);
+        }
+    }
+
+    private Object[] gameRow(Game game, String teamName) {
+        boolean firstTeam = game.getTeam1().getNameKey().equals(NameKey.of(teamName));
+        Team team = firstTeam ? game.getTeam1() : game.getTeam2();
+        Team opponent = firstTeam ? game.getTeam2() : game.getTeam1();
+        TallyType result = game.getTallyTypeForTeam(team);
+        if(result == TallyType.UNSCORED) {
+            return new Object[] {opponent.getName(), "", ""};
+        }
+        String score = firstTeam ? game.getScore1() + " - " + game.getScore2()
+                                 : game.getScore2() + " - " + game.getScore1();
+        return new Object[] {opponent.getName(), score, result};
+    }
+
+    @ShellMethod(value = "Export the standings of a tournament to a CSV or JSON file.", group = "Tournament Commands")
+    public String exportStandings(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                    @ShellOption(value = {"--file"}, help = "File to write the standings to.") String fileName,
+                                    @ShellOption(value = {"--format"}, help = "Format of the file: csv or json.", defaultValue = "csv") String formatName,
+                                    @ShellOption(value = {"--gzip"}, help = "Compress the file with gzip.", defaultValue = "false") boolean gzip) {
+        ExportService.Format format;
+        try {
+            format = ExportService.Format.valueOf(formatName.toUpperCase());
+        } catch(IllegalArgumentException e) {
+            return String.format("Format '%s' is not supported, use csv or json", formatName);
+        }
+        try {
+            long teams = exportService.exportStandings(tournamentName, Paths.get(fileName), format, gzip);
+            return String.format("Standings for %d team(s) in tournament '%s' exported to '%s'", teams, tournamentName, fileName);
+        } catch(TournamentDoesNotExistException e) {
+            return String.format("Tournament with name '%s' does not exist", tournamentName);
+        } catch(IOException e) {
+            return String.format("File '%s' could not be written: %s", fileName, e.getMessage());
+        }
+    }
+
+    @ShellMethod(key = "import", value = "Import games, scores, players and coaches from a CSV file.", group = "Import Commands")
+    public String importFile(@ShellOption(value = {"--file"}, help = "CSV file with one game, score, player or coach per row.") String fileName,
+                                @ShellOption(value = {"--chunk-size"}, help = "Number of rows imported in each transaction.", defaultValue = "" + ImportService.DEFAULT_CHUNK_SIZE) int chunkSize) {
+        ImportResult result;
+        try {
+            result = importService.importFile(Paths.get(fileName), chunkSize);
+        } catch(IOException e) {
+            return String.format("File '%s' could not be read: %s", fileName, e.getMessage());
+        }
+        StringBuilder output = new StringBuilder(String.format("Imported %d row(s) from '%s' in %.1f s (%.0f rows/s): %d game(s), %d score(s), %d player(s), %d coach(es); %d row(s) rejected",
+                                result.getApplied(), fileName, result.getElapsedMillis() / 1000.0, result.getRowsPerSecond(),
+                                result.getApplied(RowType.GAME), result.getApplied(RowType.SCORE), result.getApplied(RowType.PLAYER), result.getApplied(RowType.COACH),
+                                result.getRejected()));
+        for(String rejection : result.getRejections()) {
+            output.append(System.lineSeparator()).append("  ").append(rejection);
+        }
+        return output.toString();
+    }
+
+    @ShellMethod(value = "Report the teams' ratings, which are updated as games are scored in any tournament.", group = "Team Commands")
+    public String ratings(@ShellOption(value = {"--top"}, help = "Only report this many teams from the top, or 0 for all.", defaultValue = "0") int top,
+                            @ShellOption(value = {"--replay"}, help = "Rebuild the ratings from every scored game first.", defaultValue = "false") boolean replay) {
+        if(top < 0) {
+            return "Ratings NOT reported because --top can't be negative";
+        }
+        String replayed = "";
+        if(replay) {
+            replayed = String.format("Replayed %d scored game(s) into the ratings%n", ratingService.replayRatings());
+        }
+        List<Rating> ratings = ratingService.getRatings(top);
+        if(ratings.isEmpty()) {
+            return replayed + "No team has a rating yet";
+        }
+        Object[][] rows = new Object[ratings.size() + 1][];
+        rows[0] = new Object[] {"Rank", "Team", "Rating", "Games"};
+        for(int i = 0; i < ratings.size(); i++) {
+            Rating rating = ratings.get(i);
+            rows[i + 1] = new Object[] {i + 1, rating.getTeamName(), String.format("%.0f", rating.getRating()), rating.getGames()};
+        }
+        TableBuilder tableBuilder = new TableBuilder(new ArrayTableModel(rows));
+        tableBuilder.addInnerBorder(BorderStyle.fancy_light);
+        tableBuilder.addHeaderBorder(BorderStyle.fancy_double);
+        return replayed + tableBuilder.build().render(100);
+    }
+
+    @ShellMethod(value = "Show how many names the name cache holds and how often it was used.", group = "Cache Commands")
+    public String nameCacheStatistics() {
+        return String.format("Name cache holds %d name(s): %d hit(s), %d miss(es)", nameCache.size(), nameCache.getHits(), nameCache.getMisses());
+    }
+
     @ShellMethod(value = "Report game results for tournament.", group = "Tournament Commands")
-    public String reportTournamentResults(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName) throws TournamentDoesNotExistException {
+    public String reportTournamentResults(@ShellOption(value = {"--tournament"}, help = "Name of the tournament.") String tournamentName,
+                                            @ShellOption(value = {"--top"}, help = "Only report this many teams from the top of the standings.", defaultValue = "0") int top,
+                                            @ShellOption(value = {"--page"}, help = "Page of the standings to report, starting at 1.", defaultValue = "1") int page,
+                                            @ShellOption(value = {"--page-size"}, help = "Number of teams on each page; all teams when 0.", defaultValue = "0") int pageSize,
+                                            @ShellOption(value = {"--tiebreakers"}, help = "Comma separated tiebreakers for teams level on points: goal-difference, goals-scored, head-to-head-points, head-to-head-goal-difference, wins.", defaultValue = "") String tiebreakerNames) throws TournamentDoesNotExistException {
+        if(top < 0 || page < 1 || pageSize < 0) {
+            return String.format("Standings for tournament '%s' NOT reported because --top and --page-size can't be negative and --page starts at 1", tournamentName);
+        }
+        List<Tiebreaker> tiebreakers;
+        try {
+            tiebreakers = Tiebreaker.parse(tiebreakerNames);
+        } catch(IllegalArgumentException e) {
+            return String.format("Standings for tournament '%s' NOT reported because the tiebreakers '%s' are not all supported", tournamentName, tiebreakerNames);
+        }
         LinkedHashMap<String, Object> headers = new LinkedHashMap<>();
         headers.put("teamName", "Team Name");
         headers.put("wins", "W");
         headers.put("losses", "L");
         headers.put("ties", "T");
         headers.put("total", "TOTAL");
-        Tournament tournament = tournamentService.getTournament(tournamentName);
-        List<Tally> tallies = tournament.getTally();
+        List<Tally> tallies;
+        if(!tiebreakers.isEmpty()) {
+            // the tiebreakers need every team's games, so the whole order is counted and then cut
+            tallies = tournamentService.getStandings(tournamentName, tiebreakers);
+            int first = top > 0 ? 0 : pageSize > 0 ? (int) Math.min((long) (page - 1) * pageSize, tallies.size()) : 0;
+            int count = top > 0 ? top : pageSize > 0 ? pageSize : tallies.size();
+            tallies = tallies.subList(first, (int) Math.min((long) first + count, tallies.size()));
+        } else if(top > 0) {
+            tallies = tournamentService.getStandings(tournamentName, 0, top);
+        } else if(pageSize > 0) {
+            tallies = tournamentService.getStandings(tournamentName, (int) Math.min((long) (page - 1) * pageSize, Integer.MAX_VALUE), pageSize);
+        } else {
+            tallies = tournamentService.getStandings(tournamentName).getTally();
+        }
         log.debug("Tallies: " + tallies);
         TableModel model = new BeanListTableModel<>(tallies, headers);
         TableBuilder tableBuilder = new TableBuilder(model);
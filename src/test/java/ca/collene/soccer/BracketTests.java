@@ -0,0 +1,122 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.Bracket;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class BracketTests {
+    // the top seed plays the last, and the top two seeds are in different halves
+    @Test
+    public void seeding_keeps_top_seeds_apart() {
+        Bracket<Integer> bracket = Bracket.seeded(seeds(8));
+
+        assertThat(bracket.getRounds(), is(equalTo(3)));
+        List<Integer> leaves = IntStream.range(8, 16).mapToObj(bracket::getTeam).collect(Collectors.toList());
+        assertThat(leaves, is(equalTo(List.of(1, 8, 4, 5, 2, 7, 3, 6))));
+        List<Integer> ready = new ArrayList<>();
+        bracket.forEachReady(ready::add);
+        assertThat(ready, is(equalTo(List.of(4, 5, 6, 7))));
+        assertThat(bracket.getCurrentRound(), is(equalTo(1)));
+    }
+
+    // the top seeds get the byes and go straight to the second round, where two of them already meet
+    @Test
+    public void byes_go_to_top_seeds() {
+        Bracket<Integer> bracket = Bracket.seeded(seeds(5));
+
+        assertThat(bracket.getSize(), is(equalTo(8)));
+        assertThat(bracket.getDecided(0), is(equalTo(5)));
+        assertThat(bracket.getDecided(1), is(equalTo(3)));
+        List<Integer> ready = new ArrayList<>();
+        bracket.forEachReady(ready::add);
+        // seed 1 waits for the winner of 4 and 5, and seeds 2 and 3 meet in the semi-finals
+        assertThat(ready, is(equalTo(List.of(3, 5))));
+        assertThat(bracket.getTeam(6), is(equalTo(2)));
+        assertThat(bracket.getTeam(7), is(equalTo(3)));
+        assertThat(bracket.getOpponent(4, 1), is(nullValue()));
+    }
+
+    // winners move to the parent slot and the current round moves on once every game in it is won
+    @Test
+    public void advancing_winners_moves_through_rounds_to_a_champion() {
+        Bracket<Integer> bracket = Bracket.seeded(seeds(4));
+        assertThat(bracket.getRoundName(1), is(equalTo("Semi-finals")));
+        assertThat(bracket.getRoundName(2), is(equalTo("Final")));
+
+        bracket.set(2, 4);
+        assertThat(bracket.getCurrentRound(), is(equalTo(1)));
+        assertFalse(bracket.isReady(1));
+        bracket.set(3, 2);
+        assertThat(bracket.getCurrentRound(), is(equalTo(2)));
+        assertTrue(bracket.isReady(1));
+        assertThat(bracket.getOpponent(1, 4), is(equalTo(2)));
+        bracket.set(1, 2);
+        assertThat(bracket.getCurrentRound(), is(equalTo(0)));
+        assertThat(bracket.getChampion(), is(equalTo(2)));
+    }
+
+    // the path runs from the team's first game to the final, one slot per round
+    @Test
+    public void path_to_final_has_one_slot_per_round() {
+        Bracket<Integer> bracket = Bracket.seeded(seeds(16));
+
+        assertThat(bracket.getPathToFinal(1), is(equalTo(List.of(8, 4, 2, 1))));
+        assertThat(bracket.getPathToFinal(16), is(equalTo(List.of(8, 4, 2, 1))));
+        assertThat(bracket.getPathToFinal(2), is(equalTo(List.of(12, 6, 3, 1))));
+        assertThat(bracket.getPathToFinal(17), is(empty()));
+        assertThat(bracket.getRoundName(1), is(equalTo("Round of 16")));
+        assertThat(bracket.getRoundName(2), is(equalTo("Quarter-finals")));
+        assertThat(bracket.getOpponent(8, 1), is(equalTo(16)));
+        // not known until the game for slot 9 is won
+        assertThat(bracket.getOpponent(4, 1), is(nullValue()));
+    }
+
+    // a large field is seeded and played to a champion, who is always the top seed when the better seed wins
+    @Test
+    public void large_bracket_plays_to_top_seed() {
+        final int entrants = 65536 - 1000;
+        Bracket<Integer> bracket = Bracket.seeded(seeds(entrants));
+        assertThat(bracket.getSize(), is(equalTo(65536)));
+        assertThat(bracket.getRounds(), is(equalTo(16)));
+        for(int slot = bracket.getSize() - 1; slot >= 1; slot--) {
+            if(bracket.isReady(slot)) {
+                bracket.set(slot, Math.min(bracket.getTeam(2 * slot), bracket.getTeam(2 * slot + 1)));
+            }
+        }
+        assertThat(bracket.getChampion(), is(equalTo(1)));
+        assertThat(bracket.getCurrentRound(), is(equalTo(0)));
+    }
+
+    @Test
+    public void bracket_size_must_be_power_of_two() {
+        assertThat(Bracket.sizeFor(2), is(equalTo(2)));
+        assertThat(Bracket.sizeFor(9), is(equalTo(16)));
+        assertThat(Bracket.sizeFor(16), is(equalTo(16)));
+        assertThrows(IllegalArgumentException.class, () -> new Bracket<Integer>(12));
+    }
+
+    private static List<Integer> seeds(int entrants) {
+        return IntStream.rangeClosed(1, entrants).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,152 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.Elimination;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class EliminationTests {
+    // the classic case: the last team is ahead of the three leaders now, but the games left between them give one of them more
+    @Test
+    public void team_is_out_when_the_teams_behind_must_share_too_many_points() throws Exception {
+        List<Team> teams = teams(5);
+        List<Game> games = new ArrayList<>();
+        // the first three teams have 4 points each, with three games left between them worth 6 points
+        for(int i = 0; i < 3; i++) {
+            games.add(scored(teams.get(i), teams.get(4), 1, 0));
+            games.add(scored(teams.get(i), teams.get(4), 1, 0));
+            games.add(unscored(teams.get(i), teams.get((i + 1) % 3)));
+        }
+        // the fourth team has 5 points and nothing left to play
+        games.add(scored(teams.get(3), teams.get(4), 1, 0));
+        games.add(scored(teams.get(3), teams.get(4), 1, 0));
+        games.add(scored(teams.get(3), teams.get(4), 0, 0));
+        Elimination elimination = elimination(teams, new PointsScheme(2, 1, 0), games);
+
+        assertThat(elimination.getPoints(3), is(equalTo(5)));
+        assertThat(elimination.getMaximum(0), is(equalTo(8)));
+        assertTrue(elimination.isExact());
+        for(int i = 0; i < 3; i++) {
+            assertFalse(elimination.isEliminated(i));
+        }
+        assertTrue(elimination.isEliminated(3));
+        assertTrue(elimination.isEliminated(4));
+        assertFalse(elimination.isEliminatedFromTop(3, 2));
+    }
+
+    // a team level with the leader can still finish first, and with nothing left to play only the leaders aren't out
+    @Test
+    public void level_teams_are_not_out() throws Exception {
+        List<Team> teams = teams(3);
+        Elimination elimination = elimination(teams, PointsScheme.DEFAULT, List.of(scored(teams.get(0), teams.get(2), 1, 0), scored(teams.get(1), teams.get(2), 2, 1)));
+
+        assertFalse(elimination.isEliminated(0));
+        assertFalse(elimination.isEliminated(1));
+        assertTrue(elimination.isEliminated(2));
+        assertTrue(elimination.isEliminatedFromTop(2, 2));
+        assertFalse(elimination.isEliminatedFromTop(2, 3));
+    }
+
+    // every way the remaining games can end is tried, and the flow finds exactly the teams that never finish first
+    @Test
+    public void elimination_matches_trying_every_result() throws Exception {
+        Random random = new Random(11);
+        for(int league = 0; league < 40; league++) {
+            List<Team> teams = teams(5);
+            List<Game> games = new ArrayList<>();
+            for(int i = 0; i < teams.size(); i++) {
+                for(int j = i + 1; j < teams.size(); j++) {
+                    games.add(random.nextInt(3) == 0 ? unscored(teams.get(i), teams.get(j)) : scored(teams.get(i), teams.get(j), random.nextInt(3), random.nextInt(3)));
+                }
+            }
+            for(PointsScheme pointsScheme : List.of(PointsScheme.DEFAULT, new PointsScheme(2, 1, 0), new PointsScheme(3, 1, 0))) {
+                Elimination elimination = elimination(teams, pointsScheme, games);
+                boolean[] canWin = canFinishFirst(elimination, teams, pointsScheme, games);
+                for(int team = 0; team < teams.size(); team++) {
+                    if(elimination.isExact()) {
+                        assertThat(elimination.isEliminated(team), is(equalTo(!canWin[team])));
+                    } else if(elimination.isEliminated(team)) {
+                        assertFalse(canWin[team]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean[] canFinishFirst(Elimination elimination, List<Team> teams, PointsScheme pointsScheme, List<Game> games) {
+        List<int[]> unscored = new ArrayList<>();
+        for(Game game : games) {
+            if(!game.hasScore()) {
+                unscored.add(new int[] {teams.indexOf(game.getTeam1()), teams.indexOf(game.getTeam2())});
+            }
+        }
+        boolean[] canWin = new boolean[teams.size()];
+        int outcomes = (int) Math.pow(3, unscored.size());
+        for(int outcome = 0; outcome < outcomes; outcome++) {
+            int[] points = new int[teams.size()];
+            for(int team = 0; team < teams.size(); team++) {
+                points[team] = elimination.getPoints(team);
+            }
+            int result = outcome;
+            for(int[] game : unscored) {
+                int[] scores = result % 3 == 0 ? new int[] {pointsScheme.getWin(), pointsScheme.getLoss()}
+                                : result % 3 == 1 ? new int[] {pointsScheme.getTie(), pointsScheme.getTie()}
+                                : new int[] {pointsScheme.getLoss(), pointsScheme.getWin()};
+                points[game[0]] += scores[0];
+                points[game[1]] += scores[1];
+                result /= 3;
+            }
+            int best = Arrays.stream(points).max().getAsInt();
+            for(int team = 0; team < teams.size(); team++) {
+                canWin[team] |= points[team] == best;
+            }
+        }
+        return canWin;
+    }
+
+    private static Elimination elimination(List<Team> teams, PointsScheme pointsScheme, List<Game> games) {
+        Elimination elimination = new Elimination(teams, pointsScheme);
+        for(Game game : games) {
+            elimination.addGame(game);
+        }
+        return elimination;
+    }
+
+    private static List<Team> teams(int count) {
+        List<Team> teams = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            teams.add(Team.builder().name("Team " + i).build());
+        }
+        return teams;
+    }
+
+    private static Game unscored(Team team1, Team team2) {
+        return Game.builder().teams(Arrays.asList(team1, team2)).build();
+    }
+
+    private static Game scored(Team team1, Team team2, int score1, int score2) throws Exception {
+        Game game = unscored(team1, team2);
+        game.setScore(team1, score1, team2, score2);
+        return game;
+    }
+}
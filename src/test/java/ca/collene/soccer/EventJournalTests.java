@@ -0,0 +1,148 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.repositories.EventJournal;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class EventJournalTests {
+    private static final List<JournalEvent> EVENTS = List.of(
+                    JournalEvent.createTournament("Tournament"),
+                    JournalEvent.createTeam("Team One"),
+                    JournalEvent.createPerson("Zoë Ünal"),
+                    JournalEvent.addTeam("Tournament", "Team One"),
+                    JournalEvent.addGame("Tournament", "Team One", "Team Two"),
+                    JournalEvent.scoreGame("Tournament", "Team Two", 3, "Team One", 0),
+                    JournalEvent.addPlayer("Team One", "Zoë Ünal", 10),
+                    JournalEvent.addCoach("Team Two", "Person Two"),
+                    JournalEvent.setPointsScheme("Tournament", 3, 1, 0),
+                    JournalEvent.generateRoundRobin("Tournament", true),
+                    JournalEvent.generateKnockout("Knockout", "Tournament", 8, false),
+                    JournalEvent.pairSwissRound("Swiss"),
+                    JournalEvent.replayRatings());
+
+    @TempDir
+    Path directory;
+
+    // every type of event comes back as it was appended, and a journal that is opened again carries on after them
+    @Test
+    public void events_are_read_back_in_order() throws Exception {
+        Path file = directory.resolve("soccer.journal");
+        long end;
+        try(EventJournal journal = EventJournal.open(file)) {
+            for(JournalEvent event : EVENTS) {
+                journal.append(event);
+            }
+            end = journal.getPosition();
+            assertThat(read(journal, EventJournal.START), is(equalTo(EVENTS)));
+        }
+
+        try(EventJournal journal = EventJournal.open(file)) {
+            assertFalse(journal.wasRepaired());
+            assertThat(journal.getPosition(), is(equalTo(end)));
+            journal.sync(journal.append(JournalEvent.createTeam("Team Three")));
+            assertThat(read(journal, end), is(equalTo(List.of(JournalEvent.createTeam("Team Three")))));
+            assertThat(read(journal, EventJournal.START).size(), is(equalTo(EVENTS.size() + 1)));
+        }
+    }
+
+    // a mapping that only holds a few events at a time is replaced as it fills up, and nothing is lost between them
+    @Test
+    public void appends_carry_on_past_the_end_of_each_mapping() throws Exception {
+        Path file = directory.resolve("soccer.journal");
+        List<JournalEvent> events = new ArrayList<>();
+        try(EventJournal journal = EventJournal.open(file, 100)) {
+            for(int i = 0; i < 1000; i++) {
+                JournalEvent event = JournalEvent.scoreGame("Tournament " + i % 7, "Team " + i, i % 5, "Team " + (i + 1), i % 3);
+                events.add(event);
+                long end = journal.append(event);
+                if(i % 10 == 0) {
+                    journal.sync(end);
+                }
+            }
+        }
+
+        try(EventJournal journal = EventJournal.open(file, 100)) {
+            assertFalse(journal.wasRepaired());
+            assertThat(read(journal, EventJournal.START), is(equalTo(events)));
+        }
+    }
+
+    // a record cut short, or one whose bytes don't match its checksum, ends the journal, and the events after it are dropped
+    @Test
+    public void torn_tail_is_cut_off() throws Exception {
+        Path file = directory.resolve("soccer.journal");
+        long[] ends = new long[4];
+        try(EventJournal journal = EventJournal.open(file)) {
+            for(int i = 0; i < ends.length; i++) {
+                ends[i] = journal.append(JournalEvent.createTeam("Team " + i));
+            }
+        }
+        try(RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // the third event reached the disk with a byte of its name wrong, and the fourth is whole
+            raw.seek(ends[2] - 1);
+            raw.write('X');
+        }
+
+        try(EventJournal journal = EventJournal.open(file)) {
+            assertTrue(journal.wasRepaired());
+            assertThat(journal.getPosition(), is(equalTo(ends[1])));
+            assertThat(read(journal, EventJournal.START), is(equalTo(List.of(JournalEvent.createTeam("Team 0"), JournalEvent.createTeam("Team 1")))));
+            journal.append(JournalEvent.createTeam("Team 2"));
+        }
+        try(RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // only the start of the last event was written
+            raw.setLength(ends[2] - 3);
+        }
+
+        try(EventJournal journal = EventJournal.open(file)) {
+            assertTrue(journal.wasRepaired());
+            assertThat(read(journal, EventJournal.START).size(), is(equalTo(2)));
+        }
+        // a journal that ends cleanly isn't reported as repaired
+        try(EventJournal journal = EventJournal.open(file)) {
+            assertFalse(journal.wasRepaired());
+        }
+    }
+
+    // a file that doesn't start with the journal's header is left alone
+    @Test
+    public void other_files_are_not_opened() throws Exception {
+        Path file = Files.write(directory.resolve("season.csv"), List.of("game,Tournament,Team One,Team Two"));
+
+        assertThrows(IOException.class, () -> EventJournal.open(file));
+        assertThat(Files.readAllLines(file), is(equalTo(List.of("game,Tournament,Team One,Team Two"))));
+    }
+
+    private static List<JournalEvent> read(EventJournal journal, long from) throws IOException {
+        List<JournalEvent> events = new ArrayList<>();
+        EventJournal.Reader reader = journal.read(from);
+        JournalEvent event;
+        while((event = reader.next()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+}
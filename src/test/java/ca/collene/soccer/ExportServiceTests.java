@@ -0,0 +1,112 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import com.jayway.jsonpath.JsonPath;
+
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.services.ExportService;
+import ca.collene.soccer.services.ExportService.Format;
+import ca.collene.soccer.services.TournamentDoesNotExistException;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ExportServiceTests {
+    private static final String TOURNAMENT_NAME = "Tournament";
+    // names that need quoting in both formats
+    private static final String QUOTED_TEAM_NAME = "Team \"Three\", the best";
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @TempDir
+    Path directory;
+
+    // every team ends up with a different total, so the order of the standings is the same however ties are broken
+    @BeforeEach
+    public void createTournament() throws Exception {
+        tournamentService.createTournament(TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team One", "Team Two", TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team One", QUOTED_TEAM_NAME, TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team Two", QUOTED_TEAM_NAME, TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team One", 2, "Team Two", 1, TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team One", 0, QUOTED_TEAM_NAME, 1, TOURNAMENT_NAME);
+    }
+
+    @Test
+    public void export_standings_as_csv_works() throws Exception {
+        Path file = directory.resolve("standings.csv");
+        long teams = exportService.exportStandings(TOURNAMENT_NAME, file, Format.CSV, false);
+
+        assertThat(teams, is(equalTo(3L)));
+        assertThat(Files.readString(file, StandardCharsets.UTF_8), is(equalTo(expectedCsv())));
+    }
+
+    @Test
+    public void export_standings_as_gzipped_csv_works() throws Exception {
+        Path file = directory.resolve("standings.csv.gz");
+        exportService.exportStandings(TOURNAMENT_NAME, file, Format.CSV, true);
+
+        try(InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream contents = new ByteArrayOutputStream();
+            input.transferTo(contents);
+            assertThat(contents.toString(StandardCharsets.UTF_8), is(equalTo(expectedCsv())));
+        }
+    }
+
+    @Test
+    public void export_standings_as_json_works() throws Exception {
+        Path file = directory.resolve("standings.json");
+        exportService.exportStandings(TOURNAMENT_NAME, file, Format.JSON, false);
+
+        String json = Files.readString(file, StandardCharsets.UTF_8);
+        List<Tally> tallies = tournamentService.getTournament(TOURNAMENT_NAME).getTally();
+        assertThat(JsonPath.read(json, "$.tournament"), is(equalTo(TOURNAMENT_NAME)));
+        assertThat(JsonPath.read(json, "$.standings[*].team"), is(equalTo(tallies.stream().map(Tally::getTeamName).collect(Collectors.toList()))));
+        assertThat(JsonPath.read(json, "$.standings[*].total"), is(equalTo(tallies.stream().map(tally -> (int) tally.getTotal()).collect(Collectors.toList()))));
+        assertThat(JsonPath.read(json, "$.standings[*].unscored"), is(equalTo(tallies.stream().map(tally -> (int) tally.getUnscored()).collect(Collectors.toList()))));
+    }
+
+    @Test
+    public void export_standings_for_tournament_that_does_not_exist_fails() {
+        assertThrows(TournamentDoesNotExistException.class, () -> exportService.exportStandings("Other tournament", directory.resolve("standings.csv"), Format.CSV, false));
+    }
+
+    private String expectedCsv() throws Exception {
+        StringBuilder csv = new StringBuilder("team,wins,ties,losses,unscored,total\n");
+        for(Tally tally : tournamentService.getTournament(TOURNAMENT_NAME).getTally()) {
+            String name = tally.getTeamName().equals(QUOTED_TEAM_NAME) ? "\"Team \"\"Three\"\", the best\"" : tally.getTeamName();
+            csv.append(name + "," + tally.getWins() + "," + tally.getTies() + "," + tally.getLosses() + "," + tally.getUnscored() + "," + tally.getTotal() + "\n");
+        }
+        return csv.toString();
+    }
+}
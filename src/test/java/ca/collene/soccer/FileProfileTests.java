@@ -0,0 +1,93 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.services.TournamentService;
+
+// starts and stops the application itself, with the file profile, to see what is kept between runs
+public class FileProfileTests {
+    @TempDir
+    Path directory;
+
+    // a tournament entered in one run is still there, with its scores, in the next
+    @Test
+    public void data_is_kept_between_runs() throws Exception {
+        try(ConfigurableApplicationContext context = start()) {
+            TournamentService tournamentService = context.getBean(TournamentService.class);
+            tournamentService.createTournament("Tournament");
+            tournamentService.addGameToTournament("Team One", "Team Two", "Tournament");
+            tournamentService.scoreGameInTournament("Team One", 2, "Team Two", 0, "Tournament");
+        }
+        assertTrue(Files.exists(directory.resolve("soccer.mv.db")));
+
+        try(ConfigurableApplicationContext context = start()) {
+            Tally first = context.getBean(TournamentService.class).getStandings("Tournament").getTally().get(0);
+            assertThat(first.getTeamName(), is(equalTo("Team One")));
+            assertThat(first.getWins(), is(equalTo(1L)));
+        }
+    }
+
+    // names are found through unique indexes of their keys, and a tournament's games and each team's games through the game table's indexes
+    @Test
+    public void names_and_game_keys_are_indexed() throws Exception {
+        try(ConfigurableApplicationContext context = start()) {
+            List<String> indexes = context.getBean(JdbcTemplate.class).queryForList(
+                            "SELECT TABLE_NAME || '.' || COLUMN_NAME || CASE WHEN NON_UNIQUE THEN '' ELSE ' unique' END FROM INFORMATION_SCHEMA.INDEXES", String.class);
+            assertThat(indexes, hasItems(
+                            "PERSON.NAME_KEY unique",
+                            "TEAM.NAME_KEY unique",
+                            "TOURNAMENT.NAME_KEY unique",
+                            "GAME.TOURNAMENT_ID",
+                            "GAME.TEAM1_ID",
+                            "GAME.TEAM2_ID"));
+        }
+    }
+
+    // a journal would make its changes again in a database that already has them, so the application doesn't start
+    @Test
+    public void journal_with_file_profile_fails_to_start() {
+        Path journal = directory.resolve("soccer.journal");
+        Exception e = assertThrows(Exception.class, () -> start("--soccer.journal.path=" + journal).close());
+        assertThat(rootCause(e).getMessage(), is(equalTo("The journal " + journal + " can't be used with the file profile, which keeps the database in "
+                        + directory.resolve("soccer") + ": use one or the other")));
+        assertFalse(Files.exists(journal));
+    }
+
+    private ConfigurableApplicationContext start(String... arguments) {
+        String[] allArguments = new String[arguments.length + 1];
+        // as an argument, since the profile's own path would take precedence over a default property
+        allArguments[0] = "--soccer.database.path=" + directory.resolve("soccer");
+        System.arraycopy(arguments, 0, allArguments, 1, arguments.length);
+        return new SpringApplicationBuilder(SoccerApplication.class)
+                        .profiles("file")
+                        .properties(InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+                                    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false")
+                        .run(allArguments);
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while(e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
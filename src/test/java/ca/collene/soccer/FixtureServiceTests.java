@@ -0,0 +1,185 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.RoundRobinSchedule;
+import ca.collene.soccer.models.SwissPairing;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.GameAlreadyInTournamentException;
+import ca.collene.soccer.services.GameNotScoredException;
+import ca.collene.soccer.services.InvalidGameException;
+import ca.collene.soccer.services.TournamentDoesNotExistException;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class FixtureServiceTests {
+    private static final String TOURNAMENT_NAME = "Tournament";
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    // more games than fit in one JDBC batch, so the games are written in more than one batch
+    @Test
+    public void generate_round_robin_adds_a_game_between_every_two_teams() throws Exception {
+        final int teams = 50;
+        createTournamentWithTeams(teams);
+        // standings kept before the games are generated are counted again
+        assertThat(tournamentService.getStandings(TOURNAMENT_NAME).getTally(), hasSize(teams));
+
+        RoundRobinSchedule schedule = fixtureService.generateRoundRobin(TOURNAMENT_NAME, false);
+
+        assertThat(schedule.getGames(), is(equalTo(1225L)));
+        assertThat(schedule.getRounds(), is(equalTo(49)));
+        Tournament tournament = tournamentService.getTournament(TOURNAMENT_NAME);
+        assertThat(tournament.getGames(), hasSize(1225));
+        List<Team> tournamentTeams = tournament.getTeams();
+        for(int i = 0; i < teams; i++) {
+            for(int j = i + 1; j < teams; j++) {
+                assertTrue(tournament.hasGameWithTeams(tournamentTeams.get(i), tournamentTeams.get(j)));
+            }
+        }
+        assertTrue(tournament.getGames().stream().map(Game::getRound).allMatch(round -> round >= 1 && round <= 49));
+        for(Tally tally : tournamentService.getStandings(TOURNAMENT_NAME).getTally()) {
+            assertThat(tally.getUnscored(), is(equalTo(49L)));
+        }
+    }
+
+    @Test
+    public void generate_double_round_robin_adds_two_games_between_every_two_teams() throws Exception {
+        createTournamentWithTeams(5);
+        RoundRobinSchedule schedule = fixtureService.generateRoundRobin(TOURNAMENT_NAME, true);
+
+        assertThat(schedule.getRounds(), is(equalTo(10)));
+        assertThat(tournamentService.getTournament(TOURNAMENT_NAME).getGames(), hasSize(20));
+    }
+
+    // the two games between a pair are told apart by the team named first, so each can be scored, and scored again
+    @Test
+    public void double_round_robin_scores_both_games_between_two_teams() throws Exception {
+        createTournamentWithTeams(2);
+        fixtureService.generateRoundRobin(TOURNAMENT_NAME, true);
+
+        tournamentService.scoreGameInTournament("Team 0", 2, "Team 1", 0, TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team 1", 1, "Team 0", 1, TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team 0", 3, "Team 1", 0, TOURNAMENT_NAME);
+
+        for(Game game : tournamentService.getTournament(TOURNAMENT_NAME).getGames()) {
+            boolean team0First = game.getTeam1().getName().equals("Team 0");
+            assertThat(game.getScore1(), is(equalTo(team0First ? 3 : 1)));
+            assertThat(game.getScore2(), is(equalTo(team0First ? 0 : 1)));
+        }
+        Tally tally = tournamentService.getStandings(TOURNAMENT_NAME).getTally().get(0);
+        assertThat(tally.getTeamName(), is(equalTo("Team 0")));
+        assertThat(tally.getWins(), is(equalTo(1L)));
+        assertThat(tally.getTies(), is(equalTo(1L)));
+        assertThat(tally.getUnscored(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void generate_round_robin_for_tournament_with_games_or_too_few_teams_fails() throws Exception {
+        assertThrows(TournamentDoesNotExistException.class, () -> fixtureService.generateRoundRobin(TOURNAMENT_NAME, false));
+        createTournamentWithTeams(1);
+        assertThrows(InvalidGameException.class, () -> fixtureService.generateRoundRobin(TOURNAMENT_NAME, false));
+        tournamentService.addGameToTournament("Team 0", "Team 1", TOURNAMENT_NAME);
+        assertThrows(GameAlreadyInTournamentException.class, () -> fixtureService.generateRoundRobin(TOURNAMENT_NAME, false));
+    }
+
+    // every round is paired among teams on similar points without rematches, and the bye moves to a team that hasn't had one
+    @Test
+    public void pair_swiss_rounds_avoids_rematches_and_repeat_byes() throws Exception {
+        final int teams = 9;
+        createTournamentWithTeams(teams);
+        Set<String> byes = new HashSet<>();
+        for(int round = 1; round <= 3; round++) {
+            SwissPairing<String> pairing = fixtureService.pairSwissRound(TOURNAMENT_NAME);
+
+            assertThat(pairing.getRound(), is(equalTo(round)));
+            assertThat(pairing.getGames(), is(equalTo(4)));
+            assertThat(pairing.getRematches(), is(equalTo(0)));
+            assertTrue(byes.add(pairing.getBye()));
+            for(Game game : tournamentService.getTournament(TOURNAMENT_NAME).getGames()) {
+                if(!game.hasScore()) {
+                    // the team listed first is higher in the standings, and wins
+                    tournamentService.scoreGameInTournament(game.getTeam1().getName(), 2, game.getTeam2().getName(), 0, TOURNAMENT_NAME);
+                }
+            }
+        }
+        assertThat(tournamentService.getTournament(TOURNAMENT_NAME).getGames(), hasSize(12));
+        assertThat(tournamentService.getStandings(TOURNAMENT_NAME).getTally().get(0).getWins(), is(equalTo(3L)));
+    }
+
+    // two teams can only play each other again, and the rematch is played the other way around so that it can be scored
+    @Test
+    public void pair_swiss_round_plays_a_rematch_the_other_way_around() throws Exception {
+        createTournamentWithTeams(2);
+        fixtureService.pairSwissRound(TOURNAMENT_NAME);
+        Game first = tournamentService.getTournament(TOURNAMENT_NAME).getGames().get(0);
+        String home = first.getTeam1().getName();
+        String away = first.getTeam2().getName();
+        tournamentService.scoreGameInTournament(home, 2, away, 0, TOURNAMENT_NAME);
+
+        SwissPairing<String> pairing = fixtureService.pairSwissRound(TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament(away, 1, home, 1, TOURNAMENT_NAME);
+
+        assertThat(pairing.getRematches(), is(equalTo(1)));
+        List<Game> games = tournamentService.getTournament(TOURNAMENT_NAME).getGames();
+        assertThat(games, hasSize(2));
+        for(Game game : games) {
+            boolean homeFirst = game.getTeam1().getName().equals(home);
+            assertThat(game.getRound(), is(equalTo(homeFirst ? 1 : 2)));
+            assertThat(game.getScore1(), is(equalTo(homeFirst ? 2 : 1)));
+            assertThat(game.getScore2(), is(equalTo(homeFirst ? 0 : 1)));
+        }
+        Tally tally = tournamentService.getStandings(TOURNAMENT_NAME).getTally().get(0);
+        assertThat(tally.getTeamName(), is(equalTo(home)));
+        assertThat(tally.getWins(), is(equalTo(1L)));
+        assertThat(tally.getTies(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void pair_swiss_round_with_unscored_games_or_knockout_fails() throws Exception {
+        assertThrows(TournamentDoesNotExistException.class, () -> fixtureService.pairSwissRound(TOURNAMENT_NAME));
+        createTournamentWithTeams(4);
+        fixtureService.pairSwissRound(TOURNAMENT_NAME);
+        assertThrows(GameNotScoredException.class, () -> fixtureService.pairSwissRound(TOURNAMENT_NAME));
+
+        tournamentService.createTournament("Knockout");
+        fixtureService.generateKnockout("Knockout", TOURNAMENT_NAME, 4, false);
+        assertThrows(InvalidGameException.class, () -> fixtureService.pairSwissRound("Knockout"));
+    }
+
+    private void createTournamentWithTeams(int teams) throws Exception {
+        tournamentService.createTournament(TOURNAMENT_NAME);
+        for(int i = 0; i < teams; i++) {
+            tournamentService.addTeamToTournament("Team " + i, TOURNAMENT_NAME);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.GameTableMigration;
+import ca.collene.soccer.repositories.TournamentRepository;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class GameTableMigrationTests {
+    @Autowired
+    private GameTableMigration gameTableMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    // games saved with their teams in game_team and their score in game_score are moved onto the game table
+    @Test
+    public void migrating_games_from_old_layout_works() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+
+        Tournament tournament = tournamentService.createTournament(tournamentName);
+        tournamentService.addTeamToTournament(team1Name, tournament);
+        tournamentService.addTeamToTournament(team2Name, tournament);
+        tournamentService.addTeamToTournament(team3Name, tournament);
+        Team team1 = teamService.getTeam(team1Name);
+        Team team2 = teamService.getTeam(team2Name);
+        Team team3 = teamService.getTeam(team3Name);
+
+        jdbcTemplate.execute("CREATE TABLE game_team (game_id BIGINT NOT NULL, team_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE game_score (game_id BIGINT NOT NULL, points INTEGER, team_id BIGINT NOT NULL)");
+        // the teams of the scored game are stored in the opposite order to their ids
+        long scoredGame = insertOldGame(tournament, team2, team1);
+        jdbcTemplate.update("INSERT INTO game_score (game_id, team_id, points) VALUES (?, ?, ?)", scoredGame, team1.getId(), 3);
+        jdbcTemplate.update("INSERT INTO game_score (game_id, team_id, points) VALUES (?, ?, ?)", scoredGame, team2.getId(), 1);
+        insertOldGame(tournament, team1, team3);
+
+        gameTableMigration.migrate();
+
+        Tournament migrated = tournamentService.getTournament(tournamentName);
+        assertThat(migrated.getGames().size(), is(equalTo(2)));
+        Game game = migrated.getGame(team1, team2);
+        assertThat(game.getPointsForTeam(team1), is(equalTo(3)));
+        assertThat(game.getPointsForTeam(team2), is(equalTo(1)));
+        assertFalse(migrated.getGame(team1, team3).hasScore());
+
+        List<Tally> expected = migrated.getTally();
+        assertThat(tournamentRepository.findTallyByNameKey(NameKey.of(tournamentName)), containsInAnyOrder(expected.toArray()));
+
+        // the old tables are dropped, and migrating again does nothing
+        assertThrows(BadSqlGrammarException.class, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_team", Long.class));
+        assertThrows(BadSqlGrammarException.class, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_score", Long.class));
+        gameTableMigration.migrate();
+        assertThat(tournamentService.getTournament(tournamentName).getGames().size(), is(equalTo(2)));
+    }
+
+    private long insertOldGame(Tournament tournament, Team team1, Team team2) {
+        jdbcTemplate.update("INSERT INTO game (id, tournament_id) VALUES (NEXT VALUE FOR game_sequence, ?)", tournament.getId());
+        long gameId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM game", Long.class);
+        jdbcTemplate.update("INSERT INTO game_team (game_id, team_id) VALUES (?, ?)", gameId, team1.getId());
+        jdbcTemplate.update("INSERT INTO game_team (game_id, team_id) VALUES (?, ?)", gameId, team2.getId());
+        return gameId;
+    }
+}
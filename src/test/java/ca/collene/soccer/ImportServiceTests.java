@@ -0,0 +1,195 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.models.ImportResult.RowType;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ImportServiceTests {
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    Path directory;
+
+    // importing games, scores, players and coaches works the same as the commands that make those changes
+    @Test
+    public void import_adds_games_scores_and_rosters() throws Exception {
+        final String tournamentName = "Tournament";
+        Path file = write("# a small season",
+                        "game,Tournament,Team One,Team Two",
+                        "game,Tournament,Team One,Team Three",
+                        "",
+                        "score,Tournament,Team Two,1,Team One,3",
+                        "player,Team One,Person One,10",
+                        "player,\"Team, Four\",Person Two,7",
+                        "coach,Team One,Person Three");
+
+        ImportResult result = importService.importFile(file, ImportService.DEFAULT_CHUNK_SIZE);
+
+        assertThat(result.getApplied(), is(equalTo(6L)));
+        assertThat(result.getApplied(RowType.GAME), is(equalTo(2L)));
+        assertThat(result.getApplied(RowType.SCORE), is(equalTo(1L)));
+        assertThat(result.getApplied(RowType.PLAYER), is(equalTo(2L)));
+        assertThat(result.getApplied(RowType.COACH), is(equalTo(1L)));
+        assertThat(result.getRejected(), is(equalTo(0L)));
+
+        Tournament tournament = tournamentService.getTournament(tournamentName);
+        assertThat(tournament.getTeams().stream().map(Team::getName).collect(Collectors.toList()), containsInAnyOrder("Team One", "Team Two", "Team Three"));
+        assertThat(tournament.getGames(), hasSize(2));
+        Team team1 = teamService.getTeam("Team One");
+        Game game = tournament.getGame(team1, teamService.getTeam("Team Two"));
+        assertThat(game.getPointsForTeam(team1), is(equalTo(3)));
+        assertFalse(tournament.getGame(team1, teamService.getTeam("Team Three")).hasScore());
+
+        assertThat(team1.getPlayers(), hasSize(1));
+        assertThat(team1.getPlayers().get(0).getNumber(), is(equalTo(10)));
+        assertThat(team1.getCoaches().stream().map(Person::getName).collect(Collectors.toList()), containsInAnyOrder("Person Three"));
+        assertThat(teamService.getTeam("Team, Four").getPlayers().get(0).getPerson().getName(), is(equalTo("Person Two")));
+
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(equalTo(tournament.getTally())));
+    }
+
+    // rows that break the rules of the commands are rejected and the rest are still imported
+    @Test
+    public void import_rejects_rows_that_break_rules() throws Exception {
+        Path file = write("game,Tournament,Team One,Team Two",
+                        "game,Tournament,Team Two,Team One",
+                        "game,Tournament,Team One,Team One",
+                        "score,Tournament,Team One,1,Team Three,2",
+                        "score,Tournament,Team One,-1,Team Two,2",
+                        "score,Other Tournament,Team One,1,Team Two,2",
+                        "player,Team One,Person One,10",
+                        "player,Team One,Person Two,10",
+                        "player,Team One,Person One,11",
+                        "coach,Team One,Person Three",
+                        "coach,Team One,Person Three",
+                        "referee,Team One,Person Four",
+                        "score,Tournament,Team One,one,Team Two,2",
+                        "game,Tournament,Team One");
+
+        ImportResult result = importService.importFile(file, ImportService.DEFAULT_CHUNK_SIZE);
+
+        assertThat(result.getApplied(), is(equalTo(3L)));
+        assertThat(result.getRejected(), is(equalTo(11L)));
+        List<String> rejections = result.getRejections();
+        assertThat(rejections, hasSize(11));
+        assertThat(rejections.get(0), startsWith("line 12: "));
+        assertThat(rejections.get(3), startsWith("line 2: "));
+        assertThat(tournamentService.getTournament("Tournament").getGames(), hasSize(1));
+        assertFalse(tournamentService.getTournament("Tournament").getGames().get(0).hasScore());
+        assertThat(teamService.getTeam("Team One").getPlayers(), hasSize(1));
+        assertThat(teamService.getTeam("Team One").getCoaches(), hasSize(1));
+    }
+
+    // scores find games imported in earlier chunks and games added before the import, and the standings kept for the tournament are counted again
+    @Test
+    public void import_in_chunks_scores_games_from_earlier_chunks_and_before_import() throws Exception {
+        final String tournamentName = "Tournament";
+        tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament("Team One", "Team Two", tournamentName);
+        List<Tally> before = tournamentService.getStandings(tournamentName).getTally();
+        assertTrue(before.stream().allMatch(tally -> tally.getUnscored() == 1));
+
+        Path file = write("game,Tournament,Team One,Team Three",
+                        "game,Tournament,Team Two,Team Three",
+                        "score,Tournament,Team Three,2,Team One,2",
+                        "score,Tournament,Team Two,0,Team One,1",
+                        "score,Tournament,Team Two,4,Team Three,1");
+
+        ImportResult result = importService.importFile(file, 2);
+
+        assertThat(result.getApplied(), is(equalTo(5L)));
+        Tournament tournament = tournamentService.getTournament(tournamentName);
+        assertThat(tournament.getGames(), hasSize(3));
+        assertTrue(tournament.getGames().stream().allMatch(Game::hasScore));
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(equalTo(tournament.getTally())));
+    }
+
+    // a chunk reads the ratings of the teams it scores in one query, so scoring more games doesn't run more queries
+    @Test
+    public void import_reads_ratings_once_per_chunk() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        long fewScores = queriesToImportScores("Few", 2, statistics);
+        long manyScores = queriesToImportScores("Many", 20, statistics);
+
+        assertThat(manyScores, is(equalTo(fewScores)));
+        // every team of both tournaments was rated
+        assertThat(ratingService.getRatings(0), hasSize(3 + 21));
+    }
+
+    // a tournament of a chain of games between the teams, all scored in the same chunk they are added in
+    private long queriesToImportScores(String tournamentName, int games, Statistics statistics) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for(int i = 1; i <= games; i++) {
+            lines.add(String.format("game,%s,%s %d,%s %d", tournamentName, tournamentName, i, tournamentName, i + 1));
+        }
+        for(int i = 1; i <= games; i++) {
+            lines.add(String.format("score,%s,%s %d,1,%s %d,0", tournamentName, tournamentName, i, tournamentName, i + 1));
+        }
+        statistics.clear();
+        ImportResult result = importService.importFile(write(lines.toArray(new String[0])), ImportService.DEFAULT_CHUNK_SIZE);
+        assertThat(result.getApplied(), is(equalTo(2L * games)));
+        return statistics.getQueryExecutionCount();
+    }
+
+    private Path write(String... lines) throws Exception {
+        Path file = directory.resolve("import.csv");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+}
@@ -1,5 +1,6 @@
 package ca.collene.soccer;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -7,6 +8,7 @@ import static org.hamcrest.Matchers.emptyString;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.List;
 
 import org.jline.reader.Parser;
 import org.junit.jupiter.api.Test;
@@ -309,6 +311,155 @@ public class InterfaceTests {
         assertThat((String)report, is(not(emptyString())));
     }
 
+    @Test
+    public void report_top_and_page_of_game_results_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Two", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team Three", "Team Four", tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team One", 1, "Team Two", 2, tournamentName));
+
+        String top = (String) executeCommandInShell(String.format("report-tournament-results '%s' --top 1", tournamentName));
+        assertThat(top, containsString("Team Two"));
+        assertThat(top, not(containsString("Team One")));
+        String page = (String) executeCommandInShell(String.format("report-tournament-results '%s' --page 2 --page-size 2", tournamentName));
+        assertThat(page, not(containsString("Team Two")));
+        assertThat(page, containsString("Team Three"));
+    }
+
+    @Test
+    public void report_game_results_with_tiebreakers_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Two", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team Three", "Team Four", tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team One", 1, "Team Two", 0, tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team Three", 4, "Team Four", 0, tournamentName));
+
+        // team one and team three both won, and team three by more goals
+        String top = (String) executeCommandInShell(String.format("report-tournament-results '%s' --top 1 --tiebreakers goal-difference", tournamentName));
+        assertThat(top, containsString("Team Three"));
+        assertThat(top, not(containsString("Team One")));
+        String unsupported = (String) executeCommandInShell(String.format("report-tournament-results '%s' --tiebreakers coin-toss", tournamentName));
+        assertThat(unsupported, containsString("NOT reported"));
+    }
+
+    @Test
+    public void generate_and_report_knockout_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        for(String teamName : List.of("Team One", "Team Two", "Team Three")) {
+            executeCommandInShell(String.format("add-team-to-tournament '%s' '%s'", teamName, tournamentName));
+        }
+
+        // in name order the seeds are one, three and two, so team one has a bye
+        String generated = (String) executeCommandInShell(String.format("generate-knockout '%s'", tournamentName));
+        assertThat(generated, containsString("1 game(s) to play and 1 bye(s)"));
+        String current = (String) executeCommandInShell(String.format("report-knockout '%s'", tournamentName));
+        assertThat(current, containsString("Semi-finals: 1 of 2 game(s) decided"));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team Three", 2, "Team Two", 0, tournamentName));
+        String path = (String) executeCommandInShell(String.format("report-knockout '%s' --team '%s'", tournamentName, "Team One"));
+        assertThat(path, containsString("Bye"));
+        assertThat(path, containsString("Team Three"));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team Three", 1, "Team One", 3, tournamentName));
+        String champion = (String) executeCommandInShell(String.format("report-knockout '%s'", tournamentName));
+        assertThat(champion, is("Team 'Team One' won the knockout in tournament 'Test Tournament'"));
+    }
+
+    @Test
+    public void pair_swiss_round_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        for(String teamName : List.of("Team One", "Team Two", "Team Three")) {
+            executeCommandInShell(String.format("add-team-to-tournament '%s' '%s'", teamName, tournamentName));
+        }
+
+        // in name order team two is last, so it has the bye
+        String paired = (String) executeCommandInShell(String.format("pair-swiss-round '%s'", tournamentName));
+        assertThat(paired, is("Paired round 1 of tournament 'Test Tournament' with 1 game(s) and a bye for team 'Team Two'"));
+        String unscored = (String) executeCommandInShell(String.format("pair-swiss-round '%s'", tournamentName));
+        assertThat(unscored, containsString("NOT paired"));
+    }
+
+    @Test
+    public void report_elimination_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Two", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Three", tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team One", 1, "Team Two", 0, tournamentName));
+
+        // team two has nothing left to play and can't catch team one
+        String report = (String) executeCommandInShell(String.format("report-elimination '%s'", tournamentName));
+        assertThat(report, containsString("Eliminated"));
+        assertThat(report, containsString("Possible"));
+        String missing = (String) executeCommandInShell("report-elimination 'Other Tournament'");
+        assertThat(missing, is("Tournament with name 'Other Tournament' does not exist"));
+    }
+
+    @Test
+    public void simulate_tournament_works() {
+        final String tournamentName = "Test Tournament";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Two", tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team One", 1, "Team Two", 0, tournamentName));
+
+        // nothing is left to play, so the places are certain
+        String simulated = (String) executeCommandInShell(String.format("simulate-tournament '%s' --simulations 100 --top 1", tournamentName));
+        assertThat(simulated, containsString("Top 1"));
+        assertThat(simulated, containsString("100.0%"));
+        String invalid = (String) executeCommandInShell(String.format("simulate-tournament '%s' --simulations 0", tournamentName));
+        assertThat(invalid, containsString("NOT simulated"));
+    }
+
+    @Test
+    public void ratings_works() {
+        final String tournamentName = "Test Tournament";
+        String empty = (String) executeCommandInShell("ratings");
+        assertThat(empty, containsString("No team has a rating yet"));
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", "Team One", "Team Two", tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", "Team One", 1, "Team Two", 0, tournamentName));
+
+        String ratings = (String) executeCommandInShell("ratings --top 1");
+        assertThat(ratings, containsString("Team One"));
+        assertThat(ratings, containsString("1510"));
+        assertThat(ratings, not(containsString("Team Two")));
+        String replayed = (String) executeCommandInShell("ratings --replay");
+        assertThat(replayed, containsString("Replayed 1 scored game(s)"));
+        assertThat(replayed, containsString("1490"));
+    }
+
+    @Test
+    public void list_team_games_works() {
+        final String tournamentName = "Test Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", team1Name, team2Name, tournamentName));
+        executeCommandInShell(String.format("add-game-to-tournament '%s' '%s' '%s'", team3Name, team1Name, tournamentName));
+        executeCommandInShell(String.format("score-game-in-tournament '%s' %d '%s' %d '%s'", team1Name, 4, team2Name, 2, tournamentName));
+
+        String games = (String) executeCommandInShell(String.format("list-team-games '%s' '%s'", team1Name, tournamentName));
+        assertThat(games, containsString(team2Name));
+        assertThat(games, containsString("4 - 2"));
+        assertThat(games, containsString(team3Name));
+
+        String unscoredGames = (String) executeCommandInShell(String.format("list-team-games '%s' '%s' --unscored", team1Name, tournamentName));
+        assertThat(unscoredGames, not(containsString(team2Name)));
+        assertThat(unscoredGames, containsString(team3Name));
+    }
+
+    @Test
+    public void list_team_games_when_team_does_not_exist_displays_error() {
+        final String tournamentName = "Test Tournament";
+        final String teamName = "Team One";
+        executeCommandInShell(String.format("create-tournament '%s'", tournamentName));
+        Object games = executeCommandInShell(String.format("list-team-games '%s' '%s'", teamName, tournamentName));
+        assertThat(games, is("Team with name '" + teamName + "' does not exist"));
+    }
+
     private Object executeCommandInShell(String commandString) {
         try(FileInputProvider inputProvider = new FileInputProvider(new StringReader(commandString), parser)) {
             Input input = inputProvider.readInput();
@@ -0,0 +1,179 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.JournalService;
+import ca.collene.soccer.services.NameAlreadyExistsException;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+    "spring.datasource.url=jdbc:h2:mem:journal"
+})
+// each context replays its own journal, so it gets its own database and isn't left open for the tests after it
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class JournalServiceTests {
+    // what an earlier run of the application recorded before it stopped part way through writing a score
+    private static final List<JournalEvent> EARLIER_RUN = List.of(
+                    JournalEvent.createTournament("Earlier"),
+                    JournalEvent.createTeam("Team One"),
+                    JournalEvent.createTeam("Team Two"),
+                    JournalEvent.addGame("Earlier", "Team One", "Team Two"),
+                    JournalEvent.scoreGame("Earlier", "Team One", 2, "Team Two", 0));
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @TempDir
+    Path directory;
+
+    // each context starts from a new journal holding the earlier run
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("journal-service-tests");
+        Path file = directory.resolve("soccer.journal");
+        directory.toFile().deleteOnExit();
+        file.toFile().deleteOnExit();
+        long end;
+        try(EventJournal journal = EventJournal.open(file)) {
+            for(JournalEvent event : EARLIER_RUN) {
+                journal.append(event);
+            }
+            end = journal.append(JournalEvent.scoreGame("Earlier", "Team One", 1, "Team Two", 1));
+        }
+        try(RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(end - 2);
+        }
+        registry.add("soccer.journal.path", file::toString);
+    }
+
+    // the changes of the earlier run are made again before anything else, without the one that was cut short
+    @Test
+    public void journal_is_replayed_at_startup() throws Exception {
+        EventJournal journal = journalService.getJournal();
+        assertTrue(journal.wasRepaired());
+        assertThat(read(journal, EventJournal.START), is(equalTo(EARLIER_RUN)));
+
+        Tally teamOne = tournamentService.getStandings("Earlier").getTally().get(0);
+        assertThat(teamOne.getTeamName(), is(equalTo("Team One")));
+        assertThat(teamOne.getWins(), is(equalTo(1L)));
+    }
+
+    // changes are recorded after the replayed ones once they commit, along with the teams and people they create, and ones that fail aren't
+    @Test
+    public void changes_are_recorded_once_they_commit() throws Exception {
+        long replayed = journalService.getJournal().getPosition();
+        tournamentService.createTournament("Tournament");
+        assertThrows(NameAlreadyExistsException.class, () -> tournamentService.createTournament("Tournament"));
+        tournamentService.addGameToTournament("Team One", "Team Three", "Tournament");
+        tournamentService.scoreGameInTournament("Team Three", 1, "Team One", 0, "Tournament");
+        teamService.addPlayerToTeam("Person One", "Team Three", 9);
+        Path file = Files.write(directory.resolve("import.csv"), List.of("coach,Team Four,Person Two", "score,Tournament,Team One,0,Team Four,1"));
+        importService.importFile(file, ImportService.DEFAULT_CHUNK_SIZE);
+
+        assertThat(read(journalService.getJournal(), replayed), is(equalTo(List.of(
+                        JournalEvent.createTournament("Tournament"),
+                        JournalEvent.createTeam("Team Three"),
+                        JournalEvent.addGame("Tournament", "Team One", "Team Three"),
+                        JournalEvent.scoreGame("Tournament", "Team Three", 1, "Team One", 0),
+                        JournalEvent.createPerson("Person One"),
+                        JournalEvent.addPlayer("Team Three", "Person One", 9),
+                        JournalEvent.createTeam("Team Four"),
+                        JournalEvent.createPerson("Person Two"),
+                        JournalEvent.addCoach("Team Four", "Person Two")))));
+    }
+
+    // a ratings replay is recorded like other changes, so a knockout seeded by rating after it is seeded the same way when the journal is replayed
+    @Test
+    public void ratings_replay_is_recorded() throws Exception {
+        long replayed = journalService.getJournal().getPosition();
+
+        assertThat(ratingService.replayRatings(), is(equalTo(1L)));
+
+        assertThat(read(journalService.getJournal(), replayed), is(equalTo(List.of(JournalEvent.replayRatings()))));
+    }
+
+    // a name too long to journal fails the change before anything is written
+    @Test
+    public void name_too_long_to_journal_fails_before_the_change_is_made() throws Exception {
+        tournamentService.createTournament("Tournament");
+        long position = journalService.getJournal().getPosition();
+        String longName = "Team One" + " ".repeat(JournalEvent.MAXIMUM_NAME_BYTES);
+
+        assertThrows(IllegalArgumentException.class, () -> tournamentService.addTeamToTournament(longName, "Tournament"));
+        assertThat(tournamentService.getTournament("Tournament").getTeams(), is(empty()));
+        assertThat(journalService.getJournal().getPosition(), is(equalTo(position)));
+        assertTrue(journalService.isRecording());
+    }
+
+    // once a write fails the change is kept, and nothing more is recorded instead of failing the changes after it
+    @Test
+    public void failed_write_stops_recording() throws Exception {
+        // a closed journal with room for nothing has to map more of the file to append, which fails
+        EventJournal closed = EventJournal.open(directory.resolve("closed.journal"), 1);
+        closed.close();
+        journalService.recordTo(closed);
+
+        teamService.createTeam("Team Three");
+        assertFalse(journalService.isRecording());
+        teamService.createTeam("Team Four");
+
+        assertThat(teamService.getTeam("Team Three"), is(notNullValue()));
+        assertThat(teamService.getTeam("Team Four"), is(notNullValue()));
+        assertThat(closed.getPosition(), is(equalTo(EventJournal.START)));
+    }
+
+    private static List<JournalEvent> read(EventJournal journal, long from) throws IOException {
+        List<JournalEvent> events = new ArrayList<>();
+        EventJournal.Reader reader = journal.read(from);
+        JournalEvent event;
+        while((event = reader.next()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+}
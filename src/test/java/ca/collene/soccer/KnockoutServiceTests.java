@@ -0,0 +1,187 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Bracket;
+import ca.collene.soccer.models.ImportResult;
+import ca.collene.soccer.services.BracketDoesNotExistException;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.GameAlreadyInTournamentException;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.InvalidScoreException;
+import ca.collene.soccer.services.KnockoutService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class KnockoutServiceTests {
+    private static final String GROUP_NAME = "Group";
+    private static final String KNOCKOUT_NAME = "Knockout";
+
+    @Autowired
+    private KnockoutService knockoutService;
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private ImportService importService;
+
+    @TempDir
+    Path directory;
+
+    // the group's winners by standings are seeded, so the top seed plays the fourth and the second plays the third
+    @Test
+    public void knockout_is_seeded_from_standings_of_another_tournament() throws Exception {
+        createGroup();
+
+        Bracket<Long> generated = fixtureService.generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 4, false);
+
+        assertThat(generated.getRounds(), is(equalTo(2)));
+        Tournament knockout = tournamentService.getTournament(KNOCKOUT_NAME);
+        assertThat(knockout.getTeams(), hasSize(4));
+        assertThat(knockout.getGames(), hasSize(2));
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team A"), teamService.getTeam("Team D")));
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team B"), teamService.getTeam("Team C")));
+        Bracket<String> bracket = knockoutService.getBracket(KNOCKOUT_NAME);
+        assertThat(bracket.getCurrentRound(), is(equalTo(1)));
+        assertThat(bracket.getPathToFinal("Team A"), is(equalTo(List.of(2, 1))));
+        assertThat(bracket.getPathToFinal("Team E"), hasSize(0));
+    }
+
+    // scoring a knockout game moves its winner on, and the final is added once both semi-finals are won
+    @Test
+    public void scoring_knockout_games_advances_winners_to_a_champion() throws Exception {
+        createGroup();
+        fixtureService.generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 4, false);
+        // the standings kept for the knockout count the final when it is added
+        assertThat(tournamentService.getStandings(KNOCKOUT_NAME).getTally(), hasSize(4));
+
+        tournamentService.scoreGameInTournament("Team A", 0, "Team D", 1, KNOCKOUT_NAME);
+        assertThat(tournamentService.getTournament(KNOCKOUT_NAME).getGames(), hasSize(2));
+        assertThat(knockoutService.getBracket(KNOCKOUT_NAME).getTeam(2), is(equalTo("Team D")));
+        tournamentService.scoreGameInTournament("Team C", 3, "Team B", 2, KNOCKOUT_NAME);
+
+        Bracket<String> bracket = knockoutService.getBracket(KNOCKOUT_NAME);
+        assertThat(bracket.getCurrentRound(), is(equalTo(2)));
+        assertThat(bracket.getOpponent(1, "Team D"), is(equalTo("Team C")));
+        Game game = tournamentService.getTournament(KNOCKOUT_NAME).getGame(teamService.getTeam("Team D"), teamService.getTeam("Team C"));
+        assertThat(game.getRound(), is(equalTo(2)));
+        assertThat(game.getSlot(), is(equalTo(1)));
+        assertThat(tournamentService.getStandings(KNOCKOUT_NAME).getTally(), is(equalTo(tournamentService.getTournament(KNOCKOUT_NAME).getTally())));
+
+        tournamentService.scoreGameInTournament("Team C", 1, "Team D", 2, KNOCKOUT_NAME);
+        bracket = knockoutService.getBracket(KNOCKOUT_NAME);
+        assertThat(bracket.getCurrentRound(), is(equalTo(0)));
+        assertThat(bracket.getChampion(), is(equalTo("Team D")));
+    }
+
+    // a tie can't decide a knockout game, and a winner that has a game in the next round can't be changed
+    @Test
+    public void knockout_game_rejects_ties_and_late_changes_of_winner() throws Exception {
+        createGroup();
+        fixtureService.generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 4, false);
+
+        assertThrows(InvalidScoreException.class, () -> tournamentService.scoreGameInTournament("Team A", 1, "Team D", 1, KNOCKOUT_NAME));
+        assertFalse(tournamentService.getTournament(KNOCKOUT_NAME).getGame(teamService.getTeam("Team A"), teamService.getTeam("Team D")).hasScore());
+
+        tournamentService.scoreGameInTournament("Team A", 2, "Team D", 1, KNOCKOUT_NAME);
+        // nobody has moved on to meet the winner yet, so the result can still change
+        tournamentService.scoreGameInTournament("Team A", 0, "Team D", 1, KNOCKOUT_NAME);
+        assertThat(knockoutService.getBracket(KNOCKOUT_NAME).getTeam(2), is(equalTo("Team D")));
+        tournamentService.scoreGameInTournament("Team B", 1, "Team C", 0, KNOCKOUT_NAME);
+
+        assertThrows(InvalidScoreException.class, () -> tournamentService.scoreGameInTournament("Team A", 3, "Team D", 1, KNOCKOUT_NAME));
+        // a corrected score with the same winner is fine
+        tournamentService.scoreGameInTournament("Team A", 0, "Team D", 4, KNOCKOUT_NAME);
+        assertThat(tournamentService.getTournament(KNOCKOUT_NAME).getGames(), hasSize(3));
+    }
+
+    // with five entrants the top three seeds have byes, and the second and third already meet in the semi-finals
+    @Test
+    public void knockout_of_own_teams_gives_byes_to_top_seeds() throws Exception {
+        tournamentService.createTournament(KNOCKOUT_NAME);
+        for(String team : List.of("Team A", "Team B", "Team C", "Team D", "Team E")) {
+            tournamentService.addTeamToTournament(team, KNOCKOUT_NAME);
+        }
+
+        Bracket<Long> generated = fixtureService.generateKnockout(KNOCKOUT_NAME, KNOCKOUT_NAME, 0, false);
+
+        assertThat(generated.getSize(), is(equalTo(8)));
+        Tournament knockout = tournamentService.getTournament(KNOCKOUT_NAME);
+        assertThat(knockout.getTeams(), hasSize(5));
+        assertThat(knockout.getGames(), hasSize(2));
+        // with no games played the standings are in order of name
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team D"), teamService.getTeam("Team E")));
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team B"), teamService.getTeam("Team C")));
+        assertThrows(GameAlreadyInTournamentException.class, () -> fixtureService.generateKnockout(KNOCKOUT_NAME, KNOCKOUT_NAME, 0, false));
+    }
+
+    // imported scores move winners on too, and can score the games that adds
+    @Test
+    public void imported_scores_advance_knockout_winners() throws Exception {
+        createGroup();
+        fixtureService.generateKnockout(KNOCKOUT_NAME, GROUP_NAME, 4, false);
+        Path file = directory.resolve("import.csv");
+        Files.write(file, List.of("score,Knockout,Team A,2,Team D,0",
+                                    "score,Knockout,Team B,1,Team C,0",
+                                    "score,Knockout,Team A,1,Team B,1",
+                                    "score,Knockout,Team B,1,Team A,2"));
+
+        ImportResult result = importService.importFile(file, ImportService.DEFAULT_CHUNK_SIZE);
+
+        assertThat(result.getApplied(), is(equalTo(3L)));
+        assertThat(result.getRejected(), is(equalTo(1L)));
+        assertThat(knockoutService.getBracket(KNOCKOUT_NAME).getChampion(), is(equalTo("Team A")));
+    }
+
+    @Test
+    public void bracket_of_tournament_without_knockout_fails() throws Exception {
+        tournamentService.createTournament(KNOCKOUT_NAME);
+        assertThrows(BracketDoesNotExistException.class, () -> knockoutService.getBracket(KNOCKOUT_NAME));
+    }
+
+    // every team plays the teams after it in name order, and the earlier team always wins, so A to E finish in order of name
+    private void createGroup() throws Exception {
+        List<String> teams = List.of("Team A", "Team B", "Team C", "Team D", "Team E");
+        tournamentService.createTournament(GROUP_NAME);
+        tournamentService.createTournament(KNOCKOUT_NAME);
+        for(int i = 0; i < teams.size(); i++) {
+            for(int j = i + 1; j < teams.size(); j++) {
+                tournamentService.addGameToTournament(teams.get(i), teams.get(j), GROUP_NAME);
+                tournamentService.scoreGameInTournament(teams.get(i), 1, teams.get(j), 0, GROUP_NAME);
+            }
+        }
+    }
+}
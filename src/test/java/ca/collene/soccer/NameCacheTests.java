@@ -0,0 +1,116 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.repositories.PersonRepository;
+import ca.collene.soccer.services.NameCache;
+import ca.collene.soccer.services.PersonService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class NameCacheTests {
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void cache_counts_hits_and_misses() {
+        NameCache cache = new NameCache(10);
+        cache.put(Team.class, "Team One", 1L);
+
+        assertThat(cache.get(Team.class, "Team One"), is(equalTo(1L)));
+        assertThat(cache.get(Team.class, "Team Two"), is(nullValue()));
+        // the same name for another kind of entity is a different name
+        assertThat(cache.get(Person.class, "Team One"), is(nullValue()));
+
+        assertThat(cache.getHits(), is(equalTo(1L)));
+        assertThat(cache.getMisses(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void full_cache_drops_least_recently_used_name() {
+        NameCache cache = new NameCache(2);
+        cache.put(Team.class, "Team One", 1L);
+        cache.put(Team.class, "Team Two", 2L);
+        cache.get(Team.class, "Team One");
+        cache.put(Team.class, "Team Three", 3L);
+
+        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(cache.get(Team.class, "Team One"), is(equalTo(1L)));
+        assertThat(cache.get(Team.class, "Team Two"), is(nullValue()));
+        assertThat(cache.get(Team.class, "Team Three"), is(equalTo(3L)));
+    }
+
+    @Test
+    public void evicted_name_is_not_found() {
+        NameCache cache = new NameCache(10);
+        cache.put(Team.class, "Team One", 1L);
+        cache.evict(Team.class, "Team One");
+
+        assertThat(cache.get(Team.class, "Team One"), is(nullValue()));
+    }
+
+    @Test
+    public void person_is_remembered_once_found() throws Exception {
+        final String personName = "Person";
+        Person created = personService.createPerson(personName);
+
+        long misses = nameCache.getMisses();
+        Person person = personService.getPerson(personName);
+        assertThat(person.getId(), is(equalTo(created.getId())));
+        assertThat(person.getName(), is(equalTo(personName)));
+        assertThat(nameCache.getMisses(), is(equalTo(misses)));
+        assertThat(nameCache.getHits(), is(equalTo(1L)));
+    }
+
+    // an id without a row is found to be stale when it is looked up in a transaction, and is dropped
+    @Test
+    public void stale_id_is_evicted_when_it_is_looked_up() throws Exception {
+        final String personName = "Person";
+        nameCache.put(Person.class, personName, 999L);
+
+        Person found = new TransactionTemplate(transactionManager).execute(status -> nameCache.find(personRepository, Person.class, personName));
+
+        assertThat(found, is(nullValue()));
+        assertThat(nameCache.get(Person.class, personName), is(nullValue()));
+    }
+
+    @Test
+    public void person_created_in_rolled_back_transaction_is_not_remembered() throws Exception {
+        final String personName = "Person";
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            personService.getOrCreatePerson(personName);
+            status.setRollbackOnly();
+        });
+
+        assertThat(nameCache.get(Person.class, personName), is(nullValue()));
+        assertThat(personService.getOrCreatePerson(personName).getName(), is(equalTo(personName)));
+        assertThat(nameCache.get(Person.class, personName), is(equalTo(personService.getPerson(personName).getId())));
+    }
+}
@@ -0,0 +1,95 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.repositories.NameKeyBackfill;
+import ca.collene.soccer.services.NameCache;
+import ca.collene.soccer.services.PersonService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class NameKeyBackfillTests {
+    @Autowired
+    private NameKeyBackfill nameKeyBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NameCache nameCache;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    // names saved without keys get them, and can then be found in any spelling
+    @Test
+    public void names_saved_without_keys_are_given_them() throws Exception {
+        Team team = teamService.createTeam("Ladybugs");
+        personService.createPerson("Zoë Ünal");
+        tournamentService.createTournament("Spring Cup");
+        forgetNameKeys();
+
+        assertThat(nameKeyBackfill.backfill(), is(empty()));
+        assertThat(teamService.getTeam("LADYBUGS"), is(equalTo(team)));
+        assertThat(personService.getPerson("zoe unal").getName(), is(equalTo("Zoë Ünal")));
+        assertThat(tournamentService.getTournament("spring cup").getName(), is(equalTo("Spring Cup")));
+        // once every name has its key there is nothing left to do
+        assertThat(nameKeyBackfill.backfill(), is(empty()));
+    }
+
+    // names that were different but have the same key are reported, and only the first saved gets the key
+    @Test
+    public void names_with_the_same_key_are_reported() throws Exception {
+        Team team = teamService.createTeam("Ladybugs");
+        teamService.createTeam("Hornets");
+        forgetNameKeys();
+        jdbcTemplate.update("INSERT INTO team (name) VALUES (?)", "LADYBUGS");
+        jdbcTemplate.update("INSERT INTO team (name) VALUES (?)", "lady  bugs");
+        jdbcTemplate.update("INSERT INTO team (name) VALUES (?)", "Ladybügs");
+
+        List<String> collisions = nameKeyBackfill.backfill();
+
+        assertThat(collisions, is(equalTo(List.of(
+                        "The team names 'Ladybugs', 'LADYBUGS', 'Ladybügs' are all 'ladybugs' once case, accents and spacing are ignored: only 'Ladybugs' can be found by name"))));
+        assertThat(teamService.getTeam("ladybugs"), is(equalTo(team)));
+        assertThat(teamService.getTeam("lady bugs").getName(), is(equalTo("lady  bugs")));
+        assertThat(jdbcTemplate.queryForObject("SELECT name_key FROM team WHERE name = 'LADYBUGS'", String.class), is(nullValue()));
+        // they are reported each time until they are given names of their own
+        assertThat(nameKeyBackfill.backfill(), is(equalTo(collisions)));
+    }
+
+    // as they were before names had keys
+    private void forgetNameKeys() {
+        for(String table : List.of("person", "team", "tournament")) {
+            jdbcTemplate.update("UPDATE " + table + " SET name_key = NULL");
+        }
+        nameCache.clear();
+    }
+}
@@ -0,0 +1,40 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.NameKey;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class NameKeyTests {
+    // case, accents and runs of whitespace don't change a name's key
+    @Test
+    public void case_accents_and_spacing_are_folded() {
+        assertThat(NameKey.of("Ladybugs"), is(equalTo("ladybugs")));
+        assertThat(NameKey.of(" LADYBUGS\t"), is(equalTo("ladybugs")));
+        assertThat(NameKey.of("Team  \n One"), is(equalTo("team one")));
+        assertThat(NameKey.of("Zoë Ünal FC"), is(equalTo("zoe unal fc")));
+        assertThat(NameKey.of("ZOE UNAL FC"), is(equalTo("zoe unal fc")));
+        assertThat(NameKey.of("Straße"), is(equalTo(NameKey.of("STRASSE"))));
+        assertThat(NameKey.of("ﬁnal"), is(equalTo("final")));
+    }
+
+    // anything else still tells names apart
+    @Test
+    public void other_differences_are_kept() {
+        assertThat(NameKey.of("Team One"), is(not(equalTo(NameKey.of("TeamOne")))));
+        assertThat(NameKey.of("Team 1"), is(not(equalTo(NameKey.of("Team I")))));
+        assertThat(NameKey.of("Les Bleus-Blancs"), is(equalTo("les bleus-blancs")));
+        assertThat(NameKey.of(""), is(equalTo("")));
+    }
+}
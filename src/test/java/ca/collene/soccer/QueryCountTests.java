@@ -0,0 +1,129 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jline.reader.Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.Input;
+import org.springframework.shell.Shell;
+import org.springframework.shell.jline.FileInputProvider;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+// pins down the number of SQL statements each command runs, so that a command that starts loading
+// more of the tournament than it uses, or loading it one row at a time, shows up here
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class QueryCountTests {
+    private static final String TOURNAMENT_NAME = "Tournament";
+
+    @Autowired
+    private Shell shell;
+
+    @Autowired
+    private Parser parser;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    // every team has a coach and players, and plays every other team, with half the games scored
+    private void createTournament(int numberOfTeams) {
+        executeCommandInShell("create-tournament " + TOURNAMENT_NAME);
+        for(int i = 1; i <= numberOfTeams; i++) {
+            executeCommandInShell(String.format("add-coach-to-team 'Coach %d' 'Team %d'", i, i));
+            for(int number = 1; number <= 3; number++) {
+                executeCommandInShell(String.format("add-player-to-team 'Player %d-%d' 'Team %d' %d", i, number, i, number));
+            }
+        }
+        int game = 0;
+        for(int i = 1; i <= numberOfTeams; i++) {
+            for(int j = i + 1; j <= numberOfTeams; j++) {
+                executeCommandInShell(String.format("add-game-to-tournament 'Team %d' 'Team %d' %s", i, j, TOURNAMENT_NAME));
+                if(game++ % 2 == 0) {
+                    executeCommandInShell(String.format("score-game-in-tournament 'Team %d' %d 'Team %d' %d %s", i, game % 3, j, game % 4, TOURNAMENT_NAME));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void commands_run_expected_number_of_statements() {
+        createTournament(4);
+        assertStatementCounts();
+    }
+
+    // the same commands on a larger tournament run the same number of statements
+    @Test
+    public void statement_counts_do_not_grow_with_tournament() {
+        createTournament(10);
+        assertStatementCounts();
+    }
+
+    private void assertStatementCounts() {
+        // load the tournament, teams and games (3), look up and create the team, add it to the tournament
+        assertThat(statementsFor("add-team-to-tournament 'New Team' " + TOURNAMENT_NAME), is(equalTo(6L)));
+        // load the tournament, teams and games (3), insert the game and link it to the tournament; both teams are
+        // known by name and already loaded with the tournament
+        assertThat(statementsFor("add-game-to-tournament 'Team 1' 'New Team' " + TOURNAMENT_NAME), is(equalTo(5L)));
+        // load the game with its teams and update its row, then read both ratings in one query and insert the
+        // new team's rating and update the other's
+        assertThat(statementsFor("score-game-in-tournament 'Team 1' 2 'New Team' 1 " + TOURNAMENT_NAME), is(equalTo(5L)));
+        // changing a score to the same result is the same single row update
+        assertThat(statementsFor("score-game-in-tournament 'Team 1' 3 'New Team' 1 " + TOURNAMENT_NAME), is(equalTo(2L)));
+        // changing the result also reads the two ratings and updates them in one batch
+        assertThat(statementsFor("score-game-in-tournament 'Team 1' 1 'New Team' 1 " + TOURNAMENT_NAME), is(equalTo(4L)));
+        // load the tournament, teams and games (3)
+        assertThat(statementsFor("list-team-games 'Team 1' " + TOURNAMENT_NAME), is(equalTo(3L)));
+        // count the standings in the database; the tournament is known to exist
+        assertThat(statementsFor("report-tournament-results " + TOURNAMENT_NAME), is(equalTo(1L)));
+        // the standings are kept up to date after that
+        assertThat(statementsFor("report-tournament-results " + TOURNAMENT_NAME), is(equalTo(0L)));
+        // load the team and roster (3), look up and create the person, add the coach
+        assertThat(statementsFor("add-coach-to-team 'New Coach' 'Team 1'"), is(equalTo(6L)));
+        // load the team and roster (3), look up and create the person, add the player
+        assertThat(statementsFor("add-player-to-team 'New Player' 'Team 1' 99"), is(equalTo(6L)));
+        // a person known by name is read by id rather than looked up, so load the team and roster (3), read the
+        // person and add the player
+        assertThat(statementsFor("add-player-to-team 'New Coach' 'Team 2' 98"), is(equalTo(5L)));
+    }
+
+    private long statementsFor(String commandString) {
+        statistics.clear();
+        executeCommandInShell(commandString);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Object executeCommandInShell(String commandString) {
+        try(FileInputProvider inputProvider = new FileInputProvider(new StringReader(commandString), parser)) {
+            Input input = inputProvider.readInput();
+            return shell.evaluate(input);
+        } catch(IOException ioe) {
+            return null;
+        }
+    }
+}
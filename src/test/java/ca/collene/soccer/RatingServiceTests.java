@@ -0,0 +1,164 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.ImportService;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RatingServiceTests {
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    @Autowired
+    private ImportService importService;
+
+    @TempDir
+    Path directory;
+
+    // two new teams are level, so the winner gains half of K and the loser loses it
+    @Test
+    public void scoring_a_game_moves_both_ratings() throws Exception {
+        tournamentService.createTournament("Tournament");
+        tournamentService.addGameToTournament("Team One", "Team Two", "Tournament");
+        tournamentService.scoreGameInTournament("Team One", 2, "Team Two", 1, "Tournament");
+
+        List<Rating> ratings = ratingService.getRatings(0);
+        assertThat(ratings, is(equalTo(List.of(new Rating("Team One", Rating.INITIAL_RATING + Rating.K / 2, 1), new Rating("Team Two", Rating.INITIAL_RATING - Rating.K / 2, 1)))));
+        assertThat(ratingService.getRatings(1).size(), is(equalTo(1)));
+    }
+
+    // the second tournament starts from the ratings the first left, and a corrected score takes back the first result
+    @Test
+    public void ratings_carry_across_tournaments_and_corrected_scores() throws Exception {
+        tournamentService.createTournament("First");
+        tournamentService.addGameToTournament("Team One", "Team Two", "First");
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Two", 0, "First");
+        Tournament second = tournamentService.createTournament("Second");
+        tournamentService.addGameToTournament("Team One", "Team Two", second);
+        tournamentService.scoreGameInTournament("Team Two", 1, "Team One", 1, second);
+
+        double afterFirst = Rating.INITIAL_RATING + Rating.K / 2;
+        double afterSecond = afterFirst + Rating.change(afterFirst, 2 * Rating.INITIAL_RATING - afterFirst, TallyType.TIE);
+        assertThat(ratingService.getRatings(0).get(0).getRating(), is(closeTo(afterSecond, 1e-9)));
+        assertThat(ratingService.getRatings(0).get(0).getGames(), is(equalTo(2L)));
+
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Two", 1, "First");
+        Rating teamOne = ratingService.getRatings(0).stream().filter(rating -> rating.getTeamName().equals("Team One")).findFirst().get();
+        assertThat(teamOne.getGames(), is(equalTo(2L)));
+        // two ties between level teams leave them about level
+        assertThat(teamOne.getRating(), is(closeTo(Rating.INITIAL_RATING, 1)));
+    }
+
+    // the replay reads the games in the order they were added, whichever way they were scored
+    @Test
+    public void replay_rebuilds_the_ratings_from_the_games() throws Exception {
+        tournamentService.createTournament("Tournament");
+        tournamentService.addGameToTournament("Team One", "Team Two", "Tournament");
+        tournamentService.addGameToTournament("Team Two", "Team Three", "Tournament");
+        tournamentService.addGameToTournament("Team Three", "Team One", "Tournament");
+        tournamentService.scoreGameInTournament("Team One", 3, "Team Two", 0, "Tournament");
+        tournamentService.scoreGameInTournament("Team Two", 2, "Team Three", 2, "Tournament");
+        Path file = directory.resolve("import.csv");
+        Files.write(file, List.of("score,Tournament,Team One,0,Team Three,1"));
+        importService.importFile(file, ImportService.DEFAULT_CHUNK_SIZE);
+        List<Rating> scored = ratingService.getRatings(0);
+
+        assertThat(ratingService.replayRatings(), is(equalTo(3L)));
+
+        List<Rating> replayed = ratingService.getRatings(0);
+        assertThat(replayed.size(), is(equalTo(3)));
+        for(int i = 0; i < scored.size(); i++) {
+            assertThat(replayed.get(i).getTeamName(), is(equalTo(scored.get(i).getTeamName())));
+            assertThat(replayed.get(i).getRating(), is(closeTo(scored.get(i).getRating(), 1e-9)));
+            assertThat(replayed.get(i).getGames(), is(equalTo(2L)));
+        }
+        // the rows were replaced, so scoring goes on from the replayed ratings
+        tournamentService.scoreGameInTournament("Team Two", 0, "Team Three", 1, "Tournament");
+        assertThat(ratingService.getRatings(1).get(0).getTeamName(), is(equalTo("Team Three")));
+    }
+
+    // games scored out of the order they were added are replayed in that order, which gives different ratings
+    @Test
+    public void replay_takes_games_scored_out_of_order_in_the_order_they_were_added() throws Exception {
+        tournamentService.createTournament("Tournament");
+        tournamentService.addGameToTournament("Team One", "Team Two", "Tournament");
+        tournamentService.addGameToTournament("Team Two", "Team Three", "Tournament");
+        tournamentService.scoreGameInTournament("Team Two", 1, "Team Three", 0, "Tournament");
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Two", 0, "Tournament");
+        double scoredTeamOne = rating("Team One");
+
+        ratingService.replayRatings();
+
+        double teamTwoAfterFirst = Rating.INITIAL_RATING - Rating.K / 2;
+        double change = Rating.change(teamTwoAfterFirst, Rating.INITIAL_RATING, TallyType.WIN);
+        assertThat(rating("Team One"), is(closeTo(Rating.INITIAL_RATING + Rating.K / 2, 1e-9)));
+        assertThat(rating("Team Two"), is(closeTo(teamTwoAfterFirst + change, 1e-9)));
+        assertThat(rating("Team Three"), is(closeTo(Rating.INITIAL_RATING - change, 1e-9)));
+        // scored first, Team Two's win made Team One's win over it worth more
+        assertThat(scoredTeamOne, is(not(closeTo(rating("Team One"), 1e-3))));
+    }
+
+    // the teams' ratings come from another tournament, where the first and last in the standings of this one swapped places
+    @Test
+    public void knockout_is_seeded_by_rating() throws Exception {
+        tournamentService.createTournament("Earlier");
+        for(String team : List.of("Team B", "Team C")) {
+            tournamentService.addGameToTournament("Team D", team, "Earlier");
+            tournamentService.scoreGameInTournament("Team D", 1, team, 0, "Earlier");
+            tournamentService.addGameToTournament(team, "Team A", "Earlier");
+            tournamentService.scoreGameInTournament(team, 1, "Team A", 0, "Earlier");
+        }
+        tournamentService.createTournament("Knockout");
+        for(String team : List.of("Team A", "Team B", "Team C", "Team D")) {
+            tournamentService.addTeamToTournament(team, "Knockout");
+        }
+
+        fixtureService.generateKnockout("Knockout", "Knockout", 0, true);
+
+        Tournament knockout = tournamentService.getTournament("Knockout");
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team D"), teamService.getTeam("Team A")));
+        assertTrue(knockout.hasGameWithTeams(teamService.getTeam("Team B"), teamService.getTeam("Team C")));
+    }
+
+    private double rating(String teamName) {
+        return ratingService.getRatings(0).stream().filter(rating -> rating.getTeamName().equals(teamName)).findFirst().get().getRating();
+    }
+}
@@ -0,0 +1,181 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.entities.Person;
+import ca.collene.soccer.entities.Player;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.ReplayService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ReplayServiceTests {
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @TempDir
+    Path directory;
+
+    // the journal's events are made again in order: most of them in chunks, and the fixtures, points, knockout scores and ratings replays between them
+    @Test
+    public void replaying_a_journal_makes_the_same_changes() throws Exception {
+        List<JournalEvent> events = new ArrayList<>(List.of(
+                        JournalEvent.createTournament("Group"),
+                        JournalEvent.createTournament("Cup"),
+                        JournalEvent.setPointsScheme("Group", 3, 1, 0)));
+        for(String team : List.of("Team A", "Team B", "Team C", "Team D")) {
+            events.add(JournalEvent.createTeam(team));
+            events.add(JournalEvent.addTeam("Group", team));
+        }
+        events.addAll(List.of(
+                        JournalEvent.generateRoundRobin("Group", false),
+                        JournalEvent.scoreGame("Group", "Team A", 2, "Team B", 0),
+                        JournalEvent.scoreGame("Group", "Team C", 1, "Team D", 1),
+                        JournalEvent.scoreGame("Group", "Team C", 0, "Team A", 1),
+                        JournalEvent.replayRatings(),
+                        JournalEvent.generateKnockout("Cup", "Group", 2, false),
+                        JournalEvent.scoreGame("Cup", "Team C", 2, "Team A", 1),
+                        JournalEvent.createPerson("Person One"),
+                        JournalEvent.addPlayer("Team C", "Person One", 9),
+                        JournalEvent.createPerson("Person Two"),
+                        JournalEvent.addCoach("Team C", "Person Two")));
+
+        assertThat(replay(events, 2), is(equalTo((long) events.size())));
+
+        List<Tally> group = tournamentService.getStandings("Group").getTally();
+        assertThat(group.stream().map(Tally::getTeamName).collect(Collectors.toList()), is(equalTo(List.of("Team A", "Team C", "Team D", "Team B"))));
+        assertThat(group.get(0).getTotal(), is(equalTo(6L)));
+        assertThat(tournamentService.getTournament("Group").getGames(), hasSize(6));
+        Tournament cup = tournamentService.getTournament("Cup");
+        assertThat(cup.getGames(), hasSize(1));
+        assertThat(cup.getGames().get(0).getTallyTypeForTeam(teamService.getTeam("Team C")), is(equalTo(TallyType.WIN)));
+        Team teamC = teamService.getTeam("Team C");
+        assertThat(teamC.getPlayers().get(0).getPerson().getName(), is(equalTo("Person One")));
+        assertThat(teamC.getCoaches().stream().map(Person::getName).collect(Collectors.toList()), containsInAnyOrder("Person Two"));
+    }
+
+    // games added and scored before the replay, in earlier chunks and again in the same chunk rate the teams as the commands do
+    @Test
+    public void replayed_scores_rate_teams_as_the_commands_do() throws Exception {
+        for(String prefix : List.of("Live", "Replayed")) {
+            tournamentService.createTournament(prefix);
+            tournamentService.addGameToTournament(prefix + " A", prefix + " B", prefix);
+            tournamentService.scoreGameInTournament(prefix + " A", 2, prefix + " B", 0, prefix);
+        }
+        List<String[]> games = List.of(new String[] {"B", "C"}, new String[] {"A", "C"});
+        List<Object[]> scores = List.of(new Object[] {"B", 1, "C", 1}, new Object[] {"A", 0, "B", 1}, new Object[] {"C", 1, "A", 3},
+                        new Object[] {"C", 2, "B", 0}, new Object[] {"A", 1, "C", 1});
+        for(String[] game : games) {
+            tournamentService.addGameToTournament("Live " + game[0], "Live " + game[1], "Live");
+        }
+        for(Object[] score : scores) {
+            tournamentService.scoreGameInTournament("Live " + score[0], (Integer) score[1], "Live " + score[2], (Integer) score[3], "Live");
+        }
+        List<JournalEvent> events = new ArrayList<>();
+        for(String[] game : games) {
+            events.add(JournalEvent.addGame("Replayed", "Replayed " + game[0], "Replayed " + game[1]));
+        }
+        for(Object[] score : scores) {
+            events.add(JournalEvent.scoreGame("Replayed", "Replayed " + score[0], (Integer) score[1], "Replayed " + score[2], (Integer) score[3]));
+        }
+
+        replay(events, 3);
+
+        Map<String, Rating> ratings = ratingService.getRatings(0).stream().collect(Collectors.toMap(Rating::getTeamName, Function.identity()));
+        for(String team : List.of("A", "B", "C")) {
+            assertThat(ratings.get("Replayed " + team).getRating(), is(closeTo(ratings.get("Live " + team).getRating(), 1e-9)));
+            assertThat(ratings.get("Replayed " + team).getGames(), is(equalTo(ratings.get("Live " + team).getGames())));
+        }
+        assertThat(totals("Replayed"), is(equalTo(totals("Live"))));
+    }
+
+    // events that break the rules are rejected, checked against the rosters and games already in the database, and the rest are replayed
+    @Test
+    public void replay_rejects_events_that_break_rules() throws Exception {
+        tournamentService.createTournament("Cup");
+        tournamentService.addGameToTournament("Team A", "Team B", "Cup");
+        teamService.addPlayerToTeam("Person One", "Team A", 9);
+        teamService.addCoachToTeam("Person Two", "Team A");
+        List<JournalEvent> events = List.of(
+                        JournalEvent.addPlayer("Team A", "Person Three", 9),
+                        JournalEvent.addPlayer("TEAM A", "person one", 10),
+                        JournalEvent.addPlayer("Team A", "Person Three", 10),
+                        JournalEvent.addCoach("Team A", "Person Two"),
+                        JournalEvent.addCoach("Team A", "Person Four"),
+                        JournalEvent.addGame("Cup", "Team B", "Team A"),
+                        JournalEvent.addGame("Cup", "Team C", "team c"),
+                        JournalEvent.addTeam("Cup", "Team A"),
+                        JournalEvent.addTeam("League", "Team A"),
+                        JournalEvent.scoreGame("League", "Team A", 1, "Team B", 0),
+                        JournalEvent.scoreGame("Cup", "Team A", 1, "Team D", 0),
+                        JournalEvent.scoreGame("Cup", "Team A", -1, "Team B", 0),
+                        JournalEvent.scoreGame("Cup", "Team B", 3, "Team A", 1));
+
+        assertThat(replay(events, 4), is(equalTo((long) events.size())));
+
+        Team team = teamService.getTeam("Team A");
+        assertThat(team.getPlayers().stream().map(Player::getNumber).collect(Collectors.toList()), containsInAnyOrder(9, 10));
+        assertThat(team.getCoaches().stream().map(Person::getName).collect(Collectors.toList()), is(equalTo(List.of("Person Two", "Person Four"))));
+        Tournament cup = tournamentService.getTournament("Cup");
+        assertThat(cup.getTeams().stream().map(Team::getName).collect(Collectors.toList()), is(equalTo(List.of("Team A", "Team B"))));
+        assertThat(cup.getGames(), hasSize(1));
+        assertThat(cup.getGames().get(0).getTallyTypeForTeam(team), is(equalTo(TallyType.LOSS)));
+    }
+
+    private long replay(List<JournalEvent> events, int chunkSize) throws Exception {
+        try(EventJournal journal = EventJournal.open(directory.resolve("soccer.journal"))) {
+            for(JournalEvent event : events) {
+                journal.append(event);
+            }
+            return replayService.replayJournal(journal, EventJournal.START, chunkSize);
+        }
+    }
+
+    // each team's total, by its name without the tournament's prefix
+    private Map<String, Long> totals(String tournamentName) throws Exception {
+        return tournamentService.getStandings(tournamentName).getTally().stream()
+                        .collect(Collectors.toMap(tally -> tally.getTeamName().substring(tournamentName.length() + 1), Tally::getTotal));
+    }
+}
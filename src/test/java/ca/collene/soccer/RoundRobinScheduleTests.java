@@ -0,0 +1,69 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.RoundRobinSchedule;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class RoundRobinScheduleTests {
+    // every two teams play once, no team plays twice in a round, and no team has more than one home game more than away games
+    @Test
+    public void single_round_robin_plays_every_pair_once_in_balanced_rounds() {
+        for(int teams = 2; teams <= 41; teams++) {
+            RoundRobinSchedule schedule = new RoundRobinSchedule(teams, false);
+            int[] home = new int[teams];
+            int[] away = new int[teams];
+            Set<Long> pairs = new HashSet<>();
+            Set<Long> roundsPlayed = new HashSet<>();
+            long[] games = {0};
+            schedule.forEachGame((round, homeTeam, awayTeam) -> {
+                games[0]++;
+                home[homeTeam]++;
+                away[awayTeam]++;
+                assertTrue(pairs.add((long) Math.min(homeTeam, awayTeam) << 32 | Math.max(homeTeam, awayTeam)));
+                assertTrue(roundsPlayed.add((long) round << 32 | homeTeam));
+                assertTrue(roundsPlayed.add((long) round << 32 | awayTeam));
+                assertTrue(round >= 1 && round <= schedule.getRounds());
+            });
+            assertThat(games[0], is(equalTo(schedule.getGames())));
+            assertThat(games[0], is(equalTo((long) teams * (teams - 1) / 2)));
+            assertThat(schedule.getRounds(), is(equalTo(teams % 2 == 0 ? teams - 1 : teams)));
+            for(int team = 0; team < teams; team++) {
+                assertThat(Math.abs(home[team] - away[team]), is(lessThanOrEqualTo(1)));
+            }
+        }
+    }
+
+    // a double round robin plays every pair once at each team's home
+    @Test
+    public void double_round_robin_plays_every_pair_home_and_away() {
+        final int teams = 7;
+        RoundRobinSchedule schedule = new RoundRobinSchedule(teams, true);
+        Set<Long> fixtures = new HashSet<>();
+        int[] home = new int[teams];
+        schedule.forEachGame((round, homeTeam, awayTeam) -> {
+            home[homeTeam]++;
+            assertTrue(fixtures.add((long) homeTeam << 32 | awayTeam));
+        });
+        assertThat(fixtures.size(), is(equalTo(teams * (teams - 1))));
+        assertThat(schedule.getRounds(), is(equalTo(14)));
+        for(int team = 0; team < teams; team++) {
+            assertThat(home[team], is(equalTo(teams - 1)));
+        }
+    }
+}
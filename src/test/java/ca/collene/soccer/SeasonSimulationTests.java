@@ -0,0 +1,101 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.entities.PointsScheme;
+import ca.collene.soccer.models.SeasonSimulation;
+import ca.collene.soccer.models.Tally;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class SeasonSimulationTests {
+    // four level teams with every game still to play
+    private static final List<Tally> STANDINGS = List.of(new Tally("A", 0, 0, 0, 3), new Tally("B", 0, 0, 0, 3), new Tally("C", 0, 0, 0, 3), new Tally("D", 0, 0, 0, 3));
+    private static final int[] HOME_TEAMS = {0, 2, 0, 1, 0, 1};
+    private static final int[] AWAY_TEAMS = {1, 3, 2, 3, 3, 2};
+
+    // the tasks have their own random numbers, so how many threads run them doesn't change the result
+    @Test
+    public void same_seed_gives_same_result_with_any_parallelism() {
+        SeasonSimulation simulation = new SeasonSimulation(STANDINGS, PointsScheme.DEFAULT, HOME_TEAMS, AWAY_TEAMS);
+        SeasonSimulation.Result single = simulation.run(new ForkJoinPool(1), 5500, 42);
+        SeasonSimulation.Result parallel = simulation.run(new ForkJoinPool(4), 5500, 42);
+        SeasonSimulation.Result otherSeed = simulation.run(new ForkJoinPool(4), 5500, 43);
+
+        boolean different = false;
+        for(int team = 0; team < 4; team++) {
+            for(int place = 0; place < 4; place++) {
+                assertThat(parallel.getCount(team, place), is(equalTo(single.getCount(team, place))));
+                different |= otherSeed.getCount(team, place) != single.getCount(team, place);
+            }
+        }
+        assertThat(different, is(true));
+    }
+
+    // every simulation puts each team in one place and fills each place once
+    @Test
+    public void probabilities_add_up_to_one() {
+        SeasonSimulation.Result result = new SeasonSimulation(STANDINGS, PointsScheme.DEFAULT, HOME_TEAMS, AWAY_TEAMS).run(ForkJoinPool.commonPool(), 2345, 7);
+
+        for(int i = 0; i < 4; i++) {
+            double team = 0;
+            double place = 0;
+            for(int j = 0; j < 4; j++) {
+                team += result.getProbability(i, j);
+                place += result.getProbability(j, i);
+            }
+            assertThat(team, is(closeTo(1, 1e-9)));
+            assertThat(place, is(closeTo(1, 1e-9)));
+            assertThat(result.getTopProbability(i, 4), is(closeTo(1, 1e-9)));
+        }
+    }
+
+    // with nothing left to play the teams finish as the standings are ordered, ties broken by wins then name
+    @Test
+    public void no_games_left_finishes_in_standings_order() {
+        List<Tally> standings = List.of(new Tally("Zulu", 2, 0, 0, 0), new Tally("Bravo", 1, 1, 0, 0), new Tally("Alpha", 1, 1, 0, 0), new Tally("Yankee", 0, 2, 0, 0));
+        SeasonSimulation.Result result = new SeasonSimulation(standings, PointsScheme.DEFAULT, new int[0], new int[0]).run(ForkJoinPool.commonPool(), 1000, 1);
+
+        assertThat(result.getProbability(0, 0), is(equalTo(1.0)));
+        assertThat(result.getProbability(2, 1), is(equalTo(1.0)));
+        assertThat(result.getProbability(1, 2), is(equalTo(1.0)));
+        assertThat(result.getProbability(3, 3), is(equalTo(1.0)));
+    }
+
+    // a team too far ahead to be caught always finishes first, whatever the other games do
+    @Test
+    public void team_that_cannot_be_caught_always_finishes_first() {
+        List<Tally> standings = List.of(new Tally("Leader", 10, 0, 0, 0), new Tally("Second", 0, 0, 0, 2), new Tally("Third", 0, 0, 0, 2));
+        SeasonSimulation.Result result = new SeasonSimulation(standings, PointsScheme.DEFAULT, new int[] {1, 2}, new int[] {2, 1}).run(ForkJoinPool.commonPool(), 3000, 3);
+
+        assertThat(result.getProbability(0, 0), is(equalTo(1.0)));
+        assertThat(result.getProbability(1, 1) + result.getProbability(2, 1), is(closeTo(1, 1e-9)));
+        assertThat(result.getSimulations(), is(equalTo(3000)));
+    }
+
+    // when the home team always wins the rated games, the results are the same every time
+    @Test
+    public void certain_chances_give_certain_places() {
+        double[] homeWins = {1, 1, 1, 1, 1, 1};
+        double[] ties = {0, 0, 0, 0, 0, 0};
+        SeasonSimulation.Result result = new SeasonSimulation(STANDINGS, PointsScheme.DEFAULT, HOME_TEAMS, AWAY_TEAMS, homeWins, ties).run(ForkJoinPool.commonPool(), 2000, 5);
+
+        // A wins all three, B two, C one and D none
+        for(int team = 0; team < 4; team++) {
+            assertThat(result.getProbability(team, team), is(equalTo(1.0)));
+        }
+    }
+}
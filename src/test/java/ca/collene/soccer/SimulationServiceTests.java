@@ -0,0 +1,72 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import ca.collene.soccer.models.SeasonSimulation;
+import ca.collene.soccer.services.FixtureService;
+import ca.collene.soccer.services.InvalidGameException;
+import ca.collene.soccer.services.SimulationService;
+import ca.collene.soccer.services.TournamentDoesNotExistException;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SimulationServiceTests {
+    private static final String TOURNAMENT_NAME = "Tournament";
+
+    @Autowired
+    private SimulationService simulationService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private FixtureService fixtureService;
+
+    // team one has won both its games, and only the game between the other two is left
+    @Test
+    public void simulate_plays_out_only_the_unscored_games() throws Exception {
+        tournamentService.createTournament(TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team One", "Team Two", TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team One", "Team Three", TOURNAMENT_NAME);
+        tournamentService.addGameToTournament("Team Two", "Team Three", TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team One", 2, "Team Two", 0, TOURNAMENT_NAME);
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Three", 0, TOURNAMENT_NAME);
+
+        SeasonSimulation.Result result = simulationService.simulate(TOURNAMENT_NAME, 3000, 5, false);
+
+        assertThat(result.getTeams(), is(equalTo(List.of("Team One", "Team Three", "Team Two"))));
+        assertThat(result.getProbability(0, 0), is(equalTo(1.0)));
+        // one of the other two finishes second
+        assertThat(result.getTopProbability(1, 2) + result.getTopProbability(2, 2), is(closeTo(1, 1e-9)));
+        assertThat(simulationService.simulate(TOURNAMENT_NAME, 3000, 5, false).getCount(1, 1), is(equalTo(result.getCount(1, 1))));
+    }
+
+    @Test
+    public void simulate_tournament_that_does_not_exist_or_has_a_knockout_fails() throws Exception {
+        assertThrows(TournamentDoesNotExistException.class, () -> simulationService.simulate(TOURNAMENT_NAME, 100, 0, false));
+
+        tournamentService.createTournament(TOURNAMENT_NAME);
+        tournamentService.addTeamToTournament("Team One", TOURNAMENT_NAME);
+        tournamentService.addTeamToTournament("Team Two", TOURNAMENT_NAME);
+        fixtureService.generateKnockout(TOURNAMENT_NAME, TOURNAMENT_NAME, 0, false);
+        assertThrows(InvalidGameException.class, () -> simulationService.simulate(TOURNAMENT_NAME, 100, 0, false));
+    }
+}
@@ -0,0 +1,81 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.Snapshot;
+import ca.collene.soccer.repositories.SnapshotFile;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class SnapshotFileTests {
+    private static final Snapshot SNAPSHOT = new Snapshot(1234, List.of(
+                    new Snapshot.Table("team", 3, List.of(
+                        Snapshot.Column.ints("id", new int[] {1, 2, 40}),
+                        Snapshot.Column.texts("name", new String[] {"Team One", "Zoë Ünal FC", ""}))),
+                    new Snapshot.Table("game", 2, List.of(
+                        Snapshot.Column.ints("id", new int[] {1, 2}),
+                        Snapshot.Column.ints("score1", new int[] {3, Snapshot.NULL}))),
+                    new Snapshot.Table("team_rating", 1, List.of(
+                        Snapshot.Column.ints("team_id", new int[] {40}),
+                        Snapshot.Column.doubles("rating", new double[] {1512.25}),
+                        Snapshot.Column.longs("games", new long[] {1L << 40}))),
+                    new Snapshot.Table("bracket_slot", 0, List.of(
+                        Snapshot.Column.ints("slot", new int[0])))));
+
+    @TempDir
+    Path directory;
+
+    // every type of column comes back as it was written, and the files of a journal are listed latest first
+    @Test
+    public void snapshot_is_read_back_as_it_was_written() throws Exception {
+        Path journal = directory.resolve("soccer.journal");
+        Path file = SnapshotFile.write(journal, SNAPSHOT);
+        Path earlier = SnapshotFile.write(journal, new Snapshot(8, List.of()));
+        Files.write(directory.resolve("other.journal.0000000000009999.snapshot"), new byte[] {1});
+
+        assertThat(file, is(equalTo(SnapshotFile.of(journal, 1234))));
+        assertThat(SnapshotFile.read(file), is(equalTo(SNAPSHOT)));
+        assertThat(SnapshotFile.read(earlier).getTables().size(), is(equalTo(0)));
+        assertThat(SnapshotFile.list(journal), is(equalTo(List.of(file, earlier))));
+    }
+
+    // a snapshot with a byte changed, or cut short, doesn't match its checksum
+    @Test
+    public void damaged_snapshot_is_not_read() throws Exception {
+        Path journal = directory.resolve("soccer.journal");
+        Path file = SnapshotFile.write(journal, SNAPSHOT);
+        long size = Files.size(file);
+        try(RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(size / 2);
+            int value = raw.read();
+            raw.seek(size / 2);
+            raw.write(value ^ 1);
+        }
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+
+        Path other = SnapshotFile.write(journal, new Snapshot(4321, SNAPSHOT.getTables()));
+        try(RandomAccessFile raw = new RandomAccessFile(other.toFile(), "rw")) {
+            raw.setLength(size - 6);
+        }
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(other));
+    }
+}
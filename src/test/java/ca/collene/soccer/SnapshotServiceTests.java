@@ -0,0 +1,152 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ca.collene.soccer.models.JournalEvent;
+import ca.collene.soccer.models.Rating;
+import ca.collene.soccer.models.Snapshot;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.repositories.EventJournal;
+import ca.collene.soccer.repositories.SnapshotFile;
+import ca.collene.soccer.services.CoachAlreadyOnTeamException;
+import ca.collene.soccer.services.JournalService;
+import ca.collene.soccer.services.PersonService;
+import ca.collene.soccer.services.PlayerAlreadyOnTeamException;
+import ca.collene.soccer.services.RatingService;
+import ca.collene.soccer.services.SnapshotService;
+import ca.collene.soccer.services.TeamService;
+import ca.collene.soccer.services.TournamentDoesNotExistException;
+import ca.collene.soccer.services.TournamentService;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false",
+    "spring.datasource.url=jdbc:h2:mem:snapshot",
+    // snapshots are only written when the tests ask for them
+    "soccer.snapshot.interval=0"
+})
+// each context loads its own snapshot, so it gets its own database and isn't left open for the tests after it
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class SnapshotServiceTests {
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    // each context starts from a new journal with a snapshot part way through it
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("snapshot-service-tests");
+        Path file = directory.resolve("soccer.journal");
+        directory.toFile().deleteOnExit();
+        file.toFile().deleteOnExit();
+        try(EventJournal journal = EventJournal.open(file)) {
+            // only in the journal, so it is only there if the events the snapshot covers are replayed
+            long covered = journal.append(JournalEvent.createTournament("Covered"));
+            SnapshotFile.write(file, earlierRun(covered)).toFile().deleteOnExit();
+            journal.append(JournalEvent.createTeam("Team Three"));
+            journal.append(JournalEvent.addGame("Earlier", "Team One", "Team Three"));
+            journal.append(JournalEvent.scoreGame("Earlier", "Team Three", 1, "Team One", 1));
+        }
+        registry.add("soccer.journal.path", file::toString);
+    }
+
+    // a tournament with a 3/1/0 points scheme and one scored game, a coach and a player, and the two teams' ratings
+    private static Snapshot earlierRun(long journalPosition) {
+        return new Snapshot(journalPosition, List.of(
+                        table("person", 1, ints("id", 1), texts("name", "Person One")),
+                        table("team", 2, ints("id", 1, 2), texts("name", "Team One", "Team Two")),
+                        table("team_coach", 1, ints("team_id", 1), ints("person_id", 1), ints("coach_order", 0)),
+                        table("player", 1, ints("id", 1), ints("team_id", 2), ints("person_id", 1), ints("number", 7)),
+                        table("tournament", 1, ints("id", 1), texts("name", "Earlier"), ints("points_for_win", 3), ints("points_for_tie", 1), ints("points_for_loss", 0), ints("bracket_size", Snapshot.NULL)),
+                        table("tournament_team", 2, ints("tournament_id", 1, 1), ints("team_id", 1, 2), ints("team_order", 0, 1)),
+                        table("game", 1, ints("id", 1), ints("tournament_id", 1), ints("team1_id", 1), ints("team2_id", 2), ints("round", Snapshot.NULL), ints("slot", Snapshot.NULL), ints("score1", 2), ints("score2", 0)),
+                        table("bracket_slot", 0, ints("tournament_id"), ints("slot"), ints("team_id")),
+                        table("team_rating", 2, ints("team_id", 1, 2), Snapshot.Column.doubles("rating", new double[] {1510, 1490}), Snapshot.Column.longs("games", new long[] {1, 1}))));
+    }
+
+    private static Snapshot.Table table(String name, int rows, Snapshot.Column... columns) {
+        return new Snapshot.Table(name, rows, List.of(columns));
+    }
+
+    private static Snapshot.Column ints(String name, int... values) {
+        return Snapshot.Column.ints(name, values);
+    }
+
+    private static Snapshot.Column texts(String name, String... values) {
+        return Snapshot.Column.texts(name, values);
+    }
+
+    // startup loads the snapshot and replays the journal after it, and new rows get ids past the ones it loaded
+    @Test
+    public void snapshot_is_loaded_and_only_later_events_are_replayed() throws Exception {
+        assertThrows(TournamentDoesNotExistException.class, () -> tournamentService.getStandings("Covered"));
+        List<Tally> standings = tournamentService.getStandings("Earlier").getTally();
+        assertThat(standings.stream().map(Tally::getTeamName).collect(Collectors.toList()), is(equalTo(List.of("Team One", "Team Three", "Team Two"))));
+        assertThat(standings.get(0).getTotal(), is(equalTo(4L)));
+        assertThat(ratingService.getRatings(0).get(2), is(equalTo(new Rating("Team Two", 1490, 1))));
+        assertThrows(CoachAlreadyOnTeamException.class, () -> teamService.addCoachToTeam("Person One", "Team One"));
+        assertThrows(PlayerAlreadyOnTeamException.class, () -> teamService.addPlayerToTeam("Person One", "Team Two", 7));
+
+        personService.createPerson("Person Two");
+        teamService.addPlayerToTeam("Person Two", "Team One", 8);
+        tournamentService.createTournament("Later");
+        tournamentService.addGameToTournament("Team Two", "Team Three", "Earlier");
+        assertThat(tournamentService.getStandings("Earlier").getTally().get(2).getUnscored(), is(equalTo(1L)));
+    }
+
+    // a snapshot holds everything committed up to the journal's position, and only the two latest are kept
+    @Test
+    public void snapshots_hold_what_was_committed() throws Exception {
+        Path journalFile = journalService.getJournal().getFile();
+        Path first = snapshotService.write();
+
+        Snapshot snapshot = SnapshotFile.read(first);
+        assertThat(snapshot.getJournalPosition(), is(equalTo(journalService.getJournal().getPosition())));
+        assertThat(snapshot, is(equalTo(snapshotService.take())));
+        assertThat(snapshot.getTable("game").getRows(), is(equalTo(2)));
+
+        tournamentService.scoreGameInTournament("Team Two", 3, "Team One", 0, "Earlier");
+        Path second = snapshotService.write();
+        tournamentService.addGameToTournament("Team Two", "Team Three", "Earlier");
+        Path third = snapshotService.write();
+
+        assertThat(SnapshotFile.list(journalFile), is(equalTo(List.of(third, second))));
+        Snapshot latest = SnapshotFile.read(third);
+        assertThat(latest.getTable("game").getRows(), is(equalTo(3)));
+        assertThat(latest.getTable("game").getColumn("score1").getInts()[0], is(equalTo(0)));
+        assertThat(latest.getTable("game").getColumn("score2").getInts()[0], is(equalTo(3)));
+    }
+}
@@ -12,14 +12,19 @@ import org.springframework.shell.Shell;
 import org.springframework.shell.jline.InteractiveShellApplicationRunner;
 import org.springframework.shell.jline.ScriptShellApplicationRunner;
 import org.springframework.shell.result.DefaultResultHandler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
 
 import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.repositories.TournamentFetchPlan;
 import ca.collene.soccer.repositories.TournamentRepository;
 
 @SpringBootTest(properties = {
     InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
     ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
 })
+// counts tournaments, so it can't share a context left with data by the tests before it
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
 class SoccerApplicationTests {
 
 	@Autowired
@@ -52,7 +57,7 @@ class SoccerApplicationTests {
 		assertThat(newTournament.getId(), is(notNullValue()));
 
 		assertThat(tournamentRepository.count(), is(1L));
-		Tournament tournament = tournamentRepository.findByName(testTournamentName);
+		Tournament tournament = tournamentRepository.findByName(testTournamentName, TournamentFetchPlan.REPORTING);
 		assertThat(tournament, is(equalTo(newTournament)));
 	}
 }
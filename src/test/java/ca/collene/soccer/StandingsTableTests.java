@@ -0,0 +1,146 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.Team;
+import ca.collene.soccer.models.StandingsTable;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tiebreaker;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class StandingsTableTests {
+    @Test
+    public void games_are_counted_for_teams_in_table() throws Exception {
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team not in table";
+        Team team1 = Team.builder().name(team1Name).build();
+        Team team2 = Team.builder().name(team2Name).build();
+        Team team3 = Team.builder().name(team3Name).build();
+        StandingsTable table = new StandingsTable(Arrays.asList(team1, team2));
+
+        Game game1 = Game.builder().teams(Arrays.asList(team1, team2)).build();
+        game1.setScore(team1, 2, team2, 2);
+        Game game2 = Game.builder().teams(Arrays.asList(team3, team1)).build();
+        game2.setScore(team3, 0, team1, 1);
+        Game game3 = Game.builder().teams(Arrays.asList(team2, team3)).build();
+        table.addGame(game1);
+        table.addGame(game2);
+        table.addGame(game3);
+
+        assertThat(table.size(), is(equalTo(2)));
+        assertThat(table.getTally(0), is(equalTo(Tally.builder().teamName(team1Name).wins(1L).ties(1L).build())));
+        assertThat(table.getTally(1), is(equalTo(Tally.builder().teamName(team2Name).ties(1L).unscored(1L).build())));
+    }
+
+    @Test
+    public void tally_is_sorted_by_total_then_wins_then_name() throws Exception {
+        Team team1 = Team.builder().name("Team One").build();
+        Team team2 = Team.builder().name("Team Two").build();
+        Team team3 = Team.builder().name("Team Three").build();
+        Team team4 = Team.builder().name("Team Four").build();
+        Team team5 = Team.builder().name("Team Five").build();
+        StandingsTable table = new StandingsTable(Arrays.asList(team1, team2, team3, team4, team5));
+
+        Game game1 = Game.builder().teams(Arrays.asList(team1, team3)).build();
+        game1.setScore(team1, 0, team3, 1);
+        Game game2 = Game.builder().teams(Arrays.asList(team1, team5)).build();
+        game2.setScore(team1, 1, team5, 1);
+        Game game3 = Game.builder().teams(Arrays.asList(team2, team4)).build();
+        game3.setScore(team2, 2, team4, 2);
+        table.addGame(game1);
+        table.addGame(game2);
+        table.addGame(game3);
+
+        List<Tally> tallies = table.getTally();
+        assertThat(tallies, hasSize(5));
+        // team one and team three both have 3 points, and team three has a win
+        assertThat(tallies.get(0).getTeamName(), is(equalTo(team3.getName())));
+        assertThat(tallies.get(1).getTeamName(), is(equalTo(team1.getName())));
+        // teams two, four and five each have 2 points from a tie, so they are ordered by name
+        assertThat(tallies.get(2).getTeamName(), is(equalTo(team5.getName())));
+        assertThat(tallies.get(3).getTeamName(), is(equalTo(team4.getName())));
+        assertThat(tallies.get(4).getTeamName(), is(equalTo(team2.getName())));
+    }
+
+    // three teams level on points are ordered differently by head-to-head points and by goal difference
+    @Test
+    public void three_way_tie_is_broken_by_tiebreaker_chain() throws Exception {
+        Team teamA = Team.builder().name("Team A").build();
+        Team teamB = Team.builder().name("Team B").build();
+        Team teamC = Team.builder().name("Team C").build();
+        Team teamD = Team.builder().name("Team D").build();
+        Team teamE = Team.builder().name("Team E").build();
+        StandingsTable table = new StandingsTable(Arrays.asList(teamA, teamB, teamC, teamD, teamE));
+        addScoredGame(table, teamA, 2, teamB, 0);
+        addScoredGame(table, teamA, 0, teamC, 0);
+        addScoredGame(table, teamB, 1, teamC, 1);
+        addScoredGame(table, teamD, 1, teamA, 0);
+        addScoredGame(table, teamB, 5, teamD, 0);
+        addScoredGame(table, teamC, 2, teamD, 2);
+        addScoredGame(table, teamD, 1, teamE, 0);
+
+        // teams A, B and C all have 6 points; A has 5 points against the other two, C has 4 and B has 3,
+        // but B has the best goal difference (+3), then A (+1) and C (0)
+        assertThat(teamNames(table.getTally(List.of(Tiebreaker.HEAD_TO_HEAD_POINTS))), is(equalTo(List.of("Team D", "Team A", "Team C", "Team B", "Team E"))));
+        assertThat(teamNames(table.getTally(List.of(Tiebreaker.GOAL_DIFFERENCE))), is(equalTo(List.of("Team D", "Team B", "Team A", "Team C", "Team E"))));
+        // A and B have a win each and C has none
+        assertThat(teamNames(table.getTally()), is(equalTo(List.of("Team D", "Team A", "Team B", "Team C", "Team E"))));
+    }
+
+    // in a cycle of wins, head-to-head tiebreakers only count the games between the teams still level when they are applied
+    @Test
+    public void three_way_tie_in_a_cycle_counts_head_to_head_among_teams_still_level() throws Exception {
+        Team alpha = Team.builder().name("Alpha").build();
+        Team bravo = Team.builder().name("Bravo").build();
+        Team charlie = Team.builder().name("Charlie").build();
+        StandingsTable table = new StandingsTable(Arrays.asList(alpha, bravo, charlie));
+        addScoredGame(table, alpha, 3, charlie, 0);
+        addScoredGame(table, charlie, 2, bravo, 0);
+        addScoredGame(table, bravo, 1, alpha, 0);
+
+        // every team has a win and a loss, so head-to-head points are level for all three; head-to-head goal difference
+        // puts alpha (+2) ahead of charlie and bravo (-1), who are level and then ordered by name
+        assertThat(teamNames(table.getTally(List.of(Tiebreaker.HEAD_TO_HEAD_POINTS, Tiebreaker.HEAD_TO_HEAD_GOAL_DIFFERENCE))),
+                        is(equalTo(List.of("Alpha", "Bravo", "Charlie"))));
+        // with head-to-head points second, only the game between charlie and bravo is counted, which charlie won
+        assertThat(teamNames(table.getTally(List.of(Tiebreaker.HEAD_TO_HEAD_GOAL_DIFFERENCE, Tiebreaker.HEAD_TO_HEAD_POINTS))),
+                        is(equalTo(List.of("Alpha", "Charlie", "Bravo"))));
+        assertThat(teamNames(table.getTally(List.of(Tiebreaker.GOALS_SCORED))), is(equalTo(List.of("Alpha", "Charlie", "Bravo"))));
+        assertThat(teamNames(table.getTally()), is(equalTo(List.of("Alpha", "Bravo", "Charlie"))));
+        assertThat(table.getGoalsFor(0), is(equalTo(3)));
+        assertThat(table.getGoalsAgainst(0), is(equalTo(1)));
+    }
+
+    @Test
+    public void tiebreakers_are_parsed_from_names() {
+        assertThat(Tiebreaker.parse("goal-difference, HEAD_TO_HEAD_POINTS,wins"), is(equalTo(List.of(Tiebreaker.GOAL_DIFFERENCE, Tiebreaker.HEAD_TO_HEAD_POINTS, Tiebreaker.WINS))));
+        assertThat(Tiebreaker.parse(""), is(equalTo(List.of())));
+    }
+
+    private static void addScoredGame(StandingsTable table, Team team1, int team1Points, Team team2, int team2Points) throws Exception {
+        Game game = Game.builder().teams(Arrays.asList(team1, team2)).build();
+        game.setScore(team1, team1Points, team2, team2Points);
+        table.addGame(game);
+    }
+
+    private static List<String> teamNames(List<Tally> tallies) {
+        return tallies.stream().map(Tally::getTeamName).collect(Collectors.toList());
+    }
+}
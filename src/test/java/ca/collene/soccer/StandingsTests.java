@@ -0,0 +1,99 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.Standings;
+import ca.collene.soccer.models.Tally;
+import ca.collene.soccer.models.Tally.TallyType;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class StandingsTests {
+    @Test
+    public void new_game_counts_as_unscored_for_both_teams() {
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        Standings standings = new Standings();
+        standings.addTeam(team1Name);
+        standings.addTeam(team2Name);
+        standings.addGame(team1Name, team2Name);
+
+        List<Tally> tallies = standings.getTally();
+        assertThat(tallies, hasSize(2));
+        assertThat(tallies.get(0), is(equalTo(Tally.builder().teamName(team1Name).unscored(1L).build())));
+        assertThat(tallies.get(1), is(equalTo(Tally.builder().teamName(team2Name).unscored(1L).build())));
+    }
+
+    @Test
+    public void corrected_result_reverses_previous_result() {
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        Standings standings = new Standings();
+        standings.addTeam(team1Name);
+        standings.addTeam(team2Name);
+        standings.addGame(team1Name, team2Name);
+        standings.recordResult(team1Name, TallyType.UNSCORED, TallyType.WIN);
+        standings.recordResult(team2Name, TallyType.UNSCORED, TallyType.LOSS);
+        // the score is corrected to a tie
+        standings.recordResult(team1Name, TallyType.WIN, TallyType.TIE);
+        standings.recordResult(team2Name, TallyType.LOSS, TallyType.TIE);
+
+        List<Tally> tallies = standings.getTally();
+        assertThat(tallies.get(0), is(equalTo(Tally.builder().teamName(team1Name).ties(1L).build())));
+        assertThat(tallies.get(1), is(equalTo(Tally.builder().teamName(team2Name).ties(1L).build())));
+    }
+
+    @Test
+    public void tally_is_sorted_by_total_and_matches_works() {
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        Standings standings = new Standings();
+        standings.addTeam(team1Name);
+        standings.addTeam(team2Name);
+        standings.addGame(team1Name, team2Name);
+        standings.recordResult(team1Name, TallyType.UNSCORED, TallyType.LOSS);
+        standings.recordResult(team2Name, TallyType.UNSCORED, TallyType.WIN);
+
+        List<Tally> tallies = standings.getTally();
+        assertThat(tallies.get(0).getTeamName(), is(equalTo(team2Name)));
+        assertThat(tallies.get(1).getTeamName(), is(equalTo(team1Name)));
+        assertTrue(standings.matches(tallies));
+        assertTrue(new Standings(tallies).matches(tallies));
+
+        tallies.get(0).setWins(2L);
+        assertFalse(standings.matches(tallies));
+    }
+
+    // the top of the standings kept in a heap is the same as the top of the sorted standings
+    @Test
+    public void top_of_tally_matches_sorted_tally() {
+        Standings standings = new Standings();
+        for(int i = 0; i < 20; i++) {
+            standings.addTeam("Team " + i);
+        }
+        for(int i = 0; i < 20; i++) {
+            standings.addGame("Team " + i, "Team " + (i * 7 + 3) % 20);
+            standings.recordResult("Team " + i, TallyType.UNSCORED, i % 3 == 0 ? TallyType.WIN : TallyType.TIE);
+            standings.recordResult("Team " + (i * 7 + 3) % 20, TallyType.UNSCORED, i % 3 == 0 ? TallyType.LOSS : TallyType.TIE);
+        }
+
+        List<Tally> tallies = standings.getTally();
+        assertThat(standings.getTally(0, 5), is(equalTo(tallies.subList(0, 5))));
+        assertThat(standings.getTally(15, 10), is(equalTo(tallies.subList(15, 20))));
+        assertThat(standings.getTally(20, 10), hasSize(0));
+    }
+}
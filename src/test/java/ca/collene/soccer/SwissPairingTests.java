@@ -0,0 +1,111 @@
+package ca.collene.soccer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.shell.jline.InteractiveShellApplicationRunner;
+import org.springframework.shell.jline.ScriptShellApplicationRunner;
+
+import ca.collene.soccer.models.SwissPairing;
+
+@SpringBootTest(properties = {
+    InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
+    ScriptShellApplicationRunner.SPRING_SHELL_SCRIPT_ENABLED + "=false"
+})
+public class SwissPairingTests {
+    // with every team level, the top half plays the bottom half in order
+    @Test
+    public void first_round_pairs_top_half_against_bottom_half() {
+        List<Integer> teams = teams(8);
+        SwissPairing<Integer> pairing = new SwissPairing<>(1, teams, new long[8], new int[8], (team1, team2) -> false);
+
+        assertThat(games(pairing), is(equalTo(List.of(List.of(0, 4), List.of(1, 5), List.of(2, 6), List.of(3, 7)))));
+        assertThat(pairing.getBye(), is(nullValue()));
+    }
+
+    // two leaders who have already met both float down, and play the top of the next group
+    @Test
+    public void teams_that_have_met_float_to_the_next_group() {
+        Set<Long> played = Set.of(pair(0, 1));
+        SwissPairing<Integer> pairing = new SwissPairing<>(2, teams(4), new long[] {6, 6, 0, 0}, new int[4], (team1, team2) -> played.contains(pair(team1, team2)));
+
+        assertThat(games(pairing), is(equalTo(List.of(List.of(0, 2), List.of(1, 3)))));
+        assertThat(pairing.getRematches(), is(equalTo(0)));
+    }
+
+    // the last two teams have met, so one game above is broken up to make room for them
+    @Test
+    public void last_teams_that_have_met_are_swapped_into_games_above() {
+        Set<Long> played = Set.of(pair(4, 5));
+        SwissPairing<Integer> pairing = new SwissPairing<>(2, teams(6), new long[] {3, 3, 3, 3, 0, 0}, new int[6], (team1, team2) -> played.contains(pair(team1, team2)));
+
+        List<List<Integer>> games = games(pairing);
+        assertThat(games.size(), is(equalTo(3)));
+        assertThat(pairing.getRematches(), is(equalTo(0)));
+        assertFalse(games.contains(List.of(4, 5)));
+        assertThat(games.stream().flatMap(List::stream).collect(Collectors.toSet()), is(equalTo(Set.copyOf(teams(6)))));
+    }
+
+    // over several rounds of an odd field, nobody plays twice in a round, nobody meets the same team twice, and nobody gets two byes
+    @Test
+    public void rounds_avoid_rematches_and_repeat_byes() {
+        final int teams = 101;
+        final int rounds = 7;
+        long[] points = new long[teams];
+        int[] gamesPlayed = new int[teams];
+        Set<Long> played = new HashSet<>();
+        Set<Integer> byes = new HashSet<>();
+        List<Integer> order = teams(teams);
+        for(int round = 1; round <= rounds; round++) {
+            // the standings order, by points and then by number
+            List<Integer> standings = new ArrayList<>(order);
+            standings.sort((team1, team2) -> points[team1] != points[team2] ? Long.compare(points[team2], points[team1]) : Integer.compare(team1, team2));
+            long[] standingsPoints = standings.stream().mapToLong(team -> points[team]).toArray();
+            int[] standingsGames = standings.stream().mapToInt(team -> gamesPlayed[team]).toArray();
+
+            SwissPairing<Integer> pairing = new SwissPairing<>(round, standings, standingsPoints, standingsGames, (team1, team2) -> played.contains(pair(team1, team2)));
+
+            assertThat(pairing.getRematches(), is(equalTo(0)));
+            assertTrue(byes.add(pairing.getBye()));
+            Set<Integer> playing = new HashSet<>();
+            pairing.forEachGame((team1, team2) -> {
+                assertTrue(playing.add(team1));
+                assertTrue(playing.add(team2));
+                assertTrue(played.add(pair(team1, team2)));
+                // the lower number always wins
+                points[Math.min(team1, team2)] += 3;
+                points[Math.max(team1, team2)] += 1;
+                gamesPlayed[team1]++;
+                gamesPlayed[team2]++;
+            });
+            assertThat(playing.size(), is(equalTo(teams - 1)));
+        }
+    }
+
+    private static List<Integer> teams(int teams) {
+        return IntStream.range(0, teams).boxed().collect(Collectors.toList());
+    }
+
+    private static long pair(int team1, int team2) {
+        return (long) Math.min(team1, team2) << 32 | Math.max(team1, team2);
+    }
+
+    private static List<List<Integer>> games(SwissPairing<Integer> pairing) {
+        List<List<Integer>> games = new ArrayList<>();
+        pairing.forEachGame((team1, team2) -> games.add(List.of(team1, team2)));
+        return games;
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.shell.jline.InteractiveShellApplicationRunner;
 import org.springframework.shell.jline.ScriptShellApplicationRunner;
 
+import ca.collene.soccer.entities.PointsScheme;
 import ca.collene.soccer.models.Tally;
 import ca.collene.soccer.models.Tally.TallyType;
 
@@ -50,4 +51,13 @@ public class TallyTests {
         Tally tally = new Tally(teamName, tallyTypes);
         assertThat(tally.getTotal(), is(equalTo(13L)));
     }
+
+    @Test
+    public void tally_total_uses_points_scheme() {
+        Tally tally = Tally.builder().teamName("Team").wins(3L).ties(2L).losses(4L).unscored(1L)
+                            .pointsScheme(new PointsScheme(3, 1, 0))
+                        .build();
+        assertThat(tally.getTotal(), is(equalTo(11L)));
+        assertThat(new Tally("Team", 3L, 2L, 4L, 1L).getTotal(), is(equalTo(17L)));
+    }
 }
@@ -69,6 +69,20 @@ public class TeamServiceTests {
         assertThat(teamRepository.count(), is(equalTo(1L)));
     }
 
+    // a name that only differs in case, accents or spacing is the same name, for teams and for people
+    @Test
+    public void name_in_another_spelling_is_the_same_name() throws Exception {
+        Team team = teamService.createTeam("Ladybugs");
+        assertThat(teamService.getTeam("  LADYBUGS "), is(equalTo(team)));
+        assertThrows(NameAlreadyExistsException.class, () -> teamService.createTeam("ladybugs"));
+        assertThat(teamService.getOrCreateTeam("LadyBugs").getName(), is(equalTo("Ladybugs")));
+        assertThat(teamRepository.count(), is(equalTo(1L)));
+
+        Person person = personService.createPerson("Zoë Ünal");
+        assertThat(personService.getPerson("zoe\tunal"), is(equalTo(person)));
+        assertThrows(NameAlreadyExistsException.class, () -> personService.createPerson("ZOE UNAL"));
+    }
+
     @Test
     public void create_team_with_duplicate_name_fails() throws Exception {
         final String sameTeamName = "Test team";
@@ -6,10 +6,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIn.in;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,14 +21,21 @@ import org.springframework.shell.jline.InteractiveShellApplicationRunner;
 import org.springframework.shell.jline.ScriptShellApplicationRunner;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import ca.collene.soccer.entities.Game;
+import ca.collene.soccer.entities.PointsScheme;
 import ca.collene.soccer.entities.Team;
 import ca.collene.soccer.entities.Tournament;
+import ca.collene.soccer.models.Elimination;
+import ca.collene.soccer.models.NameKey;
+import ca.collene.soccer.models.Tally;
 import ca.collene.soccer.repositories.TournamentRepository;
 import ca.collene.soccer.services.GameAlreadyInTournamentException;
 import ca.collene.soccer.services.GameDoesNotExistException;
 import ca.collene.soccer.services.InvalidGameException;
+import ca.collene.soccer.services.InvalidPointsSchemeException;
 import ca.collene.soccer.services.InvalidScoreException;
 import ca.collene.soccer.services.NameAlreadyExistsException;
 import ca.collene.soccer.services.TeamAlreadyInTournamentException;
@@ -48,6 +59,9 @@ public class TournamentServiceTests {
 
     @Autowired
     private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
     @Test
     public void create_tournament_works() throws Exception {
@@ -72,6 +86,26 @@ public class TournamentServiceTests {
         assertThat(tournamentRepository.count(), is(equalTo(1L)));
     }
 
+    // the tournament and its teams are found in any spelling, and its standings keep the names they were created with
+    @Test
+    public void tournament_and_teams_are_found_in_any_spelling() throws Exception {
+        tournamentService.createTournament("Spring Cup");
+        tournamentService.addGameToTournament("Ladybugs", "Hornets", "Spring Cup");
+        assertThat(tournamentService.getStandings("spring cup").getTally().size(), is(equalTo(2)));
+
+        tournamentService.scoreGameInTournament("HORNETS", 2, "ladybugs", 1, "SPRING  CUP");
+        tournamentService.addTeamToTournament("Wasps", "Spring Cup");
+        assertThrows(TeamAlreadyInTournamentException.class, () -> tournamentService.addTeamToTournament("wasps", "Spring Cup"));
+
+        List<Tally> tally = tournamentService.getStandings("Spring Cup").getTally();
+        assertThat(tally.size(), is(equalTo(3)));
+        assertThat(tally.get(0).getTeamName(), is(equalTo("Hornets")));
+        assertThat(tally.get(0).getWins(), is(equalTo(1L)));
+        assertThat(tally.get(1).getTeamName(), is(equalTo("Ladybugs")));
+        assertThat(tally.get(1).getLosses(), is(equalTo(1L)));
+        assertTrue(tournamentService.rebuildStandings(tournamentService.getTournament("Spring Cup")));
+    }
+
     @Test
     public void get_tournament_by_name_works() throws Exception {    
         final String tournamentName = "Test tournament";
@@ -475,4 +509,280 @@ public class TournamentServiceTests {
         assertThat(tournament.getTeams(), is(empty()));
         assertThrows(TeamDoesNotExistException.class, () -> teamService.getTeam(team1Name));
     }
+
+    // scoring a game by the name of the tournament writes only the game and fails the same ways as scoring a loaded tournament
+    @Test
+    public void score_game_by_tournament_name_works() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+
+        tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournamentName);
+        teamService.createTeam(team3Name);
+
+        tournamentService.scoreGameInTournament(team2Name, 3, team1Name, 1, tournamentName);
+        Game game = tournamentService.getTournament(tournamentName).getGames().get(0);
+        assertThat(game.getPointsForTeam(teamService.getTeam(team1Name)), is(equalTo(1)));
+        assertThat(game.getPointsForTeam(teamService.getTeam(team2Name)), is(equalTo(3)));
+
+        assertThrows(TournamentDoesNotExistException.class, () -> tournamentService.scoreGameInTournament(team1Name, 1, team2Name, 2, "Other tournament"));
+        assertThrows(TeamDoesNotExistException.class, () -> tournamentService.scoreGameInTournament(team1Name, 1, "Team Four", 2, tournamentName));
+        assertThrows(GameDoesNotExistException.class, () -> tournamentService.scoreGameInTournament(team1Name, 1, team3Name, 2, tournamentName));
+        assertThrows(InvalidScoreException.class, () -> tournamentService.scoreGameInTournament(team1Name, -1, team2Name, 2, tournamentName));
+
+        game = tournamentService.getTournament(tournamentName).getGames().get(0);
+        assertThat(game.getPointsForTeam(teamService.getTeam(team1Name)), is(equalTo(1)));
+        assertThat(game.getPointsForTeam(teamService.getTeam(team2Name)), is(equalTo(3)));
+    }
+
+    // getting the games for a team works
+    @Test
+    public void get_games_for_team_works() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+
+        Tournament tournament = tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team3Name, tournament);
+        tournamentService.addGameToTournament(team2Name, team3Name, tournament);
+        tournamentService.scoreGameInTournament(team1Name, 1, team2Name, 1, tournament);
+
+        assertThat(tournamentService.getGamesForTeam(team1Name, tournament), hasSize(2));
+        assertThat(tournamentService.getUnscoredGamesForTeam(team1Name, tournament), hasSize(1));
+        assertThat(tournamentService.getUnscoredGamesForTeam(team3Name, tournament), hasSize(2));
+        assertThrows(TeamDoesNotExistException.class, () -> tournamentService.getGamesForTeam("Team Four", tournament));
+    }
+
+    // standings kept up to date by each command match a full recompute from the games
+    @Test
+    public void standings_updated_by_commands_match_full_recompute() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        final String team4Name = "Team Four";
+
+        Tournament tournament = tournamentService.createTournament(tournamentName);
+        // build the standings before anything is added so that every command updates them
+        assertThat(tournamentService.getStandings(tournament).getTally(), is(empty()));
+
+        tournamentService.addTeamToTournament(team4Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team3Name, tournament);
+        tournamentService.addGameToTournament(team2Name, team3Name, tournament);
+        tournamentService.scoreGameInTournament(team1Name, 2, team2Name, 1, tournament);
+        tournamentService.scoreGameInTournament(team3Name, 0, team1Name, 0, tournament);
+        assertThat(tournamentService.getStandings(tournament).getTally(), is(equalTo(tournament.getTally())));
+
+        // correcting a score replaces the previous result
+        tournamentService.scoreGameInTournament(team1Name, 1, team2Name, 3, tournament);
+        tournamentService.scoreGameInTournament(team1Name, 1, team3Name, 4, tournament);
+        assertThat(tournamentService.getStandings(tournament).getTally(), is(equalTo(tournament.getTally())));
+
+        // a score that fails does not change the standings
+        assertThrows(InvalidScoreException.class, () -> tournamentService.scoreGameInTournament(team2Name, -1, team3Name, 1, tournament));
+        assertThat(tournamentService.getStandings(tournament).getTally(), is(equalTo(tournament.getTally())));
+
+        assertTrue(tournamentService.rebuildStandings(tournament));
+    }
+
+    // a score rolled back after the standings were updated leaves them as they were
+    @Test
+    public void rolled_back_score_does_not_change_standings() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+
+        tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournamentName);
+        // build the standings so that the score updates them
+        List<Tally> before = tournamentService.getStandings(tournamentName).getTally();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                tournamentService.scoreGameInTournament(team1Name, 2, team2Name, 0, tournamentName);
+            } catch(Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(equalTo(before)));
+        assertThat(tournamentService.getStandings(tournamentName).getTally().get(0).getUnscored(), is(equalTo(1L)));
+    }
+
+    // standings counted by the database match the full recompute from the games
+    @Test
+    public void standings_query_matches_full_recompute() throws Exception {
+        final String tournamentName = "Tournament";
+        final String otherTournamentName = "Other Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        final String team4Name = "Team Four";
+        final String team5Name = "Team Five";
+
+        Tournament tournament = tournamentService.createTournament(tournamentName);
+        tournamentService.addTeamToTournament(team5Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team3Name, tournament);
+        tournamentService.addGameToTournament(team1Name, team4Name, tournament);
+        tournamentService.addGameToTournament(team2Name, team3Name, tournament);
+        tournamentService.addGameToTournament(team3Name, team4Name, tournament);
+        tournamentService.scoreGameInTournament(team1Name, 2, team2Name, 1, tournament);
+        tournamentService.scoreGameInTournament(team3Name, 1, team1Name, 1, tournament);
+        tournamentService.scoreGameInTournament(team2Name, 0, team3Name, 3, tournament);
+        tournamentService.scoreGameInTournament(team4Name, 5, team3Name, 0, tournament);
+
+        // games between the same teams in another tournament are not counted
+        Tournament otherTournament = tournamentService.createTournament(otherTournamentName);
+        tournamentService.addGameToTournament(team1Name, team2Name, otherTournament);
+        tournamentService.scoreGameInTournament(team2Name, 4, team1Name, 0, otherTournament);
+
+        List<Tally> expected = tournamentService.getTournament(tournamentName).getTally();
+        List<Tally> tallies = tournamentRepository.findTallyByNameKey(NameKey.of(tournamentName));
+        assertThat(tallies, containsInAnyOrder(expected.toArray()));
+        for(int i = 1; i < tallies.size(); i++) {
+            assertThat(tallies.get(i).getTotal(), is(lessThanOrEqualTo(tallies.get(i - 1).getTotal())));
+        }
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), containsInAnyOrder(expected.toArray()));
+    }
+
+    // pages of the standings read from the database and from the standings kept in memory are the same slices of the full standings
+    @Test
+    public void standings_pages_match_full_standings() throws Exception {
+        final String tournamentName = "Tournament";
+        tournamentService.createTournament(tournamentName);
+        // six teams in a circle, every team with one win and one loss, and a tie between two of them
+        for(int i = 0; i < 6; i++) {
+            tournamentService.addGameToTournament("Team " + i, "Team " + (i + 1) % 6, tournamentName);
+            tournamentService.scoreGameInTournament("Team " + i, 1, "Team " + (i + 1) % 6, 0, tournamentName);
+        }
+        tournamentService.addGameToTournament("Team 0", "Team 3", tournamentName);
+        tournamentService.scoreGameInTournament("Team 0", 2, "Team 3", 2, tournamentName);
+
+        List<Tally> expected = tournamentService.getTournament(tournamentName).getTally();
+        assertThat(tournamentRepository.findTallyByNameKey(NameKey.of(tournamentName)), is(equalTo(expected)));
+        List<List<Tally>> pagesFromDatabase = List.of(tournamentService.getStandings(tournamentName, 0, 4),
+                                                    tournamentService.getStandings(tournamentName, 4, 4));
+        tournamentService.getStandings(tournamentName);
+        List<List<Tally>> pagesFromMemory = List.of(tournamentService.getStandings(tournamentName, 0, 4),
+                                                    tournamentService.getStandings(tournamentName, 4, 4));
+        for(List<List<Tally>> pages : List.of(pagesFromDatabase, pagesFromMemory)) {
+            assertThat(pages.get(0), is(equalTo(expected.subList(0, 4))));
+            assertThat(pages.get(1), is(equalTo(expected.subList(4, 6))));
+        }
+        assertThat(tournamentService.getStandings(tournamentName, 6, 4), is(empty()));
+        assertThat(expected.get(0).getTeamName(), is(equalTo("Team 0")));
+        assertThat(expected.get(1).getTeamName(), is(equalTo("Team 3")));
+    }
+
+    // changing the points of a tournament counts its standings again with the new points, in memory and in the database
+    @Test
+    public void set_points_scheme_recounts_standings() throws Exception {
+        final String tournamentName = "Tournament";
+        tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament("Team One", "Team Two", tournamentName);
+        tournamentService.addGameToTournament("Team One", "Team Three", tournamentName);
+        tournamentService.addGameToTournament("Team Two", "Team Three", tournamentName);
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Two", 1, tournamentName);
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Three", 1, tournamentName);
+        tournamentService.scoreGameInTournament("Team Two", 0, "Team Three", 1, tournamentName);
+        // with the default points team one has two ties (4 points) and team three a win and a tie (5 points)
+        assertThat(tournamentService.getStandings(tournamentName).getTally().get(0).getTeamName(), is(equalTo("Team Three")));
+        assertThat(tournamentService.getStandings(tournamentName).getTally().get(1).getTotal(), is(equalTo(4L)));
+
+        PointsScheme pointsScheme = new PointsScheme(1, 2, 0);
+        tournamentService.setPointsScheme(tournamentName, pointsScheme);
+
+        // with 1 point for a win and 2 for a tie team one has 4 points and team three 3
+        Tournament tournament = tournamentService.getTournament(tournamentName);
+        assertThat(tournament.getPointsScheme(), is(equalTo(pointsScheme)));
+        List<Tally> expected = tournament.getTally();
+        assertThat(expected.get(0).getTeamName(), is(equalTo("Team One")));
+        assertThat(expected.get(0).getTotal(), is(equalTo(4L)));
+        assertThat(expected.get(1).getTotal(), is(equalTo(3L)));
+        assertThat(tournamentRepository.findTallyByNameKey(NameKey.of(tournamentName)), is(equalTo(expected)));
+        assertThat(tournamentService.getStandings(tournamentName, 0, 2), is(equalTo(expected.subList(0, 2))));
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(equalTo(expected)));
+        assertTrue(tournamentService.rebuildStandings(tournament));
+    }
+
+    // a tournament without teams still has its points when its teams are added to the standings
+    @Test
+    public void set_points_scheme_applies_to_teams_added_later() throws Exception {
+        final String tournamentName = "Tournament";
+        tournamentService.createTournament(tournamentName);
+        tournamentService.setPointsScheme(tournamentName, new PointsScheme(2, 1, 0));
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(empty()));
+        tournamentService.addGameToTournament("Team One", "Team Two", tournamentName);
+        tournamentService.scoreGameInTournament("Team One", 2, "Team Two", 0, tournamentName);
+
+        assertThat(tournamentService.getStandings(tournamentName).getTally().get(0).getTotal(), is(equalTo(2L)));
+        assertThat(tournamentService.getStandings(tournamentName).getTally(), is(equalTo(tournamentService.getTournament(tournamentName).getTally())));
+    }
+
+    @Test
+    public void set_invalid_points_scheme_fails() {
+        assertThrows(TournamentDoesNotExistException.class, () -> tournamentService.setPointsScheme("Tournament that does not exist", new PointsScheme(3, 1, 0)));
+        assertThrows(InvalidPointsSchemeException.class, () -> tournamentService.setPointsScheme("Tournament", new PointsScheme(3, -1, 0)));
+    }
+
+    // the largest total has to fit the sort keys of the standings and of season simulations
+    @Test
+    public void points_scheme_above_the_maximum_fails() throws Exception {
+        tournamentService.createTournament("Tournament");
+        tournamentService.setPointsScheme("Tournament", new PointsScheme(PointsScheme.MAXIMUM_POINTS, 0, 0));
+        assertThrows(InvalidPointsSchemeException.class, () -> tournamentService.setPointsScheme("Tournament", new PointsScheme(PointsScheme.MAXIMUM_POINTS + 1, 1, 0)));
+        assertThrows(InvalidPointsSchemeException.class, () -> tournamentService.setPointsScheme("Tournament", new PointsScheme(3, 1, Integer.MAX_VALUE)));
+        assertThat(tournamentService.getTournament("Tournament").getPointsScheme(), is(equalTo(new PointsScheme(PointsScheme.MAXIMUM_POINTS, 0, 0))));
+    }
+
+    @Test
+    public void get_standings_for_tournament_that_does_not_exist_fails() {
+        assertThrows(TournamentDoesNotExistException.class, () -> tournamentService.getStandings("Tournament that does not exist"));
+    }
+
+    // rebuilding standings that are out of date replaces them with the full recompute
+    @Test
+    public void rebuild_standings_replaces_out_of_date_standings() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+
+        Tournament tournament = tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament(team1Name, team2Name, tournament);
+        tournamentService.getStandings(tournament);
+        // change the tournament without going through the service
+        tournament.scoreGame(teamService.getTeam(team1Name), 1, teamService.getTeam(team2Name), 0);
+
+        assertFalse(tournamentService.rebuildStandings(tournament));
+        assertThat(tournamentService.getStandings(tournament).getTally(), is(equalTo(tournament.getTally())));
+    }
+
+    // with the tournament's points a win is worth more than two ties, so the second team can't catch up in its one game left
+    @Test
+    public void get_elimination_uses_the_tournament_points() throws Exception {
+        final String tournamentName = "Tournament";
+        tournamentService.createTournament(tournamentName);
+        tournamentService.addGameToTournament("Team One", "Team Two", tournamentName);
+        tournamentService.addGameToTournament("Team One", "Team Three", tournamentName);
+        tournamentService.addGameToTournament("Team Two", "Team Three", tournamentName);
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Two", 0, tournamentName);
+        tournamentService.scoreGameInTournament("Team One", 1, "Team Three", 0, tournamentName);
+        tournamentService.setPointsScheme(tournamentName, new PointsScheme(5, 1, 0));
+
+        Elimination elimination = tournamentService.getElimination(tournamentName);
+
+        assertThat(elimination.size(), is(equalTo(3)));
+        assertThat(elimination.getPoints(0), is(equalTo(10)));
+        assertFalse(elimination.isEliminated(0));
+        assertTrue(elimination.isEliminated(1));
+        assertTrue(elimination.isEliminated(2));
+        assertThrows(TournamentDoesNotExistException.class, () -> tournamentService.getElimination("Tournament that does not exist"));
+    }
 }
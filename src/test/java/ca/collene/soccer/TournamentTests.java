@@ -2,13 +2,17 @@ package ca.collene.soccer;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +21,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.shell.jline.InteractiveShellApplicationRunner;
 import org.springframework.shell.jline.ScriptShellApplicationRunner;
 
+import ca.collene.soccer.entities.Game;
 import ca.collene.soccer.entities.Team;
 import ca.collene.soccer.entities.Tournament;
 import ca.collene.soccer.models.Tally;
 import ca.collene.soccer.models.Tally.TallyType;
+import ca.collene.soccer.services.GameDoesNotExistException;
 
 @SpringBootTest(properties = {
     InteractiveShellApplicationRunner.SPRING_SHELL_INTERACTIVE_ENABLED + "=false",
@@ -69,6 +75,46 @@ public class TournamentTests {
         assertFalse(tournament.hasGameWithTeams(team3, team2));
     }
 
+    // get game finds the game with the teams in either order
+    @Test
+    public void get_game_works_in_either_team_order() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        Tournament tournament = Tournament.builder().name(tournamentName).build();
+        Team team1 = Team.builder().name(team1Name).build();
+        Team team2 = Team.builder().name(team2Name).build();
+        Team team3 = Team.builder().name(team3Name).build();
+        tournament.addGame(team1, team2);
+        tournament.addGame(team2, team3);
+
+        Game game = tournament.getGames().get(0);
+        assertThat(tournament.getGame(team1, team2), is(sameInstance(game)));
+        assertThat(tournament.getGame(team2, team1), is(sameInstance(game)));
+        assertThrows(GameDoesNotExistException.class, () -> tournament.getGame(team1, team3));
+    }
+
+    // games that are loaded into the game list without addGame can still be found
+    @Test
+    public void get_game_works_for_games_not_added_through_tournament() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        Tournament tournament = Tournament.builder().name(tournamentName).build();
+        Team team1 = Team.builder().name(team1Name).build();
+        Team team2 = Team.builder().name(team2Name).build();
+        Team team3 = Team.builder().name(team3Name).build();
+        tournament.addGame(team1, team2);
+        assertFalse(tournament.hasGameWithTeams(team3, team1));
+
+        Game game = Game.builder().teams(Arrays.asList(team1, team3)).build();
+        tournament.getGames().add(game);
+        assertTrue(tournament.hasGameWithTeams(team3, team1));
+        assertThat(tournament.getGame(team3, team1), is(sameInstance(game)));
+    }
+
     // get team games works
     @Test
     public void get_games_for_team_works() throws Exception {
@@ -97,6 +143,30 @@ public class TournamentTests {
         assertThat(tournament.getGamesForTeam(team5), is(empty()));
     }
 
+    // get unscored games for team works
+    @Test
+    public void get_unscored_games_for_team_works() throws Exception {
+        final String tournamentName = "Tournament";
+        final String team1Name = "Team One";
+        final String team2Name = "Team Two";
+        final String team3Name = "Team Three";
+        final String team4Name = "Team Four";
+        Tournament tournament = Tournament.builder().name(tournamentName).build();
+        Team team1 = Team.builder().name(team1Name).build();
+        Team team2 = Team.builder().name(team2Name).build();
+        Team team3 = Team.builder().name(team3Name).build();
+        Team team4 = Team.builder().name(team4Name).build();
+        tournament.addGame(team1, team2);
+        tournament.addGame(team1, team3);
+        tournament.addGame(team3, team2);
+        tournament.scoreGame(team1, 1, team2, 0);
+
+        assertThat(tournament.getUnscoredGamesForTeam(team1), contains(tournament.getGame(team1, team3)));
+        assertThat(tournament.getUnscoredGamesForTeam(team2), contains(tournament.getGame(team2, team3)));
+        assertThat(tournament.getUnscoredGamesForTeam(team3), hasSize(2));
+        assertThat(tournament.getUnscoredGamesForTeam(team4), is(empty()));
+    }
+
     @Test
     public void get_tally_types_for_team_works() throws Exception {
         final String tournamentName = "Tournament";
@@ -183,12 +253,12 @@ public class TournamentTests {
         List<Tally> tallies = tournament.getTally();
         assertThat(tallies, hasSize(5));
 
-        // in this case, our tally sort order matters
-        Tally team1Tally = tallies.get(3);
+        // in this case, our tally sort order matters; team 1 and team 5 both have 3 points, but team 5 has a win
+        Tally team1Tally = tallies.get(4);
         Tally team2Tally = tallies.get(2);
         Tally team3Tally = tallies.get(1);
         Tally team4Tally = tallies.get(0);
-        Tally team5Tally = tallies.get(4);
+        Tally team5Tally = tallies.get(3);
 
         for(Tally tally: tallies) {
             log.debug(tally.toString());